@@ -2,23 +2,27 @@ package it.univaq.disim.lpo.risiko.core;
 
 import java.io.Closeable;
 import java.io.IOException;
-import java.util.Scanner;
+import it.univaq.disim.lpo.risiko.core.input.InputTerminatoException;
+import it.univaq.disim.lpo.risiko.core.input.SorgenteInput;
 import it.univaq.disim.lpo.risiko.core.utils.OutputUtils;
+import it.univaq.disim.lpo.risiko.core.utils.Uscita;
 
 /**
- * Classe Singleton per gestire l'input dell'utente tramite Scanner.
+ * Classe Singleton per gestire l'input dell'utente.
+ * Le righe vengono lette dalla SorgenteInput impostata, la console se non indicata.
+ * Quando la sorgente termina viene lanciata un'InputTerminatoException.
  */
 public class InputManagerSingleton implements Closeable {
 
-    private Scanner scanner;
+    private volatile SorgenteInput sorgente;
     private static InputManagerSingleton instance = null;
 
     /**
      * Costruttore privato per prevenire l'instanziazione.
-     * Inizializza lo Scanner.
+     * Legge dalla console.
      */
     private InputManagerSingleton() {
-        scanner = new Scanner(System.in);
+        sorgente = SorgenteInput.console();
     }
 
     /**
@@ -38,19 +42,26 @@ public class InputManagerSingleton implements Closeable {
     }
 
     /**
-     * Ottiene l'istanza dello Scanner.
+     * Imposta la sorgente da cui leggere le righe.
      *
-     * @return l'istanza dello Scanner.
+     * @param nuovaSorgente la sorgente da usare.
      */
-    public Scanner getScanner() {
-        return scanner;
+    public void setSorgente(SorgenteInput nuovaSorgente) {
+        if (nuovaSorgente == null) {
+            throw new IllegalArgumentException("La sorgente dell'input non può essere null.");
+        }
+        sorgente = nuovaSorgente;
+    }
+
+    public SorgenteInput getSorgente() {
+        return sorgente;
     }
 
     /**
-     * Chiude la risorsa Scanner.
+     * Chiude la sorgente dell'input.
      */
     public void disposeScanner() {
-        scanner.close();
+        sorgente.close();
     }
 
     /**
@@ -60,7 +71,29 @@ public class InputManagerSingleton implements Closeable {
      */
     @Override
     public void close() throws IOException {
-        scanner.close();
+        sorgente.close();
+    }
+
+    /**
+     * Legge la prossima riga dalla sorgente. Le righe che non arrivano dalla tastiera
+     * vengono ripetute sull'output, come l'eco del terminale per quelle digitate.
+     *
+     * @return la riga letta.
+     * @throws InputTerminatoException se la sorgente non ha più righe.
+     */
+    private String nextLine() {
+        SorgenteInput corrente = sorgente;
+        String riga = corrente.leggiRiga();
+        if (riga == null) {
+            throw new InputTerminatoException("Non ci sono altre righe da leggere.");
+        }
+        if (!corrente.isInterattiva()) {
+            Uscita uscita = OutputUtils.getUscita();
+            if (uscita.isAttiva()) {
+                uscita.scrivi(riga + "\n");
+            }
+        }
+        return riga;
     }
 
     /**
@@ -72,7 +105,7 @@ public class InputManagerSingleton implements Closeable {
     public Integer readInteger() {
         while (true) {
             try {
-                int value = Integer.parseInt(scanner.nextLine());
+                int value = Integer.parseInt(nextLine());
                 return value;
             } catch (NumberFormatException e) {
                 OutputUtils.println("\nInput non valido. Inserisci un numero.", OutputUtils.ANSI_RED, OutputUtils.ANSI_BOLD);
@@ -92,7 +125,7 @@ public class InputManagerSingleton implements Closeable {
     public Integer readIntegerUntilPossibleValue(Integer[] possibleValues) {
         while (true) {
             try {
-                int value = Integer.parseInt(scanner.nextLine());
+                int value = Integer.parseInt(nextLine());
                 for (int possibleValue : possibleValues) {
                     if (value == possibleValue) {
                         return value;
@@ -115,12 +148,14 @@ public class InputManagerSingleton implements Closeable {
      */
     public String readString() {
         try {
-            String input = scanner.nextLine();
+            String input = nextLine();
             while (input == null || input.trim().isEmpty()) {
                 OutputUtils.print("\nInput vuoto. Per favore, inserisci un valore: ", OutputUtils.ANSI_RED, OutputUtils.ANSI_BOLD);
-                input = scanner.nextLine();
+                input = nextLine();
             }
             return input;
+        } catch (InputTerminatoException e) {
+            throw e;
         } catch (Exception e) {
             OutputUtils.println("\nErrore durante la lettura dell'input: " + e.getMessage(), OutputUtils.ANSI_RED, OutputUtils.ANSI_BOLD);
             return null;
@@ -1,6 +1,9 @@
 package it.univaq.disim.lpo.risiko.core;
 
+import it.univaq.disim.lpo.risiko.core.input.InputTerminatoException;
+import it.univaq.disim.lpo.risiko.core.log.LivelloLog;
 import it.univaq.disim.lpo.risiko.core.model.*;
+import it.univaq.disim.lpo.risiko.core.salvataggio.SalvataggioAutomatico;
 import it.univaq.disim.lpo.risiko.core.service.*;
 import it.univaq.disim.lpo.risiko.core.service.impl.*;
 import it.univaq.disim.lpo.risiko.core.utils.*;
@@ -20,12 +23,25 @@ import java.util.List;
  */
 public class Runner {
     public static void startRunner() {
+        startRunner(null);
+    }
+
+    /**
+     * Avvia il gioco facendo dipendere le nuove partite da un seme.
+     *
+     * @param seme il seme delle nuove partite, null per partite casuali.
+     */
+    public static void startRunner(Long seme) {
         // Installa AnsiConsole per supportare i colori ANSI nella console
         AnsiConsole.systemInstall();
 
         // Creazione delle istanze dei servizi necessari
         GiocoServiceImpl giocoService = new GiocoServiceImpl();
+        if (seme != null) {
+            giocoService.setSeme(seme);
+        }
         GiocatoreService giocatoreService = new GiocatoreServiceImpl();
+        SalvataggioAutomatico salvataggioAutomatico = new SalvataggioAutomatico(FileServiceImpl.getInstance().getCatalogo());
         
         // Flag per controllare il ciclo principale del gioco
         boolean running = true; 
@@ -54,35 +70,32 @@ public class Runner {
                     Giocatore giocatore = ordineGiocatori.get(gioco.getCurrentPlayerIndex());
 
                     // Esegue il turno del giocatore.
+                    // Al termine del turno il motore di gioco passa al giocatore successivo.
+                    int roundPrecedente = gioco.getRoundCount();
                     boolean continua = giocoService.turnoGiocatore(giocatore, gioco);
                     if (!continua || !gioco.isPartitaInCorso() || gioco.isRitornaAlMenu()) {
                         if (gioco.isPartitaInCorso()) {
                             // Logga la fine del turno del giocatore.
-                            FileServiceImpl.getInstance().writeLog("Turno di " + giocatore.getNome().toUpperCase() + "terminato.");
+                            FileServiceImpl.getInstance().writeLog(LivelloLog.PARTITA, () -> "Turno di " + giocatore.getNome().toUpperCase() + "terminato.");
                             FileServiceImpl.getInstance().writeLog("");
                         } else {
                             FileServiceImpl.getInstance().writeLog("GIOCO TERMINATO");
                         }
+                        FileServiceImpl.getInstance().flushLog();
                         break; // Esce dal ciclo interno se il gioco è terminato o si torna al menù.
                     }
 
-                    // Aggiorna l'indice del giocatore corrente.
-                    int nextPlayerIndex = (gioco.getCurrentPlayerIndex() + 1) % ordineGiocatori.size();
-                    gioco.setCurrentPlayerIndex(nextPlayerIndex);
+                    // Salvataggio automatico del turno completato e log su file, scritti in background.
+                    salvataggioAutomatico.salva(gioco);
+                    FileServiceImpl.getInstance().flushLog();
 
                     // Controlla se un round è stato completato(Tutti i giocatori hanno giocato).
-                    if (nextPlayerIndex == 0) {
-                        gioco.incrementRoundCount(); // Incrementa il contatore dei round.
-
+                    if (gioco.getRoundCount() > roundPrecedente) {
                         // Mostra messaggio di completamento del round.
                         OutputUtils.println("\n══════════════════", OutputUtils.ANSI_BRIGHT_GREEN, OutputUtils.ANSI_BOLD);
-                        OutputUtils.println("ROUND " + (gioco.getRoundCount() - 1) + " COMPLETATO", OutputUtils.ANSI_BRIGHT_PURPLE, OutputUtils.ANSI_BOLD);
+                        OutputUtils.println("ROUND " + roundPrecedente + " COMPLETATO", OutputUtils.ANSI_BRIGHT_PURPLE, OutputUtils.ANSI_BOLD);
                         OutputUtils.println("══════════════════", OutputUtils.ANSI_BRIGHT_GREEN, OutputUtils.ANSI_BOLD);
-                        try {
-                            Thread.sleep(2000);   // Pausa per migliorare la leggibilità.
-                        } catch (InterruptedException e) {
-                            e.printStackTrace();
-                        } 
+                        PausaUtils.pausa(2000);   // Pausa per migliorare la leggibilità.
                     }
                 }
 
@@ -96,18 +109,27 @@ public class Runner {
                     OutputUtils.print("La partita è terminata, vuoi tornare al menù iniziale? (S/N): ", OutputUtils.ANSI_CYAN, OutputUtils.ANSI_BOLD);
                     String risposta = InputManagerSingleton.getInstance().readString();
                     if (risposta.equalsIgnoreCase("n")){
-                        System.out.println();
+                        OutputUtils.println();
                         running = false; // Termina il gioco.
                     }  
                     // Se l'utente sceglie "s", il gioco riparte.              
                 }
             
+            } catch (InputTerminatoException e) {
+                // Fine dello script o della console: non ci sono altre scelte da leggere
+                OutputUtils.println("\nInput terminato: " + e.getMessage());
+                running = false;
             } catch (InizializzaPartitaException e) {
-                System.out.println("Errore durante l'inizializzazione della partita: " + e.getMessage());
+                OutputUtils.println("Errore durante l'inizializzazione della partita: " + e.getMessage());
             } catch (Exception e) {
-                System.out.println("Si è verificato un errore: " + e.getMessage());
+                OutputUtils.println("Si è verificato un errore: " + e.getMessage());
             }
         }
+        // Attende la scrittura dell'ultimo salvataggio automatico e del log
+        salvataggioAutomatico.close();
+        FileServiceImpl.getInstance().chiudiLog();
+        InputManagerSingleton.getInstance().disposeScanner();
+
         // Disinstalla AnsiConsole al termine del gioco
         AnsiConsole.systemUninstall();
     }
@@ -1,5 +1,20 @@
 package it.univaq.disim.lpo.risiko.core;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import it.univaq.disim.lpo.risiko.core.input.SorgenteInput;
+import it.univaq.disim.lpo.risiko.core.input.SorgenteRegistrata;
+import it.univaq.disim.lpo.risiko.core.log.LivelloLog;
+import it.univaq.disim.lpo.risiko.core.salvataggio.ScritturaDurevole;
+import it.univaq.disim.lpo.risiko.core.service.impl.FileServiceImpl;
+import it.univaq.disim.lpo.risiko.core.simulazione.SimulatoreMonteCarlo;
+import it.univaq.disim.lpo.risiko.core.simulazione.StatisticheSimulazione;
+import it.univaq.disim.lpo.risiko.core.utils.OutputUtils;
+import it.univaq.disim.lpo.risiko.core.utils.PausaUtils;
+import it.univaq.disim.lpo.risiko.core.utils.Ritmo;
+import it.univaq.disim.lpo.risiko.core.utils.Uscita;
+
 /**
  * Classe di avvio del gioco.
  * Questa classe fornisce il punto d'ingresso (main) del programma, limitandosi 
@@ -8,12 +23,250 @@ package it.univaq.disim.lpo.risiko.core;
  * classe Runner, mentre StartGame funge solo da "bootstrap" dell'applicazione.
  */
 public class StartGame {
+
+    // Parallelismo massimo accettato da ForkJoinPool
+    private static final int THREAD_MASSIMI = 32767;
+
+    private static final String USO = String.join(System.lineSeparator(),
+        "Uso: StartGame [opzioni]",
+        "  --archive [FILE]                      salva le partite in un unico archivio (predefinito saves/partite.archivio)",
+        "  --durability none|flush|fsync|group   durabilità di salvataggi e diari (predefinito flush)",
+        "  --group-commit-ms N                   intervallo tra due fsync di gruppo in millisecondi, con --durability group",
+        "  --log-level none|game|action|dice     dettaglio del log leggibile (predefinito dice)",
+        "  --pace interactive|fast|zero|FATTORE  durata delle pause tra le schermate (predefinito interactive)",
+        "  --output ansi|text|none               console a colori (predefinito), testo senza codici ANSI o nessun output",
+        "  --record FILE                         registra in uno script le risposte date dalla console",
+        "  --script FILE                         rigioca uno script senza pause, salvo un --pace esplicito",
+        "  --seed S                              rende ripetibili le nuove partite",
+        "Uso: StartGame --simulate N [opzioni della simulazione]",
+        "  --players K                           giocatori per partita, da 2 a 6 (predefinito 3)",
+        "  --threads T                           thread della simulazione (predefinito uno per processore)",
+        "  --seed S                              seme della simulazione",
+        "  --max-round R                         round dopo i quali una partita resta senza vincitore (predefinito 200)");
+
     public static void main(String[] args) {
         try {
-            Runner.startRunner();
+            if (args.length > 0 && args[0].equals("--help")) {
+                System.out.println(USO);
+            } else if (args.length > 0 && args[0].equals("--simulate")) {
+                avviaSimulazione(args);
+            } else {
+                Long seme = configuraOpzioni(args);
+                Runner.startRunner(seme);
+            }
         } catch (Exception e) {
             System.err.println("Errore anomalo: " + e.getMessage());
             e.printStackTrace();
         }     
     }
-}
\ No newline at end of file
+
+    private static Long configuraOpzioni(String[] args) throws IOException {
+        ScritturaDurevole.Livello livello = ScritturaDurevole.Livello.FLUSH;
+        LivelloLog livelloLog = LivelloLog.DADI;
+        Ritmo ritmo = null;
+        Uscita uscita = Uscita.console();
+        String script = null;
+        String registrazione = null;
+        Long seme = null;
+        long intervalloGruppo = ScritturaDurevole.INTERVALLO_GRUPPO_PREDEFINITO;
+        String archivio = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--archive":
+                    // Il file dell'archivio è facoltativo
+                    archivio = i + 1 < args.length && !args[i + 1].startsWith("--") ? args[++i] : "saves/partite.archivio";
+                    break;
+                case "--durability":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("Valore mancante per l'opzione " + args[i]);
+                    }
+                    livello = livelloDurabilita(args[++i]);
+                    break;
+                case "--group-commit-ms":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("Valore mancante per l'opzione " + args[i]);
+                    }
+                    intervalloGruppo = Long.parseLong(args[++i]);
+                    break;
+                case "--log-level":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("Valore mancante per l'opzione " + args[i]);
+                    }
+                    livelloLog = livelloLog(args[++i]);
+                    break;
+                case "--pace":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("Valore mancante per l'opzione " + args[i]);
+                    }
+                    ritmo = ritmo(args[++i]);
+                    break;
+                case "--output":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("Valore mancante per l'opzione " + args[i]);
+                    }
+                    uscita = uscita(args[++i]);
+                    break;
+                case "--script":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("Valore mancante per l'opzione " + args[i]);
+                    }
+                    script = args[++i];
+                    break;
+                case "--record":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("Valore mancante per l'opzione " + args[i]);
+                    }
+                    registrazione = args[++i];
+                    break;
+                case "--seed":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("Valore mancante per l'opzione " + args[i]);
+                    }
+                    seme = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Opzione sconosciuta: " + args[i] + " (--help per l'elenco delle opzioni)");
+            }
+        }
+
+        ScritturaDurevole.getInstance().configura(livello, intervalloGruppo);
+        FileServiceImpl.getInstance().setLivelloLog(livelloLog);
+        OutputUtils.setUscita(uscita);
+        if (archivio != null) {
+            FileServiceImpl.getInstance().usaArchivio(Paths.get(archivio));
+        }
+
+        SorgenteInput sorgente = script != null ? SorgenteInput.script(Paths.get(script)) : SorgenteInput.console();
+        if (registrazione != null) {
+            sorgente = new SorgenteRegistrata(sorgente, Paths.get(registrazione));
+        }
+        InputManagerSingleton.getInstance().setSorgente(sorgente);
+        // Uno script si rigioca alla velocità della CPU se non è indicato un ritmo
+        if (ritmo == null) {
+            ritmo = script != null ? Ritmo.nessuno() : Ritmo.interattivo();
+        }
+        PausaUtils.setRitmo(ritmo);
+        return seme;
+    }
+
+    private static ScritturaDurevole.Livello livelloDurabilita(String valore) {
+        switch (valore) {
+            case "none":
+                return ScritturaDurevole.Livello.NESSUNA;
+            case "flush":
+                return ScritturaDurevole.Livello.FLUSH;
+            case "fsync":
+                return ScritturaDurevole.Livello.FSYNC;
+            case "group":
+                return ScritturaDurevole.Livello.GRUPPO;
+            default:
+                throw new IllegalArgumentException("Livello di durabilità sconosciuto: " + valore);
+        }
+    }
+
+    private static LivelloLog livelloLog(String valore) {
+        switch (valore) {
+            case "none":
+                return LivelloLog.NESSUNO;
+            case "game":
+                return LivelloLog.PARTITA;
+            case "action":
+                return LivelloLog.AZIONI;
+            case "dice":
+                return LivelloLog.DADI;
+            default:
+                throw new IllegalArgumentException("Livello di log sconosciuto: " + valore);
+        }
+    }
+
+    private static Ritmo ritmo(String valore) {
+        switch (valore) {
+            case "interactive":
+                return Ritmo.interattivo();
+            case "fast":
+                return Ritmo.veloce();
+            case "zero":
+                return Ritmo.nessuno();
+            default:
+                try {
+                    return Ritmo.scalato(Double.parseDouble(valore));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Ritmo sconosciuto: " + valore);
+                }
+        }
+    }
+
+    private static Uscita uscita(String valore) {
+        switch (valore) {
+            case "ansi":
+                return Uscita.console();
+            case "text":
+                return Uscita.testo();
+            case "none":
+                return Uscita.nessuna();
+            default:
+                throw new IllegalArgumentException("Uscita sconosciuta: " + valore);
+        }
+    }
+
+    /*
+     * Legge il valore intero di un'opzione, che deve stare tra minimo e massimo compresi.
+     */
+    private static int intero(String opzione, String valore, int minimo, int massimo) {
+        try {
+            int numero = Integer.parseInt(valore);
+            if (numero >= minimo && numero <= massimo) {
+                return numero;
+            }
+        } catch (NumberFormatException e) {
+            // Segnalato sotto come qualsiasi valore fuori intervallo
+        }
+        String intervallo = massimo == Integer.MAX_VALUE ? "almeno " + minimo : "da " + minimo + " a " + massimo;
+        throw new IllegalArgumentException("Valore " + valore + " non valido per l'opzione " + opzione + ": deve essere " + intervallo + ".");
+    }
+
+    private static void avviaSimulazione(String[] args) {
+        int numeroPartite = 1000;
+        int numeroGiocatori = 3;
+        int numeroThread = Runtime.getRuntime().availableProcessors();
+        long seme = System.nanoTime();
+        int roundMassimi = 200;
+
+        for (int i = 0; i < args.length; i++) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Valore mancante per l'opzione " + args[i]);
+            }
+            switch (args[i]) {
+                case "--simulate":
+                    numeroPartite = intero(args[i], args[++i], 1, Integer.MAX_VALUE);
+                    break;
+                case "--players":
+                    numeroGiocatori = intero(args[i], args[++i], 2, 6);
+                    break;
+                case "--threads":
+                    numeroThread = intero(args[i], args[++i], 1, THREAD_MASSIMI);
+                    break;
+                case "--seed":
+                    seme = Long.parseLong(args[++i]);
+                    break;
+                case "--max-round":
+                    roundMassimi = intero(args[i], args[++i], 1, Integer.MAX_VALUE);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Opzione sconosciuta: " + args[i] + " (--help per l'elenco delle opzioni)");
+            }
+        }
+
+        OutputUtils.println("Simulazione di " + numeroPartite + " partite con " + numeroGiocatori
+            + " giocatori su " + numeroThread + " thread (seme " + seme + ")");
+        long inizio = System.nanoTime();
+        StatisticheSimulazione statistiche = new SimulatoreMonteCarlo(numeroGiocatori, roundMassimi)
+            .simula(numeroPartite, numeroThread, seme);
+        long millisecondi = (System.nanoTime() - inizio) / 1_000_000;
+
+        OutputUtils.println();
+        OutputUtils.print(statistiche.riepilogo());
+        OutputUtils.println("\nTempo impiegato: " + millisecondi + " ms");
+    }
+}
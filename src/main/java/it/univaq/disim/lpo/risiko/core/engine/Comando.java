@@ -0,0 +1,231 @@
+package it.univaq.disim.lpo.risiko.core.engine;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Comando applicabile dal MotoreGioco a una partita.
+ * Ogni comando descrive una singola azione del giocatore di turno, senza
+ * alcuna dipendenza da console o input: può quindi essere prodotto da un
+ * giocatore umano tramite la CLI, da un bot o da uno script.
+ */
+public abstract class Comando implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum TipoComando {
+        POSIZIONA_ARMATE,
+        SCAMBIA_CARTE,
+        ATTACCA,
+        ATTACCO_BLITZ,
+        SPOSTA_ARMATE_CONQUISTA,
+        FORTIFICA,
+        TERMINA_TURNO
+    }
+
+    public abstract TipoComando getTipo();
+
+    /**
+     * Posiziona armate di rinforzo su un territorio del giocatore di turno.
+     */
+    public static final class PosizionaArmate extends Comando {
+        private static final long serialVersionUID = 1L;
+        private final String territorio;
+        private final int armate;
+
+        public PosizionaArmate(String territorio, int armate) {
+            this.territorio = territorio;
+            this.armate = armate;
+        }
+
+        @Override
+        public TipoComando getTipo() {
+            return TipoComando.POSIZIONA_ARMATE;
+        }
+
+        public String getTerritorio() {
+            return territorio;
+        }
+
+        public int getArmate() {
+            return armate;
+        }
+    }
+
+    /**
+     * Scambia tre carte della mano del giocatore di turno per ottenere armate.
+     */
+    public static final class ScambiaCarte extends Comando {
+        private static final long serialVersionUID = 1L;
+        private final List<Integer> indiciCarte;
+
+        /**
+         * @param indiciCarte gli indici (a partire da 0) delle carte nella mano del giocatore.
+         */
+        public ScambiaCarte(List<Integer> indiciCarte) {
+            this.indiciCarte = List.copyOf(indiciCarte);
+        }
+
+        @Override
+        public TipoComando getTipo() {
+            return TipoComando.SCAMBIA_CARTE;
+        }
+
+        public List<Integer> getIndiciCarte() {
+            return indiciCarte;
+        }
+    }
+
+    /**
+     * Effettua un singolo lancio di dadi da un territorio verso uno adiacente.
+     */
+    public static final class Attacca extends Comando {
+        private static final long serialVersionUID = 1L;
+        private final String origine;
+        private final String destinazione;
+        private final int dadi;
+
+        public Attacca(String origine, String destinazione, int dadi) {
+            this.origine = origine;
+            this.destinazione = destinazione;
+            this.dadi = dadi;
+        }
+
+        @Override
+        public TipoComando getTipo() {
+            return TipoComando.ATTACCA;
+        }
+
+        public String getOrigine() {
+            return origine;
+        }
+
+        public String getDestinazione() {
+            return destinazione;
+        }
+
+        public int getDadi() {
+            return dadi;
+        }
+    }
+
+    /**
+     * Attacca ripetutamente con il massimo dei dadi finché il territorio non viene
+     * conquistato o non si raggiunge una delle soglie di arresto.
+     */
+    public static final class AttaccoBlitz extends Comando {
+        private static final long serialVersionUID = 1L;
+        private final String origine;
+        private final String destinazione;
+        private final int perditeMassime;
+        private final int armateMinime;
+
+        /**
+         * @param origine        il territorio da cui parte l'attacco.
+         * @param destinazione   il territorio attaccato.
+         * @param perditeMassime le armate che l'attaccante può perdere al massimo.
+         * @param armateMinime   le armate sotto cui il territorio attaccante non scende (almeno 1).
+         */
+        public AttaccoBlitz(String origine, String destinazione, int perditeMassime, int armateMinime) {
+            this.origine = origine;
+            this.destinazione = destinazione;
+            this.perditeMassime = perditeMassime;
+            this.armateMinime = armateMinime;
+        }
+
+        /**
+         * Attacco blitz senza soglie: prosegue fino alla conquista o finché l'attaccante può attaccare.
+         */
+        public AttaccoBlitz(String origine, String destinazione) {
+            this(origine, destinazione, Integer.MAX_VALUE, 1);
+        }
+
+        @Override
+        public TipoComando getTipo() {
+            return TipoComando.ATTACCO_BLITZ;
+        }
+
+        public String getOrigine() {
+            return origine;
+        }
+
+        public String getDestinazione() {
+            return destinazione;
+        }
+
+        public int getPerditeMassime() {
+            return perditeMassime;
+        }
+
+        public int getArmateMinime() {
+            return armateMinime;
+        }
+    }
+
+    /**
+     * Sposta le armate nel territorio appena conquistato.
+     */
+    public static final class SpostaArmateConquista extends Comando {
+        private static final long serialVersionUID = 1L;
+        private final int armate;
+
+        public SpostaArmateConquista(int armate) {
+            this.armate = armate;
+        }
+
+        @Override
+        public TipoComando getTipo() {
+            return TipoComando.SPOSTA_ARMATE_CONQUISTA;
+        }
+
+        public int getArmate() {
+            return armate;
+        }
+    }
+
+    /**
+     * Sposta armate tra due territori adiacenti del giocatore; chiude le azioni del turno.
+     */
+    public static final class Fortifica extends Comando {
+        private static final long serialVersionUID = 1L;
+        private final String origine;
+        private final String destinazione;
+        private final int armate;
+
+        public Fortifica(String origine, String destinazione, int armate) {
+            this.origine = origine;
+            this.destinazione = destinazione;
+            this.armate = armate;
+        }
+
+        @Override
+        public TipoComando getTipo() {
+            return TipoComando.FORTIFICA;
+        }
+
+        public String getOrigine() {
+            return origine;
+        }
+
+        public String getDestinazione() {
+            return destinazione;
+        }
+
+        public int getArmate() {
+            return armate;
+        }
+    }
+
+    /**
+     * Termina il turno e passa al giocatore successivo.
+     */
+    public static final class TerminaTurno extends Comando {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public TipoComando getTipo() {
+            return TipoComando.TERMINA_TURNO;
+        }
+    }
+
+}
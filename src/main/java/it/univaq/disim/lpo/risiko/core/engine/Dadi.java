@@ -0,0 +1,135 @@
+package it.univaq.disim.lpo.risiko.core.engine;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Lancio e confronto dei dadi senza allocazioni.
+ *
+ * Un lancio di al più 3 dadi è rappresentato da un int in base 7: i valori sono ordinati
+ * in modo decrescente e i dadi non lanciati valgono 0, quindi lancio = primo * 49 + secondo * 7 + terzo.
+ * L'esito del confronto tra un lancio di attacco e uno di difesa si legge direttamente
+ * da una tabella precalcolata indicizzata dai due lanci.
+ */
+public final class Dadi {
+
+    public static final int MAX_DADI = 3;
+
+    // Numero di lanci distinti in base 7 per ogni parte (7^3)
+    private static final int LANCI = 343;
+
+    // Combinazioni equiprobabili per 1, 2 e 3 dadi (6^n)
+    private static final int[] COMBINAZIONI = { 1, 6, 36, 216 };
+
+    /*
+     * PERDITE[attacco * LANCI + difesa] contiene le perdite dell'attaccante nei due bit
+     * alti e quelle del difensore nei due bit bassi. I pareggi vanno al difensore.
+     */
+    private static final byte[] PERDITE = calcolaPerdite();
+
+    private Dadi() {
+    }
+
+    /**
+     * Lancia da 1 a 3 dadi con una sola estrazione dal generatore.
+     *
+     * @param random     il generatore della partita.
+     * @param numeroDadi il numero di dadi da lanciare.
+     * @return il lancio codificato, con i valori in ordine decrescente.
+     */
+    public static int lancia(RandomGenerator random, int numeroDadi) {
+        int r = random.nextInt(COMBINAZIONI[numeroDadi]);
+        int a = r % 6 + 1;
+        r /= 6;
+        int b = numeroDadi > 1 ? r % 6 + 1 : 0;
+        r /= 6;
+        int c = numeroDadi > 2 ? r % 6 + 1 : 0;
+
+        // Rete di ordinamento a tre confronti
+        if (a < b) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        if (b < c) {
+            int t = b;
+            b = c;
+            c = t;
+        }
+        if (a < b) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        return a * 49 + b * 7 + c;
+    }
+
+    /**
+     * Confronta un lancio di attacco con uno di difesa.
+     *
+     * @param attacco il lancio dell'attaccante.
+     * @param difesa  il lancio del difensore.
+     * @return l'esito codificato, da leggere con perditeAttaccante e perditeDifensore.
+     */
+    public static int confronta(int attacco, int difesa) {
+        return PERDITE[attacco * LANCI + difesa];
+    }
+
+    public static int perditeAttaccante(int esito) {
+        return esito >>> 2;
+    }
+
+    public static int perditeDifensore(int esito) {
+        return esito & 3;
+    }
+
+    /**
+     * Decodifica un lancio nei valori dei singoli dadi, per la stampa e il log.
+     *
+     * @param lancio     il lancio codificato.
+     * @param numeroDadi il numero di dadi lanciati.
+     * @return i valori dei dadi in ordine decrescente.
+     */
+    public static int[] valori(int lancio, int numeroDadi) {
+        int[] valori = new int[numeroDadi];
+        for (int i = 0; i < numeroDadi; i++) {
+            valori[i] = valore(lancio, i);
+        }
+        return valori;
+    }
+
+    private static int valore(int lancio, int posizione) {
+        switch (posizione) {
+            case 0:
+                return lancio / 49;
+            case 1:
+                return lancio / 7 % 7;
+            default:
+                return lancio % 7;
+        }
+    }
+
+    private static byte[] calcolaPerdite() {
+        byte[] perdite = new byte[LANCI * LANCI];
+        for (int attacco = 0; attacco < LANCI; attacco++) {
+            for (int difesa = 0; difesa < LANCI; difesa++) {
+                int perditeAttaccante = 0;
+                int perditeDifensore = 0;
+                for (int i = 0; i < MAX_DADI; i++) {
+                    int dadoAttacco = valore(attacco, i);
+                    int dadoDifesa = valore(difesa, i);
+                    if (dadoAttacco == 0 || dadoDifesa == 0) {
+                        break;
+                    }
+                    if (dadoAttacco > dadoDifesa) {
+                        perditeDifensore++;
+                    } else {
+                        perditeAttaccante++;
+                    }
+                }
+                perdite[attacco * LANCI + difesa] = (byte) (perditeAttaccante << 2 | perditeDifensore);
+            }
+        }
+        return perdite;
+    }
+
+}
@@ -0,0 +1,205 @@
+package it.univaq.disim.lpo.risiko.core.engine;
+
+import java.io.Serializable;
+
+import it.univaq.disim.lpo.risiko.core.model.Carta;
+
+/**
+ * Evento prodotto dal MotoreGioco durante l'applicazione di un comando.
+ * Gli eventi descrivono cosa è accaduto nella partita e vengono usati dalla CLI
+ * per stampare i messaggi e scrivere il log, senza che il motore dipenda da essi.
+ */
+public class EventoGioco implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum TipoEvento {
+        INIZIO_TURNO,
+        RINFORZI,
+        POSIZIONAMENTO,
+        CARTE_SCAMBIATE,
+        LANCIO_DADI,
+        BATTAGLIA_BLITZ,
+        CONQUISTA,
+        CARTA_PESCATA,
+        MAZZO_VUOTO,
+        SPOSTAMENTO_CONQUISTA,
+        FORTIFICAZIONE,
+        FINE_TURNO,
+        FINE_ROUND,
+        VITTORIA
+    }
+
+    private final TipoEvento tipo;
+    private final String giocatore;
+    private String avversario;
+    private String origine;
+    private String destinazione;
+    private int quantita;
+    private int numeroTerritori;
+    private int numeroContinenti;
+    private int[] dadiAttacco;
+    private int[] dadiDifesa;
+    private int perditeAttaccante;
+    private int perditeDifensore;
+    private Carta carta;
+
+    private EventoGioco(TipoEvento tipo, String giocatore) {
+        this.tipo = tipo;
+        this.giocatore = giocatore;
+    }
+
+    public static EventoGioco inizioTurno(String giocatore) {
+        return new EventoGioco(TipoEvento.INIZIO_TURNO, giocatore);
+    }
+
+    public static EventoGioco rinforzi(String giocatore, int armate, int numeroTerritori, int numeroContinenti) {
+        EventoGioco evento = new EventoGioco(TipoEvento.RINFORZI, giocatore);
+        evento.quantita = armate;
+        evento.numeroTerritori = numeroTerritori;
+        evento.numeroContinenti = numeroContinenti;
+        return evento;
+    }
+
+    public static EventoGioco posizionamento(String giocatore, String territorio, int armate) {
+        EventoGioco evento = new EventoGioco(TipoEvento.POSIZIONAMENTO, giocatore);
+        evento.destinazione = territorio;
+        evento.quantita = armate;
+        return evento;
+    }
+
+    public static EventoGioco carteScambiate(String giocatore, int armate) {
+        EventoGioco evento = new EventoGioco(TipoEvento.CARTE_SCAMBIATE, giocatore);
+        evento.quantita = armate;
+        return evento;
+    }
+
+    public static EventoGioco lancioDadi(String giocatore, String avversario, String origine, String destinazione,
+            int[] dadiAttacco, int[] dadiDifesa, int perditeAttaccante, int perditeDifensore) {
+        EventoGioco evento = new EventoGioco(TipoEvento.LANCIO_DADI, giocatore);
+        evento.avversario = avversario;
+        evento.origine = origine;
+        evento.destinazione = destinazione;
+        evento.dadiAttacco = dadiAttacco;
+        evento.dadiDifesa = dadiDifesa;
+        evento.perditeAttaccante = perditeAttaccante;
+        evento.perditeDifensore = perditeDifensore;
+        return evento;
+    }
+
+    /**
+     * Riepilogo di un attacco blitz: quantita contiene il numero di lanci effettuati.
+     */
+    public static EventoGioco battagliaBlitz(String giocatore, String avversario, String origine, String destinazione,
+            int lanci, int perditeAttaccante, int perditeDifensore) {
+        EventoGioco evento = new EventoGioco(TipoEvento.BATTAGLIA_BLITZ, giocatore);
+        evento.avversario = avversario;
+        evento.origine = origine;
+        evento.destinazione = destinazione;
+        evento.quantita = lanci;
+        evento.perditeAttaccante = perditeAttaccante;
+        evento.perditeDifensore = perditeDifensore;
+        return evento;
+    }
+
+    public static EventoGioco conquista(String giocatore, String avversario, String origine, String destinazione) {
+        EventoGioco evento = new EventoGioco(TipoEvento.CONQUISTA, giocatore);
+        evento.avversario = avversario;
+        evento.origine = origine;
+        evento.destinazione = destinazione;
+        return evento;
+    }
+
+    public static EventoGioco cartaPescata(String giocatore, Carta carta) {
+        EventoGioco evento = new EventoGioco(TipoEvento.CARTA_PESCATA, giocatore);
+        evento.carta = carta;
+        return evento;
+    }
+
+    public static EventoGioco mazzoVuoto(String giocatore) {
+        return new EventoGioco(TipoEvento.MAZZO_VUOTO, giocatore);
+    }
+
+    public static EventoGioco spostamentoConquista(String giocatore, String origine, String destinazione, int armate) {
+        EventoGioco evento = new EventoGioco(TipoEvento.SPOSTAMENTO_CONQUISTA, giocatore);
+        evento.origine = origine;
+        evento.destinazione = destinazione;
+        evento.quantita = armate;
+        return evento;
+    }
+
+    public static EventoGioco fortificazione(String giocatore, String origine, String destinazione, int armate) {
+        EventoGioco evento = new EventoGioco(TipoEvento.FORTIFICAZIONE, giocatore);
+        evento.origine = origine;
+        evento.destinazione = destinazione;
+        evento.quantita = armate;
+        return evento;
+    }
+
+    public static EventoGioco fineTurno(String giocatore) {
+        return new EventoGioco(TipoEvento.FINE_TURNO, giocatore);
+    }
+
+    public static EventoGioco fineRound(String giocatore, int roundCompletato) {
+        EventoGioco evento = new EventoGioco(TipoEvento.FINE_ROUND, giocatore);
+        evento.quantita = roundCompletato;
+        return evento;
+    }
+
+    public static EventoGioco vittoria(String giocatore) {
+        return new EventoGioco(TipoEvento.VITTORIA, giocatore);
+    }
+
+    public TipoEvento getTipo() {
+        return tipo;
+    }
+
+    public String getGiocatore() {
+        return giocatore;
+    }
+
+    public String getAvversario() {
+        return avversario;
+    }
+
+    public String getOrigine() {
+        return origine;
+    }
+
+    public String getDestinazione() {
+        return destinazione;
+    }
+
+    public int getQuantita() {
+        return quantita;
+    }
+
+    public int getNumeroTerritori() {
+        return numeroTerritori;
+    }
+
+    public int getNumeroContinenti() {
+        return numeroContinenti;
+    }
+
+    public int[] getDadiAttacco() {
+        return dadiAttacco;
+    }
+
+    public int[] getDadiDifesa() {
+        return dadiDifesa;
+    }
+
+    public int getPerditeAttaccante() {
+        return perditeAttaccante;
+    }
+
+    public int getPerditeDifensore() {
+        return perditeDifensore;
+    }
+
+    public Carta getCarta() {
+        return carta;
+    }
+
+}
@@ -0,0 +1,449 @@
+package it.univaq.disim.lpo.risiko.core.engine;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import it.univaq.disim.lpo.risiko.core.model.Carta;
+import it.univaq.disim.lpo.risiko.core.model.GeneratoreCasuale;
+import it.univaq.disim.lpo.risiko.core.model.Giocatore;
+import it.univaq.disim.lpo.risiko.core.model.Gioco;
+import it.univaq.disim.lpo.risiko.core.model.Territorio;
+import it.univaq.disim.lpo.risiko.core.model.TopologiaMappa;
+import it.univaq.disim.lpo.risiko.core.model.TurnoGioco;
+import it.univaq.disim.lpo.risiko.core.model.TurnoGioco.TurnPhase;
+
+/**
+ * Motore di gioco headless.
+ * Applica i comandi del giocatore di turno a un oggetto Gioco verificandone la
+ * validità secondo le regole, e restituisce l'esito insieme agli eventi prodotti.
+ * Il motore non legge input, non stampa e non effettua pause: la CLI, i bot e
+ * i test lo usano allo stesso modo. Non ha stato proprio: i dadi usano il
+ * generatore casuale della partita. L'unico riferimento che conserva è il
+ * RegistroComandi opzionale a cui notifica i comandi accettati.
+ */
+public class MotoreGioco {
+
+    private RegistroComandi registroComandi;
+
+    /**
+     * Imposta il registro a cui notificare i comandi accettati (null per nessuno).
+     *
+     * @param registroComandi il registro dei comandi.
+     */
+    public void setRegistroComandi(RegistroComandi registroComandi) {
+        this.registroComandi = registroComandi;
+    }
+
+    /**
+     * Restituisce il giocatore di turno.
+     *
+     * @param gioco la partita corrente.
+     * @return il giocatore di turno.
+     */
+    public Giocatore getGiocatoreCorrente(Gioco gioco) {
+        return gioco.getOrdineGiocatori().get(gioco.getCurrentPlayerIndex());
+    }
+
+    /**
+     * Avvia il turno del giocatore corrente calcolando le armate di rinforzo.
+     * Non fa nulla se il turno è già stato avviato.
+     *
+     * @param gioco la partita corrente.
+     * @return l'esito con gli eventi di inizio turno.
+     */
+    public RisultatoComando avviaTurno(Gioco gioco) {
+        if (!gioco.isPartitaInCorso()) {
+            return RisultatoComando.rifiutato("La partita è terminata.");
+        }
+        List<EventoGioco> eventi = new ArrayList<>();
+        avviaTurno(gioco, eventi);
+        return RisultatoComando.accettato(eventi);
+    }
+
+    private void avviaTurno(Gioco gioco, List<EventoGioco> eventi) {
+        TurnoGioco turno = gioco.getCurrentTurnState();
+        if (turno.getCurrentPhase() != null && turno.getCurrentPhase() != TurnPhase.START_TURN) {
+            return;
+        }
+        Giocatore giocatore = getGiocatoreCorrente(gioco);
+        giocatore.resetTerritoriConquistatiNelTurno();
+        giocatore.setHaRicevutoCartaBonus(false);
+
+        int numeroTerritori = giocatore.getNumeroTerritori();
+        int numeroContinenti = RegoleGioco.numeroContinentiControllati(giocatore, gioco.getMappa());
+        int armateTotali = RegoleGioco.armateTerritori(numeroTerritori) + RegoleGioco.armateContinenti(giocatore, gioco.getMappa());
+
+        turno.setArmateDaDistribuire(armateTotali);
+        turno.setArmateTotali(armateTotali);
+        turno.setNumeroTerritori(numeroTerritori);
+        turno.setNumeroContinenti(numeroContinenti);
+        turno.setCurrentPhase(TurnPhase.DISTRIBUTE_ARMIES);
+
+        eventi.add(EventoGioco.inizioTurno(giocatore.getNome()));
+        eventi.add(EventoGioco.rinforzi(giocatore.getNome(), armateTotali, numeroTerritori, numeroContinenti));
+    }
+
+    /**
+     * Applica un comando del giocatore di turno alla partita.
+     * Se il turno non è ancora stato avviato viene avviato automaticamente.
+     *
+     * @param gioco   la partita corrente.
+     * @param comando il comando da applicare.
+     * @return l'esito del comando con gli eventi prodotti.
+     */
+    public RisultatoComando esegui(Gioco gioco, Comando comando) {
+        if (!gioco.isPartitaInCorso()) {
+            return RisultatoComando.rifiutato("La partita è terminata.");
+        }
+        List<EventoGioco> eventi = new ArrayList<>();
+        avviaTurno(gioco, eventi);
+
+        String errore;
+        switch (comando.getTipo()) {
+            case POSIZIONA_ARMATE:
+                errore = posizionaArmate(gioco, (Comando.PosizionaArmate) comando, eventi);
+                break;
+            case SCAMBIA_CARTE:
+                errore = scambiaCarte(gioco, (Comando.ScambiaCarte) comando, eventi);
+                break;
+            case ATTACCA:
+                errore = attacca(gioco, (Comando.Attacca) comando, eventi);
+                break;
+            case ATTACCO_BLITZ:
+                errore = attaccoBlitz(gioco, (Comando.AttaccoBlitz) comando, eventi);
+                break;
+            case SPOSTA_ARMATE_CONQUISTA:
+                errore = spostaArmateConquista(gioco, (Comando.SpostaArmateConquista) comando, eventi);
+                break;
+            case FORTIFICA:
+                errore = fortifica(gioco, (Comando.Fortifica) comando, eventi);
+                break;
+            case TERMINA_TURNO:
+                errore = terminaTurno(gioco, eventi);
+                break;
+            default:
+                errore = "Comando non riconosciuto.";
+                break;
+        }
+
+        if (errore != null) {
+            return RisultatoComando.rifiutato(errore);
+        }
+        if (registroComandi != null) {
+            registroComandi.registra(gioco, comando);
+        }
+        return RisultatoComando.accettato(eventi);
+    }
+
+    private String posizionaArmate(Gioco gioco, Comando.PosizionaArmate comando, List<EventoGioco> eventi) {
+        TurnoGioco turno = gioco.getCurrentTurnState();
+        if (turno.getCurrentPhase() != TurnPhase.DISTRIBUTE_ARMIES) {
+            return "Non è il momento di posizionare armate.";
+        }
+        Giocatore giocatore = getGiocatoreCorrente(gioco);
+        Territorio territorio = territorioDelGiocatore(gioco, giocatore, comando.getTerritorio());
+        if (territorio == null) {
+            return "Il territorio " + comando.getTerritorio() + " non appartiene al giocatore.";
+        }
+        int armate = comando.getArmate();
+        if (armate < 1 || armate > turno.getArmateDaDistribuire()) {
+            return "Numero di armate da posizionare non valido.";
+        }
+
+        territorio.aggiungiArmate(armate);
+        giocatore.incrementaTotaleArmate(armate);
+        turno.setArmateDaDistribuire(turno.getArmateDaDistribuire() - armate);
+        if (turno.getArmateDaDistribuire() == 0) {
+            turno.setCurrentPhase(TurnPhase.MENU);
+        }
+        eventi.add(EventoGioco.posizionamento(giocatore.getNome(), territorio.getNome(), armate));
+        // Le armate cambiano senza cambi di proprietario: interessa solo agli obiettivi di presidio
+        if (giocatore.getObiettivo() != null && giocatore.getObiettivo().dipendeDalleArmate()) {
+            verificaObiettivo(gioco, giocatore, eventi);
+        }
+        return null;
+    }
+
+    private String scambiaCarte(Gioco gioco, Comando.ScambiaCarte comando, List<EventoGioco> eventi) {
+        TurnoGioco turno = gioco.getCurrentTurnState();
+        if (turno.getCurrentPhase() != TurnPhase.DISTRIBUTE_ARMIES) {
+            return "Le carte si possono scambiare solo durante la distribuzione delle armate.";
+        }
+        Giocatore giocatore = getGiocatoreCorrente(gioco);
+        List<Carta> mano = giocatore.getCarte();
+        Set<Integer> indiciUnici = new HashSet<>(comando.getIndiciCarte());
+        if (comando.getIndiciCarte().size() != 3 || indiciUnici.size() != 3) {
+            return "Devi selezionare esattamente 3 carte diverse.";
+        }
+        List<Carta> carteSelezionate = new ArrayList<>();
+        for (int indice : comando.getIndiciCarte()) {
+            if (indice < 0 || indice >= mano.size()) {
+                return "Indice di carta non valido: " + (indice + 1);
+            }
+            carteSelezionate.add(mano.get(indice));
+        }
+        int armate = RegoleGioco.armateDaCarte(carteSelezionate, giocatore);
+        if (armate == 0) {
+            return "La combinazione di carte selezionata non è valida.";
+        }
+
+        giocatore.rimuoviCarte(carteSelezionate);
+        gioco.getMazzoDiCarte().restituisciCarte(carteSelezionate, gioco.getGeneratore());
+        turno.setArmateDaDistribuire(turno.getArmateDaDistribuire() + armate);
+        turno.setArmateTotali(turno.getArmateTotali() + armate);
+        eventi.add(EventoGioco.carteScambiate(giocatore.getNome(), armate));
+        return null;
+    }
+
+    private String attacca(Gioco gioco, Comando.Attacca comando, List<EventoGioco> eventi) {
+        TurnoGioco turno = gioco.getCurrentTurnState();
+        if (turno.getCurrentPhase() != TurnPhase.MENU) {
+            return "Non è il momento di attaccare.";
+        }
+        Giocatore giocatore = getGiocatoreCorrente(gioco);
+        Territorio attaccante = territorioDelGiocatore(gioco, giocatore, comando.getOrigine());
+        Territorio difensore = attaccante != null ? trovaAdiacente(gioco, attaccante, comando.getDestinazione()) : null;
+        String errore = verificaAttacco(giocatore, attaccante, difensore, comando.getOrigine(), comando.getDestinazione());
+        if (errore != null) {
+            return errore;
+        }
+        int maxDadiAttacco = Math.min(attaccante.getNumeroArmate() - 1, 3);
+        if (comando.getDadi() < 1 || comando.getDadi() > maxDadiAttacco) {
+            return "Numero di dadi di attacco non valido.";
+        }
+
+        // Il difensore usa lo stesso numero di dadi, o il massimo possibile se ha meno armate
+        int dadiDifesa = Math.min(comando.getDadi(), difensore.getNumeroArmate());
+        int lancioAttacco = Dadi.lancia(gioco.getGeneratore(), comando.getDadi());
+        int lancioDifesa = Dadi.lancia(gioco.getGeneratore(), dadiDifesa);
+        int esito = Dadi.confronta(lancioAttacco, lancioDifesa);
+        int perditeAttaccante = Dadi.perditeAttaccante(esito);
+        int perditeDifensore = Dadi.perditeDifensore(esito);
+        attaccante.rimuoviArmate(perditeAttaccante);
+        difensore.rimuoviArmate(perditeDifensore);
+
+        Giocatore avversario = difensore.getGiocatore();
+        eventi.add(EventoGioco.lancioDadi(giocatore.getNome(), avversario.getNome(), attaccante.getNome(), difensore.getNome(),
+            Dadi.valori(lancioAttacco, comando.getDadi()), Dadi.valori(lancioDifesa, dadiDifesa), perditeAttaccante, perditeDifensore));
+
+        if (difensore.getNumeroArmate() == 0) {
+            conquista(gioco, giocatore, attaccante, difensore, eventi);
+        }
+        return null;
+    }
+
+    /**
+     * Risolve un'intera battaglia in un solo comando: ad ogni lancio l'attaccante usa
+     * il massimo dei dadi, e viene prodotto un unico evento di riepilogo invece di uno per lancio.
+     * I dadi dell'attaccante sono ridotti quando un lancio potrebbe superare le perdite massime
+     * o portare il territorio sotto le armate minime: le soglie non vengono mai oltrepassate.
+     */
+    private String attaccoBlitz(Gioco gioco, Comando.AttaccoBlitz comando, List<EventoGioco> eventi) {
+        TurnoGioco turno = gioco.getCurrentTurnState();
+        if (turno.getCurrentPhase() != TurnPhase.MENU) {
+            return "Non è il momento di attaccare.";
+        }
+        Giocatore giocatore = getGiocatoreCorrente(gioco);
+        Territorio attaccante = territorioDelGiocatore(gioco, giocatore, comando.getOrigine());
+        Territorio difensore = attaccante != null ? trovaAdiacente(gioco, attaccante, comando.getDestinazione()) : null;
+        String errore = verificaAttacco(giocatore, attaccante, difensore, comando.getOrigine(), comando.getDestinazione());
+        if (errore != null) {
+            return errore;
+        }
+        if (comando.getPerditeMassime() < 1 || comando.getArmateMinime() < 1) {
+            return "Soglie di arresto dell'attacco non valide.";
+        }
+        // Servono più armate della soglia minima per lanciare almeno un dado
+        int armatePerAttaccare = comando.getArmateMinime() + 1;
+        if (attaccante.getNumeroArmate() < armatePerAttaccare) {
+            return "Il territorio " + attaccante.getNome() + " non ha abbastanza armate per attaccare.";
+        }
+
+        GeneratoreCasuale generatore = gioco.getGeneratore();
+        int lanci = 0;
+        int perditeAttaccante = 0;
+        int perditeDifensore = 0;
+        while (difensore.getNumeroArmate() > 0 && attaccante.getNumeroArmate() >= armatePerAttaccare
+                && perditeAttaccante < comando.getPerditeMassime()) {
+            // Ogni lancio costa all'attaccante al più un'armata per dado
+            int dadiAttacco = Math.min(Dadi.MAX_DADI, Math.min(attaccante.getNumeroArmate() - comando.getArmateMinime(),
+                comando.getPerditeMassime() - perditeAttaccante));
+            int dadiDifesa = Math.min(dadiAttacco, difensore.getNumeroArmate());
+            int esito = Dadi.confronta(Dadi.lancia(generatore, dadiAttacco), Dadi.lancia(generatore, dadiDifesa));
+            attaccante.rimuoviArmate(Dadi.perditeAttaccante(esito));
+            difensore.rimuoviArmate(Dadi.perditeDifensore(esito));
+            perditeAttaccante += Dadi.perditeAttaccante(esito);
+            perditeDifensore += Dadi.perditeDifensore(esito);
+            lanci++;
+        }
+
+        Giocatore avversario = difensore.getGiocatore();
+        eventi.add(EventoGioco.battagliaBlitz(giocatore.getNome(), avversario.getNome(), attaccante.getNome(), difensore.getNome(),
+            lanci, perditeAttaccante, perditeDifensore));
+
+        if (difensore.getNumeroArmate() == 0) {
+            conquista(gioco, giocatore, attaccante, difensore, eventi);
+        }
+        return null;
+    }
+
+    private String verificaAttacco(Giocatore giocatore, Territorio attaccante, Territorio difensore, String origine, String destinazione) {
+        if (attaccante == null) {
+            return "Il territorio " + origine + " non appartiene al giocatore.";
+        }
+        if (difensore == null) {
+            return "Il territorio " + destinazione + " non è adiacente a " + attaccante.getNome() + ".";
+        }
+        if (giocatore.equals(difensore.getGiocatore()) || difensore.getNumeroArmate() == 0) {
+            return "Il territorio " + difensore.getNome() + " non può essere attaccato.";
+        }
+        return null;
+    }
+
+    private void conquista(Gioco gioco, Giocatore giocatore, Territorio attaccante, Territorio difensore,
+            List<EventoGioco> eventi) {
+        Giocatore avversario = difensore.getGiocatore();
+        avversario.rimuoviTerritorio(difensore);
+        difensore.setGiocatore(giocatore);
+        giocatore.aggiungiTerritorio(difensore);
+        giocatore.incrementaTerritoriConquistatiNelTurno();
+        eventi.add(EventoGioco.conquista(giocatore.getNome(), avversario.getNome(), attaccante.getNome(), difensore.getNome()));
+
+        // La carta bonus viene assegnata solo alla prima conquista del turno
+        if (!giocatore.getHaRicevutoCartaBonus()) {
+            Carta nuovaCarta = gioco.getMazzoDiCarte().pescaCarta();
+            if (nuovaCarta != null) {
+                giocatore.aggiungiCarta(nuovaCarta);
+                eventi.add(EventoGioco.cartaPescata(giocatore.getNome(), nuovaCarta));
+            } else {
+                eventi.add(EventoGioco.mazzoVuoto(giocatore.getNome()));
+            }
+            giocatore.setHaRicevutoCartaBonus(true);
+        }
+
+        TurnoGioco turno = gioco.getCurrentTurnState();
+        turno.setTerritorioOrigineConquista(attaccante.getNome());
+        turno.setTerritorioConquistato(difensore.getNome());
+        turno.setArmateMinimeConquista(Math.min(1, attaccante.getNumeroArmate() - 1));
+        turno.setCurrentPhase(TurnPhase.MOVE_AFTER_CONQUEST);
+    }
+
+    private String spostaArmateConquista(Gioco gioco, Comando.SpostaArmateConquista comando, List<EventoGioco> eventi) {
+        TurnoGioco turno = gioco.getCurrentTurnState();
+        if (turno.getCurrentPhase() != TurnPhase.MOVE_AFTER_CONQUEST) {
+            return "Nessun territorio conquistato in attesa dello spostamento delle armate.";
+        }
+        Giocatore giocatore = getGiocatoreCorrente(gioco);
+        Territorio origine = gioco.getMappa().getTerritorio(turno.getTerritorioOrigineConquista());
+        Territorio conquistato = gioco.getMappa().getTerritorio(turno.getTerritorioConquistato());
+        int armateMassime = origine.getNumeroArmate() - 1;
+        if (comando.getArmate() < turno.getArmateMinimeConquista() || comando.getArmate() > armateMassime) {
+            return "Numero di armate non valido. Inserisci un numero tra " + turno.getArmateMinimeConquista() + " e " + armateMassime + ".";
+        }
+
+        origine.rimuoviArmate(comando.getArmate());
+        conquistato.setArmate(comando.getArmate());
+        turno.setTerritorioOrigineConquista(null);
+        turno.setTerritorioConquistato(null);
+        turno.setArmateMinimeConquista(0);
+        turno.setCurrentPhase(TurnPhase.MENU);
+        eventi.add(EventoGioco.spostamentoConquista(giocatore.getNome(), origine.getNome(), conquistato.getNome(), comando.getArmate()));
+
+        // Il territorio ha cambiato proprietario: gli obiettivi vanno sempre verificati
+        verificaObiettivo(gioco, giocatore, eventi);
+        return null;
+    }
+
+    private String fortifica(Gioco gioco, Comando.Fortifica comando, List<EventoGioco> eventi) {
+        TurnoGioco turno = gioco.getCurrentTurnState();
+        if (turno.getCurrentPhase() != TurnPhase.MENU) {
+            return "Non è il momento di spostare le armate.";
+        }
+        Giocatore giocatore = getGiocatoreCorrente(gioco);
+        Territorio origine = territorioDelGiocatore(gioco, giocatore, comando.getOrigine());
+        if (origine == null) {
+            return "Il territorio " + comando.getOrigine() + " non appartiene al giocatore.";
+        }
+        Territorio destinazione = trovaAdiacente(gioco, origine, comando.getDestinazione());
+        if (destinazione == null || !giocatore.equals(destinazione.getGiocatore())) {
+            return "Il territorio " + comando.getDestinazione() + " non è un territorio adiacente controllato.";
+        }
+        if (comando.getArmate() < 1 || comando.getArmate() > origine.getNumeroArmate() - 1) {
+            return "Numero di armate non valido. Deve rimanere almeno una armata.";
+        }
+
+        origine.rimuoviArmate(comando.getArmate());
+        destinazione.aggiungiArmate(comando.getArmate());
+        turno.setCurrentPhase(TurnPhase.END_TURN);
+        eventi.add(EventoGioco.fortificazione(giocatore.getNome(), origine.getNome(), destinazione.getNome(), comando.getArmate()));
+        if (giocatore.getObiettivo() != null && giocatore.getObiettivo().dipendeDalleArmate()) {
+            verificaObiettivo(gioco, giocatore, eventi);
+        }
+        return null;
+    }
+
+    /**
+     * Termina la partita se il giocatore ha completato il proprio obiettivo.
+     * La verifica legge solo insiemi di bit e contatori aggiornati a ogni cambio di proprietario o di armate.
+     */
+    private void verificaObiettivo(Gioco gioco, Giocatore giocatore, List<EventoGioco> eventi) {
+        if (RegoleGioco.obiettivoCompletato(giocatore, gioco)) {
+            gioco.setPartitaInCorso(false);
+            eventi.add(EventoGioco.vittoria(giocatore.getNome()));
+        }
+    }
+
+    private String terminaTurno(Gioco gioco, List<EventoGioco> eventi) {
+        TurnoGioco turno = gioco.getCurrentTurnState();
+        if (turno.getCurrentPhase() != TurnPhase.MENU && turno.getCurrentPhase() != TurnPhase.END_TURN) {
+            return "Il turno non può essere terminato in questa fase.";
+        }
+        Giocatore giocatore = getGiocatoreCorrente(gioco);
+        turno.setTurnoTerminato(true);
+        gioco.setCurrentTurnState(new TurnoGioco());
+        eventi.add(EventoGioco.fineTurno(giocatore.getNome()));
+
+        // Passa al prossimo giocatore che controlla ancora almeno un territorio
+        List<Giocatore> ordine = gioco.getOrdineGiocatori();
+        int indice = gioco.getCurrentPlayerIndex();
+        for (int i = 0; i < ordine.size(); i++) {
+            indice = (indice + 1) % ordine.size();
+            if (indice == 0) {
+                eventi.add(EventoGioco.fineRound(giocatore.getNome(), gioco.getRoundCount()));
+                gioco.incrementRoundCount();
+            }
+            if (!ordine.get(indice).getTerritori_controllati().isEmpty()) {
+                break;
+            }
+        }
+        gioco.setCurrentPlayerIndex(indice);
+        return null;
+    }
+
+    /**
+     * Cerca un territorio per nome tramite la topologia della mappa.
+     *
+     * @return il territorio se appartiene al giocatore, altrimenti null.
+     */
+    private Territorio territorioDelGiocatore(Gioco gioco, Giocatore giocatore, String nome) {
+        Territorio territorio = gioco.getMappa().getTerritorio(nome);
+        return territorio != null && giocatore.equals(territorio.getGiocatore()) ? territorio : null;
+    }
+
+    /**
+     * Cerca per nome un territorio adiacente, verificando l'adiacenza sugli id della topologia.
+     *
+     * @return il territorio adiacente, null se non esiste o non è adiacente.
+     */
+    private Territorio trovaAdiacente(Gioco gioco, Territorio territorio, String nome) {
+        TopologiaMappa topologia = gioco.getMappa().getTopologia();
+        int id = topologia.getIdTerritorio(nome);
+        if (id < 0 || !topologia.sonoAdiacenti(territorio.getId(), id)) {
+            return null;
+        }
+        return gioco.getMappa().getTerritorio(id);
+    }
+
+}
@@ -0,0 +1,19 @@
+package it.univaq.disim.lpo.risiko.core.engine;
+
+import it.univaq.disim.lpo.risiko.core.model.Gioco;
+
+/**
+ * Riceve dal MotoreGioco ogni comando accettato, dopo che è stato applicato alla partita.
+ * Viene usato per tenere il diario dei comandi da cui recuperare una partita interrotta.
+ */
+public interface RegistroComandi {
+
+    /**
+     * Registra un comando appena applicato.
+     *
+     * @param gioco   la partita, già aggiornata dal comando.
+     * @param comando il comando accettato.
+     */
+    void registra(Gioco gioco, Comando comando);
+
+}
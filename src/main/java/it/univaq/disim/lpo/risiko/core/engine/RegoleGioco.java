@@ -0,0 +1,246 @@
+package it.univaq.disim.lpo.risiko.core.engine;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import it.univaq.disim.lpo.risiko.core.model.Carta;
+import it.univaq.disim.lpo.risiko.core.model.CartaObiettivo;
+import it.univaq.disim.lpo.risiko.core.model.Continente;
+import it.univaq.disim.lpo.risiko.core.model.Giocatore;
+import it.univaq.disim.lpo.risiko.core.model.Gioco;
+import it.univaq.disim.lpo.risiko.core.model.Mappa;
+import it.univaq.disim.lpo.risiko.core.model.Territorio;
+
+/**
+ * Classe di utilità con le regole pure del gioco: calcolo dei rinforzi,
+ * bonus dei continenti, valore delle combinazioni di carte e obiettivi.
+ * Nessun metodo accede alla console o modifica lo stato della partita.
+ */
+public final class RegoleGioco {
+
+    private RegoleGioco() {
+    }
+
+    /**
+     * Restituisce le armate bonus assegnate per il controllo di un continente.
+     *
+     * @param nomeContinente il nome del continente.
+     * @return il numero di armate bonus.
+     */
+    public static int bonusContinente(String nomeContinente) {
+        switch (nomeContinente) {
+            case "Oceania":
+                return 2;
+            case "Europa":
+                return 5;
+            case "America del Sud":
+                return 2;
+            case "America del Nord":
+                return 5;
+            case "Africa":
+                return 3;
+            case "Asia":
+                return 7;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Verifica se il giocatore controlla tutti i territori di un continente.
+     *
+     * @param giocatore  il giocatore da verificare.
+     * @param mappa      la mappa della partita.
+     * @param continente l'id del continente nella topologia della mappa.
+     * @return true se il giocatore controlla l'intero continente.
+     */
+    public static boolean controllaContinente(Giocatore giocatore, Mappa mappa, int continente) {
+        return (giocatore.getContinentiControllati() & 1 << continente) != 0;
+    }
+
+    /**
+     * Restituisce i continenti controllati completamente dal giocatore.
+     *
+     * @param giocatore il giocatore da verificare.
+     * @param mappa     la mappa della partita.
+     * @return la lista dei continenti controllati.
+     */
+    public static List<Continente> continentiControllati(Giocatore giocatore, Mappa mappa) {
+        List<Continente> controllati = new ArrayList<>();
+        for (int bit = giocatore.getContinentiControllati(); bit != 0; bit &= bit - 1) {
+            controllati.add(mappa.getContinenti().get(Integer.numberOfTrailingZeros(bit)));
+        }
+        return controllati;
+    }
+
+    /**
+     * Conta i continenti controllati completamente dal giocatore.
+     *
+     * @param giocatore il giocatore da verificare.
+     * @param mappa     la mappa della partita.
+     * @return il numero di continenti controllati.
+     */
+    public static int numeroContinentiControllati(Giocatore giocatore, Mappa mappa) {
+        return Integer.bitCount(giocatore.getContinentiControllati());
+    }
+
+    /**
+     * Calcola le armate bonus per i continenti controllati.
+     *
+     * @param giocatore il giocatore corrente.
+     * @param mappa     la mappa della partita.
+     * @return il totale delle armate bonus.
+     */
+    public static int armateContinenti(Giocatore giocatore, Mappa mappa) {
+        int armateBonus = 0;
+        for (int bit = giocatore.getContinentiControllati(); bit != 0; bit &= bit - 1) {
+            armateBonus += bonusContinente(mappa.getTopologia().getNomeContinente(Integer.numberOfTrailingZeros(bit)));
+        }
+        return armateBonus;
+    }
+
+
+    /**
+     * Calcola le armate ricevute per i territori controllati (minimo 3).
+     *
+     * @param numeroTerritori il numero di territori controllati.
+     * @return le armate ricevute.
+     */
+    public static int armateTerritori(int numeroTerritori) {
+        return Math.max(3, numeroTerritori / 3);
+    }
+
+    /**
+     * Verifica se una mano contiene almeno una combinazione valida di tre carte.
+     *
+     * @param carte le carte del giocatore.
+     * @return true se esiste almeno una combinazione valida.
+     */
+    public static boolean possiedeCombinazioneValida(List<Carta> carte) {
+        if (carte.size() < 3) {
+            return false;
+        }
+        Map<Carta.TipoCarta, Integer> conteggio = contaTipi(carte);
+        boolean treStessoTipo = conteggio.values().stream().anyMatch(c -> c >= 3);
+        boolean unoDiOgniTipo = conteggio.getOrDefault(Carta.TipoCarta.CANNONE, 0) >= 1
+            && conteggio.getOrDefault(Carta.TipoCarta.FANTE, 0) >= 1
+            && conteggio.getOrDefault(Carta.TipoCarta.CAVALIERE, 0) >= 1;
+        boolean jollyPiuDueUguali = conteggio.getOrDefault(Carta.TipoCarta.JOLLY, 0) >= 1
+            && conteggio.entrySet().stream().anyMatch(e -> e.getKey() != Carta.TipoCarta.JOLLY && e.getValue() >= 2);
+        return treStessoTipo || unoDiOgniTipo || jollyPiuDueUguali;
+    }
+
+    /**
+     * Verifica se tre carte formano una combinazione valida per lo scambio.
+     *
+     * @param carteSelezionate le carte selezionate.
+     * @return true se la combinazione è valida.
+     */
+    public static boolean isCombinazioneValida(List<Carta> carteSelezionate) {
+        if (carteSelezionate.size() != 3) {
+            return false;
+        }
+        Map<Carta.TipoCarta, Integer> conteggio = contaTipi(carteSelezionate);
+
+        // 3 dello stesso tipo
+        if (conteggio.containsValue(3)) {
+            return true;
+        }
+        // 1 di ogni tipo
+        if (conteggio.size() == 3
+            && conteggio.containsKey(Carta.TipoCarta.CANNONE)
+            && conteggio.containsKey(Carta.TipoCarta.FANTE)
+            && conteggio.containsKey(Carta.TipoCarta.CAVALIERE)) {
+            return true;
+        }
+        // Jolly + 2 dello stesso tipo
+        return conteggio.getOrDefault(Carta.TipoCarta.JOLLY, 0) == 1 && conteggio.containsValue(2);
+    }
+
+    /**
+     * Calcola le armate ottenute da una combinazione di carte, compreso il bonus
+     * di 2 armate per ogni carta che raffigura un territorio del giocatore.
+     *
+     * @param carteSelezionate le carte selezionate.
+     * @param giocatore        il giocatore che effettua lo scambio.
+     * @return le armate ottenute, 0 se la combinazione non è valida.
+     */
+    public static int armateDaCarte(List<Carta> carteSelezionate, Giocatore giocatore) {
+        if (!isCombinazioneValida(carteSelezionate)) {
+            return 0;
+        }
+        Map<Carta.TipoCarta, Integer> conteggio = contaTipi(carteSelezionate);
+
+        int armate;
+        if (conteggio.containsKey(Carta.TipoCarta.JOLLY)) {
+            armate = 12;
+        } else if (conteggio.size() == 1) {
+            switch (carteSelezionate.get(0).getTipo()) {
+                case CANNONE:
+                    armate = 4;
+                    break;
+                case FANTE:
+                    armate = 6;
+                    break;
+                case CAVALIERE:
+                    armate = 8;
+                    break;
+                default:
+                    armate = 0;
+                    break;
+            }
+        } else {
+            armate = 10;
+        }
+
+        for (Carta carta : carteSelezionate) {
+            Territorio territorio = carta.getTerritorio();
+            if (territorio != null && giocatore.equals(territorio.getGiocatore())) {
+                armate += 2;
+            }
+        }
+        return armate;
+    }
+
+    private static Map<Carta.TipoCarta, Integer> contaTipi(List<Carta> carte) {
+        Map<Carta.TipoCarta, Integer> conteggio = new EnumMap<>(Carta.TipoCarta.class);
+        for (Carta carta : carte) {
+            conteggio.merge(carta.getTipo(), 1, Integer::sum);
+        }
+        return conteggio;
+    }
+
+    /**
+     * Verifica se il giocatore ha completato il proprio obiettivo.
+     *
+     * @param giocatore il giocatore da verificare.
+     * @param gioco     la partita corrente.
+     * @return true se l'obiettivo è stato completato.
+     */
+    public static boolean obiettivoCompletato(Giocatore giocatore, Gioco gioco) {
+        CartaObiettivo obiettivo = giocatore.getObiettivo();
+        if (obiettivo == null || obiettivo.getTipo() == null) {
+            return false;
+        }
+
+        switch (obiettivo.getTipo()) {
+            case CONTINENTI:
+                int richiesti = obiettivo.getMascheraContinenti(gioco.getMappa().getTopologia());
+                int controllati = giocatore.getContinentiControllati();
+                return (controllati & richiesti) == richiesti
+                    && Integer.bitCount(controllati & ~richiesti) >= obiettivo.getContinentiAScelta();
+
+            case TERRITORI:
+                return giocatore.getNumeroTerritori() >= obiettivo.getNumeroTerritori();
+
+            case TERRITORI_PRESIDIATI:
+                return giocatore.getNumeroTerritoriPresidiati() >= obiettivo.getNumeroTerritori();
+
+            default:
+                return false;
+        }
+    }
+
+}
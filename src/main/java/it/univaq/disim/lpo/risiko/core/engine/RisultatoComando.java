@@ -0,0 +1,58 @@
+package it.univaq.disim.lpo.risiko.core.engine;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Esito dell'applicazione di un comando da parte del MotoreGioco.
+ * Un comando rifiutato non modifica la partita e riporta il motivo del rifiuto;
+ * un comando accettato riporta la lista degli eventi prodotti.
+ */
+public class RisultatoComando {
+
+    private final boolean accettato;
+    private final String errore;
+    private final List<EventoGioco> eventi;
+
+    private RisultatoComando(boolean accettato, String errore, List<EventoGioco> eventi) {
+        this.accettato = accettato;
+        this.errore = errore;
+        this.eventi = eventi;
+    }
+
+    public static RisultatoComando accettato(List<EventoGioco> eventi) {
+        return new RisultatoComando(true, null, Collections.unmodifiableList(eventi));
+    }
+
+    public static RisultatoComando rifiutato(String errore) {
+        return new RisultatoComando(false, errore, Collections.emptyList());
+    }
+
+    public boolean isAccettato() {
+        return accettato;
+    }
+
+    public String getErrore() {
+        return errore;
+    }
+
+    public List<EventoGioco> getEventi() {
+        return eventi;
+    }
+
+    /**
+     * Restituisce il primo evento del tipo indicato, o null se assente.
+     *
+     * @param tipo il tipo di evento cercato.
+     * @return l'evento trovato o null.
+     */
+    public EventoGioco getEvento(EventoGioco.TipoEvento tipo) {
+        for (EventoGioco evento : eventi) {
+            if (evento.getTipo() == tipo) {
+                return evento;
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,211 @@
+package it.univaq.disim.lpo.risiko.core.engine;
+
+/**
+ * Tabella precalcolata con l'esito finale di una battaglia combattuta fino in fondo,
+ * per ogni coppia (armate del territorio attaccante, armate del difensore) fino a un limite.
+ *
+ * La battaglia è una catena di Markov con le stesse regole di MotoreGioco: ad ogni lancio
+ * l'attaccante usa il massimo dei dadi (min(3, armate - 1)), il difensore min(dadi attacco, armate)
+ * e i pareggi vanno al difensore. Termina quando il difensore resta senza armate (conquista)
+ * o quando l'attaccante resta con una sola armata.
+ * I valori sono memorizzati in array piatti indicizzati da armateAttaccante * (limite + 1) + armateDifensore,
+ * così ogni consultazione costa O(1).
+ */
+public final class TabellaBattaglie {
+
+    /** Limite di armate usato dall'istanza condivisa. */
+    public static final int ARMATE_MASSIME_PREDEFINITE = 100;
+
+    /*
+     * Probabilità di un singolo lancio, per dadi di attacco i e di difesa j (1-3):
+     * PROBABILITA_LANCIO[i][j][k] è la probabilità che il difensore perda k armate
+     * (e l'attaccante min(i, j) - k).
+     */
+    private static final double[][][] PROBABILITA_LANCIO = calcolaProbabilitaLancio();
+
+    // Dichiarata dopo PROBABILITA_LANCIO, che serve al costruttore
+    private static final TabellaBattaglie instance = new TabellaBattaglie(ARMATE_MASSIME_PREDEFINITE);
+
+    private final int armateMassime;
+    private final float[] probabilitaConquista;
+    private final float[] armateAttaccanteAttese;
+    private final float[] armateDifensoreAttese;
+
+    /**
+     * Costruisce la tabella per tutte le battaglie con al più armateMassime armate per parte.
+     *
+     * @param armateMassime il limite di armate per l'attaccante e per il difensore.
+     */
+    public TabellaBattaglie(int armateMassime) {
+        if (armateMassime < 1) {
+            throw new IllegalArgumentException("Il limite di armate deve essere almeno 1.");
+        }
+        this.armateMassime = armateMassime;
+        int dimensione = (armateMassime + 1) * (armateMassime + 1);
+        this.probabilitaConquista = new float[dimensione];
+        this.armateAttaccanteAttese = new float[dimensione];
+        this.armateDifensoreAttese = new float[dimensione];
+        calcola();
+    }
+
+    public static TabellaBattaglie getInstance() {
+        return instance;
+    }
+
+    public int getArmateMassime() {
+        return armateMassime;
+    }
+
+    /**
+     * Verifica se la tabella contiene la battaglia indicata.
+     *
+     * @param armateAttaccante le armate del territorio attaccante.
+     * @param armateDifensore  le armate del territorio difensore.
+     * @return true se entrambi i valori sono entro il limite della tabella.
+     */
+    public boolean contiene(int armateAttaccante, int armateDifensore) {
+        return armateAttaccante >= 1 && armateAttaccante <= armateMassime
+            && armateDifensore >= 0 && armateDifensore <= armateMassime;
+    }
+
+    /**
+     * Probabilità che l'attaccante conquisti il territorio attaccando fino in fondo.
+     *
+     * @param armateAttaccante le armate del territorio attaccante.
+     * @param armateDifensore  le armate del territorio difensore.
+     * @return la probabilità di conquista.
+     */
+    public double getProbabilitaConquista(int armateAttaccante, int armateDifensore) {
+        return probabilitaConquista[indice(armateAttaccante, armateDifensore)];
+    }
+
+    /**
+     * Armate attese nel territorio attaccante alla fine della battaglia
+     * (prima dello spostamento nel territorio conquistato; 1 se l'attacco fallisce).
+     *
+     * @param armateAttaccante le armate del territorio attaccante.
+     * @param armateDifensore  le armate del territorio difensore.
+     * @return il valore atteso delle armate dell'attaccante.
+     */
+    public double getArmateAttaccanteAttese(int armateAttaccante, int armateDifensore) {
+        return armateAttaccanteAttese[indice(armateAttaccante, armateDifensore)];
+    }
+
+    /**
+     * Armate attese nel territorio difensore alla fine della battaglia (0 in caso di conquista).
+     *
+     * @param armateAttaccante le armate del territorio attaccante.
+     * @param armateDifensore  le armate del territorio difensore.
+     * @return il valore atteso delle armate del difensore.
+     */
+    public double getArmateDifensoreAttese(int armateAttaccante, int armateDifensore) {
+        return armateDifensoreAttese[indice(armateAttaccante, armateDifensore)];
+    }
+
+    private int indice(int armateAttaccante, int armateDifensore) {
+        if (!contiene(armateAttaccante, armateDifensore)) {
+            throw new IllegalArgumentException("Battaglia " + armateAttaccante + " contro " + armateDifensore
+                + " fuori dal limite della tabella (" + armateMassime + ").");
+        }
+        return armateAttaccante * (armateMassime + 1) + armateDifensore;
+    }
+
+    /**
+     * Riempie la tabella in ordine crescente di armate: ogni lancio porta a uno stato
+     * con meno armate di almeno una delle due parti, quindi già calcolato.
+     */
+    private void calcola() {
+        int riga = armateMassime + 1;
+        for (int a = 1; a <= armateMassime; a++) {
+            for (int d = 0; d <= armateMassime; d++) {
+                int i = a * riga + d;
+                if (d == 0) {
+                    probabilitaConquista[i] = 1f;
+                    armateAttaccanteAttese[i] = a;
+                    armateDifensoreAttese[i] = 0f;
+                    continue;
+                }
+                if (a == 1) {
+                    probabilitaConquista[i] = 0f;
+                    armateAttaccanteAttese[i] = 1f;
+                    armateDifensoreAttese[i] = d;
+                    continue;
+                }
+                int dadiAttacco = Math.min(3, a - 1);
+                int dadiDifesa = Math.min(dadiAttacco, d);
+                int confronti = Math.min(dadiAttacco, dadiDifesa);
+                double conquista = 0;
+                double attaccante = 0;
+                double difensore = 0;
+                for (int perditeDifensore = 0; perditeDifensore <= confronti; perditeDifensore++) {
+                    double p = PROBABILITA_LANCIO[dadiAttacco][dadiDifesa][perditeDifensore];
+                    int successivo = (a - (confronti - perditeDifensore)) * riga + (d - perditeDifensore);
+                    conquista += p * probabilitaConquista[successivo];
+                    attaccante += p * armateAttaccanteAttese[successivo];
+                    difensore += p * armateDifensoreAttese[successivo];
+                }
+                probabilitaConquista[i] = (float) conquista;
+                armateAttaccanteAttese[i] = (float) attaccante;
+                armateDifensoreAttese[i] = (float) difensore;
+            }
+        }
+    }
+
+    /**
+     * Calcola esattamente le probabilità di un singolo lancio enumerando tutte le
+     * combinazioni di dadi per ogni coppia (dadi attacco, dadi difesa).
+     */
+    private static double[][][] calcolaProbabilitaLancio() {
+        double[][][] probabilita = new double[4][4][];
+        for (int dadiAttacco = 1; dadiAttacco <= 3; dadiAttacco++) {
+            for (int dadiDifesa = 1; dadiDifesa <= 3; dadiDifesa++) {
+                int confronti = Math.min(dadiAttacco, dadiDifesa);
+                int[] conteggi = new int[confronti + 1];
+                int combinazioni = 1;
+                for (int k = 0; k < dadiAttacco + dadiDifesa; k++) {
+                    combinazioni *= 6;
+                }
+                int[] attacco = new int[dadiAttacco];
+                int[] difesa = new int[dadiDifesa];
+                for (int c = 0; c < combinazioni; c++) {
+                    int resto = c;
+                    for (int k = 0; k < dadiAttacco; k++) {
+                        attacco[k] = resto % 6;
+                        resto /= 6;
+                    }
+                    for (int k = 0; k < dadiDifesa; k++) {
+                        difesa[k] = resto % 6;
+                        resto /= 6;
+                    }
+                    ordinaDecrescente(attacco);
+                    ordinaDecrescente(difesa);
+                    int perditeDifensore = 0;
+                    for (int k = 0; k < confronti; k++) {
+                        if (attacco[k] > difesa[k]) {
+                            perditeDifensore++;
+                        }
+                    }
+                    conteggi[perditeDifensore]++;
+                }
+                probabilita[dadiAttacco][dadiDifesa] = new double[confronti + 1];
+                for (int k = 0; k <= confronti; k++) {
+                    probabilita[dadiAttacco][dadiDifesa][k] = (double) conteggi[k] / combinazioni;
+                }
+            }
+        }
+        return probabilita;
+    }
+
+    private static void ordinaDecrescente(int[] valori) {
+        for (int i = 1; i < valori.length; i++) {
+            int valore = valori[i];
+            int j = i - 1;
+            while (j >= 0 && valori[j] < valore) {
+                valori[j + 1] = valori[j];
+                j--;
+            }
+            valori[j + 1] = valore;
+        }
+    }
+
+}
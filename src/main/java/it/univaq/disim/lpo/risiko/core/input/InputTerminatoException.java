@@ -0,0 +1,32 @@
+package it.univaq.disim.lpo.risiko.core.input;
+
+import it.univaq.disim.lpo.risiko.core.RisikoException;
+
+/**
+ * Eccezione lanciata quando la sorgente dell'input non ha più righe da leggere,
+ * ad esempio alla fine di uno script o alla chiusura della console.
+ */
+public class InputTerminatoException extends RisikoException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Costruttore con messaggio di dettaglio.
+     *
+     * @param messaggio il messaggio dettagliato dell'eccezione.
+     */
+    public InputTerminatoException(String messaggio) {
+        super(messaggio);
+    }
+
+    /**
+     * Costruttore con messaggio di dettaglio e causa.
+     *
+     * @param messaggio il messaggio dettagliato dell'eccezione.
+     * @param causa     la causa dell'eccezione.
+     */
+    public InputTerminatoException(String messaggio, Throwable causa) {
+        super(messaggio, causa);
+    }
+
+}
@@ -0,0 +1,73 @@
+package it.univaq.disim.lpo.risiko.core.input;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Sorgente che legge da una coda in memoria. Le righe si aggiungono con aggiungi(),
+ * anche da un altro thread: la lettura attende finché non ce n'è una oppure finché
+ * la coda non viene terminata con termina().
+ */
+public class SorgenteCoda implements SorgenteInput {
+
+    // Segnala la fine delle righe; confrontata per identità
+    private static final String FINE = new String("");
+
+    private final BlockingQueue<String> righe = new LinkedBlockingQueue<>();
+    private volatile boolean terminata;
+
+    /**
+     * Aggiunge delle righe in fondo alla coda.
+     *
+     * @param nuoveRighe le righe da aggiungere, in ordine.
+     * @return questa sorgente.
+     */
+    public SorgenteCoda aggiungi(String... nuoveRighe) {
+        if (terminata) {
+            throw new IllegalStateException("La coda dell'input è già terminata.");
+        }
+        for (String riga : nuoveRighe) {
+            righe.add(riga);
+        }
+        return this;
+    }
+
+    /**
+     * Termina la coda: esaurite le righe presenti, l'input risulta terminato.
+     */
+    public void termina() {
+        if (!terminata) {
+            terminata = true;
+            righe.add(FINE);
+        }
+    }
+
+    /**
+     * Restituisce il numero di righe in attesa di essere lette.
+     */
+    public int getRigheInAttesa() {
+        return (int) righe.stream().filter(riga -> riga != FINE).count();
+    }
+
+    @Override
+    public String leggiRiga() {
+        try {
+            String riga = righe.take();
+            if (riga == FINE) {
+                // Anche le letture successive devono vedere la fine
+                righe.add(FINE);
+                return null;
+            }
+            return riga;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InputTerminatoException("Lettura dell'input interrotta.", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        termina();
+    }
+
+}
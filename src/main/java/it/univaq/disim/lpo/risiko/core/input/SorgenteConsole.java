@@ -0,0 +1,33 @@
+package it.univaq.disim.lpo.risiko.core.input;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+/**
+ * Sorgente delle righe digitate sulla console.
+ */
+public class SorgenteConsole implements SorgenteInput {
+
+    private final BufferedReader lettore;
+
+    public SorgenteConsole(InputStream in) {
+        this.lettore = new BufferedReader(new InputStreamReader(in));
+    }
+
+    @Override
+    public String leggiRiga() {
+        try {
+            return lettore.readLine();
+        } catch (IOException e) {
+            throw new InputTerminatoException("Errore durante la lettura della console: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean isInterattiva() {
+        return true;
+    }
+
+}
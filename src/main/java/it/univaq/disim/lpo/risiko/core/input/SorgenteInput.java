@@ -0,0 +1,71 @@
+package it.univaq.disim.lpo.risiko.core.input;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Sorgente delle righe lette da InputManagerSingleton.
+ * Separa le scelte dei giocatori dalla console: la stessa partita può essere giocata
+ * dal terminale, rigiocata da uno script registrato, guidata da una coda in memoria
+ * o, su un server, da una sorgente diversa per ogni sessione.
+ */
+public interface SorgenteInput extends AutoCloseable {
+
+    /**
+     * Legge la prossima riga, attendendola se necessario.
+     *
+     * @return la riga senza il carattere di fine riga, null se l'input è terminato.
+     * @throws InputTerminatoException se la sorgente non è più leggibile.
+     */
+    String leggiRiga();
+
+    /**
+     * Indica se le righe vengono digitate da chi gioca, che ne vede già l'eco sul
+     * terminale. Le righe delle altre sorgenti vengono ripetute sull'output.
+     */
+    default boolean isInterattiva() {
+        return false;
+    }
+
+    /**
+     * Rilascia le risorse della sorgente.
+     */
+    @Override
+    default void close() {
+    }
+
+    /**
+     * Righe digitate sulla console.
+     */
+    static SorgenteInput console() {
+        return new SorgenteConsole(System.in);
+    }
+
+    /**
+     * Righe di uno script, una scelta per riga, come quelle registrate con SorgenteRegistrata.
+     *
+     * @param file il file dello script.
+     * @throws IOException se lo script non è leggibile.
+     */
+    static SorgenteInput script(Path file) throws IOException {
+        return new SorgenteScript(file);
+    }
+
+    /**
+     * Coda in memoria alimentata con aggiungi(), anche da un altro thread.
+     */
+    static SorgenteCoda coda() {
+        return new SorgenteCoda();
+    }
+
+    /**
+     * Sorgente che legge da quella collegata al thread corrente, per più partite
+     * ospitate nello stesso processo.
+     *
+     * @param predefinita la sorgente dei thread senza una sessione collegata.
+     */
+    static SorgenteSessione perSessione(SorgenteInput predefinita) {
+        return new SorgenteSessione(predefinita);
+    }
+
+}
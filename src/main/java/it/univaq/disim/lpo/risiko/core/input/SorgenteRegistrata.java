@@ -0,0 +1,65 @@
+package it.univaq.disim.lpo.risiko.core.input;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import it.univaq.disim.lpo.risiko.core.utils.OutputUtils;
+
+/**
+ * Sorgente che registra in uno script ogni riga letta da un'altra sorgente.
+ * Lo script, una riga per risposta, si rigioca con SorgenteScript; ogni riga viene
+ * scritta subito, così lo script resta valido anche se il processo si interrompe.
+ */
+public class SorgenteRegistrata implements SorgenteInput {
+
+    private final SorgenteInput sorgente;
+    private final BufferedWriter script;
+
+    /**
+     * Crea una sorgente che registra le righe di un'altra.
+     *
+     * @param sorgente la sorgente da registrare.
+     * @param file     il file dello script, sovrascritto se esiste.
+     * @throws IOException se il file non può essere creato.
+     */
+    public SorgenteRegistrata(SorgenteInput sorgente, Path file) throws IOException {
+        this.sorgente = sorgente;
+        this.script = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    @Override
+    public synchronized String leggiRiga() {
+        String riga = sorgente.leggiRiga();
+        if (riga != null) {
+            try {
+                script.write(riga);
+                script.newLine();
+                script.flush();
+            } catch (IOException e) {
+                OutputUtils.println("Errore durante la registrazione dell'input: " + e.getMessage());
+            }
+        }
+        return riga;
+    }
+
+    @Override
+    public boolean isInterattiva() {
+        return sorgente.isInterattiva();
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            script.close();
+        } catch (IOException e) {
+            OutputUtils.println("Errore durante la chiusura dello script registrato: " + e.getMessage());
+        }
+        sorgente.close();
+    }
+
+}
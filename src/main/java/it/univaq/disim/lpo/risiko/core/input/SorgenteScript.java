@@ -0,0 +1,47 @@
+package it.univaq.disim.lpo.risiko.core.input;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import it.univaq.disim.lpo.risiko.core.utils.OutputUtils;
+
+/**
+ * Sorgente che rigioca uno script: ogni riga del file è una risposta a una richiesta
+ * del gioco, nell'ordine in cui vengono fatte. Alla fine del file l'input termina.
+ */
+public class SorgenteScript implements SorgenteInput {
+
+    private final Path file;
+    private final BufferedReader lettore;
+
+    public SorgenteScript(Path file) throws IOException {
+        this.file = file;
+        this.lettore = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public synchronized String leggiRiga() {
+        try {
+            return lettore.readLine();
+        } catch (IOException e) {
+            throw new InputTerminatoException("Errore durante la lettura dello script " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            lettore.close();
+        } catch (IOException e) {
+            OutputUtils.println("Errore durante la chiusura dello script: " + e.getMessage());
+        }
+    }
+
+}
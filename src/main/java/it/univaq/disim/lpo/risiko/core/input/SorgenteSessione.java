@@ -0,0 +1,62 @@
+package it.univaq.disim.lpo.risiko.core.input;
+
+/**
+ * Sorgente che delega a quella collegata al thread corrente.
+ *
+ * InputManagerSingleton è unico nel processo: per ospitare più partite insieme ogni
+ * sessione collega la propria sorgente al thread che esegue la sua partita, e le
+ * letture di quel thread vengono servite da lì. I thread senza una sessione collegata
+ * leggono dalla sorgente predefinita.
+ */
+public class SorgenteSessione implements SorgenteInput {
+
+    private final SorgenteInput predefinita;
+    private final ThreadLocal<SorgenteInput> sessione = new ThreadLocal<>();
+
+    public SorgenteSessione(SorgenteInput predefinita) {
+        if (predefinita == null) {
+            throw new IllegalArgumentException("La sorgente predefinita non può essere null.");
+        }
+        this.predefinita = predefinita;
+    }
+
+    /**
+     * Collega una sorgente al thread corrente.
+     *
+     * @param sorgente la sorgente della sessione eseguita da questo thread.
+     */
+    public void collega(SorgenteInput sorgente) {
+        if (sorgente == null) {
+            throw new IllegalArgumentException("La sorgente non può essere null.");
+        }
+        sessione.set(sorgente);
+    }
+
+    /**
+     * Scollega la sorgente del thread corrente, che torna a leggere da quella predefinita.
+     */
+    public void scollega() {
+        sessione.remove();
+    }
+
+    private SorgenteInput corrente() {
+        SorgenteInput sorgente = sessione.get();
+        return sorgente != null ? sorgente : predefinita;
+    }
+
+    @Override
+    public String leggiRiga() {
+        return corrente().leggiRiga();
+    }
+
+    @Override
+    public boolean isInterattiva() {
+        return corrente().isInterattiva();
+    }
+
+    @Override
+    public void close() {
+        predefinita.close();
+    }
+
+}
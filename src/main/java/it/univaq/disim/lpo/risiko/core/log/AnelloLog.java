@@ -0,0 +1,107 @@
+package it.univaq.disim.lpo.risiko.core.log;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Buffer circolare senza lock per i messaggi di un CanaleLog: più thread possono
+ * aggiungere messaggi, uno solo (lo ScrittoreLog) li consuma.
+ *
+ * Ogni posizione ha un numero di sequenza che dice se è libera per il giro corrente
+ * dei produttori (sequenza == posizione) o pronta per il consumatore
+ * (sequenza == posizione + 1); i produttori si riservano una posizione con una CAS.
+ */
+final class AnelloLog {
+
+    /**
+     * Riceve i messaggi consumati dall'anello.
+     */
+    interface Consumatore {
+
+        void consuma(String messaggio, long istante) throws IOException;
+    }
+
+    private final int maschera;
+    private final String[] messaggi;
+    private final long[] istanti;
+    private final AtomicLongArray sequenze;
+    private final AtomicLong coda = new AtomicLong();
+    // Usata solo dal consumatore
+    private long testa;
+
+    /**
+     * @param capacita la capacità dell'anello, una potenza di due.
+     */
+    AnelloLog(int capacita) {
+        if (Integer.bitCount(capacita) != 1) {
+            throw new IllegalArgumentException("La capacità deve essere una potenza di due.");
+        }
+        this.maschera = capacita - 1;
+        this.messaggi = new String[capacita];
+        this.istanti = new long[capacita];
+        this.sequenze = new AtomicLongArray(capacita);
+        for (int i = 0; i < capacita; i++) {
+            sequenze.set(i, i);
+        }
+    }
+
+    int getCapacita() {
+        return messaggi.length;
+    }
+
+    /**
+     * Aggiunge un messaggio.
+     *
+     * @return false se l'anello è pieno.
+     */
+    boolean offri(String messaggio, long istante) {
+        long posizione;
+        while (true) {
+            posizione = coda.get();
+            long differenza = sequenze.get((int) posizione & maschera) - posizione;
+            if (differenza == 0) {
+                if (coda.compareAndSet(posizione, posizione + 1)) {
+                    break;
+                }
+            } else if (differenza < 0) {
+                return false;
+            }
+        }
+        int indice = (int) posizione & maschera;
+        messaggi[indice] = messaggio;
+        istanti[indice] = istante;
+        sequenze.set(indice, posizione + 1);
+        return true;
+    }
+
+    /**
+     * Numero approssimato di messaggi in attesa.
+     */
+    int getInAttesa() {
+        return (int) Math.max(0, coda.get() - testa);
+    }
+
+    /**
+     * Consuma tutti i messaggi pronti. Va chiamato da un solo thread alla volta.
+     *
+     * @return il numero di messaggi consumati.
+     */
+    int svuota(Consumatore consumatore) throws IOException {
+        int consumati = 0;
+        while (true) {
+            int indice = (int) testa & maschera;
+            if (sequenze.get(indice) != testa + 1) {
+                return consumati;
+            }
+            String messaggio = messaggi[indice];
+            long istante = istanti[indice];
+            messaggi[indice] = null;
+            sequenze.set(indice, testa + messaggi.length);
+            testa++;
+            consumati++;
+            consumatore.consuma(messaggio, istante);
+        }
+    }
+
+}
@@ -0,0 +1,313 @@
+package it.univaq.disim.lpo.risiko.core.log;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+import it.univaq.disim.lpo.risiko.core.utils.OutputUtils;
+
+/**
+ * Canale di log di una partita.
+ *
+ * scrivi() aggiunge il messaggio a un AnelloLog senza lock e ritorna subito: la
+ * formattazione e la scrittura su file avvengono sul thread dello ScrittoreLog, che
+ * tiene il file aperto. Ogni riga del messaggio viene scritta come "[data ora] riga",
+ * con la data formattata una sola volta per secondo.
+ *
+ * Il log è una cartella di segmenti di al più dimensioneSegmento byte, con un IndiceLog
+ * che registra dove inizia ogni round (vedi iniziaRound()). Un messaggio non viene mai
+ * diviso tra due segmenti.
+ *
+ * Le righe arrivano al file a ogni flush(), chiamato a fine turno, oppure al più tardi
+ * dopo INTERVALLO_FLUSH millisecondi.
+ */
+public class CanaleLog {
+
+    /** Messaggi che possono restare in attesa di scrittura. */
+    static final int CAPACITA = 8192;
+
+    /** Intervallo massimo tra due flush del file, in millisecondi. */
+    static final long INTERVALLO_FLUSH = 1000;
+
+    /** Dimensione massima predefinita di un segmento del log, in byte. */
+    public static final long DIMENSIONE_SEGMENTO = 1024 * 1024;
+
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Path cartella;
+    private final long dimensioneSegmento;
+    private final AnelloLog anello = new AnelloLog(CAPACITA);
+    private volatile boolean flushRichiesto;
+    private volatile boolean chiusuraRichiesta;
+    private final CompletableFuture<Void> chiuso = new CompletableFuture<>();
+    // Ultimo round indicizzato, usato dal thread della partita
+    private int ultimoRound;
+    // Parte valida dell'indice all'apertura, a cui seguono i nuovi record
+    private final long lunghezzaIndice;
+
+    // Stato del thread di scrittura
+    private OutputStream segmento;
+    private DataOutputStream indice;
+    private int numeroSegmento;
+    private long posizione;
+    private long ultimoFlush;
+    private long secondoFormattato = Long.MIN_VALUE;
+    private String dataFormattata;
+    private final StringBuilder riga = new StringBuilder(256);
+
+    private CanaleLog(Path cartella, long dimensioneSegmento, int numeroSegmento, int ultimoRound, long lunghezzaIndice) {
+        this.cartella = cartella;
+        this.dimensioneSegmento = dimensioneSegmento;
+        this.numeroSegmento = numeroSegmento;
+        this.ultimoRound = ultimoRound;
+        this.lunghezzaIndice = lunghezzaIndice;
+    }
+
+    /**
+     * Apre il canale di log nella cartella di una partita, in aggiunta ai segmenti esistenti.
+     *
+     * @param cartella la cartella del log.
+     * @return il canale di log.
+     * @throws IOException se l'indice esistente non è leggibile.
+     */
+    public static CanaleLog apri(Path cartella) throws IOException {
+        return apri(cartella, DIMENSIONE_SEGMENTO);
+    }
+
+    /**
+     * Apre il canale di log nella cartella di una partita, in aggiunta ai segmenti esistenti.
+     *
+     * @param cartella           la cartella del log.
+     * @param dimensioneSegmento la dimensione massima di un segmento in byte.
+     * @return il canale di log.
+     * @throws IOException se l'indice esistente non è leggibile.
+     */
+    public static CanaleLog apri(Path cartella, long dimensioneSegmento) throws IOException {
+        if (dimensioneSegmento <= 0) {
+            throw new IllegalArgumentException("La dimensione dei segmenti deve essere positiva.");
+        }
+        IndiceLog indice = IndiceLog.carica(cartella);
+        List<IndiceLog.Posizione> posizioni = indice.getPosizioni();
+        int ultimoRound = posizioni.isEmpty() ? 0 : posizioni.get(posizioni.size() - 1).getRound();
+        CanaleLog canale = new CanaleLog(cartella, dimensioneSegmento, Math.max(0, IndiceLog.ultimoSegmento(cartella)), ultimoRound,
+            indice.getLunghezzaValida());
+        ScrittoreLog.getInstance().registra(canale);
+        return canale;
+    }
+
+    public Path getCartella() {
+        return cartella;
+    }
+
+    /**
+     * Aggiunge un messaggio al log. Se troppi messaggi sono in attesa, aspetta
+     * che lo scrittore ne consumi qualcuno.
+     *
+     * @param messaggio il messaggio, anche su più righe.
+     */
+    public void scrivi(String messaggio) {
+        long istante = System.currentTimeMillis();
+        while (!anello.offri(messaggio, istante)) {
+            ScrittoreLog.getInstance().sveglia();
+            LockSupport.parkNanos(100_000);
+        }
+        if (anello.getInAttesa() > CAPACITA / 2) {
+            ScrittoreLog.getInstance().sveglia();
+        }
+    }
+
+    /**
+     * Segna l'inizio di un round: i messaggi successivi vengono indicizzati sotto questo
+     * round. Un round già indicizzato (ad esempio in una partita ripresa) viene ignorato.
+     *
+     * @param round il numero del round.
+     */
+    public void iniziaRound(int round) {
+        if (round <= ultimoRound) {
+            return;
+        }
+        ultimoRound = round;
+        // Un messaggio null nell'anello è il segnaposto del round, che viaggia nell'istante
+        while (!anello.offri(null, round)) {
+            ScrittoreLog.getInstance().sveglia();
+            LockSupport.parkNanos(100_000);
+        }
+    }
+
+    /**
+     * Chiede di scrivere su file i messaggi in attesa, senza aspettare.
+     */
+    public void flush() {
+        flushRichiesto = true;
+        ScrittoreLog.getInstance().sveglia();
+    }
+
+    /**
+     * Scrive i messaggi in attesa e chiude il file, aspettando che lo scrittore abbia finito.
+     */
+    public void chiudi() {
+        chiusuraRichiesta = true;
+        ScrittoreLog.getInstance().sveglia();
+        try {
+            chiuso.get(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            OutputUtils.println("Errore durante la chiusura del file di log: " + e.getMessage());
+        }
+    }
+
+    boolean isChiuso() {
+        return chiuso.isDone();
+    }
+
+    /*
+     * Eseguito dallo scrittore: consuma l'anello e, se richiesto o se è passato
+     * abbastanza tempo, svuota il buffer del file.
+     * Restituisce true se ha scritto qualcosa.
+     */
+    synchronized boolean svuota(long ora) {
+        if (chiuso.isDone()) {
+            return false;
+        }
+        boolean chiudere = chiusuraRichiesta;
+        boolean flush = flushRichiesto;
+        if (flush) {
+            flushRichiesto = false;
+        }
+        int scritti = 0;
+        try {
+            scritti = anello.svuota(this::consuma);
+            if (segmento != null && (flush || chiudere || ora - ultimoFlush >= INTERVALLO_FLUSH)) {
+                // Prima i dati e poi l'indice, che non deve puntare oltre la fine del segmento
+                segmento.flush();
+                if (indice != null) {
+                    indice.flush();
+                }
+                ultimoFlush = ora;
+            }
+        } catch (IOException e) {
+            OutputUtils.println("Errore durante la scrittura del file di log: " + e.getMessage());
+        }
+        if (chiudere) {
+            try {
+                chiudiFile();
+            } catch (IOException e) {
+                OutputUtils.println("Errore durante la chiusura del file di log: " + e.getMessage());
+            }
+            chiuso.complete(null);
+        }
+        return scritti > 0;
+    }
+
+    private void consuma(String messaggio, long istante) throws IOException {
+        if (messaggio == null) {
+            indicizzaRound((int) istante);
+        } else {
+            scriviRighe(messaggio, istante);
+        }
+    }
+
+    private void indicizzaRound(int round) throws IOException {
+        apriSegmento();
+        if (posizione >= dimensioneSegmento) {
+            // Il round inizia sul segmento successivo
+            ruotaSegmento();
+        }
+        if (indice == null) {
+            Path file = cartella.resolve(IndiceLog.NOME_INDICE);
+            if (Files.exists(file) && Files.size(file) > lunghezzaIndice) {
+                // I record aggiunti devono seguire l'ultimo record completo; se manca
+                // anche il MAGIC l'indice viene riscritto da capo
+                try (FileChannel troncato = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    troncato.truncate(lunghezzaIndice);
+                }
+            }
+            indice = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), 256));
+            if (lunghezzaIndice == 0) {
+                indice.writeInt(IndiceLog.MAGIC);
+            }
+        }
+        IndiceLog.scriviRecord(indice, round, numeroSegmento, posizione);
+    }
+
+    private void apriSegmento() throws IOException {
+        if (segmento != null) {
+            return;
+        }
+        Files.createDirectories(cartella);
+        Path file = IndiceLog.fileSegmento(cartella, numeroSegmento);
+        posizione = Files.exists(file) ? Files.size(file) : 0;
+        segmento = new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND), 16 * 1024);
+    }
+
+    private void ruotaSegmento() throws IOException {
+        segmento.close();
+        segmento = null;
+        numeroSegmento++;
+        apriSegmento();
+    }
+
+    private void chiudiFile() throws IOException {
+        try {
+            if (segmento != null) {
+                segmento.close();
+            }
+        } finally {
+            segmento = null;
+            if (indice != null) {
+                indice.close();
+                indice = null;
+            }
+        }
+    }
+
+    private void scriviRighe(String messaggio, long istante) throws IOException {
+        apriSegmento();
+        long secondo = Math.floorDiv(istante, 1000);
+        if (secondo != secondoFormattato) {
+            dataFormattata = LocalDateTime.ofInstant(Instant.ofEpochSecond(secondo), ZoneId.systemDefault()).format(FORMATO_DATA);
+            secondoFormattato = secondo;
+        }
+        // Una riga del file per ogni riga del messaggio, separate da \n o \r\n
+        riga.setLength(0);
+        int inizio = 0;
+        while (true) {
+            int fine = messaggio.indexOf('\n', inizio);
+            int fineRiga = fine < 0 ? messaggio.length() : fine;
+            if (fineRiga > inizio && messaggio.charAt(fineRiga - 1) == '\r') {
+                fineRiga--;
+            }
+            riga.append('[').append(dataFormattata).append("] ").append(messaggio, inizio, fineRiga).append(System.lineSeparator());
+            if (fine < 0) {
+                break;
+            }
+            inizio = fine + 1;
+        }
+        byte[] dati = riga.toString().getBytes(StandardCharsets.UTF_8);
+        if (posizione > 0 && posizione + dati.length > dimensioneSegmento) {
+            ruotaSegmento();
+        }
+        segmento.write(dati);
+        posizione += dati.length;
+    }
+
+}
@@ -0,0 +1,253 @@
+package it.univaq.disim.lpo.risiko.core.log;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+import it.univaq.disim.lpo.risiko.core.engine.EventoGioco;
+import it.univaq.disim.lpo.risiko.core.model.Carta;
+import it.univaq.disim.lpo.risiko.core.model.Mappa;
+import it.univaq.disim.lpo.risiko.core.model.TopologiaMappa;
+
+/**
+ * Codifica binaria degli eventi del MotoreGioco.
+ * Un evento è un byte con il tipo e un byte con l'indice del giocatore, seguiti dai
+ * suoi dati: i territori sono scritti come id della TopologiaMappa su un byte, gli
+ * avversari come indice del giocatore e le quantità in formato variabile
+ * (7 bit per byte), quindi un evento occupa di solito da 2 a 12 byte.
+ */
+public final class CodecEventi {
+
+    // Id scritto per una carta senza territorio (jolly)
+    private static final int NESSUN_TERRITORIO = 0xFF;
+
+    private CodecEventi() {
+    }
+
+    /**
+     * Scrive un evento.
+     *
+     * @param evento    l'evento da scrivere.
+     * @param giocatori i nomi dei giocatori della partita, nell'ordine degli indici.
+     * @param topologia la topologia della mappa della partita.
+     * @param out       la destinazione.
+     * @throws IOException se l'evento cita giocatori o territori sconosciuti o la scrittura non riesce.
+     */
+    public static void scrivi(EventoGioco evento, List<String> giocatori, TopologiaMappa topologia, DataOutput out) throws IOException {
+        out.writeByte(evento.getTipo().ordinal());
+        scriviGiocatore(out, giocatori, evento.getGiocatore());
+        switch (evento.getTipo()) {
+            case RINFORZI:
+                scriviQuantita(out, evento.getQuantita());
+                scriviQuantita(out, evento.getNumeroTerritori());
+                scriviQuantita(out, evento.getNumeroContinenti());
+                break;
+            case POSIZIONAMENTO:
+                scriviTerritorio(out, topologia, evento.getDestinazione());
+                scriviQuantita(out, evento.getQuantita());
+                break;
+            case CARTE_SCAMBIATE:
+            case FINE_ROUND:
+                scriviQuantita(out, evento.getQuantita());
+                break;
+            case LANCIO_DADI:
+                scriviGiocatore(out, giocatori, evento.getAvversario());
+                scriviTerritorio(out, topologia, evento.getOrigine());
+                scriviTerritorio(out, topologia, evento.getDestinazione());
+                scriviDadi(out, evento.getDadiAttacco());
+                scriviDadi(out, evento.getDadiDifesa());
+                scriviQuantita(out, evento.getPerditeAttaccante());
+                scriviQuantita(out, evento.getPerditeDifensore());
+                break;
+            case BATTAGLIA_BLITZ:
+                scriviGiocatore(out, giocatori, evento.getAvversario());
+                scriviTerritorio(out, topologia, evento.getOrigine());
+                scriviTerritorio(out, topologia, evento.getDestinazione());
+                scriviQuantita(out, evento.getQuantita());
+                scriviQuantita(out, evento.getPerditeAttaccante());
+                scriviQuantita(out, evento.getPerditeDifensore());
+                break;
+            case CONQUISTA:
+                scriviGiocatore(out, giocatori, evento.getAvversario());
+                scriviTerritorio(out, topologia, evento.getOrigine());
+                scriviTerritorio(out, topologia, evento.getDestinazione());
+                break;
+            case CARTA_PESCATA: {
+                Carta carta = evento.getCarta();
+                out.writeByte(carta.getTipo().ordinal());
+                if (carta.getTerritorio() != null) {
+                    scriviTerritorio(out, topologia, carta.getTerritorio().getNome());
+                } else {
+                    out.writeByte(NESSUN_TERRITORIO);
+                }
+                break;
+            }
+            case SPOSTAMENTO_CONQUISTA:
+            case FORTIFICAZIONE:
+                scriviTerritorio(out, topologia, evento.getOrigine());
+                scriviTerritorio(out, topologia, evento.getDestinazione());
+                scriviQuantita(out, evento.getQuantita());
+                break;
+            case INIZIO_TURNO:
+            case MAZZO_VUOTO:
+            case FINE_TURNO:
+            case VITTORIA:
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Legge un evento.
+     *
+     * @param giocatori i nomi dei giocatori della partita, nell'ordine degli indici.
+     * @param mappa     la mappa della partita, usata per i territori delle carte.
+     * @param in        la sorgente.
+     * @return l'evento letto.
+     * @throws IOException se i dati non sono un evento valido.
+     */
+    public static EventoGioco leggi(List<String> giocatori, Mappa mappa, DataInput in) throws IOException {
+        int tipo = in.readUnsignedByte();
+        if (tipo >= EventoGioco.TipoEvento.values().length) {
+            throw new IOException("Tipo di evento non valido: " + tipo + ".");
+        }
+        TopologiaMappa topologia = mappa.getTopologia();
+        String giocatore = leggiGiocatore(in, giocatori);
+        switch (EventoGioco.TipoEvento.values()[tipo]) {
+            case INIZIO_TURNO:
+                return EventoGioco.inizioTurno(giocatore);
+            case RINFORZI:
+                return EventoGioco.rinforzi(giocatore, leggiQuantita(in), leggiQuantita(in), leggiQuantita(in));
+            case POSIZIONAMENTO: {
+                String territorio = leggiTerritorio(in, topologia);
+                return EventoGioco.posizionamento(giocatore, territorio, leggiQuantita(in));
+            }
+            case CARTE_SCAMBIATE:
+                return EventoGioco.carteScambiate(giocatore, leggiQuantita(in));
+            case LANCIO_DADI: {
+                String avversario = leggiGiocatore(in, giocatori);
+                String origine = leggiTerritorio(in, topologia);
+                String destinazione = leggiTerritorio(in, topologia);
+                int[] dadiAttacco = leggiDadi(in);
+                int[] dadiDifesa = leggiDadi(in);
+                return EventoGioco.lancioDadi(giocatore, avversario, origine, destinazione, dadiAttacco, dadiDifesa,
+                    leggiQuantita(in), leggiQuantita(in));
+            }
+            case BATTAGLIA_BLITZ: {
+                String avversario = leggiGiocatore(in, giocatori);
+                String origine = leggiTerritorio(in, topologia);
+                String destinazione = leggiTerritorio(in, topologia);
+                return EventoGioco.battagliaBlitz(giocatore, avversario, origine, destinazione,
+                    leggiQuantita(in), leggiQuantita(in), leggiQuantita(in));
+            }
+            case CONQUISTA: {
+                String avversario = leggiGiocatore(in, giocatori);
+                String origine = leggiTerritorio(in, topologia);
+                return EventoGioco.conquista(giocatore, avversario, origine, leggiTerritorio(in, topologia));
+            }
+            case CARTA_PESCATA: {
+                int tipoCarta = in.readUnsignedByte();
+                if (tipoCarta >= Carta.TipoCarta.values().length) {
+                    throw new IOException("Tipo di carta non valido: " + tipoCarta + ".");
+                }
+                int id = in.readUnsignedByte();
+                if (id != NESSUN_TERRITORIO && id >= topologia.getNumeroTerritori()) {
+                    throw new IOException("Id di territorio non valido: " + id + ".");
+                }
+                return EventoGioco.cartaPescata(giocatore,
+                    new Carta(Carta.TipoCarta.values()[tipoCarta], id != NESSUN_TERRITORIO ? mappa.getTerritorio(id) : null));
+            }
+            case MAZZO_VUOTO:
+                return EventoGioco.mazzoVuoto(giocatore);
+            case SPOSTAMENTO_CONQUISTA: {
+                String origine = leggiTerritorio(in, topologia);
+                String destinazione = leggiTerritorio(in, topologia);
+                return EventoGioco.spostamentoConquista(giocatore, origine, destinazione, leggiQuantita(in));
+            }
+            case FORTIFICAZIONE: {
+                String origine = leggiTerritorio(in, topologia);
+                String destinazione = leggiTerritorio(in, topologia);
+                return EventoGioco.fortificazione(giocatore, origine, destinazione, leggiQuantita(in));
+            }
+            case FINE_TURNO:
+                return EventoGioco.fineTurno(giocatore);
+            case FINE_ROUND:
+                return EventoGioco.fineRound(giocatore, leggiQuantita(in));
+            case VITTORIA:
+            default:
+                return EventoGioco.vittoria(giocatore);
+        }
+    }
+
+    private static void scriviGiocatore(DataOutput out, List<String> giocatori, String nome) throws IOException {
+        int indice = giocatori.indexOf(nome);
+        if (indice < 0) {
+            throw new IOException("Giocatore sconosciuto: " + nome + ".");
+        }
+        out.writeByte(indice);
+    }
+
+    private static String leggiGiocatore(DataInput in, List<String> giocatori) throws IOException {
+        int indice = in.readUnsignedByte();
+        if (indice >= giocatori.size()) {
+            throw new IOException("Indice di giocatore non valido: " + indice + ".");
+        }
+        return giocatori.get(indice);
+    }
+
+    private static void scriviTerritorio(DataOutput out, TopologiaMappa topologia, String nome) throws IOException {
+        int id = topologia.getIdTerritorio(nome);
+        if (id < 0) {
+            throw new IOException("Territorio sconosciuto: " + nome + ".");
+        }
+        out.writeByte(id);
+    }
+
+    private static String leggiTerritorio(DataInput in, TopologiaMappa topologia) throws IOException {
+        int id = in.readUnsignedByte();
+        if (id >= topologia.getNumeroTerritori()) {
+            throw new IOException("Id di territorio non valido: " + id + ".");
+        }
+        return topologia.getNomeTerritorio(id);
+    }
+
+    private static void scriviDadi(DataOutput out, int[] dadi) throws IOException {
+        out.writeByte(dadi.length);
+        for (int dado : dadi) {
+            out.writeByte(dado);
+        }
+    }
+
+    private static int[] leggiDadi(DataInput in) throws IOException {
+        int[] dadi = new int[in.readUnsignedByte()];
+        for (int i = 0; i < dadi.length; i++) {
+            dadi[i] = in.readUnsignedByte();
+        }
+        return dadi;
+    }
+
+    private static void scriviQuantita(DataOutput out, int quantita) throws IOException {
+        if (quantita < 0) {
+            throw new IOException("Quantità negativa: " + quantita + ".");
+        }
+        while (quantita >= 0x80) {
+            out.writeByte((quantita & 0x7F) | 0x80);
+            quantita >>>= 7;
+        }
+        out.writeByte(quantita);
+    }
+
+    private static int leggiQuantita(DataInput in) throws IOException {
+        int quantita = 0;
+        for (int spostamento = 0; spostamento < 32; spostamento += 7) {
+            int b = in.readUnsignedByte();
+            quantita |= (b & 0x7F) << spostamento;
+            if ((b & 0x80) == 0) {
+                return quantita;
+            }
+        }
+        throw new IOException("Quantità non valida.");
+    }
+
+}
@@ -0,0 +1,158 @@
+package it.univaq.disim.lpo.risiko.core.log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import it.univaq.disim.lpo.risiko.core.engine.EventoGioco;
+import it.univaq.disim.lpo.risiko.core.model.Carta;
+
+/**
+ * Traduce gli eventi della partita nelle righe del log leggibile.
+ * Le stesse righe vengono scritte nel log durante la partita e possono essere
+ * ricostruite in seguito dagli eventi di un RegistroEventi.
+ */
+public final class DescrizioneEventi {
+
+    private DescrizioneEventi() {
+    }
+
+    /**
+     * Restituisce il livello del log a partire dal quale un evento compare nel log leggibile.
+     *
+     * @param evento l'evento.
+     * @return il livello dell'evento, NESSUNO per gli eventi che non compaiono nel log.
+     */
+    public static LivelloLog livello(EventoGioco evento) {
+        switch (evento.getTipo()) {
+            case INIZIO_TURNO:
+            case FINE_TURNO:
+                return LivelloLog.PARTITA;
+            case MAZZO_VUOTO:
+            case FINE_ROUND:
+            case VITTORIA:
+                return LivelloLog.NESSUNO;
+            default:
+                // Il lancio dei dadi ha il risultato tra le azioni e i dadi nel livello DADI
+                return LivelloLog.AZIONI;
+        }
+    }
+
+    /**
+     * Restituisce tutte le righe del log leggibile per un evento; una stringa vuota separa le azioni.
+     *
+     * @param evento l'evento da descrivere.
+     * @return le righe del log, vuota per gli eventi che non compaiono nel log.
+     */
+    public static List<String> descrivi(EventoGioco evento) {
+        return descrivi(evento, LivelloLog.DADI);
+    }
+
+    /**
+     * Restituisce le righe del log leggibile per un evento fino al livello indicato.
+     *
+     * @param evento  l'evento da descrivere.
+     * @param livello il livello di dettaglio del log.
+     * @return le righe del log, vuota se l'evento non compare nel log a questo livello.
+     */
+    public static List<String> descrivi(EventoGioco evento, LivelloLog livello) {
+        if (!livello.include(livello(evento))) {
+            return new ArrayList<>(0);
+        }
+        List<String> righe = new ArrayList<>(4);
+        String nome = evento.getGiocatore().toUpperCase();
+        switch (evento.getTipo()) {
+            case INIZIO_TURNO:
+                righe.add("Inizio del turno di " + nome);
+                break;
+            case RINFORZI:
+                righe.add("Giocatore " + nome + " riceve " + evento.getQuantita() + " armate (Territori: "
+                    + evento.getNumeroTerritori() + ", Continenti: " + evento.getNumeroContinenti() + ").");
+                break;
+            case POSIZIONAMENTO:
+                righe.add("Giocatore " + nome + " ha posizionato " + evento.getQuantita()
+                    + (evento.getQuantita() == 1 ? " armata su " : " armate su ") + evento.getDestinazione());
+                break;
+            case CARTE_SCAMBIATE:
+                righe.add("Giocatore " + nome + " ha scambiato carte per " + evento.getQuantita() + " armate.");
+                break;
+            case LANCIO_DADI:
+                if (livello.include(LivelloLog.DADI)) {
+                    righe.add("L'attaccante ha lanciato i dadi: " + Arrays.toString(evento.getDadiAttacco()));
+                    righe.add("Il difensore ha lanciato i dadi: " + Arrays.toString(evento.getDadiDifesa()));
+                }
+                righe.add("\nRisultato dell'attacco: " + evento.getPerditeAttaccante()
+                    + " armate perse dall'attaccante, " + evento.getPerditeDifensore() + " armate perse dal difensore.");
+                righe.add("");
+                break;
+            case BATTAGLIA_BLITZ:
+                righe.add("Attacco blitz da " + evento.getOrigine() + " a " + evento.getDestinazione() + ": "
+                    + evento.getQuantita() + " lanci, " + evento.getPerditeAttaccante() + " armate perse dall'attaccante, "
+                    + evento.getPerditeDifensore() + " armate perse dal difensore.");
+                righe.add("");
+                break;
+            case CONQUISTA:
+                righe.add("Giocatore " + nome + " ha conquistato il territorio " + evento.getDestinazione()
+                    + " da " + evento.getAvversario().toUpperCase());
+                righe.add("");
+                break;
+            case CARTA_PESCATA:
+                righe.add("Giocatore " + nome + " ha ricevuto una carta: " + descriviCarta(evento.getCarta()));
+                righe.add("");
+                break;
+            case SPOSTAMENTO_CONQUISTA:
+                righe.add("Giocatore " + nome + " ha spostato " + evento.getQuantita() + " armate da "
+                    + evento.getOrigine() + " a " + evento.getDestinazione() + " dopo averlo conquistato.");
+                righe.add("");
+                break;
+            case FORTIFICAZIONE:
+                righe.add("Giocatore " + nome + " ha spostato " + evento.getQuantita() + " armate da "
+                    + evento.getOrigine() + " a " + evento.getDestinazione());
+                righe.add("");
+                break;
+            case FINE_TURNO:
+                righe.add("Turno di " + nome + " terminato.");
+                righe.add("");
+                break;
+            default:
+                break;
+        }
+        return righe;
+    }
+
+    /**
+     * Restituisce tutte le righe del log leggibile per una sequenza di eventi.
+     *
+     * @param eventi gli eventi da descrivere, in ordine.
+     * @return le righe del log.
+     */
+    public static List<String> descrivi(List<EventoGioco> eventi) {
+        return descrivi(eventi, LivelloLog.DADI);
+    }
+
+    /**
+     * Restituisce le righe del log leggibile per una sequenza di eventi fino al livello indicato.
+     *
+     * @param eventi  gli eventi da descrivere, in ordine.
+     * @param livello il livello di dettaglio del log.
+     * @return le righe del log.
+     */
+    public static List<String> descrivi(List<EventoGioco> eventi, LivelloLog livello) {
+        List<String> righe = new ArrayList<>(eventi.size() * 2);
+        for (EventoGioco evento : eventi) {
+            righe.addAll(descrivi(evento, livello));
+        }
+        return righe;
+    }
+
+    /**
+     * Restituisce la descrizione testuale di una carta.
+     *
+     * @param carta la carta da descrivere.
+     * @return il tipo della carta seguito dall'eventuale territorio.
+     */
+    public static String descriviCarta(Carta carta) {
+        return carta.getTipo() + (carta.getTerritorio() != null ? " - " + carta.getTerritorio().getNome() : "");
+    }
+
+}
@@ -0,0 +1,252 @@
+package it.univaq.disim.lpo.risiko.core.log;
+
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Indice di un log a segmenti: per ogni round, il segmento e la posizione in byte
+ * della sua prima riga.
+ *
+ * Il log di una partita è una cartella con i segmenti (segmento-00000.log, ...), ciascuno
+ * di al più CanaleLog.DIMENSIONE_SEGMENTO byte, e il file indice.idx: un MAGIC seguito da
+ * record di 16 byte (round, segmento, posizione). Permette di leggere il log a partire
+ * da un round senza scorrere i segmenti precedenti.
+ */
+public class IndiceLog {
+
+    /** Nome del file indice nella cartella del log. */
+    public static final String NOME_INDICE = "indice.idx";
+
+    static final int MAGIC = 0x52534B49; // "RSKI"
+    static final int DIMENSIONE_RECORD = 16;
+
+    private static final String PREFISSO_SEGMENTO = "segmento-";
+    private static final String ESTENSIONE_SEGMENTO = ".log";
+
+    /**
+     * Posizione della prima riga di un round.
+     */
+    public static final class Posizione {
+
+        private final int round;
+        private final int segmento;
+        private final long offset;
+
+        Posizione(int round, int segmento, long offset) {
+            this.round = round;
+            this.segmento = segmento;
+            this.offset = offset;
+        }
+
+        public int getRound() {
+            return round;
+        }
+
+        public int getSegmento() {
+            return segmento;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+    }
+
+    private final Path cartella;
+    private final List<Posizione> posizioni;
+    private final int numeroSegmenti;
+    private final long lunghezzaValida;
+
+    private IndiceLog(Path cartella, List<Posizione> posizioni, int numeroSegmenti, long lunghezzaValida) {
+        this.cartella = cartella;
+        this.posizioni = posizioni;
+        this.numeroSegmenti = numeroSegmenti;
+        this.lunghezzaValida = lunghezzaValida;
+    }
+
+    /**
+     * Carica l'indice del log di una partita. Un record incompleto alla fine
+     * dell'indice, lasciato da una scrittura interrotta, viene ignorato: la parte
+     * valida del file è indicata da getLunghezzaValida().
+     *
+     * @param cartella la cartella del log.
+     * @return l'indice, vuoto se la cartella non esiste ancora.
+     * @throws IOException se l'indice non è valido.
+     */
+    public static IndiceLog carica(Path cartella) throws IOException {
+        List<Posizione> posizioni = new ArrayList<>();
+        long lunghezzaValida = 0;
+        Path indice = cartella.resolve(NOME_INDICE);
+        if (Files.exists(indice)) {
+            ByteBuffer dati = ByteBuffer.wrap(Files.readAllBytes(indice));
+            if (dati.remaining() >= 4) {
+                if (dati.getInt() != MAGIC) {
+                    throw new IOException("Il file " + indice + " non è un indice di log.");
+                }
+                while (dati.remaining() >= DIMENSIONE_RECORD) {
+                    posizioni.add(new Posizione(dati.getInt(), dati.getInt(), dati.getLong()));
+                }
+                lunghezzaValida = dati.position();
+            }
+        }
+        return new IndiceLog(cartella, Collections.unmodifiableList(posizioni), ultimoSegmento(cartella) + 1, lunghezzaValida);
+    }
+
+    public Path getCartella() {
+        return cartella;
+    }
+
+    public int getNumeroSegmenti() {
+        return numeroSegmenti;
+    }
+
+    /*
+     * Byte del file indice occupati dal MAGIC e dai record completi, 0 se il file
+     * non esiste o non contiene nemmeno il MAGIC.
+     */
+    long getLunghezzaValida() {
+        return lunghezzaValida;
+    }
+
+    /**
+     * Restituisce le posizioni indicizzate, in ordine di round.
+     */
+    public List<Posizione> getPosizioni() {
+        return posizioni;
+    }
+
+    /**
+     * Restituisce la posizione della prima riga di un round.
+     *
+     * @param round il numero del round.
+     * @return la posizione, null se il round non è nell'indice.
+     */
+    public Posizione getPosizione(int round) {
+        int basso = 0;
+        int alto = posizioni.size() - 1;
+        while (basso <= alto) {
+            int medio = (basso + alto) >>> 1;
+            int trovato = posizioni.get(medio).getRound();
+            if (trovato < round) {
+                basso = medio + 1;
+            } else if (trovato > round) {
+                alto = medio - 1;
+            } else {
+                return posizioni.get(medio);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Apre il log dall'inizio di un round fino alla fine dell'ultimo segmento.
+     *
+     * @param round il numero del round.
+     * @return il lettore delle righe del log, da chiudere dopo l'uso.
+     * @throws IOException se il round non è nell'indice o i segmenti non sono leggibili.
+     */
+    public BufferedReader leggiDalRound(int round) throws IOException {
+        Posizione posizione = getPosizione(round);
+        if (posizione == null) {
+            throw new IOException("Il round " + round + " non è presente nel log.");
+        }
+        return leggiDa(posizione.getSegmento(), posizione.getOffset());
+    }
+
+    /**
+     * Apre il log dalla prima riga.
+     *
+     * @return il lettore delle righe del log, da chiudere dopo l'uso.
+     * @throws IOException se i segmenti non sono leggibili.
+     */
+    public BufferedReader leggiTutto() throws IOException {
+        return leggiDa(0, 0);
+    }
+
+    private BufferedReader leggiDa(int primoSegmento, long offset) throws IOException {
+        InputStream primo = Files.newInputStream(fileSegmento(cartella, primoSegmento));
+        primo.skipNBytes(offset);
+        // I segmenti successivi vengono aperti solo quando la lettura li raggiunge
+        Enumeration<InputStream> segmenti = new Enumeration<InputStream>() {
+            private int prossimo = primoSegmento;
+
+            @Override
+            public boolean hasMoreElements() {
+                return prossimo < numeroSegmenti;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                if (!hasMoreElements()) {
+                    throw new NoSuchElementException();
+                }
+                if (prossimo++ == primoSegmento) {
+                    return primo;
+                }
+                try {
+                    return Files.newInputStream(fileSegmento(cartella, prossimo - 1));
+                } catch (IOException e) {
+                    // Segmento mancante: la lettura prosegue con i successivi
+                    return InputStream.nullInputStream();
+                }
+            }
+        };
+        return new BufferedReader(new InputStreamReader(new SequenceInputStream(segmenti), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Restituisce il file di un segmento.
+     *
+     * @param cartella la cartella del log.
+     * @param numero   il numero del segmento, da zero.
+     * @return il file del segmento.
+     */
+    public static Path fileSegmento(Path cartella, int numero) {
+        return cartella.resolve(String.format("%s%05d%s", PREFISSO_SEGMENTO, numero, ESTENSIONE_SEGMENTO));
+    }
+
+    /*
+     * Numero dell'ultimo segmento presente nella cartella, -1 se non ce ne sono.
+     */
+    static int ultimoSegmento(Path cartella) throws IOException {
+        if (!Files.isDirectory(cartella)) {
+            return -1;
+        }
+        int ultimo = -1;
+        try (DirectoryStream<Path> segmenti = Files.newDirectoryStream(cartella, PREFISSO_SEGMENTO + "*" + ESTENSIONE_SEGMENTO)) {
+            for (Path segmento : segmenti) {
+                String nome = segmento.getFileName().toString();
+                try {
+                    ultimo = Math.max(ultimo, Integer.parseInt(
+                        nome.substring(PREFISSO_SEGMENTO.length(), nome.length() - ESTENSIONE_SEGMENTO.length())));
+                } catch (NumberFormatException e) {
+                    // Non è un segmento del log
+                }
+            }
+        }
+        return ultimo;
+    }
+
+    /*
+     * Scrive un record dell'indice.
+     */
+    static void scriviRecord(DataOutputStream out, int round, int segmento, long offset) throws IOException {
+        out.writeInt(round);
+        out.writeInt(segmento);
+        out.writeLong(offset);
+    }
+
+}
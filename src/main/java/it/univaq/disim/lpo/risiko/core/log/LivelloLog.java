@@ -0,0 +1,28 @@
+package it.univaq.disim.lpo.risiko.core.log;
+
+/**
+ * Livelli di dettaglio del log leggibile, dal meno al più dettagliato.
+ * Impostando un livello vengono scritti i messaggi di quel livello e dei precedenti.
+ */
+public enum LivelloLog {
+
+    /** Nessun messaggio. */
+    NESSUNO,
+    /** Andamento della partita: avvio, obiettivi, inizio e fine dei turni, vittoria. */
+    PARTITA,
+    /** Azioni dei giocatori: rinforzi, posizionamenti, attacchi, conquiste, carte, spostamenti. */
+    AZIONI,
+    /** Dettaglio dei singoli lanci di dadi. */
+    DADI;
+
+    /**
+     * Indica se i messaggi di un livello vanno scritti quando è impostato questo livello.
+     *
+     * @param messaggio il livello del messaggio.
+     * @return true se il messaggio va scritto.
+     */
+    public boolean include(LivelloLog messaggio) {
+        return messaggio != NESSUNO && messaggio.ordinal() <= ordinal();
+    }
+
+}
@@ -0,0 +1,256 @@
+package it.univaq.disim.lpo.risiko.core.log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import it.univaq.disim.lpo.risiko.core.engine.EventoGioco;
+import it.univaq.disim.lpo.risiko.core.model.Giocatore;
+import it.univaq.disim.lpo.risiko.core.model.Gioco;
+import it.univaq.disim.lpo.risiko.core.model.Mappa;
+import it.univaq.disim.lpo.risiko.core.model.TopologiaMappa;
+import it.univaq.disim.lpo.risiko.core.utils.OutputUtils;
+
+/**
+ * Registro degli eventi di una partita, scritto nella cartella del log leggibile.
+ *
+ * Il file inizia con un'intestazione (MAGIC, versione, nomi dei giocatori) seguita dagli
+ * eventi codificati con CodecEventi, uno dopo l'altro. Gli eventi vengono codificati in
+ * memoria e aggiunti al file a ogni flush(); una partita caricata continua il registro
+ * esistente. Il log leggibile si può ricostruire con leggi() e DescrizioneEventi.
+ */
+public class RegistroEventi implements AutoCloseable {
+
+    /** Nome del file degli eventi nella cartella del log della partita. */
+    public static final String NOME_FILE = "partita.eventi";
+
+    private static final int MAGIC = 0x52534B45; // "RSKE"
+    private static final int VERSIONE = 1;
+
+    private final Path file;
+    private final Gioco gioco;
+    private final List<String> giocatori;
+    private final TopologiaMappa topologia;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+    private final DataOutputStream out = new DataOutputStream(buffer);
+    // Evento in codifica, copiato nel buffer solo se completo
+    private final ByteArrayOutputStream evento = new ByteArrayOutputStream(32);
+    private final DataOutputStream outEvento = new DataOutputStream(evento);
+    private FileChannel canale;
+
+    private RegistroEventi(Path file, Gioco gioco, List<String> giocatori) {
+        this.file = file;
+        this.gioco = gioco;
+        this.giocatori = giocatori;
+        this.topologia = gioco.getMappa().getTopologia();
+    }
+
+    /**
+     * Restituisce il file degli eventi nella cartella del log di una partita.
+     *
+     * @param cartellaLog la cartella del log.
+     * @return il file degli eventi.
+     */
+    public static Path fileEventi(Path cartellaLog) {
+        return cartellaLog.resolve(NOME_FILE);
+    }
+
+    /**
+     * Apre il registro degli eventi di una partita, creandolo se non esiste.
+     *
+     * @param file  il file degli eventi.
+     * @param gioco la partita.
+     * @return il registro.
+     * @throws IOException se il file esiste ma appartiene a un'altra partita.
+     */
+    public static RegistroEventi apri(Path file, Gioco gioco) throws IOException {
+        List<String> giocatori = new ArrayList<>();
+        for (Giocatore giocatore : gioco.getGiocatori()) {
+            giocatori.add(giocatore.getNome());
+        }
+        RegistroEventi registro = new RegistroEventi(file, gioco, Collections.unmodifiableList(giocatori));
+        if (Files.exists(file) && Files.size(file) > 0) {
+            byte[] dati = Files.readAllBytes(file);
+            List<String> giocatoriFile = new ArrayList<>();
+            int lunghezzaValida = decodifica(dati, file, gioco.getMappa(), giocatoriFile, null);
+            if (!giocatori.equals(giocatoriFile)) {
+                throw new IOException("Il file " + file + " contiene gli eventi di un'altra partita.");
+            }
+            if (lunghezzaValida < dati.length) {
+                // Le aggiunte devono seguire l'ultimo evento completo
+                try (FileChannel troncato = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    troncato.truncate(lunghezzaValida);
+                }
+            }
+        } else {
+            registro.out.writeInt(MAGIC);
+            registro.out.writeByte(VERSIONE);
+            registro.out.writeByte(giocatori.size());
+            for (String nome : giocatori) {
+                registro.out.writeUTF(nome);
+            }
+        }
+        return registro;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public Gioco getGioco() {
+        return gioco;
+    }
+
+    /**
+     * Codifica un evento in memoria; arriva al file al prossimo flush().
+     *
+     * @param evento l'evento da registrare.
+     * @throws IOException se l'evento non è codificabile per questa partita.
+     */
+    public void registra(EventoGioco evento) throws IOException {
+        try {
+            CodecEventi.scrivi(evento, giocatori, topologia, outEvento);
+            this.evento.writeTo(buffer);
+        } finally {
+            this.evento.reset();
+        }
+    }
+
+    /**
+     * Aggiunge al file gli eventi registrati dall'ultimo flush.
+     *
+     * @throws IOException se la scrittura non riesce.
+     */
+    public void flush() throws IOException {
+        if (buffer.size() == 0) {
+            return;
+        }
+        if (canale == null) {
+            canale = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        ByteBuffer dati = ByteBuffer.wrap(buffer.toByteArray());
+        while (dati.hasRemaining()) {
+            canale.write(dati);
+        }
+        buffer.reset();
+    }
+
+    /**
+     * Scrive gli eventi in attesa e chiude il file.
+     */
+    @Override
+    public void close() {
+        try {
+            flush();
+        } catch (IOException e) {
+            OutputUtils.println("Errore durante la scrittura degli eventi della partita: " + e.getMessage());
+        }
+        if (canale != null) {
+            try {
+                canale.close();
+            } catch (IOException e) {
+                OutputUtils.println("Errore durante la chiusura del file degli eventi: " + e.getMessage());
+            }
+            canale = null;
+        }
+    }
+
+    /**
+     * Legge tutti gli eventi di un file. Un evento incompleto alla fine del file
+     * (processo interrotto durante la scrittura) viene ignorato.
+     *
+     * @param file  il file degli eventi.
+     * @param mappa la mappa della partita.
+     * @return gli eventi, in ordine.
+     * @throws IOException se il file non è un registro di eventi valido.
+     */
+    public static List<EventoGioco> leggi(Path file, Mappa mappa) throws IOException {
+        List<EventoGioco> eventi = new ArrayList<>();
+        decodifica(Files.readAllBytes(file), file, mappa, new ArrayList<>(), eventi);
+        return eventi;
+    }
+
+    /*
+     * Decodifica l'intestazione e gli eventi completi. Restituisce la lunghezza della parte
+     * valida del file, cioè la posizione che segue l'ultimo evento completo.
+     */
+    private static int decodifica(byte[] dati, Path file, Mappa mappa, List<String> giocatori, List<EventoGioco> eventi) throws IOException {
+        try (ContaByte conta = new ContaByte(dati); DataInputStream in = new DataInputStream(conta)) {
+            giocatori.addAll(leggiIntestazione(in));
+            while (conta.getLetti() < dati.length) {
+                int inizio = conta.getLetti();
+                try {
+                    EventoGioco evento = CodecEventi.leggi(giocatori, mappa, in);
+                    if (eventi != null) {
+                        eventi.add(evento);
+                    }
+                } catch (EOFException e) {
+                    OutputUtils.println("Evento incompleto ignorato alla posizione " + inizio + " di " + file + ".");
+                    return inizio;
+                }
+            }
+            return dati.length;
+        }
+    }
+
+    private static List<String> leggiIntestazione(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Il file non è un registro di eventi.");
+        }
+        int versione = in.readUnsignedByte();
+        if (versione != VERSIONE) {
+            throw new IOException("Versione del registro di eventi non supportata: " + versione + ".");
+        }
+        int numeroGiocatori = in.readUnsignedByte();
+        List<String> giocatori = new ArrayList<>(numeroGiocatori);
+        for (int i = 0; i < numeroGiocatori; i++) {
+            giocatori.add(in.readUTF());
+        }
+        return giocatori;
+    }
+
+    /*
+     * Sorgente su un array che tiene il conto dei byte letti, per riconoscere la fine del file.
+     */
+    private static final class ContaByte extends InputStream {
+
+        private final byte[] dati;
+        private int posizione;
+
+        ContaByte(byte[] dati) {
+            this.dati = dati;
+        }
+
+        int getLetti() {
+            return posizione;
+        }
+
+        @Override
+        public int read() {
+            return posizione < dati.length ? dati[posizione++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (posizione >= dati.length) {
+                return -1;
+            }
+            int letti = Math.min(len, dati.length - posizione);
+            System.arraycopy(dati, posizione, b, off, letti);
+            posizione += letti;
+            return letti;
+        }
+    }
+
+}
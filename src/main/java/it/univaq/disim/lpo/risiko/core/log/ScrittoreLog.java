@@ -0,0 +1,73 @@
+package it.univaq.disim.lpo.risiko.core.log;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Thread di scrittura unico per tutti i CanaleLog aperti.
+ * Si sveglia quando un canale lo richiede (flush, chiusura, anello quasi pieno) o
+ * comunque ogni ATTESA millisecondi. Alla chiusura della JVM scrive i messaggi rimasti.
+ */
+final class ScrittoreLog implements Runnable {
+
+    // Attesa massima tra due passaggi dello scrittore
+    private static final long ATTESA = 50;
+
+    private static ScrittoreLog instance;
+
+    private final List<CanaleLog> canali = new CopyOnWriteArrayList<>();
+    private final Thread thread;
+
+    private ScrittoreLog() {
+        thread = new Thread(this, "scrittore-log");
+        thread.setDaemon(true);
+        thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::svuotaTutti, "scrittore-log-chiusura"));
+    }
+
+    static ScrittoreLog getInstance() {
+        if (instance == null) {
+            synchronized (ScrittoreLog.class) {
+                if (instance == null) {
+                    instance = new ScrittoreLog();
+                }
+            }
+        }
+        return instance;
+    }
+
+    void registra(CanaleLog canale) {
+        canali.add(canale);
+    }
+
+    void sveglia() {
+        LockSupport.unpark(thread);
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            boolean lavoro = false;
+            long ora = System.currentTimeMillis();
+            for (CanaleLog canale : canali) {
+                lavoro |= canale.svuota(ora);
+                if (canale.isChiuso()) {
+                    canali.remove(canale);
+                }
+            }
+            if (!lavoro) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(ATTESA));
+            }
+        }
+    }
+
+    private void svuotaTutti() {
+        for (CanaleLog canale : canali) {
+            canale.flush();
+            canale.svuota(System.currentTimeMillis());
+        }
+    }
+
+}
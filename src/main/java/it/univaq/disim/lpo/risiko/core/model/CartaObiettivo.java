@@ -1,14 +1,96 @@
 package it.univaq.disim.lpo.risiko.core.model;
 
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
+/**
+ * Carta obiettivo tipizzata: oltre alla descrizione mostrata al giocatore contiene
+ * i dati con cui verificare il completamento (continenti richiesti, numero di territori).
+ * I nomi dei continenti vengono risolti una sola volta in un insieme di bit sugli id
+ * della TopologiaMappa, da confrontare con Giocatore.getContinentiControllati().
+ */
 public class CartaObiettivo implements Serializable {
 
     private static final long serialVersionUID = 1L;
+
+    public enum TipoObiettivo {
+        // Conquistare i continenti indicati ed eventualmente altri continenti a scelta
+        CONTINENTI,
+        // Conquistare un numero minimo di territori
+        TERRITORI,
+        // Conquistare un numero minimo di territori con almeno Giocatore.ARMATE_PRESIDIO armate ciascuno
+        TERRITORI_PRESIDIATI
+    }
+
     private String descrizione;
+    private TipoObiettivo tipo;
+    private List<String> continenti;
+    private int continentiAScelta;
+    private int numeroTerritori;
+
+    // Continenti richiesti compilati sulla topologia indicata
+    private transient TopologiaMappa topologiaCompilata;
+    private transient int mascheraContinenti;
 
-    public CartaObiettivo(String descrizione) {
+    private CartaObiettivo(String descrizione, TipoObiettivo tipo, List<String> continenti, int continentiAScelta, int numeroTerritori) {
         this.descrizione = descrizione;
+        this.tipo = tipo;
+        this.continenti = continenti;
+        this.continentiAScelta = continentiAScelta;
+        this.numeroTerritori = numeroTerritori;
+    }
+
+    /**
+     * Crea un obiettivo di conquista di continenti.
+     *
+     * @param descrizione       la descrizione mostrata al giocatore.
+     * @param continentiAScelta il numero di continenti da conquistare oltre a quelli indicati.
+     * @param continenti        i nomi dei continenti da conquistare, come nella mappa.
+     * @return la carta obiettivo.
+     */
+    public static CartaObiettivo conquistaContinenti(String descrizione, int continentiAScelta, String... continenti) {
+        return new CartaObiettivo(descrizione, TipoObiettivo.CONTINENTI, Arrays.asList(continenti), continentiAScelta, 0);
+    }
+
+    /**
+     * Crea un obiettivo di conquista di un numero minimo di territori.
+     *
+     * @param descrizione     la descrizione mostrata al giocatore.
+     * @param numeroTerritori il numero di territori da conquistare.
+     * @return la carta obiettivo.
+     */
+    public static CartaObiettivo conquistaTerritori(String descrizione, int numeroTerritori) {
+        return new CartaObiettivo(descrizione, TipoObiettivo.TERRITORI, Collections.emptyList(), 0, numeroTerritori);
+    }
+
+    /**
+     * Crea un obiettivo di conquista di territori presidiati con almeno Giocatore.ARMATE_PRESIDIO armate.
+     *
+     * @param descrizione     la descrizione mostrata al giocatore.
+     * @param numeroTerritori il numero di territori da presidiare.
+     * @return la carta obiettivo.
+     */
+    public static CartaObiettivo presidiaTerritori(String descrizione, int numeroTerritori) {
+        return new CartaObiettivo(descrizione, TipoObiettivo.TERRITORI_PRESIDIATI, Collections.emptyList(), 0, numeroTerritori);
+    }
+
+    /**
+     * Restituisce le carte obiettivo del gioco classico, ogni volta in una nuova lista.
+     *
+     * @return la lista delle carte obiettivo.
+     */
+    public static List<CartaObiettivo> obiettiviClassici() {
+        return Arrays.asList(
+            conquistaContinenti("Conquistare la totalità dell'America del Nord e dell'Africa", 0, "America del Nord", "Africa"),
+            conquistaContinenti("Conquistare la totalità dell'America del Nord e dell'Oceania", 0, "America del Nord", "Oceania"),
+            conquistaContinenti("Conquistare la totalità dell'Asia e del Sud America", 0, "Asia", "America del Sud"),
+            conquistaContinenti("Conquistare la totalità dell'Asia e dell'Africa", 0, "Asia", "Africa"),
+            presidiaTerritori("Conquistare 18 territori presidiandoli con almeno due armate ciascuno", 18),
+            conquistaTerritori("Conquistare 24 territori", 24),
+            conquistaContinenti("Conquistare la totalità dell'Europa, del Sud America e di un terzo continente a scelta", 1, "Europa", "America del Sud"),
+            conquistaContinenti("Conquistare la totalità dell'Europa, dell'Oceania e di un terzo continente a scelta", 1, "Europa", "Oceania"));
     }
 
     public String getDescrizione() {
@@ -19,4 +101,66 @@ public class CartaObiettivo implements Serializable {
         this.descrizione = descrizione;
     }
 
-}
\ No newline at end of file
+    public TipoObiettivo getTipo() {
+        return tipo;
+    }
+
+    public List<String> getContinenti() {
+        return continenti;
+    }
+
+    public int getContinentiAScelta() {
+        return continentiAScelta;
+    }
+
+    public int getNumeroTerritori() {
+        return numeroTerritori;
+    }
+
+    /**
+     * Indica se il completamento dipende dalle armate sui territori, oltre che dal loro possesso.
+     */
+    public boolean dipendeDalleArmate() {
+        return tipo == TipoObiettivo.TERRITORI_PRESIDIATI;
+    }
+
+    /**
+     * Restituisce i continenti richiesti come insieme di bit sugli id della topologia,
+     * compilandoli alla prima richiesta per ogni topologia.
+     *
+     * @param topologia la topologia della mappa della partita.
+     * @return l'insieme dei continenti richiesti.
+     * @throws IllegalStateException se un continente richiesto non esiste nella mappa.
+     */
+    public int getMascheraContinenti(TopologiaMappa topologia) {
+        if (topologiaCompilata != topologia) {
+            int maschera = 0;
+            for (String nome : continenti) {
+                int continente = topologia.getIdContinente(nome);
+                if (continente < 0) {
+                    throw new IllegalStateException("Il continente " + nome + " dell'obiettivo non esiste nella mappa.");
+                }
+                maschera |= 1 << continente;
+            }
+            mascheraContinenti = maschera;
+            topologiaCompilata = topologia;
+        }
+        return mascheraContinenti;
+    }
+
+    /*
+     * Le partite salvate prima degli obiettivi tipizzati contengono solo la descrizione:
+     * la carta viene sostituita con quella classica che ha la stessa descrizione.
+     */
+    private Object readResolve() {
+        if (tipo == null) {
+            for (CartaObiettivo obiettivo : obiettiviClassici()) {
+                if (obiettivo.descrizione.equals(descrizione)) {
+                    return obiettivo;
+                }
+            }
+        }
+        return this;
+    }
+
+}
@@ -8,6 +8,7 @@ public class Continente implements Serializable {
 
     private static final long serialVersionUID = 1L;
     private String nome;
+    private int id = -1;
     private List<Territorio> territori;
     private List<Territorio> confini;
 
@@ -29,6 +30,17 @@ public class Continente implements Serializable {
         this.nome = nome;
     }
 
+    /**
+     * Restituisce l'id del continente nella TopologiaMappa, -1 se la mappa non è ancora compilata.
+     */
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
     public List<Territorio> getTerritori() {
         return this.territori;
     }
@@ -0,0 +1,80 @@
+package it.univaq.disim.lpo.risiko.core.model;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Generatore di numeri casuali di una partita (algoritmo SplitMix64).
+ * Ogni decisione casuale della partita (ordine di gioco, obiettivi, territori,
+ * mazzo e dadi) passa da questo generatore, che viene salvato insieme al Gioco:
+ * a parità di seme e di comandi la partita si ripete identica.
+ */
+public class GeneratoreCasuale implements RandomGenerator, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long seme;
+    private long stato;
+
+    /**
+     * Crea un generatore con un seme casuale.
+     */
+    public GeneratoreCasuale() {
+        this(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Crea un generatore con il seme indicato.
+     *
+     * @param seme il seme della partita.
+     */
+    public GeneratoreCasuale(long seme) {
+        this.seme = seme;
+        this.stato = seme;
+    }
+
+    /**
+     * Ripristina un generatore salvato nello stato in cui si trovava.
+     *
+     * @param seme  il seme della partita.
+     * @param stato lo stato interno al momento del salvataggio.
+     */
+    public GeneratoreCasuale(long seme, long stato) {
+        this.seme = seme;
+        this.stato = stato;
+    }
+
+    public long getSeme() {
+        return seme;
+    }
+
+    public long getStato() {
+        return stato;
+    }
+
+    @Override
+    public long nextLong() {
+        stato += 0x9E3779B97F4A7C15L;
+        long z = stato;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Mescola una lista con l'algoritmo di Fisher-Yates.
+     *
+     * @param lista la lista da mescolare.
+     */
+    public <T> void mescola(List<T> lista) {
+        for (int i = lista.size() - 1; i > 0; i--) {
+            int j = nextInt(i + 1);
+            T elemento = lista.get(i);
+            lista.set(i, lista.get(j));
+            lista.set(j, elemento);
+        }
+    }
+
+}
@@ -1,6 +1,7 @@
 package it.univaq.disim.lpo.risiko.core.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.io.Serializable;
 
@@ -9,6 +10,9 @@ public class Giocatore implements Serializable{
 	
 	private static final long serialVersionUID = 1L;
 	
+	/** Armate minime perché un territorio conti come presidiato negli obiettivi. */
+	public static final int ARMATE_PRESIDIO = 2;
+	
 	private String nome;
 	private int armate;
 	private List<Territorio> territori_controllati;
@@ -19,6 +23,15 @@ public class Giocatore implements Serializable{
 	private int territoriConquistatiNelTurno;
 	private List<Carta> carte;
 	private boolean haRicevutoCartaBonus;
+	// Territori controllati come insieme di bit sugli id della TopologiaMappa
+	private long territoriPosseduti;
+	// Territori controllati per ogni continente (indice = id del continente) e continenti controllati come bit
+	private transient int[] territoriPerContinente;
+	private transient int continentiControllati;
+	// Territori controllati con almeno ARMATE_PRESIDIO armate
+	private transient long territoriPresidiati;
+	// Falso dopo la deserializzazione o setTerritori_controllati(): i valori sopra vanno ricalcolati dalla lista
+	private transient boolean territoriPossedutiValidi;
 	
 	public Giocatore(String nome, int armate, List<Territorio> territori_controllati,int risultatoLancioDado, int totaleArmate) {
 		this.nome = nome;
@@ -56,8 +69,112 @@ public class Giocatore implements Serializable{
 	
 	public void setTerritori_controllati(List<Territorio> territori_controllati) {
 		this.territori_controllati = territori_controllati;
+		this.territoriPossedutiValidi = false;
 	}	
 	
+	/**
+	 * Restituisce i territori controllati come insieme di bit: il bit i è acceso
+	 * se il giocatore controlla il territorio con id i nella TopologiaMappa.
+	 *
+	 * @return l'insieme dei territori controllati.
+	 */
+	public long getTerritoriPosseduti() {
+		aggiornaIndici();
+		return territoriPosseduti;
+	}
+	
+	/**
+	 * Restituisce i continenti controllati interamente come insieme di bit:
+	 * il bit c è acceso se il giocatore controlla tutto il continente con id c.
+	 *
+	 * @return l'insieme dei continenti controllati.
+	 */
+	public int getContinentiControllati() {
+		aggiornaIndici();
+		return continentiControllati;
+	}
+	
+	/**
+	 * Restituisce quanti territori del continente indicato controlla il giocatore.
+	 *
+	 * @param continente l'id del continente.
+	 * @return il numero di territori controllati nel continente.
+	 */
+	public int getTerritoriNelContinente(int continente) {
+		aggiornaIndici();
+		return continente < territoriPerContinente.length ? territoriPerContinente[continente] : 0;
+	}
+	
+	// Ricalcola territori e continenti posseduti dalla lista, se non sono più allineati
+	private void aggiornaIndici() {
+		if (!territoriPossedutiValidi) {
+			territoriPosseduti = 0L;
+			territoriPerContinente = new int[0];
+			continentiControllati = 0;
+			territoriPresidiati = 0L;
+			for (Territorio territorio : territori_controllati) {
+				territoriPosseduti |= bit(territorio);
+				aggiornaContinente(territorio, 1);
+				if (territorio.getNumeroArmate() >= ARMATE_PRESIDIO) {
+					territoriPresidiati |= bit(territorio);
+				}
+			}
+			territoriPossedutiValidi = true;
+		}
+	}
+	
+	/**
+	 * Aggiorna lo stato di presidio di un territorio dopo una variazione delle sue armate.
+	 * Viene chiamato dal Territorio stesso.
+	 *
+	 * @param territorio il territorio le cui armate sono cambiate.
+	 */
+	void aggiornaPresidio(Territorio territorio) {
+		if (!territoriPossedutiValidi || (territoriPosseduti & bit(territorio)) == 0) {
+			return;
+		}
+		if (territorio.getNumeroArmate() >= ARMATE_PRESIDIO) {
+			territoriPresidiati |= bit(territorio);
+		} else {
+			territoriPresidiati &= ~bit(territorio);
+		}
+	}
+	
+	// Aggiorna il conteggio del continente del territorio e il suo bit di controllo
+	private void aggiornaContinente(Territorio territorio, int variazione) {
+		Continente continente = territorio.getContinente();
+		int c = continente.getId();
+		if (c >= territoriPerContinente.length) {
+			territoriPerContinente = Arrays.copyOf(territoriPerContinente, c + 1);
+		}
+		territoriPerContinente[c] += variazione;
+		if (territoriPerContinente[c] == continente.getTerritori().size()) {
+			continentiControllati |= 1 << c;
+		} else {
+			continentiControllati &= ~(1 << c);
+		}
+	}
+	
+	public int getNumeroTerritoriPresidiati() {
+		aggiornaIndici();
+		return Long.bitCount(territoriPresidiati);
+	}
+	
+	public int getNumeroTerritori() {
+		return Long.bitCount(getTerritoriPosseduti());
+	}
+	
+	public boolean possiede(Territorio territorio) {
+		return (getTerritoriPosseduti() & bit(territorio)) != 0;
+	}
+	
+	private static long bit(Territorio territorio) {
+		if (territorio.getId() < 0) {
+			throw new IllegalStateException("Il territorio " + territorio.getNome() + " non appartiene a una mappa compilata.");
+		}
+		return 1L << territorio.getId();
+	}
+	
 	public CartaObiettivo getObiettivo() {
 		return obiettivo;
 	}
@@ -94,6 +211,10 @@ public class Giocatore implements Serializable{
 		return territoriConquistatiNelTurno;
 	}
 	
+	public void setTerritoriConquistatiNelTurno(int territoriConquistatiNelTurno) {
+		this.territoriConquistatiNelTurno = territoriConquistatiNelTurno;
+	}
+	
 	public List<Carta> getCarte(){
 		return carte;
 	}
@@ -143,15 +264,23 @@ public class Giocatore implements Serializable{
 	
 	//aggiunge territorio
 	public void aggiungiTerritorio(Territorio territorio) {
-		if(!territori_controllati.contains(territorio)) {
+		if(!possiede(territorio)) {
 			territori_controllati.add(territorio);
+			territoriPosseduti |= bit(territorio);
+			aggiornaContinente(territorio, 1);
+			aggiornaPresidio(territorio);
 			territorio.setGiocatore(this);
 		}
 	}
 	
 	// rimuove territorio
 	public void rimuoviTerritorio(Territorio territorio) {
-		territori_controllati.remove(territorio);
+		if(possiede(territorio)) {
+			territori_controllati.remove(territorio);
+			territoriPosseduti &= ~bit(territorio);
+			aggiornaContinente(territorio, -1);
+			territoriPresidiati &= ~bit(territorio);
+		}
 	}
 	
 	//Equals e Hash
@@ -22,6 +22,7 @@ public class Gioco implements Serializable {
     private String logFileName;
     private int roundCount;
     private boolean isLoadedGame;
+    private GeneratoreCasuale generatore;
 
     public Gioco(String fase, List<Giocatore> giocatori, Mappa mappa, int faccia_dado, List<CartaTerritorio> carteTerritorio, List<CartaObiettivo> carteObiettivo) {
         this.fase = fase;
@@ -104,6 +105,21 @@ public class Gioco implements Serializable {
         this.partitaInCorso = partitaInCorso;
     }
 
+    /**
+     * Restituisce il generatore casuale della partita.
+     * Le partite salvate prima della sua introduzione ne ricevono uno nuovo.
+     */
+    public GeneratoreCasuale getGeneratore() {
+        if (generatore == null) {
+            generatore = new GeneratoreCasuale();
+        }
+        return generatore;
+    }
+
+    public void setGeneratore(GeneratoreCasuale generatore) {
+        this.generatore = generatore;
+    }
+
     public MazzoDiCarte getMazzoDiCarte() {
         return mazzoDiCarte;
     }
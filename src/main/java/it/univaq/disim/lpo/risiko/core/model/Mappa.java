@@ -2,12 +2,19 @@ package it.univaq.disim.lpo.risiko.core.model;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 public class Mappa implements Serializable {
 
     private static final long serialVersionUID = 1L;
     private List<Continente> continenti;
+    private TopologiaMappa topologia;
+    private Territorio[] territoriPerId;
+    private List<Territorio> territori;
 
     public Mappa() {
         this.continenti = new ArrayList<>();
@@ -23,6 +30,7 @@ public class Mappa implements Serializable {
 
     public void setContinenti(List<Continente> continenti) {
         this.continenti = continenti;
+        this.topologia = null;
     }
 
     public Continente getContinente(String nomeContinente) {
@@ -37,14 +45,67 @@ public class Mappa implements Serializable {
     // Metodo per aggiungere un continente
     public void aggiungiContinente(Continente continente) {
         this.continenti.add(continente);
+        this.topologia = null;
     }
 
-    public List<Territorio> getTerritori() {
-        List<Territorio> tuttiTerritori = new ArrayList<>();
-        for (Continente continente : this.continenti) {
-            tuttiTerritori.addAll(continente.getTerritori());
+    /**
+     * Compila la topologia della mappa: assegna gli id ai territori e costruisce
+     * le adiacenze in formato CSR. Va richiamato dopo aver impostato le adiacenze.
+     */
+    public void compila() {
+        this.topologia = new TopologiaMappa(continenti);
+        this.territoriPerId = new Territorio[topologia.getNumeroTerritori()];
+        for (Continente continente : continenti) {
+            for (Territorio territorio : continente.getTerritori()) {
+                territoriPerId[territorio.getId()] = territorio;
+            }
+        }
+        this.territori = Collections.unmodifiableList(Arrays.asList(territoriPerId));
+    }
+
+    /**
+     * Restituisce la topologia compilata, compilandola se necessario
+     * (ad esempio per una mappa costruita senza chiamare compila()).
+     */
+    public TopologiaMappa getTopologia() {
+        if (topologia == null) {
+            compila();
         }
-        return tuttiTerritori;
+        return topologia;
+    }
+
+    public Territorio getTerritorio(int id) {
+        getTopologia();
+        return territoriPerId[id];
+    }
+
+    /**
+     * Restituisce un territorio dato il nome (senza distinzione tra maiuscole e minuscole).
+     *
+     * @param nome il nome del territorio.
+     * @return il territorio, null se non esiste.
+     */
+    public Territorio getTerritorio(String nome) {
+        int id = getTopologia().getIdTerritorio(nome);
+        return id >= 0 ? territoriPerId[id] : null;
+    }
+
+    /**
+     * Restituisce tutti i territori in ordine di id, in una lista non modificabile.
+     */
+    public List<Territorio> getTerritori() {
+        getTopologia();
+        return territori;
+    }
+
+    /*
+     * I salvataggi con la serializzazione Java precedenti alla topologia hanno tutti i
+     * territori con id 0: la topologia viene ricompilata a ogni lettura, così gli id e gli
+     * indici dei giocatori che ne dipendono sono corretti prima di qualsiasi uso.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        compila();
     }
 
-}
\ No newline at end of file
+}
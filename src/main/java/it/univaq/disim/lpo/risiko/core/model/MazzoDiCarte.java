@@ -1,29 +1,40 @@
 package it.univaq.disim.lpo.risiko.core.model;
 
 import java.io.Serializable;
-import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Random;
 
 public class MazzoDiCarte implements Serializable {
 
     private static final long serialVersionUID = 1L;
     private LinkedList<Carta> carte;
 
-    public MazzoDiCarte(List<Territorio> territori) {
+    public MazzoDiCarte(List<Territorio> territori, GeneratoreCasuale generatore) {
         carte = new LinkedList<>();
         // Creare le carte per ogni territorio
         for (Territorio territorio : territori) {
             // Assegna un tipo casuale tra CANNONE , FANTE , CAVAGLIERE
-            Carta.TipoCarta tipo = Carta.TipoCarta.values()[new Random().nextInt(3)];
+            Carta.TipoCarta tipo = Carta.TipoCarta.values()[generatore.nextInt(3)];
             carte.add(new Carta(tipo, territorio));
         }
         // Aggiungi le carte Jolly
         carte.add(new Carta(Carta.TipoCarta.JOLLY, null));
         carte.add(new Carta(Carta.TipoCarta.JOLLY, null));
 
-        Collections.shuffle(carte);
+        generatore.mescola(carte);
+    }
+
+    /**
+     * Ripristina un mazzo salvato, con le carte nell'ordine indicato.
+     *
+     * @param carte le carte del mazzo, dalla prima da pescare.
+     */
+    public MazzoDiCarte(List<Carta> carte) {
+        this.carte = new LinkedList<>(carte);
+    }
+
+    public List<Carta> getCarte() {
+        return carte;
     }
 
     public Carta pescaCarta() {
@@ -33,9 +44,9 @@ public class MazzoDiCarte implements Serializable {
         return carte.removeFirst();
     }
 
-    public void restituisciCarte(List<Carta> carteDaRestituire) {
+    public void restituisciCarte(List<Carta> carteDaRestituire, GeneratoreCasuale generatore) {
         carte.addAll(carteDaRestituire);
-        Collections.shuffle(carte);
+        generatore.mescola(carte);
     }
 
 }
\ No newline at end of file
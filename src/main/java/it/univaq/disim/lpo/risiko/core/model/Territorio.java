@@ -2,12 +2,14 @@ package it.univaq.disim.lpo.risiko.core.model;
 
 import java.io.Serializable;
 import java.util.*;
+import it.univaq.disim.lpo.risiko.core.utils.OutputUtils;
 
 public class Territorio implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     private String nome;
+    private int id = -1;
     private Giocatore giocatore;
     private int armate;
     private Continente continente;
@@ -33,6 +35,17 @@ public class Territorio implements Serializable {
         this.nome = nome;
     }
 
+    /**
+     * Restituisce l'id del territorio nella TopologiaMappa, -1 se la mappa non è ancora compilata.
+     */
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
     public Giocatore getGiocatore() {
         return giocatore;
     }
@@ -47,6 +60,7 @@ public class Territorio implements Serializable {
 
     public void setArmate(int armate) {
         this.armate = armate;
+        notificaArmate();
     }
 
     public Continente getContinente() {
@@ -68,14 +82,23 @@ public class Territorio implements Serializable {
     // aggiunge armate
     public void aggiungiArmate(int armate) {
         this.armate += armate;
+        notificaArmate();
     }
 
     // rimuove armate
     public void rimuoviArmate(int numero) {
         if (numero <= this.armate) {
             this.armate -= numero;
+            notificaArmate();
         } else {
-            System.out.println("Errore: Non ci sono abbastanza armate da rimuovere.");
+            OutputUtils.println("Errore: Non ci sono abbastanza armate da rimuovere.");
+        }
+    }
+    
+    // aggiorna il presidio del proprietario, usato dagli obiettivi
+    private void notificaArmate() {
+        if (giocatore != null) {
+            giocatore.aggiornaPresidio(this);
         }
     }
     
@@ -89,6 +112,7 @@ public class Territorio implements Serializable {
     	}
     }
     
+    @Override
     public boolean equals(Object o) {
     	if (this == o) return true;
     	if (o == null || getClass() != o.getClass()) return false;
@@ -96,7 +120,8 @@ public class Territorio implements Serializable {
     	return nome.equals(that.nome);
     }
     
-    public int hasCode() {
+    @Override
+    public int hashCode() {
     	return Objects.hash(nome);
     }
 
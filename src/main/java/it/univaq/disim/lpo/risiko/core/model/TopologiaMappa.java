@@ -0,0 +1,228 @@
+package it.univaq.disim.lpo.risiko.core.model;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Topologia immutabile della mappa, compilata dai continenti e dai territori.
+ * I territori hanno id densi (0..n-1) assegnati continente per continente, quindi
+ * i territori di ogni continente occupano un intervallo contiguo di id.
+ * Le adiacenze sono memorizzate in formato CSR: gli adiacenti del territorio t sono
+ * adiacenze[inizioAdiacenze[t]] .. adiacenze[inizioAdiacenze[t + 1] - 1], in ordine crescente.
+ */
+public final class TopologiaMappa implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Numero massimo di territori: il possesso dei territori di un giocatore è un long. */
+    public static final int MAX_TERRITORI = Long.SIZE;
+
+    /** Numero massimo di continenti: i continenti controllati da un giocatore sono un int. */
+    public static final int MAX_CONTINENTI = Integer.SIZE;
+
+    private final String[] nomiTerritori;
+    private final int[] continenteDelTerritorio;
+    private final int[] inizioAdiacenze;
+    private final int[] adiacenze;
+    private final String[] nomiContinenti;
+    private final int[] inizioContinenti;
+    private final long[] maschereContinenti;
+    private final long impronta;
+    private final Map<String, Integer> idTerritori = new HashMap<>();
+    private final Map<String, Integer> idContinenti = new HashMap<>();
+
+    /**
+     * Compila la topologia dai continenti e assegna a ogni territorio il proprio id.
+     *
+     * @param continenti i continenti della mappa, con territori e adiacenze.
+     */
+    TopologiaMappa(List<Continente> continenti) {
+        int numeroTerritori = 0;
+        for (Continente continente : continenti) {
+            numeroTerritori += continente.getTerritori().size();
+        }
+        if (continenti.size() > MAX_CONTINENTI) {
+            throw new IllegalStateException("La mappa ha " + continenti.size() + " continenti, il massimo è " + MAX_CONTINENTI + ".");
+        }
+        if (numeroTerritori > MAX_TERRITORI) {
+            throw new IllegalStateException("La mappa ha " + numeroTerritori + " territori, il massimo è " + MAX_TERRITORI + ".");
+        }
+        this.nomiTerritori = new String[numeroTerritori];
+        this.continenteDelTerritorio = new int[numeroTerritori];
+        this.inizioAdiacenze = new int[numeroTerritori + 1];
+        this.nomiContinenti = new String[continenti.size()];
+        this.inizioContinenti = new int[continenti.size() + 1];
+        this.maschereContinenti = new long[continenti.size()];
+
+        Territorio[] territori = new Territorio[numeroTerritori];
+        int id = 0;
+        int numeroAdiacenze = 0;
+        for (int c = 0; c < continenti.size(); c++) {
+            Continente continente = continenti.get(c);
+            continente.setId(c);
+            nomiContinenti[c] = continente.getNome();
+            idContinenti.put(chiave(continente.getNome()), c);
+            inizioContinenti[c] = id;
+            for (Territorio territorio : continente.getTerritori()) {
+                territorio.setId(id);
+                territorio.setContinente(continente);
+                territori[id] = territorio;
+                nomiTerritori[id] = territorio.getNome();
+                continenteDelTerritorio[id] = c;
+                maschereContinenti[c] |= 1L << id;
+                idTerritori.put(chiave(territorio.getNome()), id);
+                numeroAdiacenze += territorio.getTerritoriAdiacenti().size();
+                id++;
+            }
+        }
+        inizioContinenti[continenti.size()] = id;
+
+        this.adiacenze = new int[numeroAdiacenze];
+        int k = 0;
+        for (id = 0; id < numeroTerritori; id++) {
+            inizioAdiacenze[id] = k;
+            for (Territorio adiacente : territori[id].getTerritoriAdiacenti()) {
+                Integer idAdiacente = idTerritori.get(chiave(adiacente.getNome()));
+                if (idAdiacente == null) {
+                    throw new IllegalStateException("Il territorio adiacente " + adiacente.getNome() + " non appartiene alla mappa.");
+                }
+                adiacenze[k++] = idAdiacente;
+            }
+            Arrays.sort(adiacenze, inizioAdiacenze[id], k);
+        }
+        inizioAdiacenze[numeroTerritori] = k;
+        this.impronta = calcolaImpronta();
+    }
+
+    /*
+     * Hash FNV-1a a 64 bit di nomi, intervalli dei continenti e adiacenze:
+     * cambia se cambia qualunque cosa da cui dipendono gli id.
+     */
+    private long calcolaImpronta() {
+        long hash = 0xCBF29CE484222325L;
+        for (int c = 0; c < nomiContinenti.length; c++) {
+            hash = aggiungiAllImpronta(hash, nomiContinenti[c]);
+            hash = aggiungiAllImpronta(hash, inizioContinenti[c + 1]);
+        }
+        for (int t = 0; t < nomiTerritori.length; t++) {
+            hash = aggiungiAllImpronta(hash, nomiTerritori[t]);
+            for (int k = inizioAdiacenze[t]; k < inizioAdiacenze[t + 1]; k++) {
+                hash = aggiungiAllImpronta(hash, adiacenze[k]);
+            }
+        }
+        return hash;
+    }
+
+    private static long aggiungiAllImpronta(long hash, String valore) {
+        for (int i = 0; i < valore.length(); i++) {
+            hash = aggiungiAllImpronta(hash, valore.charAt(i));
+        }
+        return aggiungiAllImpronta(hash, -1);
+    }
+
+    private static long aggiungiAllImpronta(long hash, int valore) {
+        return (hash ^ valore) * 0x100000001B3L;
+    }
+
+    private static String chiave(String nome) {
+        return nome.toLowerCase();
+    }
+
+    /**
+     * Impronta della topologia, usata dai salvataggi per verificare che la mappa non sia cambiata.
+     */
+    public long getImpronta() {
+        return impronta;
+    }
+
+    public int getNumeroTerritori() {
+        return nomiTerritori.length;
+    }
+
+    public int getNumeroContinenti() {
+        return nomiContinenti.length;
+    }
+
+    /**
+     * Restituisce l'id di un territorio dato il nome (senza distinzione tra maiuscole e minuscole).
+     *
+     * @param nome il nome del territorio.
+     * @return l'id del territorio, -1 se non esiste.
+     */
+    public int getIdTerritorio(String nome) {
+        Integer id = nome != null ? idTerritori.get(chiave(nome)) : null;
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Restituisce l'id di un continente dato il nome (senza distinzione tra maiuscole e minuscole).
+     *
+     * @param nome il nome del continente.
+     * @return l'id del continente, -1 se non esiste.
+     */
+    public int getIdContinente(String nome) {
+        Integer id = nome != null ? idContinenti.get(chiave(nome)) : null;
+        return id != null ? id : -1;
+    }
+
+    public String getNomeTerritorio(int territorio) {
+        return nomiTerritori[territorio];
+    }
+
+    public String getNomeContinente(int continente) {
+        return nomiContinenti[continente];
+    }
+
+    public int getContinente(int territorio) {
+        return continenteDelTerritorio[territorio];
+    }
+
+    /** Primo id dei territori del continente. */
+    public int getInizioContinente(int continente) {
+        return inizioContinenti[continente];
+    }
+
+    /** Id successivo all'ultimo territorio del continente. */
+    public int getFineContinente(int continente) {
+        return inizioContinenti[continente + 1];
+    }
+
+    /** Insieme di bit dei territori del continente, da confrontare con Giocatore.getTerritoriPosseduti(). */
+    public long getMascheraContinente(int continente) {
+        return maschereContinenti[continente];
+    }
+
+    /** Posizione del primo adiacente del territorio, da usare con getAdiacente(). */
+    public int getInizioAdiacenze(int territorio) {
+        return inizioAdiacenze[territorio];
+    }
+
+    /** Posizione successiva all'ultimo adiacente del territorio. */
+    public int getFineAdiacenze(int territorio) {
+        return inizioAdiacenze[territorio + 1];
+    }
+
+    public int getAdiacente(int posizione) {
+        return adiacenze[posizione];
+    }
+
+    /**
+     * Verifica se due territori sono adiacenti.
+     *
+     * @param territorio1 l'id del primo territorio.
+     * @param territorio2 l'id del secondo territorio.
+     * @return true se i territori sono adiacenti.
+     */
+    public boolean sonoAdiacenti(int territorio1, int territorio2) {
+        for (int k = inizioAdiacenze[territorio1]; k < inizioAdiacenze[territorio1 + 1]; k++) {
+            if (adiacenze[k] == territorio2) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -9,6 +9,7 @@ public class TurnoGioco implements Serializable {
         START_TURN,
         DISTRIBUTE_ARMIES,
         MENU,
+        MOVE_AFTER_CONQUEST,
         END_TURN
     }
 
@@ -18,6 +19,9 @@ public class TurnoGioco implements Serializable {
     private int armateTotali; // Totale delle armate ricevute ad inizio turno
     private int numeroTerritori; // Numero di territori controllati all'inizio del turno
     private int numeroContinenti; // Numero di continenti controllati all'inizio del turno
+    private String territorioOrigineConquista; // Territorio da cui è partita l'ultima conquista
+    private String territorioConquistato; // Territorio conquistato in attesa dello spostamento delle armate
+    private int armateMinimeConquista; // Armate minime da spostare nel territorio conquistato
 
     public TurnPhase getCurrentPhase() {
         return currentPhase;
@@ -67,4 +71,28 @@ public class TurnoGioco implements Serializable {
         this.numeroContinenti = numeroContinenti;
     }
 
+    public String getTerritorioOrigineConquista() {
+        return territorioOrigineConquista;
+    }
+
+    public void setTerritorioOrigineConquista(String territorioOrigineConquista) {
+        this.territorioOrigineConquista = territorioOrigineConquista;
+    }
+
+    public String getTerritorioConquistato() {
+        return territorioConquistato;
+    }
+
+    public void setTerritorioConquistato(String territorioConquistato) {
+        this.territorioConquistato = territorioConquistato;
+    }
+
+    public int getArmateMinimeConquista() {
+        return armateMinimeConquista;
+    }
+
+    public void setArmateMinimeConquista(int armateMinimeConquista) {
+        this.armateMinimeConquista = armateMinimeConquista;
+    }
+
 }
\ No newline at end of file
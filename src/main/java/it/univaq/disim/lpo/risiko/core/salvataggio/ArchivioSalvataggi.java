@@ -0,0 +1,365 @@
+package it.univaq.disim.lpo.risiko.core.salvataggio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Archivio dei salvataggi in un unico file mappato in memoria.
+ *
+ * Il file inizia con un'intestazione e un indice a voci di dimensione fissa
+ * (nome, posizione, lunghezza, data del salvataggio), seguiti dall'area dei dati in cui
+ * i salvataggi vengono aggiunti in coda. Salvare di nuovo con lo stesso nome aggiunge
+ * un nuovo record e aggiorna la voce: il record precedente diventa spazio libero,
+ * recuperato quando l'archivio viene ricostruito.
+ *
+ * All'apertura l'indice viene letto una volta in una mappa in memoria; caricare un
+ * salvataggio è quindi una ricerca nella mappa più una porzione del file mappato,
+ * da decodificare con CodecPartita.decodifica(ByteBuffer) senza copie.
+ * Dopo ogni salvataggio la mappatura viene forzata su disco secondo il livello di ScritturaDurevole.
+ *
+ * Layout (big endian):
+ * <pre>
+ * int MAGIC, short versione, short riservato, int capacità dell'indice, int voci, long fine dei dati
+ * voci da DIMENSIONE_VOCE byte: byte lunghezza nome, nome UTF-8, long posizione, int lunghezza, long data
+ * dati
+ * </pre>
+ */
+public class ArchivioSalvataggi implements Closeable, ScritturaDurevole.Sincronizzabile {
+
+    // Intestazione dell'archivio ("RSKA")
+    private static final int MAGIC = 0x52534B41;
+    private static final int VERSIONE = 1;
+
+    private static final int DIMENSIONE_INTESTAZIONE = 32;
+    private static final int POSIZIONE_NUMERO_VOCI = 12;
+    private static final int POSIZIONE_FINE_DATI = 16;
+
+    private static final int DIMENSIONE_VOCE = 128;
+    private static final int LUNGHEZZA_MASSIMA_NOME = 95;
+    private static final int CAPACITA_INIZIALE = 1024;
+
+    // L'archivio viene compattato quando lo spazio libero supera questa soglia e i dati validi
+    private static final long SOGLIA_COMPATTAZIONE = 1L << 20;
+
+    /**
+     * Voce dell'indice: dove si trova un salvataggio nell'archivio.
+     */
+    public static final class Voce {
+
+        private final String nome;
+        private final int indice;
+        private final long posizione;
+        private final int lunghezza;
+        private final long dataSalvataggio;
+
+        private Voce(String nome, int indice, long posizione, int lunghezza, long dataSalvataggio) {
+            this.nome = nome;
+            this.indice = indice;
+            this.posizione = posizione;
+            this.lunghezza = lunghezza;
+            this.dataSalvataggio = dataSalvataggio;
+        }
+
+        public String getNome() {
+            return nome;
+        }
+
+        public int getLunghezza() {
+            return lunghezza;
+        }
+
+        /** Data del salvataggio in millisecondi dall'epoca. */
+        public long getDataSalvataggio() {
+            return dataSalvataggio;
+        }
+    }
+
+    private final Path file;
+    private FileChannel canale;
+    private MappedByteBuffer mappa;
+    private int capacitaIndice;
+    private long fineDati;
+    private long spazioLibero;
+    private final List<Voce> voci = new ArrayList<>();
+    private final Map<String, Voce> vociPerNome = new HashMap<>();
+
+    private ArchivioSalvataggi(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Apre un archivio, creandolo vuoto se il file non esiste.
+     *
+     * @param file il file dell'archivio.
+     * @return l'archivio aperto.
+     * @throws IOException se il file non è un archivio valido o non può essere aperto.
+     */
+    public static ArchivioSalvataggi apri(Path file) throws IOException {
+        ArchivioSalvataggi archivio = new ArchivioSalvataggi(file);
+        if (!Files.exists(file) || Files.size(file) == 0) {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            scriviArchivioVuoto(file, CAPACITA_INIZIALE);
+        }
+        archivio.mappa();
+        archivio.leggiIndice();
+        return archivio;
+    }
+
+    /**
+     * Verifica se l'archivio contiene un salvataggio.
+     *
+     * @param nome il nome del salvataggio.
+     * @return true se il salvataggio esiste.
+     */
+    public synchronized boolean contiene(String nome) {
+        return vociPerNome.containsKey(nome);
+    }
+
+    /**
+     * Restituisce la voce dell'indice di un salvataggio.
+     *
+     * @param nome il nome del salvataggio.
+     * @return la voce, null se il salvataggio non esiste.
+     */
+    public synchronized Voce getVoce(String nome) {
+        return vociPerNome.get(nome);
+    }
+
+    /**
+     * Restituisce le voci dell'indice, nell'ordine in cui sono state create.
+     */
+    public synchronized List<Voce> getVoci() {
+        return Collections.unmodifiableList(new ArrayList<>(voci));
+    }
+
+    /**
+     * Restituisce i byte di un salvataggio come porzione in sola lettura del file mappato.
+     * I record non vengono mai sovrascritti, quindi il buffer resta valido anche dopo
+     * salvataggi successivi.
+     *
+     * @param nome il nome del salvataggio.
+     * @return il buffer con il salvataggio, null se il salvataggio non esiste.
+     */
+    public synchronized ByteBuffer leggi(String nome) {
+        Voce voce = vociPerNome.get(nome);
+        if (voce == null) {
+            return null;
+        }
+        return mappa.slice((int) voce.posizione, voce.lunghezza).asReadOnlyBuffer();
+    }
+
+    /**
+     * Aggiunge un salvataggio in coda all'archivio, sostituendo quello con lo stesso nome.
+     * Il record viene scritto prima della voce dell'indice e la voce prima del numero di
+     * voci, quindi un'interruzione lascia l'indice coerente.
+     *
+     * @param nome il nome del salvataggio.
+     * @param dati i byte del salvataggio.
+     * @throws IOException se il nome è troppo lungo o l'archivio non può essere scritto.
+     */
+    public synchronized void salva(String nome, byte[] dati) throws IOException {
+        byte[] nomeCodificato = nome.getBytes(StandardCharsets.UTF_8);
+        if (nomeCodificato.length > LUNGHEZZA_MASSIMA_NOME) {
+            throw new IOException("Nome del salvataggio troppo lungo: " + nome + ".");
+        }
+        Voce precedente = vociPerNome.get(nome);
+        // Spazio libero dopo questo salvataggio, confrontato con i dati che restano validi
+        long liberoDopo = precedente != null ? spazioLibero + precedente.lunghezza : spazioLibero;
+        long validiDopo = fineDati - inizioDati(capacitaIndice) - liberoDopo;
+        if (precedente == null && voci.size() == capacitaIndice) {
+            ricostruisci(capacitaIndice * 2);
+        } else if (precedente != null && liberoDopo > SOGLIA_COMPATTAZIONE && liberoDopo > validiDopo) {
+            ricostruisci(capacitaIndice);
+            precedente = vociPerNome.get(nome);
+        }
+
+        long posizione = fineDati;
+        assicuraDimensione(posizione + dati.length);
+        mappa.put((int) posizione, dati);
+        fineDati = posizione + dati.length;
+        mappa.putLong(POSIZIONE_FINE_DATI, fineDati);
+
+        int indice = precedente != null ? precedente.indice : voci.size();
+        Voce voce = new Voce(nome, indice, posizione, dati.length, System.currentTimeMillis());
+        scriviVoce(mappa, voce, nomeCodificato);
+        if (precedente != null) {
+            spazioLibero += precedente.lunghezza;
+            voci.set(indice, voce);
+        } else {
+            voci.add(voce);
+            mappa.putInt(POSIZIONE_NUMERO_VOCI, voci.size());
+        }
+        vociPerNome.put(nome, voce);
+        ScritturaDurevole.getInstance().dopoAggiunta(this);
+    }
+
+    /**
+     * Scrive su disco le modifiche ancora in memoria.
+     */
+    @Override
+    public synchronized void sincronizza() {
+        if (canale != null) {
+            mappa.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        ScritturaDurevole.getInstance().primaDellaChiusura(this);
+        if (canale != null) {
+            mappa.force();
+            canale.close();
+            canale = null;
+        }
+    }
+
+    private void mappa() throws IOException {
+        if (canale != null) {
+            canale.close();
+        }
+        canale = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        mappa = canale.map(FileChannel.MapMode.READ_WRITE, 0, canale.size());
+    }
+
+    private void leggiIndice() throws IOException {
+        if (mappa.capacity() < DIMENSIONE_INTESTAZIONE || mappa.getInt(0) != MAGIC) {
+            throw new IOException("Il file " + file.getFileName() + " non è un archivio di salvataggi.");
+        }
+        if (mappa.getShort(4) > VERSIONE) {
+            throw new IOException("Versione dell'archivio non supportata: " + mappa.getShort(4) + ".");
+        }
+        capacitaIndice = mappa.getInt(8);
+        int numeroVoci = mappa.getInt(POSIZIONE_NUMERO_VOCI);
+        fineDati = mappa.getLong(POSIZIONE_FINE_DATI);
+        if (numeroVoci < 0 || numeroVoci > capacitaIndice || fineDati < inizioDati(capacitaIndice) || fineDati > mappa.capacity()) {
+            throw new IOException("Intestazione dell'archivio " + file.getFileName() + " non valida.");
+        }
+
+        voci.clear();
+        vociPerNome.clear();
+        long usati = 0;
+        for (int i = 0; i < numeroVoci; i++) {
+            int base = DIMENSIONE_INTESTAZIONE + i * DIMENSIONE_VOCE;
+            byte[] nome = new byte[mappa.get(base) & 0xFF];
+            mappa.get(base + 1, nome);
+            long posizione = mappa.getLong(base + 1 + LUNGHEZZA_MASSIMA_NOME);
+            int lunghezza = mappa.getInt(base + 1 + LUNGHEZZA_MASSIMA_NOME + 8);
+            long data = mappa.getLong(base + 1 + LUNGHEZZA_MASSIMA_NOME + 12);
+            if (posizione < inizioDati(capacitaIndice) || lunghezza < 0 || posizione + lunghezza > fineDati) {
+                throw new IOException("Voce " + i + " dell'archivio " + file.getFileName() + " non valida.");
+            }
+            Voce voce = new Voce(new String(nome, StandardCharsets.UTF_8), i, posizione, lunghezza, data);
+            voci.add(voce);
+            vociPerNome.put(voce.nome, voce);
+            usati += lunghezza;
+        }
+        spazioLibero = fineDati - inizioDati(capacitaIndice) - usati;
+    }
+
+    /*
+     * Ingrandisce il file (raddoppiandolo, per rimappare di rado) fino a contenere
+     * la posizione indicata.
+     */
+    private void assicuraDimensione(long dimensione) throws IOException {
+        if (dimensione <= mappa.capacity()) {
+            return;
+        }
+        if (dimensione > Integer.MAX_VALUE) {
+            throw new IOException("L'archivio " + file.getFileName() + " ha raggiunto la dimensione massima.");
+        }
+        long nuovaDimensione = Math.min(Integer.MAX_VALUE, Math.max(dimensione, 2L * mappa.capacity()));
+        mappa.force();
+        try (FileChannel estensione = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            estensione.write(ByteBuffer.allocate(1), nuovaDimensione - 1);
+        }
+        mappa();
+    }
+
+    /*
+     * Riscrive l'archivio in un file temporaneo con la capacità indicata e solo i record
+     * validi, poi lo sostituisce all'originale.
+     */
+    private void ricostruisci(int nuovaCapacita) throws IOException {
+        long dati = 0;
+        for (Voce voce : voci) {
+            dati += voce.lunghezza;
+        }
+        long dimensione = inizioDati(nuovaCapacita) + dati;
+        if (dimensione > Integer.MAX_VALUE) {
+            throw new IOException("L'archivio " + file.getFileName() + " ha raggiunto la dimensione massima.");
+        }
+
+        Path temporaneo = file.resolveSibling(file.getFileName() + ".tmp");
+        List<Voce> nuoveVoci = new ArrayList<>(voci.size());
+        try (FileChannel nuovoCanale = FileChannel.open(temporaneo, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer nuovaMappa = nuovoCanale.map(FileChannel.MapMode.READ_WRITE, 0, dimensione);
+            scriviIntestazione(nuovaMappa, nuovaCapacita, voci.size(), dimensione);
+            long posizione = inizioDati(nuovaCapacita);
+            for (Voce voce : voci) {
+                nuovaMappa.put((int) posizione, mappa, (int) voce.posizione, voce.lunghezza);
+                Voce nuova = new Voce(voce.nome, voce.indice, posizione, voce.lunghezza, voce.dataSalvataggio);
+                scriviVoce(nuovaMappa, nuova, voce.nome.getBytes(StandardCharsets.UTF_8));
+                nuoveVoci.add(nuova);
+                posizione += voce.lunghezza;
+            }
+            nuovaMappa.force();
+        }
+        canale.close();
+        canale = null;
+        Files.move(temporaneo, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        mappa();
+        capacitaIndice = nuovaCapacita;
+        fineDati = dimensione;
+        spazioLibero = 0;
+        voci.clear();
+        voci.addAll(nuoveVoci);
+        for (Voce voce : nuoveVoci) {
+            vociPerNome.put(voce.nome, voce);
+        }
+    }
+
+    private static void scriviArchivioVuoto(Path file, int capacita) throws IOException {
+        ByteBuffer intestazione = ByteBuffer.allocate(inizioDati(capacita));
+        scriviIntestazione(intestazione, capacita, 0, inizioDati(capacita));
+        Files.write(file, intestazione.array());
+    }
+
+    private static void scriviIntestazione(ByteBuffer buffer, int capacita, int numeroVoci, long fineDati) {
+        buffer.putInt(0, MAGIC);
+        buffer.putShort(4, (short) VERSIONE);
+        buffer.putInt(8, capacita);
+        buffer.putInt(POSIZIONE_NUMERO_VOCI, numeroVoci);
+        buffer.putLong(POSIZIONE_FINE_DATI, fineDati);
+    }
+
+    private static void scriviVoce(ByteBuffer buffer, Voce voce, byte[] nome) {
+        int base = DIMENSIONE_INTESTAZIONE + voce.indice * DIMENSIONE_VOCE;
+        buffer.put(base, (byte) nome.length);
+        buffer.put(base + 1, nome);
+        buffer.putLong(base + 1 + LUNGHEZZA_MASSIMA_NOME, voce.posizione);
+        buffer.putInt(base + 1 + LUNGHEZZA_MASSIMA_NOME + 8, voce.lunghezza);
+        buffer.putLong(base + 1 + LUNGHEZZA_MASSIMA_NOME + 12, voce.dataSalvataggio);
+    }
+
+    private static int inizioDati(int capacita) {
+        return DIMENSIONE_INTESTAZIONE + capacita * DIMENSIONE_VOCE;
+    }
+
+}
@@ -0,0 +1,200 @@
+package it.univaq.disim.lpo.risiko.core.salvataggio;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import it.univaq.disim.lpo.risiko.core.utils.OutputUtils;
+
+/**
+ * Catalogo dei salvataggi: una SchedaSalvataggio per ogni partita salvata,
+ * tenuta in memoria e su un file in sola aggiunta.
+ *
+ * Ogni aggiornamento aggiunge un record al file (scheda o rimozione); all'apertura
+ * i record vengono riletti e l'ultimo per ogni nome vince. Quando i record superati
+ * sono più di quelli validi il file viene riscritto compatto. Un ultimo record
+ * troncato da un'interruzione viene ignorato.
+ */
+public class CatalogoSalvataggi implements Closeable {
+
+    // Intestazione del catalogo ("RSKC")
+    private static final int MAGIC = 0x52534B43;
+    private static final int VERSIONE = 1;
+
+    private static final int RECORD_SCHEDA = 1;
+    private static final int RECORD_RIMOZIONE = 2;
+
+    // Record superati oltre i quali il catalogo viene compattato all'apertura
+    private static final int SOGLIA_COMPATTAZIONE = 64;
+
+    private final Path file;
+    private final Map<String, SchedaSalvataggio> schede = new HashMap<>();
+    private DataOutputStream out;
+
+    private CatalogoSalvataggi(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Apre il catalogo, creandolo vuoto se il file non esiste.
+     *
+     * @param file il file del catalogo.
+     * @return il catalogo aperto.
+     * @throws IOException se il file non è un catalogo valido o non può essere aperto.
+     */
+    public static CatalogoSalvataggi apri(Path file) throws IOException {
+        CatalogoSalvataggi catalogo = new CatalogoSalvataggi(file);
+        int record = Files.exists(file) ? catalogo.leggi() : 0;
+        if (record == 0 || record > 2 * catalogo.schede.size() + SOGLIA_COMPATTAZIONE) {
+            catalogo.riscrivi();
+        }
+        catalogo.out = new DataOutputStream(new BufferedOutputStream(
+            Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+        return catalogo;
+    }
+
+    /**
+     * Aggiunge o sostituisce la scheda di un salvataggio.
+     *
+     * @param scheda la scheda del salvataggio.
+     */
+    public synchronized void aggiorna(SchedaSalvataggio scheda) {
+        schede.put(scheda.getNome(), scheda);
+        try {
+            out.writeByte(RECORD_SCHEDA);
+            scheda.scrivi(out);
+            out.flush();
+        } catch (IOException e) {
+            OutputUtils.println("Errore durante l'aggiornamento del catalogo dei salvataggi: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rimuove la scheda di un salvataggio che non esiste più.
+     *
+     * @param nome il nome del salvataggio.
+     */
+    public synchronized void rimuovi(String nome) {
+        if (schede.remove(nome) == null) {
+            return;
+        }
+        try {
+            out.writeByte(RECORD_RIMOZIONE);
+            out.writeUTF(nome);
+            out.flush();
+        } catch (IOException e) {
+            OutputUtils.println("Errore durante l'aggiornamento del catalogo dei salvataggi: " + e.getMessage());
+        }
+    }
+
+    public synchronized boolean contiene(String nome) {
+        return schede.containsKey(nome);
+    }
+
+    /**
+     * Restituisce la scheda di un salvataggio.
+     *
+     * @param nome il nome del salvataggio.
+     * @return la scheda, null se il salvataggio non è nel catalogo.
+     */
+    public synchronized SchedaSalvataggio getScheda(String nome) {
+        return schede.get(nome);
+    }
+
+    /**
+     * Restituisce tutte le schede, in ordine di nome.
+     */
+    public List<SchedaSalvataggio> getSchede() {
+        return cerca(scheda -> true, SchedaSalvataggio.PER_NOME);
+    }
+
+    /**
+     * Restituisce le schede che soddisfano un filtro, nell'ordine indicato.
+     *
+     * @param filtro    il filtro sulle schede.
+     * @param ordine    l'ordine del risultato.
+     * @return le schede trovate.
+     */
+    public List<SchedaSalvataggio> cerca(Predicate<SchedaSalvataggio> filtro, Comparator<SchedaSalvataggio> ordine) {
+        List<SchedaSalvataggio> tutte;
+        synchronized (this) {
+            tutte = new ArrayList<>(schede.values());
+        }
+        List<SchedaSalvataggio> trovate = new ArrayList<>(tutte.size());
+        for (SchedaSalvataggio scheda : tutte) {
+            if (filtro.test(scheda)) {
+                trovate.add(scheda);
+            }
+        }
+        trovate.sort(ordine);
+        return trovate;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    /*
+     * Rilegge i record del file e restituisce quanti sono.
+     */
+    private int leggi() throws IOException {
+        int record = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readUnsignedShort() > VERSIONE) {
+                throw new IOException("Il file " + file.getFileName() + " non è un catalogo di salvataggi.");
+            }
+            while (true) {
+                int tipo = in.read();
+                if (tipo == RECORD_SCHEDA) {
+                    SchedaSalvataggio scheda = SchedaSalvataggio.leggi(in);
+                    schede.put(scheda.getNome(), scheda);
+                } else if (tipo == RECORD_RIMOZIONE) {
+                    schede.remove(in.readUTF());
+                } else {
+                    // Fine del file o record non valido
+                    break;
+                }
+                record++;
+            }
+        } catch (EOFException e) {
+            // Ultimo record troncato: viene riscritto alla prossima compattazione
+            record = Integer.MAX_VALUE;
+        }
+        return record;
+    }
+
+    private void riscrivi() throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Path temporaneo = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream nuovo = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaneo)))) {
+            nuovo.writeInt(MAGIC);
+            nuovo.writeShort(VERSIONE);
+            for (SchedaSalvataggio scheda : schede.values()) {
+                nuovo.writeByte(RECORD_SCHEDA);
+                scheda.scrivi(nuovo);
+            }
+        }
+        Files.move(temporaneo, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+}
@@ -0,0 +1,133 @@
+package it.univaq.disim.lpo.risiko.core.salvataggio;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import it.univaq.disim.lpo.risiko.core.engine.Comando;
+import it.univaq.disim.lpo.risiko.core.model.TopologiaMappa;
+
+/**
+ * Codifica binaria dei comandi del MotoreGioco.
+ * Un comando è un byte con il tipo seguito dai suoi parametri; i territori sono
+ * scritti come id della TopologiaMappa su un byte.
+ */
+public final class CodecComandi {
+
+    private CodecComandi() {
+    }
+
+    /**
+     * Scrive un comando.
+     *
+     * @param comando   il comando da scrivere.
+     * @param topologia la topologia della mappa della partita.
+     * @param out       la destinazione.
+     * @throws IOException se si verifica un errore di scrittura.
+     */
+    public static void scrivi(Comando comando, TopologiaMappa topologia, DataOutput out) throws IOException {
+        out.writeByte(comando.getTipo().ordinal());
+        switch (comando.getTipo()) {
+            case POSIZIONA_ARMATE: {
+                Comando.PosizionaArmate posiziona = (Comando.PosizionaArmate) comando;
+                scriviTerritorio(out, topologia, posiziona.getTerritorio());
+                out.writeInt(posiziona.getArmate());
+                break;
+            }
+            case SCAMBIA_CARTE: {
+                List<Integer> indici = ((Comando.ScambiaCarte) comando).getIndiciCarte();
+                out.writeByte(indici.size());
+                for (int indice : indici) {
+                    out.writeByte(indice);
+                }
+                break;
+            }
+            case ATTACCA: {
+                Comando.Attacca attacca = (Comando.Attacca) comando;
+                scriviTerritorio(out, topologia, attacca.getOrigine());
+                scriviTerritorio(out, topologia, attacca.getDestinazione());
+                out.writeByte(attacca.getDadi());
+                break;
+            }
+            case ATTACCO_BLITZ: {
+                Comando.AttaccoBlitz blitz = (Comando.AttaccoBlitz) comando;
+                scriviTerritorio(out, topologia, blitz.getOrigine());
+                scriviTerritorio(out, topologia, blitz.getDestinazione());
+                out.writeInt(blitz.getPerditeMassime());
+                out.writeInt(blitz.getArmateMinime());
+                break;
+            }
+            case SPOSTA_ARMATE_CONQUISTA:
+                out.writeInt(((Comando.SpostaArmateConquista) comando).getArmate());
+                break;
+            case FORTIFICA: {
+                Comando.Fortifica fortifica = (Comando.Fortifica) comando;
+                scriviTerritorio(out, topologia, fortifica.getOrigine());
+                scriviTerritorio(out, topologia, fortifica.getDestinazione());
+                out.writeInt(fortifica.getArmate());
+                break;
+            }
+            case TERMINA_TURNO:
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Legge un comando.
+     *
+     * @param topologia la topologia della mappa della partita.
+     * @param in        la sorgente.
+     * @return il comando letto.
+     * @throws IOException se i dati non sono un comando valido.
+     */
+    public static Comando leggi(TopologiaMappa topologia, DataInput in) throws IOException {
+        int tipo = in.readUnsignedByte();
+        if (tipo >= Comando.TipoComando.values().length) {
+            throw new IOException("Tipo di comando non valido: " + tipo + ".");
+        }
+        switch (Comando.TipoComando.values()[tipo]) {
+            case POSIZIONA_ARMATE:
+                return new Comando.PosizionaArmate(leggiTerritorio(in, topologia), in.readInt());
+            case SCAMBIA_CARTE: {
+                int numeroIndici = in.readUnsignedByte();
+                List<Integer> indici = new ArrayList<>(numeroIndici);
+                for (int i = 0; i < numeroIndici; i++) {
+                    indici.add(in.readUnsignedByte());
+                }
+                return new Comando.ScambiaCarte(indici);
+            }
+            case ATTACCA:
+                return new Comando.Attacca(leggiTerritorio(in, topologia), leggiTerritorio(in, topologia), in.readUnsignedByte());
+            case ATTACCO_BLITZ:
+                return new Comando.AttaccoBlitz(leggiTerritorio(in, topologia), leggiTerritorio(in, topologia),
+                    in.readInt(), in.readInt());
+            case SPOSTA_ARMATE_CONQUISTA:
+                return new Comando.SpostaArmateConquista(in.readInt());
+            case FORTIFICA:
+                return new Comando.Fortifica(leggiTerritorio(in, topologia), leggiTerritorio(in, topologia), in.readInt());
+            case TERMINA_TURNO:
+            default:
+                return new Comando.TerminaTurno();
+        }
+    }
+
+    private static void scriviTerritorio(DataOutput out, TopologiaMappa topologia, String nome) throws IOException {
+        int id = topologia.getIdTerritorio(nome);
+        if (id < 0) {
+            throw new IOException("Territorio sconosciuto: " + nome + ".");
+        }
+        out.writeByte(id);
+    }
+
+    private static String leggiTerritorio(DataInput in, TopologiaMappa topologia) throws IOException {
+        int id = in.readUnsignedByte();
+        if (id >= topologia.getNumeroTerritori()) {
+            throw new IOException("Id di territorio non valido: " + id + ".");
+        }
+        return topologia.getNomeTerritorio(id);
+    }
+
+}
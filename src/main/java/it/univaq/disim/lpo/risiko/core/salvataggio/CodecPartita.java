@@ -0,0 +1,443 @@
+package it.univaq.disim.lpo.risiko.core.salvataggio;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import it.univaq.disim.lpo.risiko.core.model.Carta;
+import it.univaq.disim.lpo.risiko.core.model.CartaObiettivo;
+import it.univaq.disim.lpo.risiko.core.model.CartaTerritorio;
+import it.univaq.disim.lpo.risiko.core.model.GeneratoreCasuale;
+import it.univaq.disim.lpo.risiko.core.model.Giocatore;
+import it.univaq.disim.lpo.risiko.core.model.Gioco;
+import it.univaq.disim.lpo.risiko.core.model.Mappa;
+import it.univaq.disim.lpo.risiko.core.model.MazzoDiCarte;
+import it.univaq.disim.lpo.risiko.core.model.Territorio;
+import it.univaq.disim.lpo.risiko.core.model.TopologiaMappa;
+import it.univaq.disim.lpo.risiko.core.model.TurnoGioco;
+import it.univaq.disim.lpo.risiko.core.service.impl.MappaServiceImpl;
+
+/**
+ * Formato binario versionato dei salvataggi.
+ *
+ * La mappa non viene scritta: il salvataggio contiene solo il suo identificativo e
+ * l'impronta della TopologiaMappa, e al caricamento la mappa viene ricostruita e verificata.
+ * Tutto il resto è scritto in forma piatta sugli id dei territori: armate per id,
+ * territori di ogni giocatore, mani e mazzo come coppie (tipo, id), stato del turno.
+ * Il caricamento usa solo costruttori e setter, senza serializzazione Java.
+ *
+ * Layout (big endian, come DataOutput):
+ * <pre>
+ * int    MAGIC, short versione
+ * utf    mappa, long impronta
+ * utf?   fase, utf? logFileName, byte flag, byte giocatore corrente, int round
+ * long   seme, long stato del generatore
+ * byte   giocatori, per ognuno: utf nome, utf? colore, int armate, int lancio dado,
+ *        int totale armate, byte conquiste nel turno, obiettivo,
+ *        byte territori + id in ordine, byte carte + (tipo, id)
+ * byte   ordine di gioco (indici dei giocatori)
+ * short  armate per ogni territorio, in ordine di id
+ * short  carte del mazzo + (tipo, id)
+ * turno, carte territorio e carte obiettivo della partita
+ * </pre>
+ */
+public final class CodecPartita {
+
+    /** Primi quattro byte di ogni salvataggio binario ("RSKB"). */
+    public static final int MAGIC = 0x52534B42;
+
+    public static final int VERSIONE = 1;
+
+    /** Identificativo dell'unica mappa disponibile, costruita da MappaServiceImpl. */
+    public static final String MAPPA_CLASSICA = "classica";
+
+    // Id scritto al posto di un territorio o di un obiettivo assente
+    private static final int NESSUN_ID = -1;
+
+    private static final int FLAG_ARMATE_DISTRIBUITE = 1;
+    private static final int FLAG_PARTITA_IN_CORSO = 2;
+    private static final int FLAG_RITORNA_AL_MENU = 4;
+    private static final int FLAG_PARTITA_CARICATA = 8;
+
+    private CodecPartita() {
+    }
+
+    /**
+     * Codifica una partita nel formato binario.
+     *
+     * @param gioco la partita da codificare.
+     * @return i byte del salvataggio.
+     * @throws IOException se la partita non è codificabile.
+     */
+    public static byte[] codifica(Gioco gioco) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(2048);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            scrivi(gioco, out);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodifica una partita dal formato binario.
+     *
+     * @param dati i byte del salvataggio.
+     * @return la partita ricostruita.
+     * @throws IOException se i dati non sono un salvataggio valido o la mappa è cambiata.
+     */
+    public static Gioco decodifica(byte[] dati) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(dati))) {
+            return leggi(in);
+        }
+    }
+
+    /**
+     * Decodifica una partita direttamente da un buffer, ad esempio la porzione mappata
+     * in memoria di un ArchivioSalvataggi, senza copiarla prima in un array.
+     *
+     * @param dati il buffer con il salvataggio, letto dalla posizione al limite.
+     * @return la partita ricostruita.
+     * @throws IOException se i dati non sono un salvataggio valido o la mappa è cambiata.
+     */
+    public static Gioco decodifica(ByteBuffer dati) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FlussoBuffer(dati.duplicate()))) {
+            return leggi(in);
+        }
+    }
+
+    /**
+     * Verifica se i dati iniziano con l'intestazione del formato binario.
+     *
+     * @param dati i byte di un salvataggio.
+     * @return true se è un salvataggio binario, false se è un salvataggio precedente.
+     */
+    public static boolean isFormatoBinario(byte[] dati) {
+        return dati.length >= 4
+            && ((dati[0] & 0xFF) << 24 | (dati[1] & 0xFF) << 16 | (dati[2] & 0xFF) << 8 | (dati[3] & 0xFF)) == MAGIC;
+    }
+
+    /**
+     * Scrive una partita nel formato binario.
+     *
+     * @param gioco la partita da scrivere.
+     * @param out   la destinazione.
+     * @throws IOException se si verifica un errore di scrittura.
+     */
+    public static void scrivi(Gioco gioco, DataOutput out) throws IOException {
+        Mappa mappa = gioco.getMappa();
+        TopologiaMappa topologia = mappa.getTopologia();
+        List<Giocatore> giocatori = gioco.getGiocatori();
+
+        out.writeInt(MAGIC);
+        out.writeShort(VERSIONE);
+        out.writeUTF(MAPPA_CLASSICA);
+        out.writeLong(topologia.getImpronta());
+
+        scriviStringa(out, gioco.getFase());
+        scriviStringa(out, gioco.getLogFileName());
+        int flag = 0;
+        flag |= gioco.isArmateDistribuite() ? FLAG_ARMATE_DISTRIBUITE : 0;
+        flag |= gioco.isPartitaInCorso() ? FLAG_PARTITA_IN_CORSO : 0;
+        flag |= gioco.isRitornaAlMenu() ? FLAG_RITORNA_AL_MENU : 0;
+        flag |= gioco.isLoadedGame() ? FLAG_PARTITA_CARICATA : 0;
+        out.writeByte(flag);
+        out.writeByte(gioco.getCurrentPlayerIndex());
+        out.writeInt(gioco.getRoundCount());
+        out.writeLong(gioco.getGeneratore().getSeme());
+        out.writeLong(gioco.getGeneratore().getStato());
+
+        out.writeByte(giocatori.size());
+        for (Giocatore giocatore : giocatori) {
+            out.writeUTF(giocatore.getNome());
+            scriviStringa(out, giocatore.getColore());
+            out.writeInt(giocatore.getArmate());
+            out.writeInt(giocatore.getRisultatoLancioDado());
+            out.writeInt(giocatore.getTotaleArmate());
+            out.writeByte(giocatore.getTerritoriConquistatiNelTurno());
+            out.writeBoolean(giocatore.getHaRicevutoCartaBonus());
+            scriviObiettivo(out, giocatore.getObiettivo());
+            // L'ordine della lista conta: CLI e bot la scorrono in quest'ordine
+            out.writeByte(giocatore.getTerritori_controllati().size());
+            for (Territorio territorio : giocatore.getTerritori_controllati()) {
+                out.writeByte(territorio.getId());
+            }
+            scriviCarte(out, giocatore.getCarte());
+        }
+
+        List<Giocatore> ordine = gioco.getOrdineGiocatori();
+        out.writeByte(ordine.size());
+        for (Giocatore giocatore : ordine) {
+            out.writeByte(giocatori.indexOf(giocatore));
+        }
+
+        for (int id = 0; id < topologia.getNumeroTerritori(); id++) {
+            out.writeShort(mappa.getTerritorio(id).getNumeroArmate());
+        }
+
+        List<Carta> mazzo = gioco.getMazzoDiCarte() != null ? gioco.getMazzoDiCarte().getCarte() : null;
+        out.writeBoolean(mazzo != null);
+        if (mazzo != null) {
+            scriviCarte(out, mazzo);
+        }
+
+        TurnoGioco turno = gioco.getCurrentTurnState();
+        out.writeByte(turno.getCurrentPhase().ordinal());
+        out.writeInt(turno.getArmateDaDistribuire());
+        out.writeBoolean(turno.isTurnoTerminato());
+        out.writeInt(turno.getArmateTotali());
+        out.writeByte(turno.getNumeroTerritori());
+        out.writeByte(turno.getNumeroContinenti());
+        out.writeByte(topologia.getIdTerritorio(turno.getTerritorioOrigineConquista()));
+        out.writeByte(topologia.getIdTerritorio(turno.getTerritorioConquistato()));
+        out.writeInt(turno.getArmateMinimeConquista());
+
+        out.writeByte(gioco.getCarteTerritorio().size());
+        for (CartaTerritorio carta : gioco.getCarteTerritorio()) {
+            out.writeByte(idTerritorio(carta.getTerritorio()));
+            scriviStringa(out, carta.getFigura());
+        }
+        out.writeByte(gioco.getCarteObiettivo().size());
+        for (CartaObiettivo obiettivo : gioco.getCarteObiettivo()) {
+            scriviObiettivo(out, obiettivo);
+        }
+    }
+
+    /**
+     * Legge una partita dal formato binario.
+     *
+     * @param in la sorgente.
+     * @return la partita ricostruita.
+     * @throws IOException se i dati non sono un salvataggio valido o la mappa è cambiata.
+     */
+    public static Gioco leggi(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Il file non è un salvataggio valido.");
+        }
+        int versione = in.readUnsignedShort();
+        if (versione > VERSIONE) {
+            throw new IOException("Versione del salvataggio non supportata: " + versione + ".");
+        }
+        String nomeMappa = in.readUTF();
+        if (!MAPPA_CLASSICA.equals(nomeMappa)) {
+            throw new IOException("Mappa sconosciuta: " + nomeMappa + ".");
+        }
+        Mappa mappa = new MappaServiceImpl().getMappa();
+        if (in.readLong() != mappa.getTopologia().getImpronta()) {
+            throw new IOException("La mappa del salvataggio non corrisponde a quella attuale.");
+        }
+
+        String fase = leggiStringa(in);
+        String logFileName = leggiStringa(in);
+        int flag = in.readUnsignedByte();
+        int giocatoreCorrente = in.readUnsignedByte();
+        int round = in.readInt();
+        GeneratoreCasuale generatore = new GeneratoreCasuale(in.readLong(), in.readLong());
+
+        int numeroGiocatori = in.readUnsignedByte();
+        List<Giocatore> giocatori = new ArrayList<>(numeroGiocatori);
+        for (int i = 0; i < numeroGiocatori; i++) {
+            String nome = in.readUTF();
+            String colore = leggiStringa(in);
+            int armate = in.readInt();
+            int lancioDado = in.readInt();
+            int totaleArmate = in.readInt();
+            int conquisteNelTurno = in.readUnsignedByte();
+            boolean cartaBonus = in.readBoolean();
+            CartaObiettivo obiettivo = leggiObiettivo(in);
+
+            int numeroTerritori = in.readUnsignedByte();
+            List<Territorio> territori = new ArrayList<>(numeroTerritori);
+            for (int t = 0; t < numeroTerritori; t++) {
+                territori.add(territorio(mappa, in.readUnsignedByte()));
+            }
+
+            Giocatore giocatore = new Giocatore(nome, armate, territori, lancioDado, totaleArmate);
+            giocatore.setColore(colore);
+            giocatore.setTerritoriConquistatiNelTurno(conquisteNelTurno);
+            giocatore.setHaRicevutoCartaBonus(cartaBonus);
+            giocatore.setObiettivo(obiettivo);
+            for (Territorio territorio : territori) {
+                territorio.setGiocatore(giocatore);
+            }
+            for (Carta carta : leggiCarte(in, mappa)) {
+                giocatore.aggiungiCarta(carta);
+            }
+            giocatori.add(giocatore);
+        }
+
+        int numeroOrdine = in.readUnsignedByte();
+        List<Giocatore> ordine = new ArrayList<>(numeroOrdine);
+        for (int i = 0; i < numeroOrdine; i++) {
+            ordine.add(giocatori.get(in.readUnsignedByte()));
+        }
+
+        for (int id = 0; id < mappa.getTopologia().getNumeroTerritori(); id++) {
+            mappa.getTerritorio(id).setArmate(in.readUnsignedShort());
+        }
+
+        MazzoDiCarte mazzo = in.readBoolean() ? new MazzoDiCarte(leggiCarte(in, mappa)) : null;
+
+        TurnoGioco turno = new TurnoGioco();
+        turno.setCurrentPhase(TurnoGioco.TurnPhase.values()[in.readUnsignedByte()]);
+        turno.setArmateDaDistribuire(in.readInt());
+        turno.setTurnoTerminato(in.readBoolean());
+        turno.setArmateTotali(in.readInt());
+        turno.setNumeroTerritori(in.readUnsignedByte());
+        turno.setNumeroContinenti(in.readUnsignedByte());
+        turno.setTerritorioOrigineConquista(nomeTerritorio(mappa, in.readByte()));
+        turno.setTerritorioConquistato(nomeTerritorio(mappa, in.readByte()));
+        turno.setArmateMinimeConquista(in.readInt());
+
+        int numeroCarteTerritorio = in.readUnsignedByte();
+        List<CartaTerritorio> carteTerritorio = new ArrayList<>(numeroCarteTerritorio);
+        for (int i = 0; i < numeroCarteTerritorio; i++) {
+            carteTerritorio.add(new CartaTerritorio(territorio(mappa, in.readByte()), leggiStringa(in)));
+        }
+        int numeroCarteObiettivo = in.readUnsignedByte();
+        List<CartaObiettivo> carteObiettivo = new ArrayList<>(numeroCarteObiettivo);
+        for (int i = 0; i < numeroCarteObiettivo; i++) {
+            carteObiettivo.add(leggiObiettivo(in));
+        }
+
+        Gioco gioco = new Gioco(fase, giocatori, mappa, 6, carteTerritorio, carteObiettivo);
+        gioco.setOrdineGiocatori(ordine);
+        gioco.setLogFileName(logFileName);
+        gioco.setArmateDistribuite((flag & FLAG_ARMATE_DISTRIBUITE) != 0);
+        gioco.setPartitaInCorso((flag & FLAG_PARTITA_IN_CORSO) != 0);
+        gioco.setRitornaAlMenu((flag & FLAG_RITORNA_AL_MENU) != 0);
+        gioco.setLoadedGame((flag & FLAG_PARTITA_CARICATA) != 0);
+        gioco.setCurrentPlayerIndex(giocatoreCorrente);
+        gioco.setRoundCount(round);
+        gioco.setGeneratore(generatore);
+        gioco.setMazzoDiCarte(mazzo);
+        gioco.setCurrentTurnState(turno);
+        return gioco;
+    }
+
+    private static void scriviCarte(DataOutput out, List<Carta> carte) throws IOException {
+        out.writeShort(carte.size());
+        for (Carta carta : carte) {
+            out.writeByte(carta.getTipo().ordinal());
+            out.writeByte(idTerritorio(carta.getTerritorio()));
+        }
+    }
+
+    private static List<Carta> leggiCarte(DataInput in, Mappa mappa) throws IOException {
+        int numeroCarte = in.readUnsignedShort();
+        List<Carta> carte = new ArrayList<>(numeroCarte);
+        for (int i = 0; i < numeroCarte; i++) {
+            Carta.TipoCarta tipo = Carta.TipoCarta.values()[in.readUnsignedByte()];
+            carte.add(new Carta(tipo, territorio(mappa, in.readByte())));
+        }
+        return carte;
+    }
+
+    private static void scriviObiettivo(DataOutput out, CartaObiettivo obiettivo) throws IOException {
+        if (obiettivo == null || obiettivo.getTipo() == null) {
+            out.writeByte(NESSUN_ID);
+            return;
+        }
+        out.writeByte(obiettivo.getTipo().ordinal());
+        out.writeUTF(obiettivo.getDescrizione());
+        out.writeByte(obiettivo.getContinenti().size());
+        for (String continente : obiettivo.getContinenti()) {
+            out.writeUTF(continente);
+        }
+        out.writeByte(obiettivo.getContinentiAScelta());
+        out.writeByte(obiettivo.getNumeroTerritori());
+    }
+
+    private static CartaObiettivo leggiObiettivo(DataInput in) throws IOException {
+        int tipo = in.readByte();
+        if (tipo == NESSUN_ID) {
+            return null;
+        }
+        String descrizione = in.readUTF();
+        String[] continenti = new String[in.readUnsignedByte()];
+        for (int i = 0; i < continenti.length; i++) {
+            continenti[i] = in.readUTF();
+        }
+        int continentiAScelta = in.readUnsignedByte();
+        int numeroTerritori = in.readUnsignedByte();
+        switch (CartaObiettivo.TipoObiettivo.values()[tipo]) {
+            case CONTINENTI:
+                return CartaObiettivo.conquistaContinenti(descrizione, continentiAScelta, continenti);
+            case TERRITORI:
+                return CartaObiettivo.conquistaTerritori(descrizione, numeroTerritori);
+            default:
+                return CartaObiettivo.presidiaTerritori(descrizione, numeroTerritori);
+        }
+    }
+
+    // Stringa opzionale: un byte di presenza seguito dal valore
+    private static void scriviStringa(DataOutput out, String valore) throws IOException {
+        out.writeBoolean(valore != null);
+        if (valore != null) {
+            out.writeUTF(valore);
+        }
+    }
+
+    private static String leggiStringa(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static int idTerritorio(Territorio territorio) {
+        return territorio != null ? territorio.getId() : NESSUN_ID;
+    }
+
+    private static Territorio territorio(Mappa mappa, int id) throws IOException {
+        if (id == NESSUN_ID) {
+            return null;
+        }
+        if (id < 0 || id >= mappa.getTopologia().getNumeroTerritori()) {
+            throw new IOException("Id di territorio non valido nel salvataggio: " + id + ".");
+        }
+        return mappa.getTerritorio(id);
+    }
+
+    private static String nomeTerritorio(Mappa mappa, int id) throws IOException {
+        Territorio territorio = territorio(mappa, id);
+        return territorio != null ? territorio.getNome() : null;
+    }
+
+    // InputStream che legge da un ByteBuffer, per usare DataInputStream senza copie
+    private static final class FlussoBuffer extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        FlussoBuffer(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int letti = Math.min(len, buffer.remaining());
+            buffer.get(b, off, letti);
+            return letti;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+}
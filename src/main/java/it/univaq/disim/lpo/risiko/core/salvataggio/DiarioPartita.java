@@ -0,0 +1,383 @@
+package it.univaq.disim.lpo.risiko.core.salvataggio;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import it.univaq.disim.lpo.risiko.core.engine.Comando;
+import it.univaq.disim.lpo.risiko.core.engine.MotoreGioco;
+import it.univaq.disim.lpo.risiko.core.engine.RegistroComandi;
+import it.univaq.disim.lpo.risiko.core.model.Gioco;
+import it.univaq.disim.lpo.risiko.core.model.TopologiaMappa;
+import it.univaq.disim.lpo.risiko.core.utils.OutputUtils;
+
+/**
+ * Diario dei comandi di una partita, per recuperarla dopo un'interruzione.
+ *
+ * La partita è salvata come una serie di generazioni: ogni generazione è uno snapshot
+ * (CodecPartita + CRC32) seguito da un diario in sola aggiunta dei comandi accettati
+ * dal motore dopo lo snapshot. Ogni ROUND_PER_SNAPSHOT round viene scritta una nuova
+ * generazione e la precedente viene eliminata solo dopo, quindi su disco esiste sempre
+ * almeno uno snapshot completo.
+ *
+ * Ogni record del diario è: short lunghezza, comando (CodecComandi), int CRC32 del comando.
+ * Un record troncato o corrotto (ad esempio per un'interruzione durante la scrittura)
+ * chiude il diario: il recupero riapplica i comandi fino al record precedente.
+ * Snapshot e record sono scritti con il livello di durabilità di ScritturaDurevole.
+ */
+public class DiarioPartita implements RegistroComandi, Closeable, ScritturaDurevole.Sincronizzabile {
+
+    /** Cartella predefinita dei diari, dentro la cartella dei salvataggi. */
+    public static final Path CARTELLA_PREDEFINITA = Paths.get("saves", "diario");
+
+    /** Numero di round dopo il quale viene scritto un nuovo snapshot. */
+    public static final int ROUND_PER_SNAPSHOT = 3;
+
+    // Intestazione di ogni file di diario ("RSKJ")
+    private static final int MAGIC = 0x52534B4A;
+    private static final int VERSIONE = 1;
+
+    private static final String ESTENSIONE_SNAPSHOT = ".snap";
+    private static final String ESTENSIONE_DIARIO = ".diario";
+    private static final Pattern NOME_SNAPSHOT = Pattern.compile("(.+)\\.(\\d+)\\.snap");
+
+    private final Path cartella;
+    private final String nome;
+    private final Gioco gioco;
+    private final TopologiaMappa topologia;
+    private long generazione;
+    private int roundSnapshot;
+    private OutputStream diario;
+    private FileChannel canale;
+    private int comandiRecuperati;
+
+    // Buffer riutilizzati: ogni record viene scritto con una sola write()
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream(64);
+    private final DataOutputStream datiRecord = new DataOutputStream(record);
+    private final CRC32 crc = new CRC32();
+
+    private DiarioPartita(Path cartella, String nome, Gioco gioco) {
+        this.cartella = cartella;
+        this.nome = nome;
+        this.gioco = gioco;
+        this.topologia = gioco.getMappa().getTopologia();
+    }
+
+    /**
+     * Crea il diario di una partita, sostituendo un eventuale diario con lo stesso nome.
+     * Scrive subito il primo snapshot.
+     *
+     * @param cartella la cartella dei diari.
+     * @param nome     il nome della partita.
+     * @param gioco    la partita.
+     * @return il diario, già registrabile sul motore.
+     * @throws IOException se lo snapshot o il diario non possono essere scritti.
+     */
+    public static DiarioPartita crea(Path cartella, String nome, Gioco gioco) throws IOException {
+        Files.createDirectories(cartella);
+        elimina(cartella, nome);
+        DiarioPartita diarioPartita = new DiarioPartita(cartella, nome, gioco);
+        diarioPartita.nuovaGenerazione(0);
+        return diarioPartita;
+    }
+
+    /**
+     * Recupera una partita interrotta: carica l'ultimo snapshot valido e riapplica
+     * i comandi del suo diario. La partita recuperata riparte da una nuova generazione.
+     *
+     * @param cartella la cartella dei diari.
+     * @param nome     il nome della partita.
+     * @return il diario della partita recuperata.
+     * @throws IOException se non esiste nessuno snapshot valido.
+     */
+    public static DiarioPartita recupera(Path cartella, String nome) throws IOException {
+        List<Long> generazioni = new ArrayList<>(generazioni(cartella, nome));
+        Collections.reverse(generazioni);
+        IOException ultimoErrore = null;
+        for (long generazione : generazioni) {
+            Gioco gioco;
+            try {
+                gioco = leggiSnapshot(percorso(cartella, nome, generazione, ESTENSIONE_SNAPSHOT));
+            } catch (IOException e) {
+                // Snapshot incompleto: si riparte dalla generazione precedente
+                ultimoErrore = e;
+                continue;
+            }
+            DiarioPartita diarioPartita = new DiarioPartita(cartella, nome, gioco);
+            diarioPartita.generazione = generazione;
+            diarioPartita.comandiRecuperati = riapplica(gioco, percorso(cartella, nome, generazione, ESTENSIONE_DIARIO), generazione);
+            diarioPartita.nuovaGenerazione(generazione + 1);
+            return diarioPartita;
+        }
+        throw ultimoErrore != null ? ultimoErrore : new IOException("Nessuna partita da recuperare con nome " + nome + ".");
+    }
+
+    /**
+     * Restituisce i nomi delle partite interrotte presenti nella cartella.
+     *
+     * @param cartella la cartella dei diari.
+     * @return i nomi delle partite recuperabili, in ordine alfabetico.
+     */
+    public static List<String> partiteDaRecuperare(Path cartella) {
+        TreeSet<String> nomi = new TreeSet<>();
+        if (Files.isDirectory(cartella)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(cartella, "*" + ESTENSIONE_SNAPSHOT)) {
+                for (Path file : files) {
+                    Matcher matcher = NOME_SNAPSHOT.matcher(file.getFileName().toString());
+                    if (matcher.matches()) {
+                        nomi.add(matcher.group(1));
+                    }
+                }
+            } catch (IOException e) {
+                OutputUtils.println("Errore durante la lettura dei diari delle partite: " + e.getMessage());
+            }
+        }
+        return new ArrayList<>(nomi);
+    }
+
+    /**
+     * Elimina snapshot e diari di una partita.
+     *
+     * @param cartella la cartella dei diari.
+     * @param nome     il nome della partita.
+     * @throws IOException se un file non può essere eliminato.
+     */
+    public static void elimina(Path cartella, String nome) throws IOException {
+        for (long generazione : generazioni(cartella, nome)) {
+            eliminaGenerazione(cartella, nome, generazione);
+        }
+    }
+
+    public Gioco getGioco() {
+        return gioco;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    /**
+     * Numero di comandi riapplicati dal diario durante il recupero (0 per una partita nuova).
+     */
+    public int getComandiRecuperati() {
+        return comandiRecuperati;
+    }
+
+    /**
+     * Aggiunge un comando accettato al diario e, se sono passati abbastanza round,
+     * scrive una nuova generazione. In caso di errore il diario viene disattivato
+     * e la partita prosegue senza.
+     */
+    @Override
+    public void registra(Gioco gioco, Comando comando) {
+        if (diario == null || gioco != this.gioco) {
+            return;
+        }
+        try {
+            record.reset();
+            CodecComandi.scrivi(comando, topologia, datiRecord);
+            byte[] payload = record.toByteArray();
+            crc.reset();
+            crc.update(payload);
+            record.reset();
+            datiRecord.writeShort(payload.length);
+            datiRecord.write(payload);
+            datiRecord.writeInt((int) crc.getValue());
+            diario.write(record.toByteArray());
+            ScritturaDurevole.getInstance().dopoAggiunta(this);
+
+            if (gioco.getRoundCount() >= roundSnapshot + ROUND_PER_SNAPSHOT) {
+                nuovaGenerazione(generazione + 1);
+            }
+        } catch (IOException e) {
+            OutputUtils.println("Errore durante la scrittura del diario della partita: " + e.getMessage());
+            close();
+        }
+    }
+
+    /**
+     * Chiude il diario lasciando i file su disco, così la partita resta recuperabile.
+     */
+    @Override
+    public void close() {
+        if (diario != null) {
+            try {
+                diario.flush();
+                ScritturaDurevole.getInstance().primaDellaChiusura(this);
+                diario.close();
+            } catch (IOException e) {
+                OutputUtils.println("Errore durante la chiusura del diario della partita: " + e.getMessage());
+            }
+            diario = null;
+            canale = null;
+        }
+    }
+
+    /**
+     * Forza su disco i record già scritti nel diario.
+     */
+    @Override
+    public void sincronizza() throws IOException {
+        FileChannel canaleAperto = canale;
+        if (canaleAperto != null) {
+            canaleAperto.force(false);
+        }
+    }
+
+    /**
+     * Chiude il diario ed elimina i suoi file: la partita è terminata o è stata salvata.
+     */
+    public void termina() {
+        close();
+        try {
+            elimina(cartella, nome);
+        } catch (IOException e) {
+            OutputUtils.println("Errore durante l'eliminazione del diario della partita: " + e.getMessage());
+        }
+    }
+
+    /*
+     * Scrive lo snapshot della nuova generazione, apre il suo diario e solo dopo
+     * elimina la generazione precedente.
+     */
+    private void nuovaGenerazione(long nuova) throws IOException {
+        byte[] snapshot = CodecPartita.codifica(gioco);
+        crc.reset();
+        crc.update(snapshot);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(snapshot.length + 4);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.write(snapshot);
+            out.writeInt((int) crc.getValue());
+        }
+        ScritturaDurevole.getInstance().scriviFile(percorso(cartella, nome, nuova, ESTENSIONE_SNAPSHOT), bytes.toByteArray());
+
+        FileOutputStream nuovoDiario = new FileOutputStream(percorso(cartella, nome, nuova, ESTENSIONE_DIARIO).toFile());
+        try {
+            record.reset();
+            datiRecord.writeInt(MAGIC);
+            datiRecord.writeShort(VERSIONE);
+            datiRecord.writeLong(nuova);
+            nuovoDiario.write(record.toByteArray());
+        } catch (IOException e) {
+            nuovoDiario.close();
+            throw e;
+        }
+
+        long precedente = generazione;
+        close();
+        // Senza durabilità i record possono restare nel buffer fino alla chiusura
+        diario = ScritturaDurevole.getInstance().getLivello() == ScritturaDurevole.Livello.NESSUNA
+            ? new BufferedOutputStream(nuovoDiario) : nuovoDiario;
+        canale = nuovoDiario.getChannel();
+        generazione = nuova;
+        roundSnapshot = gioco.getRoundCount();
+        if (nuova != precedente) {
+            eliminaGenerazione(cartella, nome, precedente);
+        }
+    }
+
+    private static Gioco leggiSnapshot(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        if (bytes.length < 4) {
+            throw new IOException("Snapshot incompleto: " + file.getFileName() + ".");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        int atteso = new DataInputStream(new ByteArrayInputStream(bytes, bytes.length - 4, 4)).readInt();
+        if ((int) crc.getValue() != atteso) {
+            throw new IOException("Snapshot corrotto: " + file.getFileName() + ".");
+        }
+        return CodecPartita.decodifica(bytes);
+    }
+
+    /*
+     * Riapplica i comandi del diario con un motore senza registro.
+     * Si ferma al primo record incompleto o corrotto, oppure rifiutato dal motore.
+     */
+    private static int riapplica(Gioco gioco, Path file, long generazione) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        MotoreGioco motore = new MotoreGioco();
+        TopologiaMappa topologia = gioco.getMappa().getTopologia();
+        CRC32 crc = new CRC32();
+        int comandi = 0;
+        try (InputStream flusso = new BufferedInputStream(Files.newInputStream(file));
+                DataInputStream in = new DataInputStream(flusso)) {
+            if (in.readInt() != MAGIC || in.readUnsignedShort() > VERSIONE || in.readLong() != generazione) {
+                return 0;
+            }
+            while (true) {
+                byte[] payload = new byte[in.readUnsignedShort()];
+                in.readFully(payload);
+                int atteso = in.readInt();
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != atteso) {
+                    break;
+                }
+                Comando comando = CodecComandi.leggi(topologia, new DataInputStream(new ByteArrayInputStream(payload)));
+                if (!motore.esegui(gioco, comando).isAccettato()) {
+                    break;
+                }
+                comandi++;
+            }
+        } catch (EOFException e) {
+            // Fine del diario o ultimo record troncato
+        }
+        return comandi;
+    }
+
+    private static TreeSet<Long> generazioni(Path cartella, String nome) throws IOException {
+        TreeSet<Long> generazioni = new TreeSet<>();
+        if (!Files.isDirectory(cartella)) {
+            return generazioni;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(cartella)) {
+            for (Path file : files) {
+                String nomeFile = file.getFileName().toString();
+                String prefisso = nome + ".";
+                if (!nomeFile.startsWith(prefisso)) {
+                    continue;
+                }
+                String resto = nomeFile.substring(prefisso.length());
+                int punto = resto.indexOf('.');
+                if (punto > 0 && resto.substring(0, punto).chars().allMatch(Character::isDigit)) {
+                    generazioni.add(Long.parseLong(resto.substring(0, punto)));
+                }
+            }
+        }
+        return generazioni;
+    }
+
+    private static void eliminaGenerazione(Path cartella, String nome, long generazione) throws IOException {
+        Files.deleteIfExists(percorso(cartella, nome, generazione, ESTENSIONE_SNAPSHOT));
+        Files.deleteIfExists(percorso(cartella, nome, generazione, ESTENSIONE_DIARIO));
+    }
+
+    private static Path percorso(Path cartella, String nome, long generazione, String estensione) {
+        return cartella.resolve(nome + "." + generazione + estensione);
+    }
+
+}
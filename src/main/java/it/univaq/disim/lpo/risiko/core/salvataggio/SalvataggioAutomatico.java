@@ -0,0 +1,179 @@
+package it.univaq.disim.lpo.risiko.core.salvataggio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import it.univaq.disim.lpo.risiko.core.model.Gioco;
+import it.univaq.disim.lpo.risiko.core.utils.OutputUtils;
+
+/**
+ * Salvataggio automatico della partita alla fine di ogni turno.
+ *
+ * Sul thread di gioco viene catturato solo lo snapshot della partita, cioè la sua
+ * codifica CodecPartita: un array di byte che non cambia più. La scrittura su disco
+ * avviene su un thread separato, quindi il turno successivo inizia senza attendere l'I/O.
+ *
+ * I salvataggi ruotano su NUMERO_SLOT file (autosave_1.save, autosave_2.save, ...),
+ * sostituendo ogni volta il più vecchio. Se lo scrittore è ancora occupato quando arriva
+ * un nuovo snapshot, quello in attesa viene sostituito: si scrive solo il più recente.
+ * Se è indicato un CatalogoSalvataggi, la scheda dello slot viene aggiornata dopo la scrittura.
+ */
+public class SalvataggioAutomatico implements Closeable {
+
+    /** Numero di salvataggi automatici conservati. */
+    public static final int NUMERO_SLOT = 3;
+
+    /** Prefisso dei file di salvataggio automatico. */
+    public static final String PREFISSO = "autosave_";
+
+    private static final String ESTENSIONE = ".save";
+
+    private final Path cartella;
+    private final ExecutorService scrittore;
+    private final CatalogoSalvataggi catalogo;
+    private final AtomicReference<Snapshot> inAttesa = new AtomicReference<>();
+    private int prossimoSlot;
+    private int snapshotScartati;
+
+    // Snapshot in attesa di scrittura, con la scheda per il catalogo
+    private static final class Snapshot {
+
+        private final byte[] dati;
+        private final SchedaSalvataggio scheda;
+
+        Snapshot(byte[] dati, SchedaSalvataggio scheda) {
+            this.dati = dati;
+            this.scheda = scheda;
+        }
+    }
+
+    /**
+     * Crea il salvataggio automatico nella cartella dei salvataggi.
+     *
+     * @param catalogo il catalogo da aggiornare, null per nessuno.
+     */
+    public SalvataggioAutomatico(CatalogoSalvataggi catalogo) {
+        this(Paths.get("saves"), catalogo);
+    }
+
+    /**
+     * Crea il salvataggio automatico in una cartella indicata.
+     *
+     * @param cartella la cartella in cui scrivere i salvataggi automatici.
+     * @param catalogo il catalogo da aggiornare, null per nessuno.
+     */
+    public SalvataggioAutomatico(Path cartella, CatalogoSalvataggi catalogo) {
+        this.cartella = cartella;
+        this.catalogo = catalogo;
+        this.prossimoSlot = slotPiuVecchio(cartella);
+        this.scrittore = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "salvataggio-automatico");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Cattura lo snapshot della partita e ne pianifica la scrittura.
+     * Va chiamato dal thread di gioco, tra un turno e l'altro.
+     *
+     * @param gioco la partita da salvare.
+     */
+    public void salva(Gioco gioco) {
+        Snapshot snapshot;
+        try {
+            byte[] dati = CodecPartita.codifica(gioco);
+            SchedaSalvataggio scheda = catalogo != null
+                ? SchedaSalvataggio.descrivi("", gioco, dati.length, System.currentTimeMillis()) : null;
+            snapshot = new Snapshot(dati, scheda);
+        } catch (IOException e) {
+            OutputUtils.println("Errore durante il salvataggio automatico: " + e.getMessage());
+            return;
+        }
+        // Se c'era già uno snapshot in attesa la scrittura è già pianificata: lo si sostituisce
+        if (inAttesa.getAndSet(snapshot) != null) {
+            snapshotScartati++;
+            return;
+        }
+        scrittore.execute(this::scriviInAttesa);
+    }
+
+    /**
+     * Numero di snapshot sostituiti da uno più recente prima di essere scritti.
+     */
+    public int getSnapshotScartati() {
+        return snapshotScartati;
+    }
+
+    /**
+     * Attende la scrittura dell'ultimo snapshot e ferma lo scrittore.
+     */
+    @Override
+    public void close() {
+        scrittore.shutdown();
+        try {
+            if (!scrittore.awaitTermination(10, TimeUnit.SECONDS)) {
+                OutputUtils.println("Errore durante il salvataggio automatico: scrittura non completata.");
+            }
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+     * Eseguito dallo scrittore. ScritturaDurevole scrive su un file temporaneo e lo
+     * rinomina sullo slot, così uno slot contiene sempre un salvataggio completo.
+     */
+    private void scriviInAttesa() {
+        Snapshot snapshot = inAttesa.getAndSet(null);
+        if (snapshot == null) {
+            return;
+        }
+        int slot = prossimoSlot;
+        prossimoSlot = slot % NUMERO_SLOT + 1;
+        Path destinazione = cartella.resolve(PREFISSO + slot + ESTENSIONE);
+        try {
+            ScritturaDurevole.getInstance().scriviFile(destinazione, snapshot.dati);
+            if (catalogo != null) {
+                catalogo.aggiorna(snapshot.scheda.rinomina(destinazione.getFileName().toString()));
+            }
+        } catch (IOException e) {
+            OutputUtils.println("Errore durante il salvataggio automatico: " + e.getMessage());
+        }
+    }
+
+    /*
+     * Lo slot da sovrascrivere per primo: uno mancante, altrimenti il meno recente,
+     * così la rotazione prosegue tra un avvio e l'altro.
+     */
+    private static int slotPiuVecchio(Path cartella) {
+        int slot = 1;
+        FileTime piuVecchio = null;
+        for (int i = 1; i <= NUMERO_SLOT; i++) {
+            Path file = cartella.resolve(PREFISSO + i + ESTENSIONE);
+            if (!Files.exists(file)) {
+                return i;
+            }
+            try {
+                FileTime modifica = Files.getLastModifiedTime(file);
+                if (piuVecchio == null || modifica.compareTo(piuVecchio) < 0) {
+                    piuVecchio = modifica;
+                    slot = i;
+                }
+            } catch (IOException e) {
+                return i;
+            }
+        }
+        return slot;
+    }
+
+}
@@ -0,0 +1,149 @@
+package it.univaq.disim.lpo.risiko.core.salvataggio;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import it.univaq.disim.lpo.risiko.core.model.Giocatore;
+import it.univaq.disim.lpo.risiko.core.model.Gioco;
+
+/**
+ * Descrizione immutabile di un salvataggio nel CatalogoSalvataggi:
+ * quanto basta per elencare, ordinare e filtrare i salvataggi senza caricarli.
+ */
+public final class SchedaSalvataggio {
+
+    /** Ordina dal salvataggio più recente al meno recente. */
+    public static final Comparator<SchedaSalvataggio> PIU_RECENTI =
+        Comparator.comparingLong(SchedaSalvataggio::getDataSalvataggio).reversed().thenComparing(SchedaSalvataggio::getNome);
+
+    /** Ordina per nome del salvataggio. */
+    public static final Comparator<SchedaSalvataggio> PER_NOME = Comparator.comparing(SchedaSalvataggio::getNome);
+
+    private final String nome;
+    private final long dataSalvataggio;
+    private final long dimensione;
+    private final int round;
+    private final String giocatoreCorrente;
+    private final List<String> giocatori;
+    private final List<String> colori;
+    // Nome del salvataggio e dei giocatori in minuscolo, per corrisponde()
+    private final String chiaveRicerca;
+
+    public SchedaSalvataggio(String nome, long dataSalvataggio, long dimensione, int round, String giocatoreCorrente,
+            List<String> giocatori, List<String> colori) {
+        this.nome = nome;
+        this.dataSalvataggio = dataSalvataggio;
+        this.dimensione = dimensione;
+        this.round = round;
+        this.giocatoreCorrente = giocatoreCorrente;
+        this.giocatori = Collections.unmodifiableList(new ArrayList<>(giocatori));
+        this.colori = Collections.unmodifiableList(new ArrayList<>(colori));
+        this.chiaveRicerca = (nome + "\n" + String.join("\n", giocatori)).toLowerCase();
+    }
+
+    /**
+     * Crea la scheda di una partita salvata.
+     *
+     * @param nome            il nome del salvataggio.
+     * @param gioco           la partita salvata.
+     * @param dimensione      la dimensione del salvataggio in byte.
+     * @param dataSalvataggio la data del salvataggio in millisecondi dall'epoca.
+     * @return la scheda del salvataggio.
+     */
+    public static SchedaSalvataggio descrivi(String nome, Gioco gioco, long dimensione, long dataSalvataggio) {
+        List<String> giocatori = new ArrayList<>();
+        List<String> colori = new ArrayList<>();
+        for (Giocatore giocatore : gioco.getOrdineGiocatori()) {
+            giocatori.add(giocatore.getNome());
+            colori.add(giocatore.getColore() != null ? giocatore.getColore() : "");
+        }
+        int indice = gioco.getCurrentPlayerIndex();
+        String corrente = indice >= 0 && indice < giocatori.size() ? giocatori.get(indice) : "";
+        return new SchedaSalvataggio(nome, dataSalvataggio, dimensione, gioco.getRoundCount(), corrente, giocatori, colori);
+    }
+
+    /**
+     * Restituisce la stessa scheda con un altro nome di salvataggio.
+     */
+    public SchedaSalvataggio rinomina(String nuovoNome) {
+        return new SchedaSalvataggio(nuovoNome, dataSalvataggio, dimensione, round, giocatoreCorrente, giocatori, colori);
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    /** Data del salvataggio in millisecondi dall'epoca. */
+    public long getDataSalvataggio() {
+        return dataSalvataggio;
+    }
+
+    /** Dimensione del salvataggio in byte. */
+    public long getDimensione() {
+        return dimensione;
+    }
+
+    public int getRound() {
+        return round;
+    }
+
+    public String getGiocatoreCorrente() {
+        return giocatoreCorrente;
+    }
+
+    /** Nomi dei giocatori, nell'ordine di gioco. */
+    public List<String> getGiocatori() {
+        return giocatori;
+    }
+
+    /** Colori dei giocatori, nello stesso ordine di getGiocatori(). */
+    public List<String> getColori() {
+        return colori;
+    }
+
+    /**
+     * Verifica se il nome del salvataggio o di uno dei giocatori contiene il testo indicato,
+     * senza distinzione tra maiuscole e minuscole.
+     *
+     * @param testo il testo da cercare.
+     * @return true se la scheda corrisponde.
+     */
+    public boolean corrisponde(String testo) {
+        return chiaveRicerca.contains(testo.toLowerCase());
+    }
+
+    void scrivi(DataOutput out) throws IOException {
+        out.writeUTF(nome);
+        out.writeLong(dataSalvataggio);
+        out.writeLong(dimensione);
+        out.writeInt(round);
+        out.writeUTF(giocatoreCorrente);
+        out.writeByte(giocatori.size());
+        for (int i = 0; i < giocatori.size(); i++) {
+            out.writeUTF(giocatori.get(i));
+            out.writeUTF(colori.get(i));
+        }
+    }
+
+    static SchedaSalvataggio leggi(DataInput in) throws IOException {
+        String nome = in.readUTF();
+        long dataSalvataggio = in.readLong();
+        long dimensione = in.readLong();
+        int round = in.readInt();
+        String giocatoreCorrente = in.readUTF();
+        int numeroGiocatori = in.readUnsignedByte();
+        List<String> giocatori = new ArrayList<>(numeroGiocatori);
+        List<String> colori = new ArrayList<>(numeroGiocatori);
+        for (int i = 0; i < numeroGiocatori; i++) {
+            giocatori.add(in.readUTF());
+            colori.add(in.readUTF());
+        }
+        return new SchedaSalvataggio(nome, dataSalvataggio, dimensione, round, giocatoreCorrente, giocatori, colori);
+    }
+
+}
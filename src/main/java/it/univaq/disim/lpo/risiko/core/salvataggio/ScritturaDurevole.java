@@ -0,0 +1,339 @@
+package it.univaq.disim.lpo.risiko.core.salvataggio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import it.univaq.disim.lpo.risiko.core.utils.OutputUtils;
+
+/**
+ * Classe singleton che decide quanto sono durevoli le scritture di salvataggi e diari.
+ *
+ * I file interi (salvataggi, snapshot) sono sempre scritti su un file temporaneo e poi
+ * rinominati sulla destinazione, quindi non sono mai scritti a metà. Il livello stabilisce
+ * cosa succede prima di considerare conclusa una scrittura:
+ * <ul>
+ * <li>NESSUNA: i diari possono tenere i record nei propri buffer fino alla chiusura;</li>
+ * <li>FLUSH: ogni scrittura arriva al sistema operativo e sopravvive alla chiusura del
+ * processo, ma non a un'interruzione di corrente;</li>
+ * <li>FSYNC: ogni scrittura viene forzata su disco (fsync) prima di proseguire;</li>
+ * <li>GRUPPO: le fsync vengono raggruppate ogni intervalloGruppo millisecondi per tutte
+ * le partite. Il salvataggio di un file attende la fsync del proprio gruppo; i record
+ * dei diari non attendono e sono durevoli entro un intervallo.</li>
+ * </ul>
+ */
+public class ScritturaDurevole {
+
+    public enum Livello {
+        NESSUNA,
+        FLUSH,
+        FSYNC,
+        GRUPPO
+    }
+
+    /**
+     * Risorsa scritta in aggiunta (diario, archivio) che può essere forzata su disco.
+     */
+    public interface Sincronizzabile {
+
+        /**
+         * Forza su disco i dati già scritti.
+         *
+         * @throws IOException se la sincronizzazione non riesce.
+         */
+        void sincronizza() throws IOException;
+    }
+
+    /** Intervallo predefinito tra due fsync di gruppo, in millisecondi. */
+    public static final long INTERVALLO_GRUPPO_PREDEFINITO = 10;
+
+    private static ScritturaDurevole instance;
+
+    private volatile Livello livello = Livello.FLUSH;
+    private long intervalloGruppo = INTERVALLO_GRUPPO_PREDEFINITO;
+    private ScheduledExecutorService gruppo;
+
+    // File in attesa della fsync di gruppo, per destinazione: vince l'ultimo
+    private final Map<Path, FileInAttesa> fileInAttesa = new LinkedHashMap<>();
+    // Risorse scritte in aggiunta dall'ultima fsync di gruppo
+    private final Set<Sincronizzabile> risorseInAttesa = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private static final class FileInAttesa {
+
+        private final Path temporaneo;
+        private final List<CompletableFuture<Void>> attese = new ArrayList<>();
+
+        FileInAttesa(Path temporaneo) {
+            this.temporaneo = temporaneo;
+        }
+    }
+
+    private ScritturaDurevole() {
+    }
+
+    public static ScritturaDurevole getInstance() {
+        if (instance == null) {
+            synchronized (ScritturaDurevole.class) {
+                if (instance == null) {
+                    instance = new ScritturaDurevole();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Imposta il livello di durabilità.
+     *
+     * @param livello          il livello di durabilità.
+     * @param intervalloGruppo l'intervallo tra due fsync di gruppo in millisecondi, usato con GRUPPO.
+     */
+    public synchronized void configura(Livello livello, long intervalloGruppo) {
+        if (intervalloGruppo <= 0) {
+            throw new IllegalArgumentException("L'intervallo di gruppo deve essere positivo.");
+        }
+        eseguiGruppo();
+        if (gruppo != null) {
+            gruppo.shutdown();
+            gruppo = null;
+        }
+        this.livello = livello;
+        this.intervalloGruppo = intervalloGruppo;
+        if (livello == Livello.GRUPPO) {
+            gruppo = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "fsync-di-gruppo");
+                thread.setDaemon(true);
+                return thread;
+            });
+            gruppo.scheduleWithFixedDelay(this::eseguiGruppo, intervalloGruppo, intervalloGruppo, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public Livello getLivello() {
+        return livello;
+    }
+
+    public synchronized long getIntervalloGruppo() {
+        return intervalloGruppo;
+    }
+
+    /**
+     * Scrive un file intero: su un file temporaneo nella stessa cartella, rinominato poi
+     * sulla destinazione. Con FSYNC e GRUPPO ritorna solo quando file e cartella sono su disco.
+     *
+     * @param destinazione il file da scrivere.
+     * @param dati         il contenuto del file.
+     * @throws IOException se la scrittura non riesce; la destinazione resta invariata.
+     */
+    public void scriviFile(Path destinazione, byte[] dati) throws IOException {
+        Path cartella = destinazione.toAbsolutePath().getParent();
+        Files.createDirectories(cartella);
+        Path temporaneo = Files.createTempFile(cartella, destinazione.getFileName().toString(), ".tmp");
+        Livello livelloScrittura = livello;
+        try {
+            try (FileChannel canale = FileChannel.open(temporaneo, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(dati);
+                while (buffer.hasRemaining()) {
+                    canale.write(buffer);
+                }
+                if (livelloScrittura == Livello.FSYNC) {
+                    canale.force(true);
+                }
+            }
+            if (livelloScrittura == Livello.GRUPPO) {
+                CompletableFuture<Void> attesa = accoda(destinazione, temporaneo);
+                if (attesa != null) {
+                    attendi(attesa);
+                    return;
+                }
+                // Fsync di gruppo disattivata nel frattempo: il file si forza qui
+                forza(temporaneo);
+                livelloScrittura = Livello.FSYNC;
+            }
+            rinomina(temporaneo, destinazione);
+            if (livelloScrittura == Livello.FSYNC) {
+                sincronizzaCartella(cartella);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temporaneo);
+            throw e;
+        }
+    }
+
+    /**
+     * Da chiamare dopo aver aggiunto dati a una risorsa: con FSYNC la forza subito,
+     * con GRUPPO la forza alla prossima fsync di gruppo.
+     *
+     * @param risorsa la risorsa appena scritta.
+     * @throws IOException se la sincronizzazione immediata non riesce.
+     */
+    public void dopoAggiunta(Sincronizzabile risorsa) throws IOException {
+        Livello livelloScrittura = livello;
+        if (livelloScrittura == Livello.FSYNC) {
+            risorsa.sincronizza();
+        } else if (livelloScrittura == Livello.GRUPPO) {
+            synchronized (this) {
+                if (gruppo != null) {
+                    risorseInAttesa.add(risorsa);
+                    return;
+                }
+            }
+            // Fsync di gruppo disattivata nel frattempo
+            risorsa.sincronizza();
+        }
+    }
+
+    /**
+     * Da chiamare prima di chiudere una risorsa: la forza su disco se ha scritture
+     * ancora in attesa della fsync di gruppo.
+     *
+     * @param risorsa la risorsa da chiudere.
+     * @throws IOException se la sincronizzazione non riesce.
+     */
+    public void primaDellaChiusura(Sincronizzabile risorsa) throws IOException {
+        boolean inAttesa;
+        synchronized (this) {
+            inAttesa = risorseInAttesa.remove(risorsa);
+        }
+        if (inAttesa) {
+            risorsa.sincronizza();
+        }
+    }
+
+    /*
+     * Accoda il file alla prossima fsync di gruppo. Restituisce null se nel frattempo il livello
+     * è cambiato: configura() ha già svuotato la coda e nessuno completerebbe l'attesa.
+     */
+    private synchronized CompletableFuture<Void> accoda(Path destinazione, Path temporaneo) throws IOException {
+        if (gruppo == null) {
+            return null;
+        }
+        FileInAttesa nuovo = new FileInAttesa(temporaneo);
+        FileInAttesa precedente = fileInAttesa.put(destinazione, nuovo);
+        if (precedente != null) {
+            // Lo stesso file è stato riscritto nell'intervallo: basta l'ultima versione
+            Files.deleteIfExists(precedente.temporaneo);
+            nuovo.attese.addAll(precedente.attese);
+        }
+        CompletableFuture<Void> attesa = new CompletableFuture<>();
+        nuovo.attese.add(attesa);
+        return attesa;
+    }
+
+    private static void attendi(CompletableFuture<Void> attesa) throws IOException {
+        try {
+            attesa.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Scrittura interrotta in attesa della fsync di gruppo.", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+    }
+
+    /*
+     * Una fsync di gruppo: forza i file temporanei e le risorse in attesa,
+     * rinomina i file e forza una sola volta ogni cartella coinvolta.
+     */
+    private void eseguiGruppo() {
+        Map<Path, FileInAttesa> file;
+        List<Sincronizzabile> risorse;
+        synchronized (this) {
+            if (fileInAttesa.isEmpty() && risorseInAttesa.isEmpty()) {
+                return;
+            }
+            file = new LinkedHashMap<>(fileInAttesa);
+            risorse = new ArrayList<>(risorseInAttesa);
+            fileInAttesa.clear();
+            risorseInAttesa.clear();
+        }
+
+        for (Sincronizzabile risorsa : risorse) {
+            try {
+                risorsa.sincronizza();
+            } catch (ClosedChannelException e) {
+                // Risorsa chiusa nel frattempo: è già stata forzata alla chiusura
+            } catch (IOException e) {
+                OutputUtils.println("Errore durante la fsync di gruppo: " + e.getMessage());
+            }
+        }
+
+        Set<Path> cartelle = new LinkedHashSet<>();
+        Map<FileInAttesa, IOException> errori = new IdentityHashMap<>();
+        for (Map.Entry<Path, FileInAttesa> voce : file.entrySet()) {
+            FileInAttesa inAttesa = voce.getValue();
+            try {
+                forza(inAttesa.temporaneo);
+                rinomina(inAttesa.temporaneo, voce.getKey());
+                cartelle.add(voce.getKey().toAbsolutePath().getParent());
+            } catch (IOException e) {
+                errori.put(inAttesa, e);
+                try {
+                    Files.deleteIfExists(inAttesa.temporaneo);
+                } catch (IOException ex) {
+                    OutputUtils.println("Errore durante l'eliminazione di un file temporaneo: " + ex.getMessage());
+                }
+            }
+        }
+        for (Path cartella : cartelle) {
+            sincronizzaCartella(cartella);
+        }
+
+        for (FileInAttesa inAttesa : file.values()) {
+            IOException errore = errori.get(inAttesa);
+            for (CompletableFuture<Void> attesa : inAttesa.attese) {
+                if (errore != null) {
+                    attesa.completeExceptionally(errore);
+                } else {
+                    attesa.complete(null);
+                }
+            }
+        }
+    }
+
+    private static void forza(Path file) throws IOException {
+        try (FileChannel canale = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            canale.force(true);
+        }
+    }
+
+    private static void rinomina(Path temporaneo, Path destinazione) throws IOException {
+        try {
+            Files.move(temporaneo, destinazione, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaneo, destinazione, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /*
+     * Rende durevole la rinomina. Non tutti i sistemi permettono di aprire una cartella:
+     * in quel caso la rinomina resta affidata al file system.
+     */
+    private static void sincronizzaCartella(Path cartella) {
+        try (FileChannel canale = FileChannel.open(cartella, StandardOpenOption.READ)) {
+            canale.force(true);
+        } catch (IOException e) {
+            // Cartella non sincronizzabile su questo sistema
+        }
+    }
+
+}
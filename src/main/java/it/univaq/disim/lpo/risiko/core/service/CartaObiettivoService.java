@@ -2,6 +2,7 @@ package it.univaq.disim.lpo.risiko.core.service;
 
 import java.util.List;
 import it.univaq.disim.lpo.risiko.core.model.CartaObiettivo;
+import it.univaq.disim.lpo.risiko.core.model.GeneratoreCasuale;
 import it.univaq.disim.lpo.risiko.core.model.Giocatore;
 
 /**
@@ -15,7 +16,7 @@ public interface CartaObiettivoService {
      * @param numeroObiettivi il numero di carte obiettivo da generare.
      * @return una lista di carte obiettivo generate casualmente.
      */
-    List<CartaObiettivo> generaObiettiviCasuali(int numeroObiettivi);
+    List<CartaObiettivo> generaObiettiviCasuali(int numeroObiettivi, GeneratoreCasuale generatore);
 
     /**
      * Assegna casualmente un obiettivo ai giocatori.
@@ -23,6 +24,6 @@ public interface CartaObiettivoService {
      * @param giocatori        la lista dei giocatori a cui assegnare gli obiettivi.
      * @param obiettiviCasuali la lista degli obiettivi da assegnare.
      */
-    void assegnaObiettiviCasuali(List<Giocatore> giocatori, List<CartaObiettivo> obiettiviCasuali);
+    void assegnaObiettiviCasuali(List<Giocatore> giocatori, List<CartaObiettivo> obiettiviCasuali, GeneratoreCasuale generatore);
 
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package it.univaq.disim.lpo.risiko.core.service;
 
 import java.io.IOException;
+import java.util.List;
 import it.univaq.disim.lpo.risiko.core.model.Gioco;
 
 /**
@@ -28,6 +29,13 @@ public interface FileService {
      */
     Gioco caricaGioco(String fileName) throws IOException, ClassNotFoundException;
 
+    /**
+     * Restituisce i nomi dei salvataggi disponibili, in ordine alfabetico.
+     * 
+     * @return la lista dei nomi dei salvataggi.
+     */
+    List<String> elencaSalvataggi();
+
     /**
      * Legge i dati sa un file
      * 
@@ -1,6 +1,7 @@
 package it.univaq.disim.lpo.risiko.core.service;
 
 import java.util.List;
+import it.univaq.disim.lpo.risiko.core.model.GeneratoreCasuale;
 import it.univaq.disim.lpo.risiko.core.model.Giocatore;
 import it.univaq.disim.lpo.risiko.core.model.Gioco;
 import it.univaq.disim.lpo.risiko.core.model.Mappa;
@@ -65,7 +66,7 @@ public interface GiocatoreService {
      * @param giocatori la lista dei giocatori.
      * @return una lista di giocatori ordinata in base ai risultati dei dadi.
      */
-	List<Giocatore> lancioDadiPerPrimoGiocatore(List<Giocatore> giocatori);
+	List<Giocatore> lancioDadiPerPrimoGiocatore(List<Giocatore> giocatori, GeneratoreCasuale generatore);
 	
 	/**
      * Calcola il numero di armate iniziali per ciascun giocatore in base al numero totale di giocatori.
@@ -88,7 +89,7 @@ public interface GiocatoreService {
      * @param giocatori la lista dei giocatori.
      * @param mappa     la mappa del gioco contenente i territori.
      */
-	void distribuzioneTerritori(List<Giocatore> giocatori,Mappa mappa);
+	void distribuzioneTerritori(List<Giocatore> giocatori, Mappa mappa, GeneratoreCasuale generatore);
 	
 	/**
      * Permette al giocatore di scambiare carte per ottenere armate aggiuntive.
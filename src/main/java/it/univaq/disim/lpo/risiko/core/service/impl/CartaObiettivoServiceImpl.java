@@ -2,9 +2,8 @@ package it.univaq.disim.lpo.risiko.core.service.impl;
 
 import it.univaq.disim.lpo.risiko.core.service.CartaObiettivoService;
 import java.util.List;
-import java.util.Arrays;
-import java.util.Collections;
 import it.univaq.disim.lpo.risiko.core.model.CartaObiettivo;
+import it.univaq.disim.lpo.risiko.core.model.GeneratoreCasuale;
 import it.univaq.disim.lpo.risiko.core.model.Giocatore;
 
 /**
@@ -17,26 +16,14 @@ public class CartaObiettivoServiceImpl implements CartaObiettivoService {
 	 * Genera una lista di carte obiettivo casuali.
 	 *
 	 * @param numeroObiettivi il numero di carte obiettivo da generare.
+	 * @param generatore      il generatore casuale della partita.
 	 * @return una lista di carte obiettivo selezionate casualmente.
 	 */
-	public List<CartaObiettivo> generaObiettiviCasuali(int numeroObiettivi) {
-		List<CartaObiettivo> obiettiviDisponibili = Arrays.asList(
-			/*
-			 * Questo obiettivo è stato usato per eseguire dei test veloci
-			 * durante la fase di sviluppo, inutile per il gameplay effettivo.
-			 */
-			// new CartaObiettivo("Conquistare 1 territorio")
-			new CartaObiettivo("Conquistare la totalità dell'America del Nord e dell'Africa"),
-			new CartaObiettivo("Conquistare la totalità dell'America del Nord e dell'Oceania"),
-			new CartaObiettivo("Conquistare la totalità dell'Asia e del Sud America"),
-			new CartaObiettivo("Conquistare la totalità dell'Asia e dell'Africa"),
-			new CartaObiettivo("Conquistare 18 territori presidiandoli con almeno due armate ciascuno"),
-			new CartaObiettivo("Conquistare 24 territori"),
-			new CartaObiettivo("Conquistare la totalità dell'Europa, del Sud America e di un terzo continente a scelta"),
-			new CartaObiettivo("Conquistare la totalità dell'Europa, dell'Oceania e di un terzo continente a scelta"));
+	public List<CartaObiettivo> generaObiettiviCasuali(int numeroObiettivi, GeneratoreCasuale generatore) {
+		List<CartaObiettivo> obiettiviDisponibili = CartaObiettivo.obiettiviClassici();
 		
         // Mescola la lista per randomizzare gli obiettivi
-		Collections.shuffle(obiettiviDisponibili);
+		generatore.mescola(obiettiviDisponibili);
 		
         // Assicura che il numero richiesto di obiettivi non superi quelli disponibili
 		int numeroDaAssegnare = Math.min(numeroObiettivi, obiettiviDisponibili.size());
@@ -46,13 +33,14 @@ public class CartaObiettivoServiceImpl implements CartaObiettivoService {
 	/**
 	 * Assegna casualmente le carte obiettivo a ciascun giocatore.
 	 *
-	 * @param giocatori la lista dei giocatori.
-	 * @param obiettivi la lista degli obiettivi disponibili.
+	 * @param giocatori  la lista dei giocatori.
+	 * @param obiettivi  la lista degli obiettivi disponibili.
+	 * @param generatore il generatore casuale della partita.
 	 */
 	@Override
-	public void assegnaObiettiviCasuali(List<Giocatore> giocatori, List<CartaObiettivo> obiettivi) {
+	public void assegnaObiettiviCasuali(List<Giocatore> giocatori, List<CartaObiettivo> obiettivi, GeneratoreCasuale generatore) {
 		// Mescola gli obiettivi per randomizzare l'assegnazione
-		Collections.shuffle(obiettivi);
+		generatore.mescola(obiettivi);
 
 		// Assegna gli obiettivi ai giocatori
 		for (int i = 0; i < giocatori.size(); i++) {
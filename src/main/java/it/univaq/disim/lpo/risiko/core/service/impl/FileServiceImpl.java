@@ -1,12 +1,25 @@
 package it.univaq.disim.lpo.risiko.core.service.impl;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 import it.univaq.disim.lpo.risiko.core.service.FileService;
+import it.univaq.disim.lpo.risiko.core.engine.EventoGioco;
+import it.univaq.disim.lpo.risiko.core.log.CanaleLog;
+import it.univaq.disim.lpo.risiko.core.log.LivelloLog;
+import it.univaq.disim.lpo.risiko.core.log.RegistroEventi;
 import it.univaq.disim.lpo.risiko.core.model.Gioco;
+import it.univaq.disim.lpo.risiko.core.salvataggio.ArchivioSalvataggi;
+import it.univaq.disim.lpo.risiko.core.salvataggio.CatalogoSalvataggi;
+import it.univaq.disim.lpo.risiko.core.salvataggio.CodecPartita;
+import it.univaq.disim.lpo.risiko.core.salvataggio.SchedaSalvataggio;
+import it.univaq.disim.lpo.risiko.core.salvataggio.ScritturaDurevole;
 import it.univaq.disim.lpo.risiko.core.utils.OutputUtils;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 /**
  * Classe sngleton che implementa l'interfaccia FileService.
@@ -17,7 +30,16 @@ public class FileServiceImpl implements FileService {
     private static FileServiceImpl instance;
     private static final String SAVE_FOLDER = "saves/";
     private static final String LOG_FOLDER = "logs/";
-    private String currentLogFileName;
+    // Canale del file di log corrente, scritto in background
+    private CanaleLog canaleLog;
+    // Livello di dettaglio del log leggibile
+    private volatile LivelloLog livelloLog = LivelloLog.DADI;
+    // Registro degli eventi della partita, accanto al file di log corrente
+    private RegistroEventi registroEventi;
+    // Archivio unico dei salvataggi, null per salvare un file per partita
+    private ArchivioSalvataggi archivio;
+    // Catalogo con i metadati dei salvataggi, aperto al primo utilizzo
+    private CatalogoSalvataggi catalogo;
 
     /**
      * Costruttore privato per il pattern sigleton.
@@ -30,7 +52,7 @@ public class FileServiceImpl implements FileService {
             try {
                 Files.createDirectories(logDir);
             } catch (IOException e) {
-                System.out.println("Errore durante la creazione della cartella dei log: " + e.getMessage());
+                OutputUtils.println("Errore durante la creazione della cartella dei log: " + e.getMessage());
 
             }
         }
@@ -40,7 +62,7 @@ public class FileServiceImpl implements FileService {
             try {
                 Files.createDirectories(saveDir);
             } catch (IOException e) {
-                System.out.println("Errore durante la creazione della cartella dei salvataggi:" + e.getMessage());
+                OutputUtils.println("Errore durante la creazione della cartella dei salvataggi:" + e.getMessage());
 
             }
         }
@@ -64,7 +86,99 @@ public class FileServiceImpl implements FileService {
     }
 
     /**
-     * Salva lo stato del gioco su un file.
+     * Usa un archivio unico mappato in memoria al posto di un file per partita.
+     * I salvataggi già presenti come file singoli restano caricabili.
+     * 
+     * @param fileArchivio il file dell'archivio, creato se non esiste.
+     * @throws IOException se l'archivio non può essere aperto.
+     */
+    public void usaArchivio(Path fileArchivio) throws IOException {
+        ArchivioSalvataggi nuovoArchivio = ArchivioSalvataggi.apri(fileArchivio);
+        if (archivio != null) {
+            archivio.close();
+        }
+        archivio = nuovoArchivio;
+        if (catalogo != null) {
+            riallineaCatalogo();
+        }
+    }
+
+    /**
+     * Restituisce il catalogo dei salvataggi, aprendolo al primo utilizzo.
+     * All'apertura il catalogo viene riallineato con i salvataggi presenti: le schede
+     * dei salvataggi eliminati vengono rimosse e quelli senza scheda (ad esempio
+     * precedenti al catalogo) vengono letti una sola volta per crearla.
+     * 
+     * @return il catalogo dei salvataggi.
+     */
+    public synchronized CatalogoSalvataggi getCatalogo() {
+        if (catalogo == null) {
+            Path fileCatalogo = Paths.get(SAVE_FOLDER, "catalogo.dat");
+            try {
+                catalogo = CatalogoSalvataggi.apri(fileCatalogo);
+            } catch (IOException e) {
+                // Catalogo illeggibile: viene ricostruito dai salvataggi
+                OutputUtils.println("Errore durante l'apertura del catalogo dei salvataggi: " + e.getMessage());
+                try {
+                    Files.deleteIfExists(fileCatalogo);
+                    catalogo = CatalogoSalvataggi.apri(fileCatalogo);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+            riallineaCatalogo();
+        }
+        return catalogo;
+    }
+
+    private void riallineaCatalogo() {
+        // Salvataggi presenti, con la data per quelli dell'archivio (per i file viene letta solo se serve)
+        Map<String, Long> presenti = new HashMap<>();
+        if (archivio != null) {
+            for (ArchivioSalvataggi.Voce voce : archivio.getVoci()) {
+                presenti.put(voce.getNome(), voce.getDataSalvataggio());
+            }
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get(SAVE_FOLDER), "*.save")) {
+            for (Path file : files) {
+                presenti.putIfAbsent(file.getFileName().toString(), null);
+            }
+        } catch (IOException e) {
+            OutputUtils.println("Errore durante la lettura della cartella dei salvataggi: " + e.getMessage());
+        }
+
+        for (SchedaSalvataggio scheda : catalogo.getSchede()) {
+            if (!presenti.containsKey(scheda.getNome())) {
+                catalogo.rimuovi(scheda.getNome());
+            }
+        }
+        for (Map.Entry<String, Long> salvataggio : presenti.entrySet()) {
+            String nome = salvataggio.getKey();
+            if (catalogo.contiene(nome)) {
+                continue;
+            }
+            long data = 0;
+            try {
+                data = salvataggio.getValue() != null ? salvataggio.getValue()
+                    : Files.getLastModifiedTime(Paths.get(SAVE_FOLDER + nome)).toMillis();
+                Gioco gioco = leggiGioco(nome);
+                catalogo.aggiorna(SchedaSalvataggio.descrivi(nome, gioco, dimensione(nome), data));
+            } catch (IOException | ClassNotFoundException | RuntimeException e) {
+                // Salvataggio illeggibile: resta elencato con il solo nome
+                catalogo.aggiorna(new SchedaSalvataggio(nome, data, 0, 0, "", List.of(), List.of()));
+            }
+        }
+    }
+
+    private long dimensione(String fileName) throws IOException {
+        ArchivioSalvataggi.Voce voce = archivio != null ? archivio.getVoce(fileName) : null;
+        return voce != null ? voce.getLunghezza() : Files.size(Paths.get(SAVE_FOLDER + fileName));
+    }
+
+    /**
+     * Salva lo stato del gioco nel formato binario di CodecPartita, su un file
+     * o nell'archivio se è in uso. Un file di salvataggio viene scritto su un file
+     * temporaneo e poi rinominato, con il livello di durabilità di ScritturaDurevole.
      * 
      * @param gioco l'oggetto gioco da salvare.
      * @param fileName il nome del file su cui salvare.
@@ -72,11 +186,16 @@ public class FileServiceImpl implements FileService {
      */
     public void salvaGioco(Gioco gioco, String fileName) throws IOException {
         Path path = Paths.get(SAVE_FOLDER + fileName);
-        try (FileOutputStream fileOut = new FileOutputStream(path.toFile());
-                ObjectOutputStream out = new ObjectOutputStream(fileOut)) {
-            out.writeObject(gioco);
+        try {
+            byte[] dati = CodecPartita.codifica(gioco);
+            if (archivio != null) {
+                archivio.salva(fileName, dati);
+            } else {
+                ScritturaDurevole.getInstance().scriviFile(path, dati);
+            }
+            getCatalogo().aggiorna(SchedaSalvataggio.descrivi(fileName, gioco, dati.length, System.currentTimeMillis()));
         } catch (IOException e) {
-            System.out.println("Errore durante il salvataggio della partita: " + e.getMessage());
+            OutputUtils.println("Errore durante il salvataggio della partita: " + e.getMessage());
             throw e;
         }
 
@@ -84,6 +203,8 @@ public class FileServiceImpl implements FileService {
 
     /**
      * Carica una partita salvata da un file.
+     * Riconosce il formato binario dall'intestazione; i salvataggi precedenti,
+     * scritti con la serializzazione Java, vengono ancora letti con ObjectInputStream.
      * 
      * @param fileName il nome del file da cui caricare.
      * @return l'oggetto gioco caricato.
@@ -91,11 +212,13 @@ public class FileServiceImpl implements FileService {
      * @throws ClassNotFoundException se la classe Gioco non viene trovata.
      */
     public Gioco caricaGioco(String fileName) throws IOException, ClassNotFoundException {
-        Path path = Paths.get(SAVE_FOLDER + fileName);
-        try (FileInputStream fileIn = new FileInputStream(path.toFile());
-                ObjectInputStream in = new ObjectInputStream(fileIn)) {
-            Gioco gioco = (Gioco) in.readObject();
-            OutputUtils.println("Partita caricata da " + path.toAbsolutePath(), OutputUtils.ANSI_BRIGHT_GREEN, OutputUtils.ANSI_BOLD);
+        try {
+            Gioco gioco = leggiGioco(fileName);
+            if (archivio != null && archivio.contiene(fileName)) {
+                OutputUtils.println("Partita caricata dall'archivio: " + fileName, OutputUtils.ANSI_BRIGHT_GREEN, OutputUtils.ANSI_BOLD);
+            } else {
+                OutputUtils.println("Partita caricata da " + Paths.get(SAVE_FOLDER + fileName).toAbsolutePath(), OutputUtils.ANSI_BRIGHT_GREEN, OutputUtils.ANSI_BOLD);
+            }
             return gioco;
         } catch (IOException | ClassNotFoundException e) {
             OutputUtils.println("Errore durante il caricamento della partita: " + e.getMessage(), OutputUtils.ANSI_BRIGHT_RED, OutputUtils.ANSI_BOLD);
@@ -103,6 +226,37 @@ public class FileServiceImpl implements FileService {
         }
     }
 
+    /*
+     * Legge una partita dall'archivio o dal suo file, senza messaggi.
+     */
+    private Gioco leggiGioco(String fileName) throws IOException, ClassNotFoundException {
+        ByteBuffer record = archivio != null ? archivio.leggi(fileName) : null;
+        if (record != null) {
+            return CodecPartita.decodifica(record);
+        }
+        byte[] dati = Files.readAllBytes(Paths.get(SAVE_FOLDER + fileName));
+        if (CodecPartita.isFormatoBinario(dati)) {
+            return CodecPartita.decodifica(dati);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(dati))) {
+            return (Gioco) in.readObject();
+        }
+    }
+
+    /**
+     * Restituisce i nomi dei salvataggi disponibili, letti dal catalogo:
+     * quelli dell'archivio, se in uso, e i file .save della cartella dei salvataggi.
+     * 
+     * @return la lista ordinata dei nomi dei salvataggi.
+     */
+    public List<String> elencaSalvataggi() {
+        List<String> nomi = new ArrayList<>();
+        for (SchedaSalvataggio scheda : getCatalogo().getSchede()) {
+            nomi.add(scheda.getNome());
+        }
+        return nomi;
+    }
+
     /**
      * Legge dati da un file.
      * 
@@ -114,7 +268,7 @@ public class FileServiceImpl implements FileService {
         try {
             return Files.readString(path);
         } catch (IOException e) {
-            System.out.println("Errore durante la lettura del file: " + e.getMessage());
+            OutputUtils.println("Errore durante la lettura del file: " + e.getMessage());
             return "";
         }
     }
@@ -129,9 +283,9 @@ public class FileServiceImpl implements FileService {
         Path path = Paths.get(fileName);
         try {
             Files.writeString(path, data);
-            System.out.println("Dati scritti su " + path.toAbsolutePath());
+            OutputUtils.println("Dati scritti su " + path.toAbsolutePath());
         } catch (IOException e) {
-            System.out.println("Errore durante la scrittura del file: " + e.getMessage());
+            OutputUtils.println("Errore durante la scrittura del file: " + e.getMessage());
         }
     }
 
@@ -148,70 +302,228 @@ public class FileServiceImpl implements FileService {
                 String content = Files.readString(counterFile);
                 gameNumber = Integer.parseInt(content.trim()) + 1;
             } catch (IOException | NumberFormatException e) {
-                System.out.println("Errore durante la lettura del contatotre delle partite: " + e.getMessage());
+                OutputUtils.println("Errore durante la lettura del contatotre delle partite: " + e.getMessage());
             }
         }
         //Scrive il nuovo numero di partita nel file.
         try {
             Files.writeString(counterFile, Integer.toString(gameNumber));
         } catch (IOException e ) {
-            System.out.println("Errore durante la scrittura del contatore delle partite: " + e.getMessage());
+            OutputUtils.println("Errore durante la scrittura del contatore delle partite: " + e.getMessage());
          }
          return gameNumber;
     }
 
     /**
      * Imposta il nome del file di log corrente.
+     * Il log viene scritto a segmenti nella cartella con lo stesso nome, senza ".log".
      * 
      * @param logFileName il nome del file di log.
      */    
     public void  setCurrentLogFileName(String logFileName) {
-        this.currentLogFileName = logFileName;
+        if (canaleLog != null && logFileName != null && canaleLog.getCartella().equals(cartellaLog(logFileName))) {
+            return;
+        }
+        chiudiLog();
+        if (logFileName != null) {
+            try {
+                canaleLog = CanaleLog.apri(cartellaLog(logFileName));
+            } catch (IOException e) {
+                OutputUtils.println("Errore durante l'apertura del file di log: " + e.getMessage());
+            }
+        }
     }
 
     /**
-     * Rinomina un file di log.
+     * Rinomina un file di log. Segmenti, indice ed eventi stanno nella stessa cartella,
+     * quindi basta rinominare la cartella qualunque sia la lunghezza della partita.
      * 
      * @param oldFileName il nome attuale del file.
      * @param newFileName il nuovo nome per il file.
      */
     public void  renameLogFile(String oldFileName, String newFileName) {
-        Path oldFilePath = Paths.get(LOG_FOLDER + oldFileName);
-        Path newFilePath = Paths.get(LOG_FOLDER + newFileName);
+        Path oldPath = cartellaLog(oldFileName);
+        Path newPath = cartellaLog(newFileName);
+        if (!Files.exists(oldPath) && Files.exists(Paths.get(LOG_FOLDER + oldFileName))) {
+            // Log di una partita precedente ai segmenti: un unico file
+            oldPath = Paths.get(LOG_FOLDER + oldFileName);
+            newPath = Paths.get(LOG_FOLDER + newFileName);
+        }
+
+        // La cartella deve essere completa e chiusa prima di essere spostata
+        if (canaleLog != null && canaleLog.getCartella().equals(oldPath)) {
+            chiudiLog();
+        }
 
         try {
-            Files.move(oldFilePath, newFilePath);
+            Files.move(oldPath, newPath);
             OutputUtils.print("\nLog file rinominato in: ", OutputUtils.ANSI_BRIGHT_CYAN, OutputUtils.ANSI_BOLD);
-            System.out.println(newFileName);
+            OutputUtils.println(newFileName);
         } catch (IOException e) {
-            System.out.println("Errore durante la rinomina del file di log: " + e.getMessage());
+            OutputUtils.println("Errore durante la rinomina del file di log: " + e.getMessage());
         }
     }
 
     /**
-     * Scrive un'entrata nel log corrente.
+     * Restituisce la cartella del log di una partita.
+     * 
+     * @param logFileName il nome del file di log.
+     * @return la cartella con i segmenti del log.
+     */
+    public Path cartellaLog(String logFileName) {
+        String nome = logFileName.endsWith(".log") ? logFileName.substring(0, logFileName.length() - ".log".length()) : logFileName;
+        return Paths.get(LOG_FOLDER + nome);
+    }
+
+    /**
+     * Imposta il livello di dettaglio del log leggibile.
+     * 
+     * @param livello il livello, NESSUNO per non scrivere il log.
+     */
+    public void setLivelloLog(LivelloLog livello) {
+        this.livelloLog = livello;
+    }
+
+    public LivelloLog getLivelloLog() {
+        return livelloLog;
+    }
+
+    /**
+     * Indica se i messaggi di un livello vengono scritti nel log corrente.
+     * Serve a evitare di preparare messaggi su più righe che non verrebbero scritti.
+     * 
+     * @param livello il livello del messaggio.
+     * @return true se il messaggio verrebbe scritto.
+     */
+    public boolean isLogAttivo(LivelloLog livello) {
+        return canaleLog != null && livelloLog.include(livello);
+    }
+
+    /**
+     * Scrive un'entrata del livello PARTITA nel log corrente.
+     * Il messaggio viene accodato al canale di log della partita e scritto su file
+     * in background, quindi la chiamata non attende l'I/O.
      * 
      * @param data i dati da scrivere nel log.
      */
     public void writeLog(String data) {
-        if (currentLogFileName == null) {
-            System.out.println("Errore: nessun file di log impostato per la scrittura.");
+        writeLog(LivelloLog.PARTITA, data);
+    }
+
+    /**
+     * Scrive un'entrata nel log corrente se il suo livello è attivo.
+     * 
+     * @param livello il livello del messaggio.
+     * @param data    i dati da scrivere nel log.
+     */
+    public void writeLog(LivelloLog livello, String data) {
+        if (!livelloLog.include(livello)) {
             return;
         }
-        Path logFilePath = Paths.get(LOG_FOLDER + currentLogFileName);
-        try (FileWriter writer = new FileWriter(logFilePath.toFile(), true);
-        BufferedWriter bufferedWriter = new BufferedWriter(writer)) {
+        if (canaleLog == null) {
+            OutputUtils.println("Errore: nessun file di log impostato per la scrittura.");
+            return;
+        }
+        canaleLog.scrivi(data);
+    }
 
-            String timeStamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+    /**
+     * Scrive un'entrata nel log corrente se il suo livello è attivo. Il messaggio
+     * viene costruito solo in quel caso, quindi a livello disattivato la chiamata
+     * non crea stringhe.
+     * 
+     * @param livello  il livello del messaggio.
+     * @param messaggio la funzione che costruisce il messaggio.
+     */
+    public void writeLog(LivelloLog livello, Supplier<String> messaggio) {
+        if (livelloLog.include(livello)) {
+            writeLog(livello, messaggio.get());
+        }
+    }
 
-            String[] lines = data.split("\\r?\\n");
-            for (String line : lines) {
-                bufferedWriter.write("[" + timeStamp + "] " + line);
-                bufferedWriter.newLine();
-            }
+    /**
+     * Apre il registro degli eventi della partita accanto al file di log corrente,
+     * se non è già aperto. In caso di errore la partita prosegue senza registro.
+     * 
+     * @param gioco la partita di cui registrare gli eventi.
+     */
+    public void apriEventi(Gioco gioco) {
+        if (canaleLog == null) {
+            return;
+        }
+        Path file = RegistroEventi.fileEventi(canaleLog.getCartella());
+        if (registroEventi != null && registroEventi.getGioco() == gioco && registroEventi.getFile().equals(file)) {
+            return;
+        }
+        if (registroEventi != null) {
+            registroEventi.close();
+            registroEventi = null;
+        }
+        try {
+            registroEventi = RegistroEventi.apri(file, gioco);
+        } catch (IOException e) {
+            OutputUtils.println("Errore durante l'apertura del registro degli eventi: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Aggiunge un evento al registro degli eventi della partita, se aperto.
+     * L'evento viene scritto su file insieme al log, alla fine del turno.
+     * 
+     * @param evento l'evento da registrare.
+     */
+    public void registraEvento(EventoGioco evento) {
+        if (registroEventi == null) {
+            return;
+        }
+        try {
+            registroEventi.registra(evento);
         } catch (IOException e) {
-            System.out.println("Errore durante la scrittura del file di log: " + e.getMessage());
+            OutputUtils.println("Errore durante la registrazione di un evento: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Segna nel log corrente l'inizio di un round, così da poterlo leggere
+     * direttamente dall'indice del log.
+     * 
+     * @param round il numero del round.
+     */
+    public void iniziaRoundLog(int round) {
+        if (canaleLog != null) {
+            canaleLog.iniziaRound(round);
+        }
+    }
+
+    /**
+     * Chiede di scrivere su file le entrate del log corrente ancora in attesa,
+     * senza attendere. Viene chiamato alla fine di ogni turno.
+     */
+    public void flushLog() {
+        if (canaleLog != null) {
+            canaleLog.flush();
+        }
+        if (registroEventi != null) {
+            try {
+                registroEventi.flush();
+            } catch (IOException e) {
+                OutputUtils.println("Errore durante la scrittura degli eventi della partita: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Scrive le entrate in attesa e chiude il file di log corrente.
+     */
+    public void chiudiLog() {
+        if (canaleLog != null) {
+            canaleLog.chiudi();
+            canaleLog = null;
+        }
+        if (registroEventi != null) {
+            registroEventi.close();
+            registroEventi = null;
         }
     }
 
-}
\ No newline at end of file
+}
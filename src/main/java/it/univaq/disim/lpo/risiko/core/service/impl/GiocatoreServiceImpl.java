@@ -2,31 +2,48 @@ package it.univaq.disim.lpo.risiko.core.service.impl;
 
 import java.util.*;
 import java.util.stream.Collectors;
-import org.fusesource.jansi.AnsiConsole;
 
 import it.univaq.disim.lpo.risiko.core.InputManagerSingleton;
+import it.univaq.disim.lpo.risiko.core.engine.Comando;
+import it.univaq.disim.lpo.risiko.core.engine.EventoGioco;
+import it.univaq.disim.lpo.risiko.core.engine.MotoreGioco;
+import it.univaq.disim.lpo.risiko.core.engine.RegoleGioco;
+import it.univaq.disim.lpo.risiko.core.engine.RisultatoComando;
+import it.univaq.disim.lpo.risiko.core.input.InputTerminatoException;
+import it.univaq.disim.lpo.risiko.core.log.DescrizioneEventi;
+import it.univaq.disim.lpo.risiko.core.log.LivelloLog;
 import it.univaq.disim.lpo.risiko.core.model.Carta;
+import it.univaq.disim.lpo.risiko.core.model.GeneratoreCasuale;
 import it.univaq.disim.lpo.risiko.core.model.Giocatore;
 import it.univaq.disim.lpo.risiko.core.model.Gioco;
 import it.univaq.disim.lpo.risiko.core.model.Mappa;
 import it.univaq.disim.lpo.risiko.core.model.Territorio;
 import it.univaq.disim.lpo.risiko.core.service.GiocatoreService;
 import it.univaq.disim.lpo.risiko.core.utils.OutputUtils;
+import it.univaq.disim.lpo.risiko.core.utils.PausaUtils;
+import it.univaq.disim.lpo.risiko.core.utils.Schermata;
+import it.univaq.disim.lpo.risiko.core.utils.Stile;
 
 /**
  * Implementazione dei servizi relativi ai giocatori.
  */
 public class GiocatoreServiceImpl implements GiocatoreService {
 
-    private final Random random;
+    private final MotoreGioco motore;
     private List<String> coloriDisponibili = new ArrayList<>(Arrays.asList("rosso", "blu", "verde", "giallo", "nero", "bianco"));
 
+    public GiocatoreServiceImpl() {
+        this(new MotoreGioco());
+    }
+
     /**
-     * Costruttore della classe.
-     * Inizializza l'oggetto Random per l'utilizzo nei metodi.
+     * Crea il servizio sul motore indicato, così i comandi di scambio carte
+     * passano dallo stesso motore (e dallo stesso registro dei comandi) della partita.
+     *
+     * @param motore il motore di gioco da usare.
      */
-    public GiocatoreServiceImpl() {
-        this.random = new Random();
+    public GiocatoreServiceImpl(MotoreGioco motore) {
+        this.motore = motore;
     }
 
     /**
@@ -60,39 +77,36 @@ public class GiocatoreServiceImpl implements GiocatoreService {
     /**
      * Effettua un lancio di dado simulando un numero tra 1 e 6.
      *
+     * @param generatore il generatore casuale della partita.
      * @return il risultato del lancio del dado.
      */
-    private int lancioDado() {
-        return random.nextInt(6) + 1;
+    private int lancioDado(GeneratoreCasuale generatore) {
+        return generatore.nextInt(6) + 1;
     }
 
     /**
      * Determina l'ordine di gioco lanciando i dadi per ciascun giocatore.
      *
-     * @param giocatori la lista dei giocatori.
+     * @param giocatori  la lista dei giocatori.
+     * @param generatore il generatore casuale della partita.
      * @return una lista di giocatori ordinata in base ai risultati dei dadi.
      */
     @Override
-    public List<Giocatore> lancioDadiPerPrimoGiocatore(List<Giocatore> giocatori) {
+    public List<Giocatore> lancioDadiPerPrimoGiocatore(List<Giocatore> giocatori, GeneratoreCasuale generatore) {
         // Pulizia dello schermo
-        AnsiConsole.out().print("\033[H\033[2J");
-        AnsiConsole.out().flush();
+        Schermata.getInstance().pulisci().mostra();
 
         OutputUtils.println("\n———————————————————————————————————", OutputUtils.ANSI_BRIGHT_PURPLE, OutputUtils.ANSI_BOLD);
         OutputUtils.println("DETERMINAZIONE DELL'ORDINE DI GIOCO", OutputUtils.ANSI_BOLD);
         OutputUtils.println("———————————————————————————————————", OutputUtils.ANSI_BRIGHT_PURPLE, OutputUtils.ANSI_BOLD);
-        System.out.println();
+        OutputUtils.println();
 
         // Effettua il lancio del dado per ogni giocatore
         for (Giocatore giocatore : giocatori) {
-            int risultatoDado = lancioDado();
+            int risultatoDado = lancioDado(generatore);
             giocatore.setRisultatoLancioDado(risultatoDado);
             OutputUtils.println(giocatore.getNome().toUpperCase() + " ha ottenuto: " + risultatoDado, OutputUtils.ANSI_BOLD);
-            try {
-                Thread.sleep(1000); // Pausa per migliorare l'esperienza utente
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+            PausaUtils.pausa(1000); // Pausa per migliorare l'esperienza utente
         }
 
         // Determina il risultato massimo e gestisce i pareggi
@@ -113,26 +127,18 @@ public class GiocatoreServiceImpl implements GiocatoreService {
 
         // Gestione dei pareggi
         while (vincitori.size() > 1) {
-            try {
-                Thread.sleep(1500); // Pausa
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+            PausaUtils.pausa(1500); // Pausa
 
             OutputUtils.println("\nOps... c'è stato un pareggio, ripetiamo i lanci!", OutputUtils.ANSI_RED, OutputUtils.ANSI_BOLD);
-            System.out.println();
+            OutputUtils.println();
 
-            try {
-                Thread.sleep(1500); // Pausa
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+            PausaUtils.pausa(1500); // Pausa
 
             numeroMassimo = Integer.MIN_VALUE;
             List<Giocatore> nuoviVincitori = new ArrayList<>();
 
             for (Giocatore vincitore : vincitori) {
-                int risultatoDado = lancioDado();
+                int risultatoDado = lancioDado(generatore);
                 vincitore.setRisultatoLancioDado(risultatoDado);
                 OutputUtils.println(vincitore.getNome().toUpperCase() + " ha ottenuto: " + risultatoDado, OutputUtils.ANSI_BOLD);
 
@@ -153,11 +159,7 @@ public class GiocatoreServiceImpl implements GiocatoreService {
 
         OutputUtils.println("\nL'ordine dei giocatori è: " + ordineGiocatori.stream().map(Giocatore::getNome).collect(Collectors.joining(", ")).toUpperCase(), OutputUtils.ANSI_BOLD);
 
-        try {
-            Thread.sleep(1500); // Pausa per migliorare l'esperienza utente
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        PausaUtils.pausa(1500); // Pausa per migliorare l'esperienza utente
 
         return ordineGiocatori;
     }
@@ -170,10 +172,7 @@ public class GiocatoreServiceImpl implements GiocatoreService {
      */
     @Override
     public void aggiungiTerritorio(Giocatore giocatore, Territorio territorio) {
-        if (!giocatore.getTerritori_controllati().contains(territorio)) {
-            giocatore.getTerritori_controllati().add(territorio);
-            territorio.setGiocatore(giocatore); // Aggiorna il riferimento al giocatore nel territorio
-        }
+        giocatore.aggiungiTerritorio(territorio); // Aggiorna anche il riferimento al giocatore nel territorio
     }
 
     /**
@@ -184,8 +183,8 @@ public class GiocatoreServiceImpl implements GiocatoreService {
      */
     @Override
     public void rimuoviTerritorio(Giocatore giocatore, Territorio territorio) {
-        if (giocatore.getTerritori_controllati().contains(territorio)) {
-            giocatore.getTerritori_controllati().remove(territorio);
+        if (giocatore.possiede(territorio)) {
+            giocatore.rimuoviTerritorio(territorio);
             territorio.setGiocatore(null); // Rimuove il riferimento al giocatore nel territorio
         }
     }
@@ -215,18 +214,17 @@ public class GiocatoreServiceImpl implements GiocatoreService {
     /**
      * Distribuisce i territori tra i giocatori in modo casuale.
      *
-     * @param giocatori la lista dei giocatori.
-     * @param mappa     la mappa del gioco contenente i territori.
+     * @param giocatori  la lista dei giocatori.
+     * @param mappa      la mappa del gioco contenente i territori.
+     * @param generatore il generatore casuale della partita.
      */
     @Override
-    public void distribuzioneTerritori(List<Giocatore> giocatori, Mappa mappa) {
+    public void distribuzioneTerritori(List<Giocatore> giocatori, Mappa mappa, GeneratoreCasuale generatore) {
         // Estrai tutti i territori dai continenti
-        List<Territorio> tuttiTerritori = mappa.getContinenti().stream()
-            .flatMap(continente -> continente.getTerritori().stream())
-            .collect(Collectors.toList());
+        List<Territorio> tuttiTerritori = new ArrayList<>(mappa.getTerritori());
 
         // Mischia casualmente i territori
-        Collections.shuffle(tuttiTerritori);
+        generatore.mescola(tuttiTerritori);
 
         int numeroGiocatori = giocatori.size();
         int numeroTerritori = tuttiTerritori.size();
@@ -262,15 +260,10 @@ public class GiocatoreServiceImpl implements GiocatoreService {
      */
     @Override
     public void scegliColoriGiocatori(List<Giocatore> giocatori) {
-        try {
-            Thread.sleep(5000); // Pausa per migliorare l'esperienza utente
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        PausaUtils.pausa(5000); // Pausa per migliorare l'esperienza utente
 
         // Pulizia dello schermo
-        AnsiConsole.out().print("\033[H\033[2J");
-        AnsiConsole.out().flush();
+        Schermata.getInstance().pulisci().mostra();
         
         OutputUtils.println("\n——————————————————————————————", OutputUtils.ANSI_BRIGHT_PURPLE, OutputUtils.ANSI_BOLD);
         OutputUtils.println("SCELTA DEL COLORE DELLE ARMATE", OutputUtils.ANSI_BOLD);
@@ -318,7 +311,8 @@ public class GiocatoreServiceImpl implements GiocatoreService {
         OutputUtils.println("\n" + giocatore.getNome().toUpperCase() + " ha scelto il colore " + capitalize(coloreScelto) + ".", ansiColor, OutputUtils.ANSI_BOLD);
 
         // Logging della scelta del colore
-        FileServiceImpl.getInstance().writeLog("Giocatore " + giocatore.getNome().toUpperCase() + " ha scelto il colore " + capitalize(coloreScelto) + ".");
+        String colore = coloreScelto;
+        FileServiceImpl.getInstance().writeLog(LivelloLog.PARTITA, () -> "Giocatore " + giocatore.getNome().toUpperCase() + " ha scelto il colore " + capitalize(colore) + ".");
         FileServiceImpl.getInstance().writeLog(""); // Riga vuota per separare le azioni
     }
 
@@ -336,28 +330,19 @@ public class GiocatoreServiceImpl implements GiocatoreService {
                         +
                         "╚══════════════════════════════════════════════════════════════════════════════════════════╝", OutputUtils.ANSI_RED, OutputUtils.ANSI_BOLD);
         
-        try {
-            Thread.sleep(5000); // Pausa di 5 secondi
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        PausaUtils.pausa(5000); // Pausa di 5 secondi
 
         // Messaggio di visualizzazione dell'obiettivo
         OutputUtils.print("\n" + giocatore.getNome().toUpperCase() + ", il tuo obiettivo è: ", OutputUtils.ANSI_BOLD);
         // Visualizzazione dell'obiettivo
         OutputUtils.println(giocatore.getObiettivo().getDescrizione(), OutputUtils.ANSI_BRIGHT_GREEN, OutputUtils.ANSI_BOLD);
-        System.out.println();
-        System.out.println();
+        OutputUtils.println();
+        OutputUtils.println();
 
-        try {
-            Thread.sleep(5000); // Pausa di 5 secondi
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        PausaUtils.pausa(5000); // Pausa di 5 secondi
 
         // Pulizia dello schermo
-        AnsiConsole.out().print("\033[H\033[2J");
-        AnsiConsole.out().flush();
+        Schermata.getInstance().pulisci().mostra();
     }
     
     /**
@@ -432,24 +417,7 @@ public class GiocatoreServiceImpl implements GiocatoreService {
      */
     @Override
     public boolean possiedeAlmenoUnaCombinazioneValida(Giocatore giocatore) {
-        List<Carta> carte = giocatore.getCarte();
-        if (carte.size() < 3)
-            return false;
-
-        // Conta i tipi di carte
-        Map<Carta.TipoCarta, Integer> conteggio = new HashMap<>();
-        for (Carta carta : carte) {
-            conteggio.put(carta.getTipo(), conteggio.getOrDefault(carta.getTipo(), 0) + 1);
-        }
-
-        boolean treStessoTipo = conteggio.values().stream().anyMatch(c -> c >= 3);
-        boolean unoDiOgniTipo = conteggio.getOrDefault(Carta.TipoCarta.CANNONE, 0) >= 1
-            && conteggio.getOrDefault(Carta.TipoCarta.FANTE, 0) >= 1
-            && conteggio.getOrDefault(Carta.TipoCarta.CAVALIERE, 0) >= 1;
-        boolean jollyPiuDueUguali = conteggio.getOrDefault(Carta.TipoCarta.JOLLY, 0) >= 1
-            && conteggio.entrySet().stream().anyMatch(e -> e.getKey() != Carta.TipoCarta.JOLLY && e.getValue() >= 2);
-
-        return treStessoTipo || unoDiOgniTipo || jollyPiuDueUguali;
+        return RegoleGioco.possiedeCombinazioneValida(giocatore.getCarte());
     }
 
     /**
@@ -459,39 +427,13 @@ public class GiocatoreServiceImpl implements GiocatoreService {
      * @return true se la combinazione è valida, false altrimenti.
      */
     public boolean isCombinazioneSpecificataValida(List<Carta> carteSelezionate) {
-        if (carteSelezionate.size() != 3) {
-            return false;
-        }
-
-        Map<Carta.TipoCarta, Long> conteggio = carteSelezionate.stream().collect(Collectors.groupingBy(Carta::getTipo, Collectors.counting()));
-        
-        // Controllo per 3 dello stesso tipo
-        if (conteggio.containsValue(3L)) {
-            return true;
-        }
-
-        // Controllo per 1 di ogni tipo
-        if (conteggio.size() == 3
-            && conteggio.containsKey(Carta.TipoCarta.CANNONE)
-            && conteggio.containsKey(Carta.TipoCarta.FANTE)
-            && conteggio.containsKey(Carta.TipoCarta.CAVALIERE)) {
-            return true;
-        }
-
-        // Controllo per Jolly + 2 dello stesso tipo
-        if (conteggio.getOrDefault(Carta.TipoCarta.JOLLY, 0L) == 1) {
-            for (Map.Entry<Carta.TipoCarta, Long> entry : conteggio.entrySet()) {
-                if (entry.getKey() != Carta.TipoCarta.JOLLY && entry.getValue() == 2L) {
-                    return true;
-                }
-            }
-        }
-
-        return false;    
+        return RegoleGioco.isCombinazioneValida(carteSelezionate);
     }
 
     /**
      * Permette al giocatore di scambiare carte per ottenere armate aggiuntive.
+     * Lo scambio viene applicato tramite il MotoreGioco, che aggiorna anche le
+     * armate da distribuire nel turno corrente.
      *
      * @param giocatore il giocatore che vuole scambiare le carte.
      * @param gioco     l'oggetto Gioco corrente.
@@ -501,7 +443,7 @@ public class GiocatoreServiceImpl implements GiocatoreService {
     public int scambiaCartePerArmate(Giocatore giocatore, Gioco gioco) {
         List<Carta> carteGiocatore = giocatore.getCarte();
         if (carteGiocatore.size() < 3) {
-            System.out.println("Non hai abbastanza carte per effettuare uno scambio.");
+            OutputUtils.println("Non hai abbastanza carte per effettuare uno scambio.");
             return 0;
         }
 
@@ -528,36 +470,11 @@ public class GiocatoreServiceImpl implements GiocatoreService {
             String input = InputManagerSingleton.getInstance().readString();
             String[] indiciString = input.trim().split("\\s+");
 
-            if (indiciString.length != 3) {
-                OutputUtils.print("\nDevi selezionare esattamente 3 carte.", OutputUtils.ANSI_RED, OutputUtils.ANSI_BOLD);
-                System.out.println();
-                try {
-                    Thread.sleep(3000);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-                continue; // Ripete il ciclo per un nuovo tentativo
-            }
-            
-            List<Carta> carteSelezionate = new ArrayList<>();
-            Set<Integer> uniqueIndices = new HashSet<>();
-
+            List<Integer> indici = new ArrayList<>();
             boolean inputValido = true;
-
             for (String indiceStr : indiciString) {
                 try {
-                    int indice = Integer.parseInt(indiceStr) - 1; // Adeguamento dell'indice
-                    if (indice < 0 || indice >= carteGiocatore.size()) {
-                        OutputUtils.println("Indice non valido: " + indiceStr, OutputUtils.ANSI_RED, OutputUtils.ANSI_BOLD);
-                        inputValido = false;
-                        break; // Esce dal loop degli indici
-                    }
-                    if (!uniqueIndices.add(indice)) {
-                        OutputUtils.print("\nHai selezionato la stessa carta più volte.", OutputUtils.ANSI_RED, OutputUtils.ANSI_BOLD);
-                        inputValido = false;
-                        break; // Esce dal loop degli indici
-                    }
-                    carteSelezionate.add(carteGiocatore.get(indice));
+                    indici.add(Integer.parseInt(indiceStr) - 1); // Adeguamento dell'indice
                 } catch (NumberFormatException e) {
                     OutputUtils.println("Input non valido: " + indiceStr, OutputUtils.ANSI_RED, OutputUtils.ANSI_BOLD);
                     inputValido = false;
@@ -565,123 +482,26 @@ public class GiocatoreServiceImpl implements GiocatoreService {
                 }
             }
 
-            if (!inputValido) {
-                System.out.println();
-                try {
-                    Thread.sleep(3000);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
+            if (inputValido) {
+                RisultatoComando risultato = motore.esegui(gioco, new Comando.ScambiaCarte(indici));
+                if (risultato.isAccettato()) {
+                    int armateOttenute = risultato.getEvento(EventoGioco.TipoEvento.CARTE_SCAMBIATE).getQuantita();
+                    OutputUtils.println("\nHai ottenuto " + armateOttenute + " armate dal cambio di carte.", OutputUtils.ANSI_BRIGHT_GREEN, OutputUtils.ANSI_BOLD);
+                    PausaUtils.pausa(3000);
+                    // Logga l'evento
+                    EventoGioco scambio = risultato.getEvento(EventoGioco.TipoEvento.CARTE_SCAMBIATE);
+                    FileServiceImpl.getInstance().registraEvento(scambio);
+                    FileServiceImpl.getInstance().writeLog(LivelloLog.AZIONI, () -> DescrizioneEventi.descrivi(scambio).get(0));
+                    return armateOttenute;
                 }
-                continue; // Ripete il ciclo per un nuovo tentativo 
-            }
-      
-            // Verifica se la combinazione è valida
-            if (!isCombinazioneSpecificataValida(carteSelezionate)) {
-                OutputUtils.println("\nLa combinazione di carte selezionata non è valida.", OutputUtils.ANSI_RED, OutputUtils.ANSI_BOLD);
-                continue; // Ripete il ciclo per un nuovo tentativo
+                OutputUtils.println("\n" + risultato.getErrore(), OutputUtils.ANSI_RED, OutputUtils.ANSI_BOLD);
             }
 
-            // Calcola le armate ottenute dalla combinazione valida
-            int armateOttenute = calcolaArmateDaCarte(carteSelezionate, giocatore);
-            if (armateOttenute > 0) {
-                // Rimuovi le carte scambiate dal giocatore
-                giocatore.rimuoviCarte(carteSelezionate);
-                // Restituisci le carte al mazzo
-                gioco.getMazzoDiCarte().restituisciCarte(carteSelezionate);
-                OutputUtils.println("\nHai ottenuto " + armateOttenute + " armate dal cambio di carte.", OutputUtils.ANSI_BRIGHT_GREEN, OutputUtils.ANSI_BOLD);
-                try {
-                    Thread.sleep(3000);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-                // Logga l'evento
-                FileServiceImpl.getInstance().writeLog("Giocatore " + giocatore.getNome().toUpperCase() + " ha scambiato carte per " + armateOttenute + " armate.");
-                return armateOttenute;
-            } else {
-                OutputUtils.println("\nLa combinazione di carte selezionata non è valida.", OutputUtils.ANSI_RED, OutputUtils.ANSI_BOLD);
-                try {
-                    Thread.sleep(3000);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-                continue; // Ripete il ciclo per un nuovo tentativo
-            }
+            OutputUtils.println();
+            PausaUtils.pausa(3000);
         }
     }
-   
-    /**
-     * Calcola il numero di armate ottenute dallo scambio di carte.
-     *
-     * @param carteSelezionate le carte selezionate per lo scambio.
-     * @param giocatore        il giocatore che effettua lo scambio.
-     * @return il numero di armate ottenute.
-     */
-    private int calcolaArmateDaCarte(List<Carta> carteSelezionate, Giocatore giocatore) {
-        if (!isCombinazioneSpecificataValida(carteSelezionate)) {
-            return 0;
-        }
 
-        Map<Carta.TipoCarta, Integer> conteggioTipi = new HashMap<>();
-        boolean haJolly = false;
-        for (Carta carta : carteSelezionate) {
-            if (carta.getTipo() == Carta.TipoCarta.JOLLY) {
-                haJolly = true;
-            } else {
-                conteggioTipi.put(carta.getTipo(), conteggioTipi.getOrDefault(carta.getTipo(), 0) + 1);
-            }
-        }
-
-        int armate = 0;
-        if (haJolly) {
-            // Jolly + due carte uguali
-            for (Carta.TipoCarta tipo : Carta.TipoCarta.values()) {
-                if (tipo != Carta.TipoCarta.JOLLY && conteggioTipi.getOrDefault(tipo, 0) == 2) {
-                    armate = 12;
-                    break;
-                }
-            }
-        } else if (conteggioTipi.size() == 1) {
-            // Tre carte dello stesso tipo
-            Carta.TipoCarta tipo = conteggioTipi.keySet().iterator().next();
-            int count = conteggioTipi.get(tipo);
-            if (count == 3) {
-                switch (tipo) {
-                    case CANNONE:
-                        armate = 4;
-                        break;
-                    case FANTE:
-                        armate = 6;
-                        break;
-                    case CAVALIERE:
-                        armate = 8;
-                        break;
-                    default:
-                        armate = 0;
-                        break;
-                }
-            }            
-        } else if (conteggioTipi.size() == 3 && !haJolly) {
-            // Una per ogni tipo
-            if (conteggioTipi.containsKey(Carta.TipoCarta.CANNONE)
-                && conteggioTipi.containsKey(Carta.TipoCarta.FANTE)
-                && conteggioTipi.containsKey(Carta.TipoCarta.CAVALIERE)) {
-                armate = 10;
-            }            
-        }
-
-        // Aggiungi 2 armate per ogni carta che raffigura un territorio posseduto
-        int bonusTerritori = 0;
-        for (Carta carta : carteSelezionate) {
-            Territorio territorio = carta.getTerritorio();
-            if (territorio != null && territorio.getGiocatore().equals(giocatore)) {
-                bonusTerritori += 2;
-            }
-        }
-
-        armate += bonusTerritori;
-        return armate;
-    }
-    
     /**
      * Distribuisce le armate iniziali tra i giocatori.
      *
@@ -703,34 +523,30 @@ public class GiocatoreServiceImpl implements GiocatoreService {
             int armateRimanenti = armatePerGiocatore - giocatore.getTerritori_controllati().size();
             
             while (armateRimanenti > 0) {
-            	// Pulizia dello schermo
-                AnsiConsole.out().print("\033[H\033[2J");
-                AnsiConsole.out().flush();
-
-                // Ristampa del titolo
-                OutputUtils.println("\n———————————————————————————————————", OutputUtils.ANSI_BRIGHT_PURPLE, OutputUtils.ANSI_BOLD);
-                OutputUtils.println("DISTRIBUZIONE DELLE ARMATE INIZIALI", OutputUtils.ANSI_BOLD);
-                OutputUtils.println("———————————————————————————————————", OutputUtils.ANSI_BRIGHT_PURPLE, OutputUtils.ANSI_BOLD);
+            	// Ristampa della schermata: dopo la prima vengono riscritte solo le righe cambiate
+                Schermata schermata = Schermata.getInstance().ridisegna()
+                    .riga("\n———————————————————————————————————", Stile.CORNICE)
+                    .riga("DISTRIBUZIONE DELLE ARMATE INIZIALI", Stile.GRASSETTO)
+                    .riga("———————————————————————————————————", Stile.CORNICE);
 
-                OutputUtils.print("\n" + giocatore.getNome().toUpperCase() + ", hai", OutputUtils.ANSI_BOLD);
-                OutputUtils.print(" " + armateRimanenti, OutputUtils.ANSI_BRIGHT_CYAN, OutputUtils.ANSI_BOLD);
-                OutputUtils.println(" armate da distribuire.", OutputUtils.ANSI_BOLD);
-                OutputUtils.println("\nSeleziona il territorio dove posizionare un'armata:", OutputUtils.ANSI_BOLD);
+                schermata.testo("\n" + giocatore.getNome().toUpperCase() + ", hai", Stile.GRASSETTO)
+                    .testo(" " + armateRimanenti, Stile.EVIDENZA)
+                    .riga(" armate da distribuire.", Stile.GRASSETTO)
+                    .riga("\nSeleziona il territorio dove posizionare un'armata:", Stile.GRASSETTO);
 
                 for (int j = 0; j < giocatore.getTerritori_controllati().size(); j++) {
                     Territorio territorio = giocatore.getTerritori_controllati().get(j);
-                    OutputUtils.print((j + 1) + ") " + territorio.getNome(), OutputUtils.ANSI_BOLD);
-                    OutputUtils.println(" (Armate attuali: " + territorio.getNumeroArmate() + ")", OutputUtils.ANSI_BRIGHT_CYAN, OutputUtils.ANSI_BOLD);
+                    schermata.testo((j + 1) + ") " + territorio.getNome(), Stile.GRASSETTO)
+                        .riga(" (Armate attuali: " + territorio.getNumeroArmate() + ")", Stile.EVIDENZA);
                 }
+                schermata.testo("\nScelta: ", Stile.RICHIESTA).mostra();
 
                 int indiceTerritorio = -1;
                 boolean territorioValido = false;
 
                 while (!territorioValido) {
                     try {
-                        OutputUtils.print("\nScelta: ", OutputUtils.ANSI_CYAN, OutputUtils.ANSI_BOLD);
                         indiceTerritorio = InputManagerSingleton.getInstance().readInteger();
-                        System.out.println();
 
                         // Adeguamento per indice a partire da 1
                         indiceTerritorio = indiceTerritorio - 1;
@@ -739,9 +555,13 @@ public class GiocatoreServiceImpl implements GiocatoreService {
                             territorioValido = true;
                         } else {
                             OutputUtils.println("Territorio non valido. Riprovare", OutputUtils.ANSI_RED, OutputUtils.ANSI_BOLD);
+                            OutputUtils.print("\nScelta: ", OutputUtils.ANSI_CYAN, OutputUtils.ANSI_BOLD);
                         }
+                    } catch (InputTerminatoException e) {
+                        throw e;
                     } catch (Exception e) {
                         OutputUtils.println("Errore nella selezione del territorio. Riprovare", OutputUtils.ANSI_RED, OutputUtils.ANSI_BOLD);
+                        OutputUtils.print("\nScelta: ", OutputUtils.ANSI_CYAN, OutputUtils.ANSI_BOLD);
                     }
                 }
 
@@ -751,9 +571,9 @@ public class GiocatoreServiceImpl implements GiocatoreService {
                 armateRimanenti--;
 
                 // Logging del posizionamento dell'armata
-                FileServiceImpl.getInstance().writeLog("Giocatore " + giocatore.getNome().toUpperCase() + " posiziona 1 armata su " + territorioSelezionato.getNome());
+                FileServiceImpl.getInstance().writeLog(LivelloLog.AZIONI, () -> "Giocatore " + giocatore.getNome().toUpperCase() + " posiziona 1 armata su " + territorioSelezionato.getNome());
             }
-            FileServiceImpl.getInstance().writeLog(""); // Riga vuota per separare le azioni
+            FileServiceImpl.getInstance().writeLog(LivelloLog.AZIONI, ""); // Riga vuota per separare le azioni
         } 
     } 
      
@@ -1,22 +1,35 @@
 package it.univaq.disim.lpo.risiko.core.service.impl;
 
-import java.io.File;
 import java.io.IOException;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.Arrays;
-import java.util.Collections;
-import org.fusesource.jansi.AnsiConsole;
 
 import it.univaq.disim.lpo.risiko.core.InputManagerSingleton;
+import it.univaq.disim.lpo.risiko.core.engine.Comando;
+import it.univaq.disim.lpo.risiko.core.engine.EventoGioco;
+import it.univaq.disim.lpo.risiko.core.engine.MotoreGioco;
+import it.univaq.disim.lpo.risiko.core.engine.RegoleGioco;
+import it.univaq.disim.lpo.risiko.core.engine.RisultatoComando;
+import it.univaq.disim.lpo.risiko.core.engine.TabellaBattaglie;
+import it.univaq.disim.lpo.risiko.core.input.InputTerminatoException;
+import it.univaq.disim.lpo.risiko.core.log.DescrizioneEventi;
+import it.univaq.disim.lpo.risiko.core.log.LivelloLog;
 import it.univaq.disim.lpo.risiko.core.model.*;
+import it.univaq.disim.lpo.risiko.core.salvataggio.CatalogoSalvataggi;
+import it.univaq.disim.lpo.risiko.core.salvataggio.DiarioPartita;
+import it.univaq.disim.lpo.risiko.core.salvataggio.SchedaSalvataggio;
 import it.univaq.disim.lpo.risiko.core.service.*;
 import it.univaq.disim.lpo.risiko.core.utils.OutputUtils;
+import it.univaq.disim.lpo.risiko.core.utils.PausaUtils;
+import it.univaq.disim.lpo.risiko.core.utils.Schermata;
+import it.univaq.disim.lpo.risiko.core.utils.Stile;
 
 /**
  * Implementazione dell'interfaccia GiocoService.
@@ -24,10 +37,23 @@ import it.univaq.disim.lpo.risiko.core.utils.OutputUtils;
  */
 public class GiocoServiceImpl implements GiocoService {
 
+    // Numero massimo di salvataggi elencati nel menù di caricamento
+    private static final int SALVATAGGI_MOSTRATI = 20;
+
+    // Stile dei messaggi sullo scambio di carte non disponibile
+    private static final Stile AVVISO = Stile.di(OutputUtils.ANSI_BRIGHT_YELLOW, OutputUtils.ANSI_BOLD);
+    // Stile delle scelte non consentite nel menù principale
+    private static final Stile SCELTA_NON_CONSENTITA = Stile.di(OutputUtils.ANSI_BRIGHT_RED, OutputUtils.ANSI_BOLD);
+
     private final FileService fileservice = FileServiceImpl.getInstance();
-    private final GiocatoreService giocatoreService = new GiocatoreServiceImpl();
+    private final MotoreGioco motore = new MotoreGioco();
+    private final GiocatoreService giocatoreService = new GiocatoreServiceImpl(motore);
     private final CartaObiettivoService obiettivoService = new CartaObiettivoServiceImpl();
+    private final TabellaBattaglie tabellaBattaglie = TabellaBattaglie.getInstance();
     private final MappaService mappaService;
+    private DiarioPartita diario;
+    // Genera i semi delle nuove partite quando è stato indicato un seme
+    private GeneratoreCasuale semi;
 
     /**
      * Costruttore che inizializza il servizio della mappa.
@@ -41,6 +67,16 @@ public class GiocoServiceImpl implements GiocoService {
         }
     }
 
+    /**
+     * Fa dipendere le nuove partite da un seme: a parità di seme e di input le partite
+     * si ripetono identiche, così uno script registrato può essere rigiocato.
+     *
+     * @param seme il seme delle partite.
+     */
+    public void setSeme(long seme) {
+        this.semi = new GeneratoreCasuale(seme);
+    }
+
     /**
      * Restituisce l'ordine dei giocatori nella partita.
      *
@@ -92,27 +128,29 @@ public class GiocoServiceImpl implements GiocoService {
                 + //
                 "";
         // Pulizia dello schermo e stampa del titolo
-        AnsiConsole.out().print("\033[H\033[2J");
-        AnsiConsole.out().flush();
+        Schermata.getInstance().pulisci().mostra();
 
         OutputUtils.println(titoloFiglet, OutputUtils.ANSI_CYAN, OutputUtils.ANSI_BLINK, OutputUtils.ANSI_BOLD);
-        System.out.println();
-        System.out.println();
+        OutputUtils.println();
+        OutputUtils.println();
 
         // Menù iniziale per scegliere tra nuova partita o caricamento
         OutputUtils.println("Seleziona un'opzione:", OutputUtils.ANSI_CYAN, OutputUtils.ANSI_BOLD);
-        System.out.println();
+        OutputUtils.println();
         OutputUtils.println("1 - Avvia una Nuova Partita", OutputUtils.ANSI_GREEN, OutputUtils.ANSI_BOLD);
         OutputUtils.println("2 - Carica una Partita Esistente", OutputUtils.ANSI_GREEN, OutputUtils.ANSI_BOLD);
-        System.out.println();
+        OutputUtils.println("3 - Recupera una Partita Interrotta", OutputUtils.ANSI_GREEN, OutputUtils.ANSI_BOLD);
+        OutputUtils.println();
         OutputUtils.print("\nScelta: ", OutputUtils.ANSI_CYAN, OutputUtils.ANSI_BOLD);
-        Integer modo = InputManagerSingleton.getInstance().readIntegerUntilPossibleValue(new Integer[] { 1, 2 });
+        Integer modo = InputManagerSingleton.getInstance().readIntegerUntilPossibleValue(new Integer[] { 1, 2, 3 });
 
         switch (modo) {
             case 1:
                 return avviaNuovaPartita();
             case 2:
                 return caricaPartitaEsistente();
+            case 3:
+                return recuperaPartitaInterrotta();
             default:
                 throw new InizializzaPartitaException("Opzione non valida.");
         }
@@ -127,8 +165,7 @@ public class GiocoServiceImpl implements GiocoService {
      */
     private Gioco avviaNuovaPartita() throws InizializzaPartitaException {
         // Pulizia dello schermo
-        AnsiConsole.out().print("\033[H\033[2J");
-        AnsiConsole.out().flush();
+        Schermata.getInstance().pulisci().mostra();
 
         // Step 1: Inizializzazione del numero di giocatori
         OutputUtils.println("\n——————————————————————————", OutputUtils.ANSI_BRIGHT_PURPLE, OutputUtils.ANSI_BOLD);
@@ -143,13 +180,16 @@ public class GiocoServiceImpl implements GiocoService {
             throw new InizializzaPartitaException("Errore nella creazione dei giocatori. La lista dei giocatori è null o vuota.");
         }
 
+        // Il generatore casuale della partita: tutte le scelte casuali da qui in poi dipendono solo dal suo seme
+        GeneratoreCasuale generatore = semi != null ? new GeneratoreCasuale(semi.nextLong()) : new GeneratoreCasuale();
+
         // Step 3: Generazione e assegnazione degli obiettivi
-        List<CartaObiettivo> obiettivi = obiettivoService.generaObiettiviCasuali(giocatori.size());
-        obiettivoService.assegnaObiettiviCasuali(giocatori, obiettivi);
+        List<CartaObiettivo> obiettivi = obiettivoService.generaObiettiviCasuali(giocatori.size(), generatore);
+        obiettivoService.assegnaObiettiviCasuali(giocatori, obiettivi, generatore);
         Mappa mappa = mappaService.getMappa();
 
         // Step 4: Determinazione dell'ordine dei giocatori
-        List<Giocatore> ordineGiocatori = giocatoreService.lancioDadiPerPrimoGiocatore(giocatori);
+        List<Giocatore> ordineGiocatori = giocatoreService.lancioDadiPerPrimoGiocatore(giocatori, generatore);
         OutputUtils.println("\nIl giocatore " + ordineGiocatori.get(0).getNome().toUpperCase() + " inizia per primo!", OutputUtils.ANSI_BRIGHT_YELLOW, OutputUtils.ANSI_BOLD);
 
         // Step 5: Creazione del gioco con l'ordine dei giocatori
@@ -161,15 +201,17 @@ public class GiocoServiceImpl implements GiocoService {
 
         Gioco gioco = new Gioco("Inizio", ordineGiocatori, mappa, 6, new ArrayList<>(), new ArrayList<>());
         gioco.setLogFileName(logFileName);
+        gioco.setGeneratore(generatore);
 
         // Imposta il file di log corrente nel FileServiceImpl
         FileServiceImpl.getInstance().setCurrentLogFileName(logFileName);
 
         // Logging dell'inizio del gioco e assegnazione degli obiettivi
         FileServiceImpl.getInstance().writeLog("GIOCO AVVIATO");
+        FileServiceImpl.getInstance().writeLog(LivelloLog.PARTITA, () -> "Seme della partita: " + generatore.getSeme());
         FileServiceImpl.getInstance().writeLog(""); // Riga vuota per separare le azioni
         for (Giocatore giocatore : giocatori) {
-            FileServiceImpl.getInstance().writeLog("Il giocatore " + giocatore.getNome().toUpperCase() + " ha ricevuto l'obiettivo: " + giocatore.getObiettivo().getDescrizione());
+            FileServiceImpl.getInstance().writeLog(LivelloLog.PARTITA, () -> "Il giocatore " + giocatore.getNome().toUpperCase() + " ha ricevuto l'obiettivo: " + giocatore.getObiettivo().getDescrizione());
             FileServiceImpl.getInstance().writeLog(""); // Riga vuota per separare le azioni
         }
 
@@ -190,19 +232,14 @@ public class GiocoServiceImpl implements GiocoService {
                 + "                     | |                                                                | |                                \r\n"
                 + "                     |_|                                                                |_|                                \r\n"
                 + "", OutputUtils.ANSI_BRIGHT_YELLOW, OutputUtils.ANSI_BOLD);
-        try {
-            Thread.sleep(5000);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        PausaUtils.pausa(5000);
         
         // Pulizia dello schermo e distribuzione dei territori
-        AnsiConsole.out().print("\033[H\033[2J");
-        AnsiConsole.out().flush();
-        giocatoreService.distribuzioneTerritori(ordineGiocatori, mappa);
+        Schermata.getInstance().pulisci().mostra();
+        giocatoreService.distribuzioneTerritori(ordineGiocatori, mappa, generatore);
 
         // Inizializza il mazzo di carte
-        MazzoDiCarte mazzoDiCarte = new MazzoDiCarte(mappa.getTerritori());
+        MazzoDiCarte mazzoDiCarte = new MazzoDiCarte(mappa.getTerritori(), generatore);
         gioco.setMazzoDiCarte(mazzoDiCarte);
 
         return gioco;
@@ -216,57 +253,60 @@ public class GiocoServiceImpl implements GiocoService {
      *                                     caricamento.
      */
     private Gioco caricaPartitaEsistente() throws InizializzaPartitaException {
+        CatalogoSalvataggi catalogo = FileServiceImpl.getInstance().getCatalogo();
+        String filtro = "";
         while (true) {
             // Pausa per migliorare l'esperienza utente
-            try {
-                Thread.sleep(2000);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+            PausaUtils.pausa(2000);
 
             // Pulizia dello schermo
-            AnsiConsole.out().print("\033[H\033[2J");
-            AnsiConsole.out().flush();
-
-            // Lista dei salvataggi disponibili
-            OutputUtils.println("\nSalvataggi disponibili:", OutputUtils.ANSI_BOLD);
-            File saveFolder = new File("saves/");
-            if (saveFolder.exists() && saveFolder.isDirectory()) {
-                String[] files = saveFolder.list();
-                if (files != null && files.length > 0) {
-                    for (String fileName : files) {
-                        if (!fileName.equals(".gitkeep")) { // Escludi il file .gitkeep
-                            OutputUtils.println("- " + fileName, OutputUtils.ANSI_BOLD);
-                        }
+            Schermata.getInstance().pulisci().mostra();
+
+            // Lista dei salvataggi disponibili, dal catalogo, dal più recente
+            OutputUtils.println("\nSalvataggi disponibili" + (filtro.isEmpty() ? ":" : " per \"" + filtro + "\":"), OutputUtils.ANSI_BOLD);
+            String testo = filtro;
+            List<SchedaSalvataggio> salvataggi = catalogo.cerca(scheda -> scheda.corrisponde(testo), SchedaSalvataggio.PIU_RECENTI);
+            if (!salvataggi.isEmpty()) {
+                DateTimeFormatter formatoData = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+                for (SchedaSalvataggio scheda : salvataggi.subList(0, Math.min(SALVATAGGI_MOSTRATI, salvataggi.size()))) {
+                    List<String> giocatori = new ArrayList<>();
+                    for (int i = 0; i < scheda.getGiocatori().size(); i++) {
+                        giocatori.add(scheda.getGiocatori().get(i) + " (" + scheda.getColori().get(i) + ")");
                     }
-                } else {
-                    OutputUtils.println("Nessun file di salvataggio trovato.", OutputUtils.ANSI_BOLD);
-                    try {
-                        Thread.sleep(2500);
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
-                    return inizializzaPartita(); // Ritorna al menu principale
+                    String data = LocalDateTime.ofInstant(Instant.ofEpochMilli(scheda.getDataSalvataggio()), ZoneId.systemDefault()).format(formatoData);
+                    OutputUtils.println("- " + scheda.getNome() + "  [" + data + ", round " + scheda.getRound()
+                            + ", di turno " + scheda.getGiocatoreCorrente() + ", " + scheda.getDimensione() + " byte]", OutputUtils.ANSI_BOLD);
+                    OutputUtils.println("    " + String.join(", ", giocatori), OutputUtils.ANSI_BOLD);
                 }
+                if (salvataggi.size() > SALVATAGGI_MOSTRATI) {
+                    OutputUtils.println("... e altri " + (salvataggi.size() - SALVATAGGI_MOSTRATI)
+                            + " salvataggi: inserisci parte del nome o di un giocatore per filtrarli.", OutputUtils.ANSI_BOLD);
+                }
+            } else if (!filtro.isEmpty()) {
+                OutputUtils.println("Nessun salvataggio corrisponde al filtro.", OutputUtils.ANSI_BOLD);
+                filtro = "";
+                continue;
             } else {
                 OutputUtils.println("Nessun file di salvataggio trovato.", OutputUtils.ANSI_BOLD);
-                try {
-                    Thread.sleep(2500);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
+                PausaUtils.pausa(2500);
                 return inizializzaPartita(); // Ritorna al menu principale
             }
 
             // Richiesta del nome del file da caricare
             OutputUtils.print("\nInserisci il nome del file da caricare: ", OutputUtils.ANSI_CYAN, OutputUtils.ANSI_BOLD);
             String valore = InputManagerSingleton.getInstance().readString();
-            System.out.println();
+            OutputUtils.println();
 
             if (!valore.endsWith(".save")) {
                 valore += ".save";
             }
 
+            // Un testo che non è il nome di un salvataggio filtra l'elenco
+            if (!catalogo.contiene(valore)) {
+                filtro = valore.substring(0, valore.length() - ".save".length());
+                continue;
+            }
+
             try {
                 Gioco giocoCaricato = fileservice.caricaGioco(valore);
 
@@ -299,142 +339,106 @@ public class GiocoServiceImpl implements GiocoService {
     }
 
     /**
-     * Carica un gioco da un file specificato.
-     *
-     * @param fileName il nome del file da cui caricare il gioco.
-     * @return l'oggetto Gioco caricato.
-     * @throws IOException            se si verifica un errore di I/O durante il caricamento.
-     *
-     * @throws ClassNotFoundException se la classe Gioco non viene trovata durante la deserializzazione.
+     * Recupera una partita interrotta dal suo diario dei comandi:
+     * carica l'ultimo snapshot e riapplica i comandi registrati dopo di esso.
      *
+     * @return l'oggetto Gioco recuperato.
+     * @throws InizializzaPartitaException se si verifica un errore durante il
+     *                                     recupero.
      */
-    public Gioco caricaGioco(String fileName) throws IOException, ClassNotFoundException {
-        return fileservice.caricaGioco(fileName);
-    }
-
-    /**
-     * Verifica se il giocatore ha soddisfatto le condizioni di vittoria.
-     * @param giocatore il giocatore corrente.
-     * @param gioco     l'oggetto Gioco corrente.
-     * @return  true se il giocatore ha vinto, false altrimenti.
-     */
-    public boolean verificaVittoria(Giocatore giocatore, Gioco gioco) {
-        CartaObiettivo obiettivo = giocatore.getObiettivo();
-
-        switch (obiettivo.getDescrizione()) {
-            /* Questo è un case che è stato usato per eseguire dei test veloci
-               durante la fase di sviluppo, inutile per il gameplay effettivo.
-            case "Conquistare 1 territorio":
-                if (giocatore.getTerritori_controllati().size() >= 1) {
-                    dichiaraVittoria(giocatore, gioco);
-                    return true;
-                }
-            break;
-            */
-
-            case "Conquistare la totalità dell'America del Nord e dell'Africa":
-                if (haConquistatoContinente(giocatore, "America del Nord", gioco) && haConquistatoContinente(giocatore, "Africa", gioco)) {
-                    dichiaraVittoria(giocatore, gioco);
-                    return true;
-                }
-            break;
-            
-            case "Conquistare la totalità dell'America del Nord e dell'Oceania":
-                if (haConquistatoContinente(giocatore, "America del Nord", gioco) && haConquistatoContinente(giocatore, "Oceania", gioco)) {
-                    dichiaraVittoria(giocatore, gioco);
-                    return true;
-                }
-            break;
-
-            case "Conquistare la totalità dell'Asia e dell'America del Sud":
-                if (haConquistatoContinente(giocatore, "Asia", gioco) && haConquistatoContinente(giocatore, "America del Sud", gioco)) {
-                    dichiaraVittoria(giocatore, gioco);
-                    return true;
-                }
-            break;
+    private Gioco recuperaPartitaInterrotta() throws InizializzaPartitaException {
+        // Pulizia dello schermo
+        Schermata.getInstance().pulisci().mostra();
 
-            case "Conquistare la totalità dell'Asia e dell'Africa":
-                if (haConquistatoContinente(giocatore, "Asia", gioco) && haConquistatoContinente(giocatore, "Africa", gioco)) {
-                    dichiaraVittoria(giocatore, gioco);
-                    return true;
-                }
-            break;
+        List<String> partite = DiarioPartita.partiteDaRecuperare(DiarioPartita.CARTELLA_PREDEFINITA);
+        if (partite.isEmpty()) {
+            OutputUtils.println("\nNessuna partita interrotta da recuperare.", OutputUtils.ANSI_BOLD);
+            PausaUtils.pausa(2500);
+            return inizializzaPartita(); // Ritorna al menu principale
+        }
 
-            case "Conquistare 18 territori presidiandoli con almeno due armate ciascuno":
-                long territoriConAlmenoDueArmate = giocatore.getTerritori_controllati().stream().filter(t -> t.getNumeroArmate() >= 2).count();
-                if (territoriConAlmenoDueArmate >= 18) {
-                    dichiaraVittoria(giocatore, gioco);
-                    return true;
-                }
-            break;
+        OutputUtils.println("\nPartite interrotte:", OutputUtils.ANSI_BOLD);
+        for (int i = 0; i < partite.size(); i++) {
+            OutputUtils.println((i + 1) + " - " + partite.get(i), OutputUtils.ANSI_BOLD);
+        }
+        OutputUtils.print("\nScegli la partita da recuperare: ", OutputUtils.ANSI_CYAN, OutputUtils.ANSI_BOLD);
+        int scelta = InputManagerSingleton.getInstance().readIntegerUntilPossibleValue(
+                IntStream.rangeClosed(1, partite.size()).boxed().toArray(Integer[]::new));
 
-            case "Conquistare 24 territori":
-                if  (giocatore.getTerritori_controllati().size() >= 24) {
-                    dichiaraVittoria(giocatore, gioco);
-                    return true;
-                }
+        try {
+            DiarioPartita diarioRecuperato = DiarioPartita.recupera(DiarioPartita.CARTELLA_PREDEFINITA, partite.get(scelta - 1));
+            Gioco giocoRecuperato = diarioRecuperato.getGioco();
+            usaDiario(diarioRecuperato);
 
-            case "Conquistare la totalità dell'Europa, dell'America del Sud e di un terzo continente a scelta":
-               if (haConquistatoContinente(giocatore, "Europa", gioco)
-                    && haConquistatoContinente(giocatore, "America del Sud", gioco)
-                    && haConquistatoUnAltroContinente(giocatore, Arrays.asList("Europa", "America del Sud"), gioco)) {
-                        dichiaraVittoria(giocatore, gioco);
-                        return true;
-                }
-            break;
-
-            case "Conquistare la totalità dell'Europa, dell'Oceania e di un terzo continente a scelta":
-               if (haConquistatoContinente(giocatore, "Europa", gioco)
-                    && haConquistatoContinente(giocatore, "Oceania", gioco)
-                    && haConquistatoUnAltroContinente(giocatore, Arrays.asList("Europa", "Oceania"), gioco)) {
-                        dichiaraVittoria(giocatore, gioco);
-                        return true;
-                }
-            break;
+            FileServiceImpl.getInstance().setCurrentLogFileName(giocoRecuperato.getLogFileName());
+            OutputUtils.println("\nPartita recuperata: " + diarioRecuperato.getComandiRecuperati() + " comandi riapplicati dopo l'ultimo snapshot.",
+                    OutputUtils.ANSI_GREEN, OutputUtils.ANSI_BOLD);
+            PausaUtils.pausa(2000);
 
-            default:
-                System.out.println("Obiettivo non riconosciuto.");
-                break;
+            giocoRecuperato.setLoadedGame(true);
+            return giocoRecuperato;
+        } catch (IOException e) {
+            OutputUtils.println("\nErrore nel recupero della partita: " + e.getMessage(), OutputUtils.ANSI_BRIGHT_RED, OutputUtils.ANSI_BOLD);
+            return null;
         }
+    }
 
-        return false;
+    /**
+     * Registra sul motore il diario della partita, chiudendo quello precedente.
+     *
+     * @param nuovoDiario il diario da usare, null per nessun diario.
+     */
+    private void usaDiario(DiarioPartita nuovoDiario) {
+        if (diario != null && diario != nuovoDiario) {
+            diario.close();
+        }
+        diario = nuovoDiario;
+        motore.setRegistroComandi(nuovoDiario);
     }
 
     /**
-     * Verifica se il giocatore ha conquistato tutti i territori di un continente.
-     * 
-     * @param giocatore il giocatore da verificare.
-     * @param nomeContinente il nome del continente.
+     * Crea il diario della partita se non esiste ancora, così da poterla recuperare
+     * dopo un'interruzione. In caso di errore la partita prosegue senza diario.
+     *
      * @param gioco l'oggetto Gioco corrente.
-     * @return  true se il giocatore controlla tutti i territori del continete, false altrimenti.
      */
-    private boolean haConquistatoContinente(Giocatore giocatore, String nomeContinente, Gioco gioco) {
-        Continente continente = gioco.getMappa().getContinente(nomeContinente);
-        if (continente == null) {
-            System.out.println("Il continente " + nomeContinente + "non esiste nella mappa.");
-            return false;
+    private void apriDiario(Gioco gioco) {
+        if (diario != null && diario.getGioco() == gioco) {
+            return;
+        }
+        String nome = gioco.getLogFileName() != null ? gioco.getLogFileName().replace(".log", "") : "partita";
+        try {
+            usaDiario(DiarioPartita.crea(DiarioPartita.CARTELLA_PREDEFINITA, nome, gioco));
+        } catch (IOException e) {
+            OutputUtils.println("Errore durante la creazione del diario della partita: " + e.getMessage());
+            usaDiario(null);
         }
-        return giocatore.getTerritori_controllati().containsAll(continente.getTerritori());
     }
 
     /**
-     * Verifica se il giocatore ha conquistato un altro continente diverso da quelli specificati.
-     * 
-     * @param giocatore il giocatore da verificare.
-     * @param esclusi la lista dei nomi dei continenti da escludere.
-     * @param gioco  l'oggetto Gioco corrente.
-     * @return true se il giocatore ha conquistato un altro continente, false altrimenti.
+     * Elimina il diario della partita, che non serve più per il recupero.
      */
-    private boolean haConquistatoUnAltroContinente(Giocatore giocatore, List<String> esclusi, Gioco gioco) {
-        for (Continente continente : gioco.getMappa().getContinenti()) {
-            String nomeContinente = continente.getNome();
-            if (!esclusi.contains(nomeContinente) && haConquistatoContinente(giocatore, nomeContinente, gioco)) {
-                return true;
-            }   
+    private void terminaDiario() {
+        if (diario != null) {
+            diario.termina();
+            usaDiario(null);
         }
-        return false;
     }
-    
+
+    /**
+     * Carica un gioco da un file specificato.
+     *
+     * @param fileName il nome del file da cui caricare il gioco.
+     * @return l'oggetto Gioco caricato.
+     * @throws IOException            se si verifica un errore di I/O durante il caricamento.
+     *
+     * @throws ClassNotFoundException se la classe Gioco non viene trovata durante la deserializzazione.
+     *
+     */
+    public Gioco caricaGioco(String fileName) throws IOException, ClassNotFoundException {
+        return fileservice.caricaGioco(fileName);
+    }
+
     /**
      * Dichiara la vittoria del giocatore.
      *
@@ -443,14 +447,9 @@ public class GiocoServiceImpl implements GiocoService {
      */
     private void dichiaraVittoria(Giocatore giocatore, Gioco gioco) {
         // Pausa
-        try {
-            Thread.sleep(3000);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        PausaUtils.pausa(3000);
         // Pulizia schermo
-        AnsiConsole.out().print("\033[H\033[2J");
-        AnsiConsole.out().flush();
+        Schermata.getInstance().pulisci().mostra();
 
         OutputUtils.println("\n\r\n" + //
                 "  _____           _   _ _            _                      _             _          \r\n" + //
@@ -463,19 +462,11 @@ public class GiocoServiceImpl implements GiocoService {
                 "                                                                                     \r\n" + //
                 "", OutputUtils.ANSI_BRIGHT_GREEN, OutputUtils.ANSI_BOLD);
         
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        PausaUtils.pausa(1000);
 
         OutputUtils.print("\nCongratulazioni " + giocatore.getNome().toUpperCase() + "! Hai completato il tuo obiettivo e...", OutputUtils.ANSI_YELLOW, OutputUtils.ANSI_BOLD);
 
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        PausaUtils.pausa(2000);
 
         OutputUtils.println("\r\n" + //
                 "  _    _          _____    __      _______ _   _ _______ ____      _                   _____        _____ _______ _____ _______       _ \r\n"
@@ -497,16 +488,26 @@ public class GiocoServiceImpl implements GiocoService {
                 "", OutputUtils.ANSI_BRIGHT_YELLOW, OutputUtils.ANSI_BOLD);
         
         // Logging della vittoria
-        FileServiceImpl.getInstance().writeLog("Il giocatore " + giocatore.getNome().toUpperCase() + " ha vinto la partita completando l'obiettivo: " + giocatore.getObiettivo().getDescrizione());
+        FileServiceImpl.getInstance().writeLog(LivelloLog.PARTITA, () -> "Il giocatore " + giocatore.getNome().toUpperCase() + " ha vinto la partita completando l'obiettivo: " + giocatore.getObiettivo().getDescrizione());
         FileServiceImpl.getInstance().writeLog("");
         gioco.setPartitaInCorso(false);
+        terminaDiario();
     }
 
+    /**
+     * Esegue il turno di un giocatore.
+     * La CLI raccoglie le scelte del giocatore e le applica tramite il MotoreGioco,
+     * stampando e registrando nel log gli eventi restituiti.
+     *
+     * @param giocatore il giocatore di turno.
+     * @param gioco     l'oggetto Gioco corrente.
+     * @return true se il turno è stato completato, false se la partita è terminata o si torna al menù.
+     */
     public boolean turnoGiocatore(Giocatore giocatore, Gioco gioco) {
         TurnoGioco turnState = gioco.getCurrentTurnState();
-
-        // Resetta la variabile haRicevutoCartaBonus all'inizio del turno
-        giocatore.setHaRicevutoCartaBonus(false);
+        apriDiario(gioco);
+        FileServiceImpl.getInstance().apriEventi(gioco);
+        FileServiceImpl.getInstance().iniziaRoundLog(gioco.getRoundCount());
 
         // Inizializza la fase corrente se non impostata
         if (turnState.getCurrentPhase() == null) {
@@ -515,16 +516,9 @@ public class GiocoServiceImpl implements GiocoService {
 
         // Se la partita è stata caricata, stampa il messaggio di turno
         if (gioco.isLoadedGame()) {
-            AnsiConsole.out().print("\033[H\033[2J");
-            AnsiConsole.out().flush();
+            Schermata.getInstance().pulisci().intestazioneTurno(giocatore).mostra();
 
-            OutputUtils.printTurnHeader(giocatore);
-
-            try {
-                Thread.sleep(4000);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+            PausaUtils.pausa(4000);
 
             // Reset del flag dopo la stampa
             gioco.setLoadedGame(false);
@@ -533,71 +527,48 @@ public class GiocoServiceImpl implements GiocoService {
         while (!turnState.isTurnoTerminato()) {
             switch (turnState.getCurrentPhase()) {
                 case START_TURN:
-                    // Inizializza il turno
-                    giocatore.resetTerritoriConquistatiNelTurno();
-
-                    // Logging dell'inizio del turno
-                    FileServiceImpl.getInstance().writeLog("Inizio del turno di " + giocatore.getNome().toUpperCase());
-
-                    // Calcolo delle armate da distribuire
-                    int armateTerritori = Math.max(3, giocatore.getTerritori_controllati().size() / 3);
-                    int armateContinenti = calcolaArmateContinenti(giocatore, gioco.getMappa().getContinenti());
-                    int armateTotali = armateTerritori + armateContinenti;
-
-                    // Calcolo del numero di territori e continenti controllati
-                    int numeroTerritori = giocatore.getTerritori_controllati().size();
-                    int numeroContinenti = calcolaNumeroContinentiControllati(giocatore, gioco.getMappa().getContinenti());
-
-                    // Logging delle armate ricevute
-                    FileServiceImpl.getInstance().writeLog("Giocatore " + giocatore.getNome().toUpperCase()
-                        + " riceve " + armateTotali + " armate (Territori: " + numeroTerritori + ", Continenti: " + numeroContinenti + ").");
-                    
-                    turnState.setArmateDaDistribuire(armateTotali);
-                    turnState.setArmateTotali(armateTotali);
-                    turnState.setNumeroTerritori(numeroTerritori);
-                    turnState.setNumeroContinenti(numeroContinenti);
-                    turnState.setCurrentPhase(TurnoGioco.TurnPhase.DISTRIBUTE_ARMIES);
+                    // Il motore calcola le armate da distribuire
+                    registraEventi(motore.avviaTurno(gioco));
                     break;
-                
+
                 case DISTRIBUTE_ARMIES:
                     distribuzioneArmate(giocatore, turnState, gioco);
-                    turnState.setCurrentPhase(TurnoGioco.TurnPhase.MENU);
+                    break;
+
+                case MOVE_AFTER_CONQUEST:
+                    // Partita caricata durante lo spostamento dopo una conquista
+                    completaConquista(giocatore, gioco);
                     break;
 
                 case MENU:
+                case END_TURN:
                     boolean continueMenu = true;
                     while (continueMenu) {
-                        try {
-                            Thread.sleep(1000);
-                        } catch (InterruptedException e) {
-                            e.printStackTrace();
-                        }
-
-                        AnsiConsole.out().print("\033[H\033[2J");
-                        AnsiConsole.out().flush();
-
-                        // Stampa del menu principale
-                        OutputUtils.println("\n————————————————————————————————————————————————", OutputUtils.ANSI_BRIGHT_PURPLE, OutputUtils.ANSI_BOLD);
-                        OutputUtils.println("                MENU' PRINCIPALE                 ", OutputUtils.ANSI_BRIGHT_GREEN, OutputUtils.ANSI_BOLD);
-                        OutputUtils.println("————————————————————————————————————————————————", OutputUtils.ANSI_BRIGHT_PURPLE, OutputUtils.ANSI_BOLD);
-                        OutputUtils.println("1) Visualizza Obiettivo", OutputUtils.ANSI_WHITE, OutputUtils.ANSI_BOLD, OutputUtils.ANSI_BLINK);
-                        OutputUtils.println("2) Visualizza Territori e Continenti Controllati", OutputUtils.ANSI_WHITE, OutputUtils.ANSI_BOLD, OutputUtils.ANSI_BLINK);
-                        OutputUtils.println("3) Visualizza Carte Collezionate", OutputUtils.ANSI_WHITE, OutputUtils.ANSI_BOLD, OutputUtils.ANSI_BLINK);
-                        OutputUtils.println("4) Attacca", OutputUtils.ANSI_WHITE, OutputUtils.ANSI_BOLD, OutputUtils.ANSI_BLINK);
-                        OutputUtils.println("5) Sposta Armate", OutputUtils.ANSI_WHITE, OutputUtils.ANSI_BOLD, OutputUtils.ANSI_BLINK);
-                        OutputUtils.println("6) Termina Turno", OutputUtils.ANSI_WHITE, OutputUtils.ANSI_BOLD, OutputUtils.ANSI_BLINK);
-                        OutputUtils.println("7) Salva ed Esci", OutputUtils.ANSI_WHITE, OutputUtils.ANSI_BOLD, OutputUtils.ANSI_BLINK);
-                        OutputUtils.println("————————————————————————————————————————————————", OutputUtils.ANSI_BRIGHT_PURPLE, OutputUtils.ANSI_BOLD);
-
-                        OutputUtils.print("\nScelta: ", OutputUtils.ANSI_BRIGHT_GREEN, OutputUtils.ANSI_BOLD);
+                        PausaUtils.pausa(1000);
+
+                        // Stampa del menu principale, ridisegnando solo le righe cambiate
+                        Schermata.getInstance().ridisegna()
+                            .riga("\n————————————————————————————————————————————————", Stile.CORNICE)
+                            .riga("                MENU' PRINCIPALE                 ", Stile.TITOLO)
+                            .riga("————————————————————————————————————————————————", Stile.CORNICE)
+                            .riga("1) Visualizza Obiettivo", Stile.VOCE_MENU)
+                            .riga("2) Visualizza Territori e Continenti Controllati", Stile.VOCE_MENU)
+                            .riga("3) Visualizza Carte Collezionate", Stile.VOCE_MENU)
+                            .riga("4) Attacca", Stile.VOCE_MENU)
+                            .riga("5) Sposta Armate", Stile.VOCE_MENU)
+                            .riga("6) Termina Turno", Stile.VOCE_MENU)
+                            .riga("7) Salva ed Esci", Stile.VOCE_MENU)
+                            .riga("————————————————————————————————————————————————", Stile.CORNICE)
+                            .testo("\nScelta: ", Stile.TITOLO)
+                            .mostra();
                         Integer[] opzioniValide = { 1, 2, 3, 4, 5, 6, 7 };
                         int scelta = InputManagerSingleton.getInstance().readIntegerUntilPossibleValue(opzioniValide);
 
                         switch (scelta) {
                             case 1:
-                                visualizzaObiettivo(giocatore);                                
+                                visualizzaObiettivo(giocatore);
                                 break;
-                            
+
                             case 2:
                                 visualizzaTerritoriEContinentiControllati(giocatore, gioco);
                                 break;
@@ -607,31 +578,37 @@ public class GiocoServiceImpl implements GiocoService {
                                 break;
 
                             case 4:
+                                if (turnState.getCurrentPhase() == TurnoGioco.TurnPhase.END_TURN) {
+                                    // Scritto con la Schermata, così il menù resta ridisegnabile
+                                    Schermata.getInstance()
+                                        .riga("\nHai già spostato le armate: puoi solo terminare il turno.", SCELTA_NON_CONSENTITA)
+                                        .mostra();
+                                    break;
+                                }
                             	attaccoGiocatore(giocatore, gioco);
                                 if (!gioco.isPartitaInCorso()) {
                                     return false; // Gioco terminato
                                 }
                                 break;
-                            
+
                             case 5:
                             	try {
-                                    spostamentoArmate(giocatore);
-                                    turnState.setTurnoTerminato(true);
+                                    if (turnState.getCurrentPhase() == TurnoGioco.TurnPhase.MENU) {
+                                        spostamentoArmate(giocatore, gioco);
+                                        if (!gioco.isPartitaInCorso()) {
+                                            return false; // Vittoria con lo spostamento delle armate
+                                        }
+                                    }
                                     continueMenu = false;
                                     OutputUtils.println("\nTurno di " + giocatore.getNome().toUpperCase()
                                         + " terminato dopo lo spostamento delle armate.", OutputUtils.ANSI_BRIGHT_YELLOW, OutputUtils.ANSI_BOLD);
-                                    FileServiceImpl.getInstance().writeLog("Turno di " + giocatore.getNome().toUpperCase()
-                                        + " terminato dopo lo spostamento delle armate.");
-                                    FileServiceImpl.getInstance().writeLog(""); // Riga vuota per separare le azioni
-                                    try {
-                                        Thread.sleep(5000);
-                                    } catch (InterruptedException e) {
-                                        e.printStackTrace();
-                                    }
-                                    AnsiConsole.out().print("\033[H\033[2J");
-                                    AnsiConsole.out().flush();
+                                    registraEventi(motore.esegui(gioco, new Comando.TerminaTurno()));
+                                    PausaUtils.pausa(5000);
+                                    Schermata.getInstance().pulisci().mostra();
+                                } catch (InputTerminatoException e) {
+                                    throw e;
                                 } catch (Exception e) {
-                                    System.out.println("Errore durante lo spostamento delle armate: " + e.getMessage());
+                                    OutputUtils.println("Errore durante lo spostamento delle armate: " + e.getMessage());
                                 }
                                 if (!gioco.isPartitaInCorso()) {
                                     return false; // Game over
@@ -639,28 +616,20 @@ public class GiocoServiceImpl implements GiocoService {
                                 break;
 
                             case 6:
-                                turnState.setTurnoTerminato(true);
                                 continueMenu = false;
 
-                                AnsiConsole.out().print("\033[H\033[2J");
-                                AnsiConsole.out().flush();
+                                Schermata.getInstance().pulisci().mostra();
 
                                 OutputUtils.println("\n════════════════════════════", OutputUtils.ANSI_BRIGHT_RED, OutputUtils.ANSI_BOLD);
                                 OutputUtils.println("TURNO DI " + giocatore.getNome().toUpperCase() + " TERMINATO.", OutputUtils.ANSI_BRIGHT_RED, OutputUtils.ANSI_BOLD);
                                 OutputUtils.println("════════════════════════════", OutputUtils.ANSI_BRIGHT_RED, OutputUtils.ANSI_BOLD);
-                                System.out.println();
+                                OutputUtils.println();
 
-                                // Logging del turno terminato
-                                FileServiceImpl.getInstance().writeLog("Turno di " + giocatore.getNome().toUpperCase() + " terminato.");
-                                FileServiceImpl.getInstance().writeLog(""); // Riga vuota per separare le azioni
+                                // Il motore chiude il turno e passa al giocatore successivo
+                                registraEventi(motore.esegui(gioco, new Comando.TerminaTurno()));
 
-                                try {
-                                    Thread.sleep(3000);
-                                } catch (InterruptedException e) {
-                                    e.printStackTrace();
-                                }
-                                AnsiConsole.out().print("\033[H\033[2J");
-                                AnsiConsole.out().flush();
+                                PausaUtils.pausa(3000);
+                                Schermata.getInstance().pulisci().mostra();
                                 break;
 
                             case 7:
@@ -669,7 +638,7 @@ public class GiocoServiceImpl implements GiocoService {
                         }
                     }
                     break;
-                
+
                 default:
                     // Se la fase non è riconosciuta, termina il turno
                     turnState.setTurnoTerminato(true);
@@ -681,25 +650,57 @@ public class GiocoServiceImpl implements GiocoService {
             }
         }
 
-        // Resetta lo stato del turno per il prossimo giocatore
-        gioco.setCurrentTurnState(new TurnoGioco());
         return true;
     }
 
     /**
-     * Simula il lancio di un certo numero di dadi.
+     * Scrive nel log gli eventi prodotti dal motore per un comando accettato,
+     * aggiungendoli anche al registro degli eventi della partita.
+     * Se il comando è stato rifiutato stampa il motivo del rifiuto.
+     *
+     * @param risultato l'esito del comando.
+     */
+    private void registraEventi(RisultatoComando risultato) {
+        if (!risultato.isAccettato()) {
+            OutputUtils.println("\n" + risultato.getErrore(), OutputUtils.ANSI_RED, OutputUtils.ANSI_BOLD);
+            return;
+        }
+        FileServiceImpl log = FileServiceImpl.getInstance();
+        for (EventoGioco evento : risultato.getEventi()) {
+            log.registraEvento(evento);
+            LivelloLog livello = DescrizioneEventi.livello(evento);
+            if (log.isLogAttivo(livello)) {
+                for (String riga : DescrizioneEventi.descrivi(evento, log.getLivelloLog())) {
+                    log.writeLog(livello, riga);
+                }
+            }
+        }
+    }
+
+    /**
+     * Restituisce i territori adiacenti leggendo le adiacenze dalla topologia della mappa.
      *
-     * @param numDadi il numero di dadi da lanciare.
-     * @return una lista dei risultati ottenuti, ordinati in ordine decrescente.
+     * @param mappa      la mappa della partita.
+     * @param territorio il territorio di cui cercare gli adiacenti.
+     * @return la lista dei territori adiacenti.
      */
-    private List<Integer> lanciaDadi(int numDadi) {
-        Random random = new Random();
-        List<Integer> risultati = new ArrayList<>();
-        for (int i = 0; i < numDadi; i++) {
-            risultati.add(random.nextInt(6) + 1); // Lancia un dado (valore da 1 a 6)
+    private List<Territorio> territoriAdiacenti(Mappa mappa, Territorio territorio) {
+        TopologiaMappa topologia = mappa.getTopologia();
+        List<Territorio> adiacenti = new ArrayList<>();
+        for (int k = topologia.getInizioAdiacenze(territorio.getId()); k < topologia.getFineAdiacenze(territorio.getId()); k++) {
+            adiacenti.add(mappa.getTerritorio(topologia.getAdiacente(k)));
         }
-        risultati.sort(Collections.reverseOrder()); // Ordina i risultati in ordine decrescente
-        return risultati;
+        return adiacenti;
+    }
+
+    /**
+     * Restituisce la descrizione testuale di una carta.
+     *
+     * @param carta la carta da descrivere.
+     * @return il tipo della carta seguito dall'eventuale territorio.
+     */
+    private String descriviCarta(Carta carta) {
+        return DescrizioneEventi.descriviCarta(carta);
     }
 
     /**
@@ -708,25 +709,20 @@ public class GiocoServiceImpl implements GiocoService {
      * @param giocatore il giocatore corrente.
      */
     private void visualizzaObiettivo(Giocatore giocatore) {
-        AnsiConsole.out().print("\033[H\033[2J");
-        AnsiConsole.out().flush();
-
-        OutputUtils.println("\n————————————————", OutputUtils.ANSI_BRIGHT_PURPLE, OutputUtils.ANSI_BOLD);
-        OutputUtils.println("IL TUO OBIETTIVO", OutputUtils.ANSI_BRIGHT_GREEN, OutputUtils.ANSI_BOLD);
-        OutputUtils.println("————————————————\n", OutputUtils.ANSI_BRIGHT_PURPLE, OutputUtils.ANSI_BOLD);
+        Schermata schermata = Schermata.getInstance().pulisci()
+            .riga("\n————————————————", Stile.CORNICE)
+            .riga("IL TUO OBIETTIVO", Stile.TITOLO)
+            .riga("————————————————\n", Stile.CORNICE);
 
         CartaObiettivo obiettivo = giocatore.getObiettivo();
         if (obiettivo != null) {
-            OutputUtils.println(obiettivo.getDescrizione() + "\n", OutputUtils.ANSI_BOLD);
+            schermata.riga(obiettivo.getDescrizione() + "\n", Stile.GRASSETTO);
         } else {
-            OutputUtils.println("Nessun obiettivo assegnato.\n", OutputUtils.ANSI_BOLD);
+            schermata.riga("Nessun obiettivo assegnato.\n", Stile.GRASSETTO);
         }
+        schermata.mostra();
 
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        PausaUtils.pausa(2000);
     }
 
     /**
@@ -736,62 +732,32 @@ public class GiocoServiceImpl implements GiocoService {
      * @param gioco     l'oggetto Gioco corrente.
      */
     private void visualizzaTerritoriEContinentiControllati(Giocatore giocatore, Gioco gioco) {
-        AnsiConsole.out().print("\033[H\033[2J");
-        AnsiConsole.out().flush();
-
-        OutputUtils.println("\n———————————————————————————————————————————————", OutputUtils.ANSI_BRIGHT_PURPLE, OutputUtils.ANSI_BOLD);
-        OutputUtils.println("TERRITORI E CONTINENTI CONTROLLATI DA " + giocatore.getNome().toUpperCase(), OutputUtils.ANSI_BRIGHT_GREEN, OutputUtils.ANSI_BOLD);
-        OutputUtils.println("———————————————————————————————————————————————\n", OutputUtils.ANSI_BRIGHT_PURPLE, OutputUtils.ANSI_BOLD);
+        Schermata schermata = Schermata.getInstance().pulisci()
+            .riga("\n———————————————————————————————————————————————", Stile.CORNICE)
+            .riga("TERRITORI E CONTINENTI CONTROLLATI DA " + giocatore.getNome().toUpperCase(), Stile.TITOLO)
+            .riga("———————————————————————————————————————————————\n", Stile.CORNICE);
 
         // Visualizza i territori controllati
-        OutputUtils.println("Territori Controllati:", OutputUtils.ANSI_BRIGHT_CYAN, OutputUtils.ANSI_BOLD);
+        schermata.riga("Territori Controllati:", Stile.EVIDENZA);
         int indiceTerritorio = 1;
         for (Territorio territorio : giocatore.getTerritori_controllati()) {
-            OutputUtils.println(indiceTerritorio + ") " + territorio.getNome() + " con " + territorio.getNumeroArmate() + " armate", OutputUtils.ANSI_BOLD);
+            schermata.riga(indiceTerritorio + ") " + territorio.getNome() + " con " + territorio.getNumeroArmate() + " armate", Stile.GRASSETTO);
             indiceTerritorio++;
         }
 
         // Calcola e visualizza i continenti controllati
-        List<Continente> continentiControllati = getContinentiControllati(giocatore, gioco.getMappa().getContinenti());
+        List<Continente> continentiControllati = RegoleGioco.continentiControllati(giocatore, gioco.getMappa());
         if (!continentiControllati.isEmpty()) {
-            OutputUtils.println("\nContinenti Controllati:", OutputUtils.ANSI_BRIGHT_CYAN, OutputUtils.ANSI_BOLD);
+            schermata.riga("\nContinenti Controllati:", Stile.EVIDENZA);
             for (Continente continente : continentiControllati) {
-                OutputUtils.println("- " + continente.getNome(), OutputUtils.ANSI_BOLD);
+                schermata.riga("- " + continente.getNome(), Stile.GRASSETTO);
             }
         } else {
-            OutputUtils.println("\nNon controlli completamente nessun continente.", OutputUtils.ANSI_BRIGHT_CYAN, OutputUtils.ANSI_BOLD);
-        }
-
-        System.out.println();
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+            schermata.riga("\nNon controlli completamente nessun continente.", Stile.EVIDENZA);
         }
-    }
 
-    /**
-     * Restituisce la lista dei continenti controllati completamente dal giocatore.
-     *
-     * @param giocatore  il giocatore da verificare.
-     * @param continenti la lista dei continenti nella mappa.
-     * @return una lista dei continenti controllati.
-     */
-    private List<Continente> getContinentiControllati(Giocatore giocatore, List<Continente> continenti) {
-        List<Continente> continentiControllati = new ArrayList<>();
-        for (Continente continente : continenti) {
-            boolean possiedeTuttiITerritori = true;
-            for (Territorio territorio : continente.getTerritori()) {
-                if (!territorio.getGiocatore().equals(giocatore)) {
-                    possiedeTuttiITerritori = false;
-                    break;
-                }
-            }
-            if (possiedeTuttiITerritori) {
-                continentiControllati.add(continente);
-            }
-        }
-        return continentiControllati;
+        schermata.riga().mostra();
+        PausaUtils.pausa(2000);
     }
 
     /**
@@ -800,104 +766,24 @@ public class GiocoServiceImpl implements GiocoService {
      * @param giocatore il giocatore corrente.
      */
     private void visualizzaCarteCollezionate(Giocatore giocatore) {
-        AnsiConsole.out().print("\033[H\033[2J");
-        AnsiConsole.out().flush();
-
-        OutputUtils.println("\n—————————————————————————", OutputUtils.ANSI_BRIGHT_PURPLE, OutputUtils.ANSI_BOLD);
-        OutputUtils.println("LE TUE CARTE COLLEZIONATE", OutputUtils.ANSI_BRIGHT_GREEN, OutputUtils.ANSI_BOLD);
-        OutputUtils.println("—————————————————————————\n", OutputUtils.ANSI_BRIGHT_PURPLE, OutputUtils.ANSI_BOLD);
+        Schermata schermata = Schermata.getInstance().pulisci()
+            .riga("\n—————————————————————————", Stile.CORNICE)
+            .riga("LE TUE CARTE COLLEZIONATE", Stile.TITOLO)
+            .riga("—————————————————————————\n", Stile.CORNICE);
 
         List<Carta> carte = giocatore.getCarte();
         if (carte.isEmpty()) {
-            OutputUtils.println("Non hai nessuna carta al momento.\n", OutputUtils.ANSI_BOLD);
+            schermata.riga("Non hai nessuna carta al momento.\n", Stile.GRASSETTO);
         } else {
             for (int i = 0; i < carte.size(); i++) {
-                Carta carta = carte.get(i);
-                OutputUtils.println((i + 1) + ") " + carta.getTipo() + (carta.getTerritorio() != null ? " - " + carta.getTerritorio().getNome() : ""), OutputUtils.ANSI_BOLD);
-            }
-            System.out.println();
-        }
-
-        try {
-            Thread.sleep(2500);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
-
-    }
-
-    /**
-     * Calcola il numero di continenti controllati completamente dal giocatore.
-     *
-     * @param giocatore  il giocatore da verificare.
-     * @param continenti la lista dei continenti nella mappa.
-     * @return il numero di continenti controllati.
-     */
-    private int calcolaNumeroContinentiControllati(Giocatore giocatore, List<Continente> continenti) {
-        int numeroContinentiControllati = 0;
-        for (Continente continente : continenti) {
-            boolean possiedeTuttiITerritori = true;
-            for (Territorio territorio : continente.getTerritori()) {
-                if (!territorio.getGiocatore().equals(giocatore)) {
-                    possiedeTuttiITerritori = false;
-                    break;
-                }
-            }
-            if (possiedeTuttiITerritori) {
-                numeroContinentiControllati++;
+                schermata.riga((i + 1) + ") " + descriviCarta(carte.get(i)), Stile.GRASSETTO);
             }
+            schermata.riga();
         }
-        return numeroContinentiControllati;
-    }
+        schermata.mostra();
 
-    /**
-     * Calcola il numero di armate bonus per i continenti controllati.
-     *
-     * @param giocatore  il giocatore corrente.
-     * @param continenti la lista dei continenti.
-     * @return il numero totale di armate bonus.
-     */
-    private int calcolaArmateContinenti(Giocatore giocatore, List<Continente> continenti) {
-        int armateBonus = 0;
-
-        for (Continente continente : continenti) {
-            boolean possiedeTuttiITerritori = true;
-            for (Territorio territorio : continente.getTerritori()) {
-                if (!territorio.getGiocatore().equals(giocatore)) {
-                    possiedeTuttiITerritori = false;
-                    break;
-                }
-            }
-
-            if (possiedeTuttiITerritori) {
-                switch (continente.getNome()) {
-                    case "Oceania":
-                        armateBonus += 2;
-                        break;
-
-                    case "Europa":
-                        armateBonus += 5;
-                        break;
+        PausaUtils.pausa(2500);
 
-                    case "America del Sud":
-                        armateBonus += 2;
-                        break;
-
-                    case "America del Nord":
-                        armateBonus += 5;
-                        break;
-
-                    case "Africa":
-                        armateBonus += 3;
-                        break;
-
-                    case "Asia":
-                        armateBonus += 7;
-                        break;
-                }
-            }
-        }
-        return armateBonus;
     }
 
     /**
@@ -908,11 +794,8 @@ public class GiocoServiceImpl implements GiocoService {
      * @param gioco     l'oggetto Gioco corrente.
      */
     private void distribuzioneArmate(Giocatore giocatore, TurnoGioco turnState, Gioco gioco) {
-        int armateDaDistribuire = turnState.getArmateDaDistribuire();
-
-        // Pulizia dello schermo
-        AnsiConsole.out().print("\033[H\033[2J");
-        AnsiConsole.out().flush();
+        // Pulizia dello schermo, scritta insieme al primo messaggio
+        Schermata schermata = Schermata.getInstance().pulisci();
 
         // Verifica delle combinazioni valide di carte
         boolean haCombinazioneValida = giocatoreService.possiedeAlmenoUnaCombinazioneValida(giocatore);
@@ -920,86 +803,71 @@ public class GiocoServiceImpl implements GiocoService {
         // Questo solo se sono passati almeno 3 turni, poichè prima è impossibile che un giocatore abbia almeno 3 carte
         if (gioco.getRoundCount() > 3) {
             if(haCombinazioneValida) {
-                OutputUtils.printTurnHeader(giocatore);
-                OutputUtils.println("\nHai una combinazione di 3 carte. Vuoi scambiarle per ottenre armate aggiuntive? (S/N)", OutputUtils.ANSI_BRIGHT_PURPLE, OutputUtils.ANSI_BOLD);
-                OutputUtils.print("\nScelta: ", OutputUtils.ANSI_CYAN, OutputUtils.ANSI_BOLD);
+                schermata.intestazioneTurno(giocatore)
+                    .riga("\nHai una combinazione di 3 carte. Vuoi scambiarle per ottenre armate aggiuntive? (S/N)", Stile.CORNICE)
+                    .testo("\nScelta: ", Stile.RICHIESTA)
+                    .mostra();
                 String rispostaScambio = InputManagerSingleton.getInstance().readString();
                 if (rispostaScambio.equalsIgnoreCase("s")) {
-                    int armateDaCarte = giocatoreService.scambiaCartePerArmate(giocatore, gioco);
-                    armateDaDistribuire += armateDaCarte;
-                    turnState.setArmateDaDistribuire(armateDaDistribuire);
-                    turnState.setArmateTotali(turnState.getArmateTotali() + armateDaCarte);
-                    // Logging dello scambio di carte
-                    FileServiceImpl.getInstance().writeLog("Giocatore " + giocatore.getNome().toUpperCase() + "scambia carte e riceve altre " + armateDaCarte + "armate.");
+                    // Il motore aggiorna le armate da distribuire del turno
+                    giocatoreService.scambiaCartePerArmate(giocatore, gioco);
                 }
             } else if (giocatore.getCarte().size() >= 3) {
-                OutputUtils.printTurnHeader(giocatore);
-                OutputUtils.println("\nHai 3 o più carte, ma nessuna combinazione valida per lo scambio.", OutputUtils.ANSI_BRIGHT_YELLOW, OutputUtils.ANSI_BOLD);
-                try {
-                    Thread.sleep(3500);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
+                schermata.intestazioneTurno(giocatore)
+                    .riga("\nHai 3 o più carte, ma nessuna combinazione valida per lo scambio.", AVVISO)
+                    .mostra();
+                PausaUtils.pausa(3500);
             } else {
-                OutputUtils.printTurnHeader(giocatore);
-                OutputUtils.println("\nNon hai abbastanza carte collezionabili per lo scambio.\n", OutputUtils.ANSI_BRIGHT_YELLOW, OutputUtils.ANSI_BOLD);
-                try {
-                    Thread.sleep(3500);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
+                schermata.intestazioneTurno(giocatore)
+                    .riga("\nNon hai abbastanza carte collezionabili per lo scambio.\n", AVVISO)
+                    .mostra();
+                PausaUtils.pausa(3500);
             }
         }
+        schermata.mostra();
 
         // Distribuzione delle armate
-        while (armateDaDistribuire > 0) {
-            // Pulizia dello schermo
-            AnsiConsole.out().print("\033[H\033[2J");
-            AnsiConsole.out().flush();
-            
-            // Stampa dei messaggi aggiornati
-            OutputUtils.printTurnHeader(giocatore);
-            System.out.println();
+        while (turnState.getArmateDaDistribuire() > 0) {
+            // Stampa dei messaggi aggiornati: cambiano solo le armate da distribuire e il territorio scelto
+            schermata.ridisegna().intestazioneTurno(giocatore).riga();
 
             // Stampa delle informazioni sulle armate
-            OutputUtils.println(giocatore.getNome().toUpperCase() + " riceve " + turnState.getArmateTotali() 
+            schermata.riga(giocatore.getNome().toUpperCase() + " riceve " + turnState.getArmateTotali()
                 + " armate (Territori: " + turnState.getNumeroTerritori() + ", Continenti: "
-                + turnState.getNumeroContinenti() + ").\n", OutputUtils.ANSI_BRIGHT_GREEN, OutputUtils.ANSI_BOLD);
+                + turnState.getNumeroContinenti() + ").\n", Stile.TITOLO);
 
             // Informazioni sulle armate da distribuire
-            OutputUtils.print("Hai", OutputUtils.ANSI_BOLD);
-            OutputUtils.print(" " + armateDaDistribuire, OutputUtils.ANSI_BRIGHT_CYAN, OutputUtils.ANSI_BOLD);
-            OutputUtils.println(" armate da distribuire.", OutputUtils.ANSI_BOLD);
+            schermata.testo("Hai", Stile.GRASSETTO)
+                .testo(" " + turnState.getArmateDaDistribuire(), Stile.EVIDENZA)
+                .riga(" armate da distribuire.", Stile.GRASSETTO);
 
             // Elenco dei territori controllati
             for (int j = 0; j < giocatore.getTerritori_controllati().size(); j++) {
                 Territorio territorio = giocatore.getTerritori_controllati().get(j);
-                OutputUtils.print((j + 1) + ") " + territorio.getNome(), OutputUtils.ANSI_BOLD);
-                OutputUtils.println(" (Armate attuali: " + territorio.getNumeroArmate() + ")", OutputUtils.ANSI_BRIGHT_CYAN, OutputUtils.ANSI_BOLD);
+                schermata.testo((j + 1) + ") " + territorio.getNome(), Stile.GRASSETTO)
+                    .riga(" (Armate attuali: " + territorio.getNumeroArmate() + ")", Stile.EVIDENZA);
             }
 
             // Selezione del territorio per la distribuzione
-            OutputUtils.print("\nScelta: ", OutputUtils.ANSI_CYAN, OutputUtils.ANSI_BOLD);
+            schermata.testo("\nScelta: ", Stile.RICHIESTA).mostra();
             int indiceTerritorio = InputManagerSingleton.getInstance().readIntegerUntilPossibleValue(IntStream
                 .rangeClosed(1, giocatore.getTerritori_controllati().size()).boxed().toArray(Integer[]::new)) - 1;
-            System.out.println();
-
-            if (indiceTerritorio >= 0 && indiceTerritorio < giocatore.getTerritori_controllati().size()) {
-                Territorio territorioSelezionato = giocatore.getTerritori_controllati().get(indiceTerritorio);
-                territorioSelezionato.aggiungiArmate(1);
-                giocatore.incrementaTotaleArmate(1);
-                FileServiceImpl.getInstance().writeLog("Giocatore " + giocatore.getNome().toUpperCase() + " ha posizionato 1 armata su " + territorioSelezionato.getNome());
-                armateDaDistribuire--;
-                turnState.setArmateDaDistribuire(armateDaDistribuire);
-            } else {
-                OutputUtils.println("\nTerritorio non valido. Riprovare", OutputUtils.ANSI_RED, OutputUtils.ANSI_BOLD);
+
+            Territorio territorioSelezionato = giocatore.getTerritori_controllati().get(indiceTerritorio);
+            RisultatoComando risultato = motore.esegui(gioco, new Comando.PosizionaArmate(territorioSelezionato.getNome(), 1));
+            registraEventi(risultato);
+
+            // Con un obiettivo di presidio si può vincere anche posizionando armate
+            if (risultato.getEvento(EventoGioco.TipoEvento.VITTORIA) != null) {
+                dichiaraVittoria(giocatore, gioco);
+                return;
             }
         }
 
         // Logging finale per separare le azioni
-        FileServiceImpl.getInstance().writeLog("");
+        FileServiceImpl.getInstance().writeLog(LivelloLog.AZIONI, "");
     }
-    
+
     /**
      * Permette al giocatore di selezionare un territorio da cui attaccare.
      * Il territorio deve avere almeno 2 armate.
@@ -1055,7 +923,7 @@ public class GiocoServiceImpl implements GiocoService {
 
         return armateDaSpostare;
     }
-    
+
     /**
      * Gestisce la fase di attacco del giocatore.
      *
@@ -1064,8 +932,7 @@ public class GiocoServiceImpl implements GiocoService {
      */
     private void attaccoGiocatore(Giocatore giocatore, Gioco gioco) {
         // Pulizia schermo
-        AnsiConsole.out().print("\033[H\033[2J");
-        AnsiConsole.out().flush();
+        Schermata.getInstance().pulisci().mostra();
 
         boolean attaccoTerminato = false;
 
@@ -1073,20 +940,23 @@ public class GiocoServiceImpl implements GiocoService {
             // Seleziona territorio di partenza per l'attacco
             OutputUtils.println("\nSeleziona il territorio da cui vuoi attaccare:", OutputUtils.ANSI_BRIGHT_RED, OutputUtils.ANSI_BOLD);
             Territorio territorioAttaccante = selezionaTerritorioPerAttacco(giocatore);
-            System.out.println();
+            OutputUtils.println();
 
             if (territorioAttaccante == null) {
-                System.out.println("Non hai più territori con armate sufficienti per attaccare.");
+                OutputUtils.println("Non hai più territori con armate sufficienti per attaccare.");
                 break;
             }
 
             // Logging dell'attacco
-            FileServiceImpl.getInstance().writeLog("Giocatore " + giocatore.getNome().toUpperCase() + " attacca dal territorio " + territorioAttaccante.getNome());
+            FileServiceImpl.getInstance().writeLog(LivelloLog.AZIONI, () -> "Giocatore " + giocatore.getNome().toUpperCase() + " attacca dal territorio " + territorioAttaccante.getNome());
 
             // Selezione del territorio da attaccare
-            List<Territorio> territoriAttaccabili = territorioAttaccante.getTerritoriAdiacenti().stream()
-                .filter(t -> !t.getGiocatore().equals(giocatore) && t.getNumeroArmate() > 0)
-                .collect(Collectors.toList());
+            List<Territorio> territoriAttaccabili = new ArrayList<>();
+            for (Territorio t : territoriAdiacenti(gioco.getMappa(), territorioAttaccante)) {
+                if (!t.getGiocatore().equals(giocatore) && t.getNumeroArmate() > 0) {
+                    territoriAttaccabili.add(t);
+                }
+            }
 
             if (territoriAttaccabili.isEmpty()) {
                 OutputUtils.print("Non ci sono territori adiacenti attaccabili. Vuoi selezionare un altro territorio? (S/N): ", OutputUtils.ANSI_BOLD);
@@ -1103,219 +973,241 @@ public class GiocoServiceImpl implements GiocoService {
             for (int i = 0; i < territoriAttaccabili.size(); i++) {
                 Territorio t = territoriAttaccabili.get(i);
                 OutputUtils.print((i + 1) + ") " + t.getNome(), OutputUtils.ANSI_BOLD);
-                OutputUtils.println(" (Giocatore: " + t.getGiocatore().getNome() + ", Armate: " + t.getNumeroArmate() + ")", OutputUtils.ANSI_BRIGHT_CYAN, OutputUtils.ANSI_BOLD);
+                OutputUtils.print(" (Giocatore: " + t.getGiocatore().getNome() + ", Armate: " + t.getNumeroArmate() + ")", OutputUtils.ANSI_BRIGHT_CYAN, OutputUtils.ANSI_BOLD);
+                if (tabellaBattaglie.contiene(territorioAttaccante.getNumeroArmate(), t.getNumeroArmate())) {
+                    OutputUtils.print(String.format(" Probabilità di conquista: %.0f%%",
+                        100 * tabellaBattaglie.getProbabilitaConquista(territorioAttaccante.getNumeroArmate(), t.getNumeroArmate())),
+                        OutputUtils.ANSI_BRIGHT_YELLOW, OutputUtils.ANSI_BOLD);
+                }
+                OutputUtils.println();
             }
 
             // Seleziona il territorio da attaccare
             OutputUtils.print("\nScelta: ", OutputUtils.ANSI_CYAN, OutputUtils.ANSI_BOLD);
             int indiceTerritorioDifensore = InputManagerSingleton.getInstance().readIntegerUntilPossibleValue(
                 IntStream.rangeClosed(1, territoriAttaccabili.size()).boxed().toArray(Integer[]::new)) - 1;
-            System.out.println();
+            OutputUtils.println();
             Territorio territorioDifensore = territoriAttaccabili.get(indiceTerritorioDifensore);
 
             // Logging dell'attacco al territorio selezionato
-            FileServiceImpl.getInstance().writeLog("Giocatore " + giocatore.getNome().toUpperCase() + " attacca il territorio "
+            FileServiceImpl.getInstance().writeLog(LivelloLog.AZIONI, () -> "Giocatore " + giocatore.getNome().toUpperCase() + " attacca il territorio "
                 + territorioDifensore.getNome() + " posseduto da "
                 + territorioDifensore.getGiocatore().getNome().toUpperCase());
-            FileServiceImpl.getInstance().writeLog("");
-
-            // Determinazione del numero di dadi per l'attacco e la difesa
-            int maxDadiAttacco = Math.min(territorioAttaccante.getNumeroArmate() - 1, 3);
-            OutputUtils.print("Attaccante, quante armate vuoi usare per attaccare? (1-" + maxDadiAttacco + "): ", OutputUtils.ANSI_RED, OutputUtils.ANSI_BOLD);
-            int dadiAttacco = InputManagerSingleton.getInstance().readIntegerUntilPossibleValue(IntStream.rangeClosed(1, maxDadiAttacco).boxed().toArray(Integer[]::new));
-            // Il difensore deve usare lo stesso numero di dadi, o il massimo possibile se ha meno armate
-            int dadiDifesa = Math.min(dadiAttacco, territorioDifensore.getNumeroArmate());
-            OutputUtils.println("Il difensore userà " + dadiDifesa + " dadi per difendersi.", OutputUtils.ANSI_BLUE, OutputUtils.ANSI_BOLD);
-
-            try {
-                Thread.sleep(1500);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+            FileServiceImpl.getInstance().writeLog(LivelloLog.AZIONI, "");
+
+            boolean territorioConquistato;
+            if (chiediAttaccoBlitz()) {
+                // Attacco blitz: l'intera battaglia viene risolta in un solo passo
+                int armateMassime = territorioAttaccante.getNumeroArmate() - 1;
+                OutputUtils.print("A quante armate vuoi fermarti nel territorio attaccante? (1-" + armateMassime + "): ", OutputUtils.ANSI_RED, OutputUtils.ANSI_BOLD);
+                int armateMinime = InputManagerSingleton.getInstance().readIntegerUntilPossibleValue(IntStream.rangeClosed(1, armateMassime).boxed().toArray(Integer[]::new));
+                int perditePossibili = territorioAttaccante.getNumeroArmate() - armateMinime;
+                OutputUtils.print("\nQuante armate sei disposto a perdere al massimo? (1-" + perditePossibili + "): ", OutputUtils.ANSI_RED, OutputUtils.ANSI_BOLD);
+                int perditeMassime = InputManagerSingleton.getInstance().readIntegerUntilPossibleValue(IntStream.rangeClosed(1, perditePossibili).boxed().toArray(Integer[]::new));
+                territorioConquistato = attaccoBlitz(gioco, territorioAttaccante, territorioDifensore, perditeMassime, armateMinime);
+            } else {
+                // Determinazione del numero di dadi per l'attacco e la difesa
+                int maxDadiAttacco = Math.min(territorioAttaccante.getNumeroArmate() - 1, 3);
+                OutputUtils.print("Attaccante, quante armate vuoi usare per attaccare? (1-" + maxDadiAttacco + "): ", OutputUtils.ANSI_RED, OutputUtils.ANSI_BOLD);
+                int dadiAttacco = InputManagerSingleton.getInstance().readIntegerUntilPossibleValue(IntStream.rangeClosed(1, maxDadiAttacco).boxed().toArray(Integer[]::new));
+                // Il difensore deve usare lo stesso numero di dadi, o il massimo possibile se ha meno armate
+                int dadiDifesa = Math.min(dadiAttacco, territorioDifensore.getNumeroArmate());
+                OutputUtils.println("Il difensore userà " + dadiDifesa + " dadi per difendersi.", OutputUtils.ANSI_BLUE, OutputUtils.ANSI_BOLD);
+
+                PausaUtils.pausa(1500);
+
+                // Esecuzione dell'attacco
+                territorioConquistato = attacca(gioco, territorioAttaccante, territorioDifensore, dadiAttacco);
             }
-    
-     // Esecuzione dell'attacco
-        boolean territorioConquistato = attacca(giocatore, gioco, territorioAttaccante, territorioDifensore,
-                dadiAttacco, dadiDifesa);
-
-        // Se il territorio è stato conquistato, gestisce lo spostamento delle armate
-        if (territorioConquistato) {
-            int armateMinimeDaSpostare = 1;
-            int armateMassimeDaSpostare = territorioAttaccante.getNumeroArmate() - 1;
-            armateMinimeDaSpostare = Math.min(armateMinimeDaSpostare, armateMassimeDaSpostare);
-
-            int armateSpostate = scegliQuanteArmateSpostare(territorioAttaccante, armateMinimeDaSpostare);
-            territorioAttaccante.rimuoviArmate(armateSpostate);
-            territorioDifensore.setArmate(armateSpostate);
-
-            // Logging dello spostamento delle armate nel territorio conquistato
-            FileServiceImpl.getInstance()
-                    .writeLog("Giocatore " + giocatore.getNome().toUpperCase() + " ha spostato " + armateSpostate
-                            + " armate da " + territorioAttaccante.getNome() + " a " + territorioDifensore.getNome()
-                            + " dopo averlo conquistato.");
-            FileServiceImpl.getInstance().writeLog(""); // Riga vuota per separare le azioni
 
-            // Verifica la vittoria
-            if (verificaVittoria(giocatore, gioco)) {
+            // Se il territorio è stato conquistato, gestisce lo spostamento delle armate
+            if (territorioConquistato && completaConquista(giocatore, gioco)) {
                 return; // Esce dal metodo se il gioco è finito
             }
-        }
 
-        // Chiede se il giocatore vuole continuare ad attaccare
-        boolean inputValido = false;
-        while (!inputValido) {
-            OutputUtils.print("\nVuoi continuare ad attaccare? (S/N): ", OutputUtils.ANSI_CYAN,
-                    OutputUtils.ANSI_BOLD);
-            String risposta = InputManagerSingleton.getInstance().readString();
-            if (risposta.equalsIgnoreCase("s")) {
-                inputValido = true; // Continua ad attaccare
-            } else if (risposta.equalsIgnoreCase("n")) {
-                inputValido = true;
-                attaccoTerminato = true;
-            } else {
-                OutputUtils.println("\nInput non valido. Inserisci 'S' per sì o 'N' per no.", OutputUtils.ANSI_RED,
+            // Chiede se il giocatore vuole continuare ad attaccare
+            boolean inputValido = false;
+            while (!inputValido) {
+                OutputUtils.print("\nVuoi continuare ad attaccare? (S/N): ", OutputUtils.ANSI_CYAN,
                         OutputUtils.ANSI_BOLD);
+                String risposta = InputManagerSingleton.getInstance().readString();
+                if (risposta.equalsIgnoreCase("s")) {
+                    inputValido = true; // Continua ad attaccare
+                } else if (risposta.equalsIgnoreCase("n")) {
+                    inputValido = true;
+                    attaccoTerminato = true;
+                } else {
+                    OutputUtils.println("\nInput non valido. Inserisci 'S' per sì o 'N' per no.", OutputUtils.ANSI_RED,
+                            OutputUtils.ANSI_BOLD);
+                }
             }
-          }
-       }
+        }
+    }
+
+    /**
+     * Chiede al giocatore quante armate spostare nel territorio appena conquistato
+     * e applica lo spostamento tramite il motore.
+     *
+     * @param giocatore il giocatore che ha conquistato il territorio.
+     * @param gioco     l'oggetto Gioco corrente.
+     * @return true se con la conquista il giocatore ha vinto la partita.
+     */
+    private boolean completaConquista(Giocatore giocatore, Gioco gioco) {
+        TurnoGioco turnState = gioco.getCurrentTurnState();
+        Territorio territorioAttaccante = giocatore.getTerritorioByName(turnState.getTerritorioOrigineConquista());
+
+        RisultatoComando risultato;
+        do {
+            int armateSpostate = scegliQuanteArmateSpostare(territorioAttaccante, turnState.getArmateMinimeConquista());
+            risultato = motore.esegui(gioco, new Comando.SpostaArmateConquista(armateSpostate));
+            registraEventi(risultato);
+        } while (!risultato.isAccettato());
+
+        // Verifica la vittoria
+        if (risultato.getEvento(EventoGioco.TipoEvento.VITTORIA) != null) {
+            dichiaraVittoria(giocatore, gioco);
+            return true;
+        }
+        return false;
     }
-    
+
     /**
-     * Esegue l'attacco tra due territori.
+     * Esegue un lancio di dadi tra due territori tramite il motore e ne stampa l'esito.
      *
-     * @param giocatore            il giocatore che attacca.
      * @param gioco                l'oggetto Gioco corrente.
      * @param territorioAttaccante il territorio da cui parte l'attacco.
      * @param territorioDifensore  il territorio che viene attaccato.
      * @param dadiAttacco          il numero di dadi usati dall'attaccante.
-     * @param dadiDifesa           il numero di dadi usati dal difensore.
      * @return true se il territorio è stato conquistato, false altrimenti.
      */
-    private boolean attacca(Giocatore giocatore, Gioco gioco, Territorio territorioAttaccante,
-            Territorio territorioDifensore, int dadiAttacco, int dadiDifesa) {
+    private boolean attacca(Gioco gioco, Territorio territorioAttaccante, Territorio territorioDifensore, int dadiAttacco) {
         // Stampa lo stato iniziale
-        System.out.println();
+        OutputUtils.println();
         OutputUtils.println("Attacco dal territorio " + territorioAttaccante.getNome() + " (armate: "
                 + territorioAttaccante.getNumeroArmate() + ")", OutputUtils.ANSI_RED, OutputUtils.ANSI_BOLD);
         OutputUtils.println("Difesa del territorio " + territorioDifensore.getNome() + " (armate: "
                 + territorioDifensore.getNumeroArmate() + ")", OutputUtils.ANSI_BLUE, OutputUtils.ANSI_BOLD);
 
-        try {
-            Thread.sleep(1500);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+        PausaUtils.pausa(1500);
+
+        RisultatoComando risultato = motore.esegui(gioco,
+                new Comando.Attacca(territorioAttaccante.getNome(), territorioDifensore.getNome(), dadiAttacco));
+        if (!risultato.isAccettato()) {
+            registraEventi(risultato);
+            return false;
         }
 
-        // L'attaccante lancia i dadi
-        List<Integer> risultatiAttacco = lanciaDadi(dadiAttacco);
-        System.out.println();
-        OutputUtils.println("L'attaccante ha lanciato i dadi: " + risultatiAttacco, OutputUtils.ANSI_RED,
+        // Stampa dei dadi lanciati
+        EventoGioco lancio = risultato.getEvento(EventoGioco.TipoEvento.LANCIO_DADI);
+        OutputUtils.println();
+        OutputUtils.println("L'attaccante ha lanciato i dadi: " + Arrays.toString(lancio.getDadiAttacco()), OutputUtils.ANSI_RED,
                 OutputUtils.ANSI_BOLD);
-
-        // Il difensore lancia i dadi
-        List<Integer> risultatiDifesa = lanciaDadi(dadiDifesa);
-        OutputUtils.println("Il difensore ha lanciato i dadi: " + risultatiDifesa, OutputUtils.ANSI_BLUE,
+        OutputUtils.println("Il difensore ha lanciato i dadi: " + Arrays.toString(lancio.getDadiDifesa()), OutputUtils.ANSI_BLUE,
                 OutputUtils.ANSI_BOLD);
 
-        try {
-            Thread.sleep(1500);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        PausaUtils.pausa(1500);
 
-        // Logging dei risultati dei dadi
-        FileServiceImpl.getInstance().writeLog("L'attaccante ha lanciato i dadi: " + risultatiAttacco);
-        FileServiceImpl.getInstance().writeLog("Il difensore ha lanciato i dadi: " + risultatiDifesa);
+        OutputUtils.println(
+                "\nRisultato dell'attacco: " + lancio.getPerditeAttaccante() + " armate perse dall'attaccante, "
+                        + lancio.getPerditeDifensore() + " armate perse dal difensore.",
+                OutputUtils.ANSI_BRIGHT_YELLOW, OutputUtils.ANSI_BOLD);
+        registraEventi(risultato);
 
-        // Confronto dei dadi
-        int armatePerseAttaccante = 0;
-        int armatePerseDifensore = 0;
+        return mostraConquista(risultato, territorioDifensore);
+    }
 
-        for (int i = 0; i < Math.min(risultatiAttacco.size(), risultatiDifesa.size()); i++) {
-            if (risultatiAttacco.get(i) > risultatiDifesa.get(i)) {
-                armatePerseDifensore++;
-            } else {
-                armatePerseAttaccante++;
+    /**
+     * Chiede al giocatore se vuole risolvere l'attacco in modalità blitz.
+     *
+     * @return true se il giocatore ha scelto l'attacco blitz.
+     */
+    private boolean chiediAttaccoBlitz() {
+        while (true) {
+            OutputUtils.print("Vuoi attaccare in modalità blitz, lanciando i dadi fino alla conquista? (S/N): ", OutputUtils.ANSI_CYAN, OutputUtils.ANSI_BOLD);
+            String risposta = InputManagerSingleton.getInstance().readString();
+            if (risposta.equalsIgnoreCase("s")) {
+                return true;
+            } else if (risposta.equalsIgnoreCase("n")) {
+                return false;
             }
+            OutputUtils.println("\nInput non valido. Inserisci 'S' per sì o 'N' per no.", OutputUtils.ANSI_RED, OutputUtils.ANSI_BOLD);
         }
-        
-     // Aggiornamento delle armate sui territori
-        territorioAttaccante.rimuoviArmate(armatePerseAttaccante);
-        territorioDifensore.rimuoviArmate(armatePerseDifensore);
+    }
 
-        OutputUtils.println(
-                "\nRisultato dell'attacco: " + armatePerseAttaccante + " armate perse dall'attaccante, "
-                        + armatePerseDifensore + " armate perse dal difensore.",
-                OutputUtils.ANSI_BRIGHT_YELLOW, OutputUtils.ANSI_BOLD);
+    /**
+     * Esegue un attacco blitz tramite il motore: i dadi vengono lanciati finché il territorio
+     * non è conquistato, l'attaccante non ha perso le armate indicate o non scende al numero
+     * di armate indicato. Viene stampato e registrato nel log solo il riepilogo della battaglia.
+     *
+     * @param gioco                l'oggetto Gioco corrente.
+     * @param territorioAttaccante il territorio da cui parte l'attacco.
+     * @param territorioDifensore  il territorio che viene attaccato.
+     * @param perditeMassime       le armate che l'attaccante è disposto a perdere al massimo.
+     * @param armateMinime         le armate a cui fermarsi nel territorio attaccante.
+     * @return true se il territorio è stato conquistato.
+     */
+    private boolean attaccoBlitz(Gioco gioco, Territorio territorioAttaccante, Territorio territorioDifensore, int perditeMassime,
+            int armateMinime) {
+        RisultatoComando risultato = motore.esegui(gioco, new Comando.AttaccoBlitz(territorioAttaccante.getNome(),
+                territorioDifensore.getNome(), perditeMassime, armateMinime));
+        registraEventi(risultato);
+        if (!risultato.isAccettato()) {
+            return false;
+        }
 
-        // Logging del risultato dell'attacco
-        FileServiceImpl.getInstance().writeLog("\nRisultato dell'attacco: " + armatePerseAttaccante
-                + " armate perse dall'attaccante, " + armatePerseDifensore + " armate perse dal difensore.");
-        FileServiceImpl.getInstance().writeLog("");
+        EventoGioco battaglia = risultato.getEvento(EventoGioco.TipoEvento.BATTAGLIA_BLITZ);
+        OutputUtils.println();
+        OutputUtils.println("Battaglia conclusa in " + battaglia.getQuantita() + " lanci: " + battaglia.getPerditeAttaccante()
+                + " armate perse dall'attaccante, " + battaglia.getPerditeDifensore() + " armate perse dal difensore.",
+                OutputUtils.ANSI_BRIGHT_YELLOW, OutputUtils.ANSI_BOLD);
+        OutputUtils.println("Armate rimaste: " + territorioAttaccante.getNome() + " " + territorioAttaccante.getNumeroArmate()
+                + ", " + territorioDifensore.getNome() + " " + territorioDifensore.getNumeroArmate(), OutputUtils.ANSI_BOLD);
+        return mostraConquista(risultato, territorioDifensore);
+    }
 
+    /**
+     * Stampa l'eventuale conquista del territorio e la carta ricevuta.
+     *
+     * @param risultato           l'esito del comando di attacco.
+     * @param territorioDifensore il territorio attaccato.
+     * @return true se il territorio è stato conquistato.
+     */
+    private boolean mostraConquista(RisultatoComando risultato, Territorio territorioDifensore) {
         // Se il difensore ha perso tutte le armate, il territorio è conquistato
-        if (territorioDifensore.getNumeroArmate() == 0) {
-            OutputUtils.println("\nIl territorio " + territorioDifensore.getNome() + " è stato conquistato!",
-                    OutputUtils.ANSI_BRIGHT_YELLOW, OutputUtils.ANSI_BOLD);
-            System.out.println();
-
-            // Logging della conquista del territorio
-            FileServiceImpl.getInstance()
-                    .writeLog("Giocatore " + giocatore.getNome().toUpperCase() + " ha conquistato il territorio "
-                            + territorioDifensore.getNome() + " da "
-                            + territorioDifensore.getGiocatore().getNome().toUpperCase());
-
-            Giocatore difensore = territorioDifensore.getGiocatore();
-            difensore.rimuoviTerritorio(territorioDifensore);
-            territorioDifensore.setGiocatore(giocatore); // Il giocatore conquista il territorio
-            giocatore.aggiungiTerritorio(territorioDifensore);
-            giocatore.incrementaTerritoriConquistatiNelTurno(); // Aggiunge il territorio conquistato ai territori del
-                                                                // giocatore
-
-            // Riga vuota per separare le azioni
-            FileServiceImpl.getInstance().writeLog("");
-
-            // Assegna la carta bonus SOLO SE il giocatore non l'ha già ricevuta
-            if (!giocatore.getHaRicevutoCartaBonus()) {
-                Carta nuovaCarta = gioco.getMazzoDiCarte().pescaCarta();
-                if (nuovaCarta != null) {
-                    giocatore.aggiungiCarta(nuovaCarta);
-                    OutputUtils.println("Hai ricevuto una nuova carta: " + nuovaCarta.getTipo()
-                            + (nuovaCarta.getTerritorio() != null ? " - " + nuovaCarta.getTerritorio().getNome() : ""),
-                            OutputUtils.ANSI_GREEN, OutputUtils.ANSI_BOLD);
-                    System.out.println();
-                    // Log dell'evento
-                    FileServiceImpl.getInstance().writeLog("Giocatore " + giocatore.getNome().toUpperCase()
-                            + " ha ricevuto una carta: " + nuovaCarta.getTipo()
-                            + (nuovaCarta.getTerritorio() != null ? " - " + nuovaCarta.getTerritorio().getNome() : ""));
-                    FileServiceImpl.getInstance().writeLog("");
-                } else {
-                    OutputUtils.println("Il mazzo di carte è vuoto, non puoi ricevere una nuova carta.",
-                            OutputUtils.ANSI_RED, OutputUtils.ANSI_BOLD);
-                }
-                // Imposta il flag a true per indicare che ha già ricevuto la carta bonus
-                giocatore.setHaRicevutoCartaBonus(true);
-            }
-            return true;
-        } else {
+        if (risultato.getEvento(EventoGioco.TipoEvento.CONQUISTA) == null) {
             return false;
         }
+        OutputUtils.println("\nIl territorio " + territorioDifensore.getNome() + " è stato conquistato!",
+                OutputUtils.ANSI_BRIGHT_YELLOW, OutputUtils.ANSI_BOLD);
+        OutputUtils.println();
+
+        EventoGioco cartaPescata = risultato.getEvento(EventoGioco.TipoEvento.CARTA_PESCATA);
+        if (cartaPescata != null) {
+            OutputUtils.println("Hai ricevuto una nuova carta: " + descriviCarta(cartaPescata.getCarta()),
+                    OutputUtils.ANSI_GREEN, OutputUtils.ANSI_BOLD);
+            OutputUtils.println();
+        } else if (risultato.getEvento(EventoGioco.TipoEvento.MAZZO_VUOTO) != null) {
+            OutputUtils.println("Il mazzo di carte è vuoto, non puoi ricevere una nuova carta.",
+                    OutputUtils.ANSI_RED, OutputUtils.ANSI_BOLD);
+        }
+        return true;
     }
-    
+
     /**
-     * Permette al giocatore di spostare armate tra territori adiacenti controllati
-     * e terminare il turno.
+     * Permette al giocatore di spostare armate tra territori adiacenti controllati.
+     * Lo spostamento viene applicato tramite il motore e chiude le azioni del turno.
      *
      * @param giocatore il giocatore corrente.
+     * @param gioco     l'oggetto Gioco corrente.
      */
-    private void spostamentoArmate(Giocatore giocatore) {
-        AnsiConsole.out().print("\033[H\033[2J");
-        AnsiConsole.out().flush();
+    private void spostamentoArmate(Giocatore giocatore, Gioco gioco) {
+        Schermata.getInstance().pulisci().mostra();
 
         // Mostra tutti i territori controllati dal giocatore
         List<Territorio> territoriControllati = giocatore.getTerritori_controllati();
 
         if (territoriControllati.isEmpty()) {
-            System.out.println("Non controlli nessun territorio per spostare le armate.");
+            OutputUtils.println("Non controlli nessun territorio per spostare le armate.");
             return;
         }
 
@@ -1337,8 +1229,12 @@ public class GiocoServiceImpl implements GiocoService {
         }
 
         // Seleziona un territorio adiacente in cui spostare le armate (solo territori posseduti dal giocatore
-        List<Territorio> territoriAdiacentiPosseduti = territorioPartenza.getTerritoriAdiacenti().stream()
-            .filter(t -> t.getGiocatore().equals(giocatore)).collect(Collectors.toList());
+        List<Territorio> territoriAdiacentiPosseduti = new ArrayList<>();
+        for (Territorio t : territoriAdiacenti(gioco.getMappa(), territorioPartenza)) {
+            if (t.getGiocatore().equals(giocatore)) {
+                territoriAdiacentiPosseduti.add(t);
+            }
+        }
 
         if (territoriAdiacentiPosseduti.isEmpty()) {
             OutputUtils.println("\nNon ci sono territori adiacenti controllati in cui spostare le armate.", OutputUtils.ANSI_BOLD);
@@ -1362,17 +1258,18 @@ public class GiocoServiceImpl implements GiocoService {
         int armateDaSpostare = InputManagerSingleton.getInstance().readIntegerUntilPossibleValue(
             IntStream.range(1, territorioPartenza.getNumeroArmate()).boxed().toArray(Integer[]::new));
 
-        territorioPartenza.rimuoviArmate(armateDaSpostare);
-        territorioDestinazione.aggiungiArmate(armateDaSpostare);
-
-        OutputUtils.println("\nHai spostato " + armateDaSpostare + " armate da " + territorioPartenza.getNome() + " a " + territorioDestinazione.getNome() + ". Il tuo turno è concluso.", OutputUtils.ANSI_BOLD);
-
+        RisultatoComando risultato = motore.esegui(gioco,
+            new Comando.Fortifica(territorioPartenza.getNome(), territorioDestinazione.getNome(), armateDaSpostare));
+        if (risultato.isAccettato()) {
+            OutputUtils.println("\nHai spostato " + armateDaSpostare + " armate da " + territorioPartenza.getNome() + " a " + territorioDestinazione.getNome() + ". Il tuo turno è concluso.", OutputUtils.ANSI_BOLD);
+        }
         // Logging dello spostamento
-        FileServiceImpl.getInstance().writeLog("Giocatore " + giocatore.getNome().toUpperCase() + " ha spostato " + armateDaSpostare
-            + " armate da " + territorioPartenza.getNome() + " a " + territorioDestinazione.getNome());
-        FileServiceImpl.getInstance().writeLog(""); // Riga vuota per separare le azioni
-    }
+        registraEventi(risultato);
 
+        if (risultato.getEvento(EventoGioco.TipoEvento.VITTORIA) != null) {
+            dichiaraVittoria(giocatore, gioco);
+        }
+    }
     /**
      * Salva lo stato corrente del gioco su un file e permette di uscire.
      *
@@ -1380,8 +1277,7 @@ public class GiocoServiceImpl implements GiocoService {
      */
     private void salvaEEsci(Gioco gioco) {
         try {
-            AnsiConsole.out().print("\033[H\033[2J"); 
-            AnsiConsole.out().flush();
+            Schermata.getInstance().pulisci().mostra();
 
             OutputUtils.print("\nInserisci il nome del file per salvare la partita: ", OutputUtils.ANSI_BRIGHT_CYAN, OutputUtils.ANSI_BOLD);
             String filename = InputManagerSingleton.getInstance().readString();
@@ -1399,6 +1295,7 @@ public class GiocoServiceImpl implements GiocoService {
 
             // Salva il gioco con il nuovo nome del file di log
             FileServiceImpl.getInstance().salvaGioco(gioco, filename);
+            terminaDiario();
 
             OutputUtils.print("\n\r\n" + //
                     "  _____           _   _ _                    _            _                                                                  _ \r\n"
@@ -1419,14 +1316,10 @@ public class GiocoServiceImpl implements GiocoService {
                     + //
                     "", OutputUtils.ANSI_CYAN, OutputUtils.ANSI_BOLD);
 
-            try {
-                Thread.sleep(3000);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+            PausaUtils.pausa(3000);
             gioco.setRitornaAlMenu(true);
         } catch (IOException e) {
-            System.out.println("Errore durante il salvataggio della partita: " + e.getMessage());
+            OutputUtils.println("Errore durante il salvataggio della partita: " + e.getMessage());
         }
     }
 
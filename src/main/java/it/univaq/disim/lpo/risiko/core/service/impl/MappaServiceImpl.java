@@ -6,6 +6,7 @@ import it.univaq.disim.lpo.risiko.core.model.Mappa;
 import it.univaq.disim.lpo.risiko.core.model.Territorio;
 import it.univaq.disim.lpo.risiko.core.service.InizializzaPartitaException;
 import it.univaq.disim.lpo.risiko.core.service.MappaService;
+import it.univaq.disim.lpo.risiko.core.utils.OutputUtils;
 
 /**
  * Implementazione dell'interfaccia MappaService.
@@ -25,6 +26,7 @@ public class MappaServiceImpl implements MappaService {
 		this.continenti = inizializzaContinentiETerritori();
 		this.mappa = new Mappa(continenti);
 		impostaAdiacenze();  // Imposta le adiacenze tra i territori da sviluppare
+		mappa.compila();     // Compila la topologia con id e adiacenze in formato CSR
 		
 		if ( continenti == null || continenti.isEmpty()) {
 			throw new InizializzaPartitaException("Errore nell'inizializzazione: i continenti non possono essere null o vuoti. ");
@@ -271,7 +273,7 @@ public class MappaServiceImpl implements MappaService {
             territorio1.aggiungiTerritorioAdiacente(territorio2);
             territorio2.aggiungiTerritorioAdiacente(territorio1);
         } else {
-            System.out.println("Errore: Territori non trovati per l'adiacenza tra " + nomeTerritorio1 + " e " + nomeTerritorio2);
+            OutputUtils.println("Errore: Territori non trovati per l'adiacenza tra " + nomeTerritorio1 + " e " + nomeTerritorio2);
         }
     }
 
@@ -0,0 +1,150 @@
+package it.univaq.disim.lpo.risiko.core.simulazione;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import it.univaq.disim.lpo.risiko.core.engine.Comando;
+import it.univaq.disim.lpo.risiko.core.engine.EventoGioco;
+import it.univaq.disim.lpo.risiko.core.engine.MotoreGioco;
+import it.univaq.disim.lpo.risiko.core.engine.RegoleGioco;
+import it.univaq.disim.lpo.risiko.core.engine.RisultatoComando;
+import it.univaq.disim.lpo.risiko.core.engine.TabellaBattaglie;
+import it.univaq.disim.lpo.risiko.core.model.Carta;
+import it.univaq.disim.lpo.risiko.core.model.Giocatore;
+import it.univaq.disim.lpo.risiko.core.model.Gioco;
+import it.univaq.disim.lpo.risiko.core.model.Mappa;
+import it.univaq.disim.lpo.risiko.core.model.Territorio;
+import it.univaq.disim.lpo.risiko.core.model.TopologiaMappa;
+import it.univaq.disim.lpo.risiko.core.RisikoException;
+
+/**
+ * Giocatore automatico usato nelle simulazioni.
+ * Gioca un turno completo tramite il MotoreGioco con una strategia semplice:
+ * scambia le carte appena possibile, rinforza i territori di confine,
+ * attacca in modalità blitz quando la TabellaBattaglie dà buone probabilità di conquista e sposta tutto
+ * nel territorio conquistato.
+ */
+public class BotGiocatore {
+
+    // Probabilità minima di conquista per iniziare un attacco
+    private static final double SOGLIA_ATTACCO = 0.6;
+
+    private final MotoreGioco motore;
+    private final TabellaBattaglie tabella = TabellaBattaglie.getInstance();
+    public BotGiocatore(MotoreGioco motore) {
+        this.motore = motore;
+    }
+
+    /**
+     * Gioca il turno del giocatore corrente fino al comando di fine turno.
+     *
+     * @param gioco la partita corrente.
+     */
+    public void giocaTurno(Gioco gioco) {
+        Giocatore giocatore = motore.getGiocatoreCorrente(gioco);
+        motore.avviaTurno(gioco);
+
+        List<Integer> combinazione = trovaCombinazione(giocatore);
+        if (combinazione != null) {
+            esegui(gioco, new Comando.ScambiaCarte(combinazione));
+        }
+
+        // Rinforzi tutti su un territorio di confine scelto a caso
+        List<Territorio> confini = territoriDiConfine(gioco.getMappa(), giocatore);
+        Territorio rinforzato = confini.get(gioco.getGeneratore().nextInt(confini.size()));
+        esegui(gioco, new Comando.PosizionaArmate(rinforzato.getNome(), gioco.getCurrentTurnState().getArmateDaDistribuire()));
+
+        attacca(gioco, giocatore);
+        if (gioco.isPartitaInCorso()) {
+            esegui(gioco, new Comando.TerminaTurno());
+        }
+    }
+
+    private void attacca(Gioco gioco, Giocatore giocatore) {
+        boolean attaccoEseguito = true;
+        while (attaccoEseguito && gioco.isPartitaInCorso()) {
+            attaccoEseguito = false;
+            for (Territorio origine : giocatore.getTerritori_controllati()) {
+                Territorio bersaglio = scegliBersaglio(gioco.getMappa(), giocatore, origine);
+                if (bersaglio == null) {
+                    continue;
+                }
+                attaccoEseguito = true;
+                RisultatoComando risultato = esegui(gioco, new Comando.AttaccoBlitz(origine.getNome(), bersaglio.getNome()));
+                if (risultato.getEvento(EventoGioco.TipoEvento.CONQUISTA) != null) {
+                    esegui(gioco, new Comando.SpostaArmateConquista(origine.getNumeroArmate() - 1));
+                }
+                break;
+            }
+        }
+    }
+
+    private Territorio scegliBersaglio(Mappa mappa, Giocatore giocatore, Territorio origine) {
+        if (origine.getNumeroArmate() < 2) {
+            return null;
+        }
+        TopologiaMappa topologia = mappa.getTopologia();
+        Territorio bersaglio = null;
+        double probabilitaMigliore = SOGLIA_ATTACCO;
+        for (int k = topologia.getInizioAdiacenze(origine.getId()); k < topologia.getFineAdiacenze(origine.getId()); k++) {
+            Territorio adiacente = mappa.getTerritorio(topologia.getAdiacente(k));
+            if (giocatore.equals(adiacente.getGiocatore())) {
+                continue;
+            }
+            double probabilita = probabilitaConquista(origine.getNumeroArmate(), adiacente.getNumeroArmate());
+            if (probabilita >= probabilitaMigliore) {
+                probabilitaMigliore = probabilita;
+                bersaglio = adiacente;
+            }
+        }
+        return bersaglio;
+    }
+
+    private double probabilitaConquista(int armateAttaccante, int armateDifensore) {
+        if (tabella.contiene(armateAttaccante, armateDifensore)) {
+            return tabella.getProbabilitaConquista(armateAttaccante, armateDifensore);
+        }
+        // Fuori dal limite della tabella: basta un netto vantaggio di armate
+        return armateAttaccante > armateDifensore + 1 ? 1 : 0;
+    }
+
+    private List<Territorio> territoriDiConfine(Mappa mappa, Giocatore giocatore) {
+        TopologiaMappa topologia = mappa.getTopologia();
+        List<Territorio> confini = new ArrayList<>();
+        for (Territorio territorio : giocatore.getTerritori_controllati()) {
+            for (int k = topologia.getInizioAdiacenze(territorio.getId()); k < topologia.getFineAdiacenze(territorio.getId()); k++) {
+                if (!giocatore.equals(mappa.getTerritorio(topologia.getAdiacente(k)).getGiocatore())) {
+                    confini.add(territorio);
+                    break;
+                }
+            }
+        }
+        return confini.isEmpty() ? giocatore.getTerritori_controllati() : confini;
+    }
+
+    private List<Integer> trovaCombinazione(Giocatore giocatore) {
+        List<Carta> mano = giocatore.getCarte();
+        if (!RegoleGioco.possiedeCombinazioneValida(mano)) {
+            return null;
+        }
+        for (int i = 0; i < mano.size(); i++) {
+            for (int j = i + 1; j < mano.size(); j++) {
+                for (int k = j + 1; k < mano.size(); k++) {
+                    if (RegoleGioco.isCombinazioneValida(List.of(mano.get(i), mano.get(j), mano.get(k)))) {
+                        return List.of(i, j, k);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private RisultatoComando esegui(Gioco gioco, Comando comando) {
+        RisultatoComando risultato = motore.esegui(gioco, comando);
+        if (!risultato.isAccettato()) {
+            throw new RisikoException("Comando del bot rifiutato: " + risultato.getErrore());
+        }
+        return risultato;
+    }
+
+}
@@ -0,0 +1,170 @@
+package it.univaq.disim.lpo.risiko.core.simulazione;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import it.univaq.disim.lpo.risiko.core.engine.MotoreGioco;
+import it.univaq.disim.lpo.risiko.core.model.CartaObiettivo;
+import it.univaq.disim.lpo.risiko.core.model.GeneratoreCasuale;
+import it.univaq.disim.lpo.risiko.core.model.Giocatore;
+import it.univaq.disim.lpo.risiko.core.model.Gioco;
+import it.univaq.disim.lpo.risiko.core.model.Mappa;
+import it.univaq.disim.lpo.risiko.core.model.MazzoDiCarte;
+import it.univaq.disim.lpo.risiko.core.model.Territorio;
+import it.univaq.disim.lpo.risiko.core.service.CartaObiettivoService;
+import it.univaq.disim.lpo.risiko.core.service.GiocatoreService;
+import it.univaq.disim.lpo.risiko.core.service.impl.CartaObiettivoServiceImpl;
+import it.univaq.disim.lpo.risiko.core.service.impl.GiocatoreServiceImpl;
+import it.univaq.disim.lpo.risiko.core.service.impl.MappaServiceImpl;
+
+/**
+ * Esegue partite complete tra bot, senza console, su un ForkJoinPool.
+ * L'insieme delle partite viene diviso ricorsivamente in blocchi: ogni blocco
+ * ottiene un proprio generatore tramite SplittableRandom.split(), da cui ricava il
+ * seme del GeneratoreCasuale di ogni partita. I thread non condividono nessuno stato
+ * e, a parità di seme, i risultati non dipendono dal numero di thread.
+ */
+public class SimulatoreMonteCarlo {
+
+    // Numero di partite sotto il quale un blocco non viene più diviso
+    private static final int PARTITE_PER_BLOCCO = 8;
+
+    private final int numeroGiocatori;
+    private final int roundMassimi;
+    private final GiocatoreService giocatoreService = new GiocatoreServiceImpl();
+    private final CartaObiettivoService obiettivoService = new CartaObiettivoServiceImpl();
+    private final MotoreGioco motore = new MotoreGioco();
+    private final BotGiocatore bot = new BotGiocatore(motore);
+
+    /**
+     * @param numeroGiocatori il numero di giocatori di ogni partita (2-6).
+     * @param roundMassimi    il numero di round dopo il quale una partita viene considerata senza vincitore.
+     */
+    public SimulatoreMonteCarlo(int numeroGiocatori, int roundMassimi) {
+        if (numeroGiocatori < 2 || numeroGiocatori > 6) {
+            throw new IllegalArgumentException("Numero di giocatori non valido.");
+        }
+        this.numeroGiocatori = numeroGiocatori;
+        this.roundMassimi = roundMassimi;
+    }
+
+    /**
+     * Simula un insieme di partite in parallelo.
+     *
+     * @param numeroPartite il numero di partite da giocare.
+     * @param numeroThread  il livello di parallelismo del ForkJoinPool.
+     * @param seme          il seme da cui derivano i generatori di tutte le partite.
+     * @return le statistiche aggregate delle partite.
+     */
+    public StatisticheSimulazione simula(int numeroPartite, int numeroThread, long seme) {
+        ForkJoinPool pool = new ForkJoinPool(numeroThread);
+        try {
+            return pool.invoke(new BloccoPartite(numeroPartite, new SplittableRandom(seme)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Blocco di partite eseguito da un singolo task, diviso a metà finché è troppo grande.
+     */
+    private class BloccoPartite extends RecursiveTask<StatisticheSimulazione> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int numeroPartite;
+        private final SplittableRandom random;
+
+        BloccoPartite(int numeroPartite, SplittableRandom random) {
+            this.numeroPartite = numeroPartite;
+            this.random = random;
+        }
+
+        @Override
+        protected StatisticheSimulazione compute() {
+            if (numeroPartite <= PARTITE_PER_BLOCCO) {
+                StatisticheSimulazione statistiche = new StatisticheSimulazione(numeroGiocatori);
+                for (int i = 0; i < numeroPartite; i++) {
+                    giocaPartita(random.nextLong(), statistiche);
+                }
+                return statistiche;
+            }
+            int meta = numeroPartite / 2;
+            BloccoPartite sinistra = new BloccoPartite(meta, random.split());
+            BloccoPartite destra = new BloccoPartite(numeroPartite - meta, random.split());
+            sinistra.fork();
+            StatisticheSimulazione statistiche = destra.compute();
+            return statistiche.unisci(sinistra.join());
+        }
+    }
+
+    /**
+     * Prepara e gioca una partita completa, registrandone l'esito.
+     *
+     * @param seme        il seme del generatore della partita.
+     * @param statistiche le statistiche da aggiornare.
+     */
+    private void giocaPartita(long seme, StatisticheSimulazione statistiche) {
+        Gioco gioco = preparaPartita(new GeneratoreCasuale(seme));
+
+        while (gioco.isPartitaInCorso() && gioco.getRoundCount() <= roundMassimi) {
+            bot.giocaTurno(gioco);
+        }
+
+        for (Giocatore giocatore : gioco.getOrdineGiocatori()) {
+            statistiche.registraObiettivoAssegnato(giocatore.getObiettivo().getDescrizione());
+        }
+        if (gioco.isPartitaInCorso()) {
+            statistiche.registraPartita(-1, roundMassimi, null);
+        } else {
+            // Dopo la vittoria il turno non viene chiuso: il giocatore corrente è il vincitore
+            Giocatore vincitore = motore.getGiocatoreCorrente(gioco);
+            statistiche.registraPartita(gioco.getCurrentPlayerIndex(), gioco.getRoundCount(),
+                vincitore.getObiettivo().getDescrizione());
+        }
+    }
+
+    /**
+     * Crea una partita pronta per il primo turno: territori, obiettivi e armate
+     * iniziali vengono assegnati casualmente, senza interazione con l'utente.
+     *
+     * @param generatore il generatore della partita.
+     * @return la partita creata.
+     */
+    private Gioco preparaPartita(GeneratoreCasuale generatore) {
+        // Ogni partita ha la sua mappa, perché i territori tengono traccia di proprietario e armate
+        Mappa mappa = new MappaServiceImpl().getMappa();
+
+        List<Giocatore> giocatori = new ArrayList<>();
+        for (int i = 1; i <= numeroGiocatori; i++) {
+            giocatori.add(new Giocatore("Bot " + i, 0, new ArrayList<>(), 0));
+        }
+
+        List<CartaObiettivo> obiettivi = obiettivoService.generaObiettiviCasuali(numeroGiocatori, generatore);
+        obiettivoService.assegnaObiettiviCasuali(giocatori, obiettivi, generatore);
+        giocatoreService.distribuzioneTerritori(giocatori, mappa, generatore);
+
+        // Un'armata su ogni territorio, le rimanenti posizionate a caso sui propri territori
+        int armatePerGiocatore = giocatoreService.calcolaArmatePerGiocatore(numeroGiocatori);
+        for (Giocatore giocatore : giocatori) {
+            List<Territorio> controllati = giocatore.getTerritori_controllati();
+            for (Territorio territorio : controllati) {
+                territorio.aggiungiArmate(1);
+            }
+            for (int armate = controllati.size(); armate < armatePerGiocatore; armate++) {
+                controllati.get(generatore.nextInt(controllati.size())).aggiungiArmate(1);
+            }
+            giocatore.incrementaTotaleArmate(armatePerGiocatore);
+        }
+
+        Gioco gioco = new Gioco("Simulazione", giocatori, mappa, 6, new ArrayList<>(), new ArrayList<>());
+        gioco.setGeneratore(generatore);
+        gioco.setArmateDistribuite(true);
+        gioco.setMazzoDiCarte(new MazzoDiCarte(mappa.getTerritori(), generatore));
+        return gioco;
+    }
+
+}
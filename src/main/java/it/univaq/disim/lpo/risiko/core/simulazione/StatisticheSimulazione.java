@@ -0,0 +1,120 @@
+package it.univaq.disim.lpo.risiko.core.simulazione;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Statistiche aggregate di un insieme di partite simulate.
+ * Ogni thread accumula le proprie statistiche, che vengono poi unite con unisci().
+ */
+public class StatisticheSimulazione {
+
+    private int partiteGiocate;
+    private int partiteSenzaVincitore;
+    private long roundTotali;
+    private final int[] vittoriePerPosizione;
+    private final Map<String, Integer> vittoriePerObiettivo = new TreeMap<>();
+    private final Map<String, Integer> obiettiviAssegnati = new TreeMap<>();
+
+    public StatisticheSimulazione(int numeroGiocatori) {
+        this.vittoriePerPosizione = new int[numeroGiocatori];
+    }
+
+    /**
+     * Registra l'esito di una partita.
+     *
+     * @param posizioneVincitore la posizione nell'ordine di gioco del vincitore, -1 se nessuno ha vinto.
+     * @param roundGiocati       i round giocati.
+     * @param obiettivoVincitore l'obiettivo del vincitore, null se nessuno ha vinto.
+     */
+    public void registraPartita(int posizioneVincitore, int roundGiocati, String obiettivoVincitore) {
+        partiteGiocate++;
+        roundTotali += roundGiocati;
+        if (posizioneVincitore < 0) {
+            partiteSenzaVincitore++;
+        } else {
+            vittoriePerPosizione[posizioneVincitore]++;
+            vittoriePerObiettivo.merge(obiettivoVincitore, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Registra un obiettivo assegnato a un giocatore, per calcolarne il tasso di vittoria.
+     *
+     * @param obiettivo la descrizione dell'obiettivo.
+     */
+    public void registraObiettivoAssegnato(String obiettivo) {
+        obiettiviAssegnati.merge(obiettivo, 1, Integer::sum);
+    }
+
+    /**
+     * Unisce le statistiche di un altro insieme di partite a queste.
+     *
+     * @param altre le statistiche da unire.
+     * @return queste statistiche, aggiornate.
+     */
+    public StatisticheSimulazione unisci(StatisticheSimulazione altre) {
+        partiteGiocate += altre.partiteGiocate;
+        partiteSenzaVincitore += altre.partiteSenzaVincitore;
+        roundTotali += altre.roundTotali;
+        for (int i = 0; i < vittoriePerPosizione.length; i++) {
+            vittoriePerPosizione[i] += altre.vittoriePerPosizione[i];
+        }
+        altre.vittoriePerObiettivo.forEach((obiettivo, n) -> vittoriePerObiettivo.merge(obiettivo, n, Integer::sum));
+        altre.obiettiviAssegnati.forEach((obiettivo, n) -> obiettiviAssegnati.merge(obiettivo, n, Integer::sum));
+        return this;
+    }
+
+    public int getPartiteGiocate() {
+        return partiteGiocate;
+    }
+
+    public int getPartiteSenzaVincitore() {
+        return partiteSenzaVincitore;
+    }
+
+    public double getRoundMedi() {
+        return partiteGiocate == 0 ? 0 : (double) roundTotali / partiteGiocate;
+    }
+
+    public int[] getVittoriePerPosizione() {
+        return vittoriePerPosizione.clone();
+    }
+
+    public Map<String, Integer> getVittoriePerObiettivo() {
+        return vittoriePerObiettivo;
+    }
+
+    public Map<String, Integer> getObiettiviAssegnati() {
+        return obiettiviAssegnati;
+    }
+
+    /**
+     * Restituisce un riepilogo testuale delle statistiche.
+     *
+     * @return il riepilogo.
+     */
+    public String riepilogo() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Partite giocate: ").append(partiteGiocate).append('\n');
+        sb.append("Partite senza vincitore (limite di round raggiunto): ").append(partiteSenzaVincitore).append('\n');
+        sb.append(String.format("Round medi per partita: %.2f%n", getRoundMedi()));
+        sb.append("\nVittorie per posizione nell'ordine di gioco:\n");
+        for (int i = 0; i < vittoriePerPosizione.length; i++) {
+            sb.append(String.format("  %d° giocatore: %d (%.1f%%)%n", i + 1, vittoriePerPosizione[i],
+                percentuale(vittoriePerPosizione[i], partiteGiocate)));
+        }
+        sb.append("\nVittorie per obiettivo (vittorie / assegnazioni):\n");
+        for (Map.Entry<String, Integer> entry : obiettiviAssegnati.entrySet()) {
+            int vittorie = vittoriePerObiettivo.getOrDefault(entry.getKey(), 0);
+            sb.append(String.format("  %s: %d / %d (%.1f%%)%n", entry.getKey(), vittorie, entry.getValue(),
+                percentuale(vittorie, entry.getValue())));
+        }
+        return sb.toString();
+    }
+
+    private static double percentuale(int parte, int totale) {
+        return totale == 0 ? 0 : 100.0 * parte / totale;
+    }
+
+}
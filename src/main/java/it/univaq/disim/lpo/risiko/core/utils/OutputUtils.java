@@ -6,6 +6,8 @@ import it.univaq.disim.lpo.risiko.core.model.Giocatore;
  * Classe di utilità per la gestione dell'output con codici ANSI.
  * Questa classe fornisce costanti per i codici ANSI che possono essere utilizzati
  * per modificare il colore del testo e dello sfondo nella console.
+ * Tutto il testo viene scritto sull'Uscita impostata con setUscita(): i codici ANSI
+ * vengono omessi se l'uscita non li interpreta.
  */
 public class OutputUtils {
 
@@ -44,25 +46,94 @@ public class OutputUtils {
     public static final String ANSI_BACKGROUND_CYAN = "\u001B[46m";
     public static final String ANSI_BACKGROUND_WHITE = "\u001B[47m";
 
+    // Destinazione dell'output, la console se non indicata
+    private static volatile Uscita uscita = Uscita.console();
+
+    /**
+     * Imposta la destinazione di tutto l'output del gioco.
+     *
+     * @param nuovaUscita l'uscita da usare.
+     */
+    public static void setUscita(Uscita nuovaUscita) {
+        if (nuovaUscita == null) {
+            throw new IllegalArgumentException("L'uscita non può essere null.");
+        }
+        uscita = nuovaUscita;
+        Schermata.getInstance().invalida();
+    }
+
+    public static Uscita getUscita() {
+        return uscita;
+    }
+
+    // Metodi per stampare testo senza effetti
+    public static void print(String text) {
+        Uscita destinazione = uscita;
+        if (!destinazione.isAttiva()) {
+            return;
+        }
+        Schermata.getInstance().invalida();
+        destinazione.scrivi(text);
+    }
+
+    public static void println(String text) {
+        if (uscita.isAttiva()) {
+            print(text + "\n");
+        }
+    }
+
+    public static void println() {
+        print("\n");
+    }
+
     // Metodi per stampare testo con effetti
     public static void print(String text, String... ansiCodes) {
-        StringBuilder sb = new StringBuilder();
+        Uscita destinazione = uscita;
+        if (!destinazione.isAttiva()) {
+            return;
+        }
+        Schermata.getInstance().invalida();
+        if (!destinazione.isAnsi()) {
+            destinazione.scrivi(text);
+            return;
+        }
+        int lunghezza = text.length() + ANSI_RESET.length();
+        for (String code : ansiCodes) {
+            lunghezza += code.length();
+        }
+        StringBuilder sb = new StringBuilder(lunghezza);
         for (String code : ansiCodes) {
             sb.append(code);
         }
         sb.append(text);
         sb.append(ANSI_RESET);
-        System.out.print(sb.toString());
+        destinazione.scrivi(sb.toString());
     }
 
     public static void println(String text, String... ansiCodes) {
-        print(text + "\n", ansiCodes);
+        if (uscita.isAttiva()) {
+            print(text + "\n", ansiCodes);
+        }
+    }
+
+    // Varianti con uno Stile, i cui codici sono già concatenati
+    public static void print(String text, Stile stile) {
+        Uscita destinazione = uscita;
+        if (!destinazione.isAttiva()) {
+            return;
+        }
+        Schermata.getInstance().invalida();
+        destinazione.scrivi(destinazione.isAnsi() ? stile.getPrefisso() + text + ANSI_RESET : text);
+    }
+
+    public static void println(String text, Stile stile) {
+        if (uscita.isAttiva()) {
+            print(text + "\n", stile);
+        }
     }
 
     public static void printTurnHeader(Giocatore giocatore) {
-        println("\n══════════════════════", ANSI_BRIGHT_PURPLE, ANSI_BOLD);
-        println("E' IL TURNO DI " + giocatore.getNome().toUpperCase(), ANSI_BOLD);
-        println("══════════════════════", ANSI_BRIGHT_PURPLE, ANSI_BOLD);
+        Schermata.getInstance().intestazioneTurno(giocatore).mostra();
     }
 
-}
\ No newline at end of file
+}
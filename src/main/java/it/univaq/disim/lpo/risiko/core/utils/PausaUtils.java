@@ -0,0 +1,39 @@
+package it.univaq.disim.lpo.risiko.core.utils;
+
+/**
+ * Classe di utilità per le pause del gioco.
+ * Tutte le pause passano dal Ritmo impostato all'avvio, interattivo se non indicato.
+ */
+public class PausaUtils {
+
+    private static volatile Ritmo ritmo = Ritmo.interattivo();
+
+    private PausaUtils() {
+    }
+
+    /**
+     * Imposta il ritmo con cui eseguire le pause.
+     *
+     * @param nuovoRitmo il ritmo da usare.
+     */
+    public static void setRitmo(Ritmo nuovoRitmo) {
+        if (nuovoRitmo == null) {
+            throw new IllegalArgumentException("Il ritmo non può essere null.");
+        }
+        ritmo = nuovoRitmo;
+    }
+
+    public static Ritmo getRitmo() {
+        return ritmo;
+    }
+
+    /**
+     * Esegue una pausa secondo il ritmo corrente.
+     *
+     * @param millisecondi la durata della pausa per una partita interattiva.
+     */
+    public static void pausa(long millisecondi) {
+        ritmo.pausa(millisecondi);
+    }
+
+}
@@ -0,0 +1,47 @@
+package it.univaq.disim.lpo.risiko.core.utils;
+
+/**
+ * Strategia con cui il gioco esegue le pause tra una schermata e l'altra.
+ * Le pause servono a chi gioca per leggere i messaggi; le partite automatiche
+ * o di prova possono accorciarle o eliminarle senza cambiare la logica del gioco.
+ */
+public interface Ritmo {
+
+    /**
+     * Esegue una pausa.
+     *
+     * @param millisecondi la durata della pausa per una partita interattiva.
+     */
+    void pausa(long millisecondi);
+
+    /**
+     * Pause della durata prevista, per chi gioca dalla console.
+     */
+    static Ritmo interattivo() {
+        return new RitmoScalato(1.0);
+    }
+
+    /**
+     * Pause ridotte a un decimo, per seguire una partita senza attese.
+     */
+    static Ritmo veloce() {
+        return new RitmoScalato(0.1);
+    }
+
+    /**
+     * Nessuna pausa: il gioco procede alla velocità della CPU.
+     */
+    static Ritmo nessuno() {
+        return new RitmoScalato(0);
+    }
+
+    /**
+     * Pause moltiplicate per un fattore.
+     *
+     * @param fattore il fattore, zero per nessuna pausa.
+     */
+    static Ritmo scalato(double fattore) {
+        return new RitmoScalato(fattore);
+    }
+
+}
@@ -0,0 +1,35 @@
+package it.univaq.disim.lpo.risiko.core.utils;
+
+/**
+ * Ritmo che moltiplica la durata di ogni pausa per un fattore fisso.
+ */
+public class RitmoScalato implements Ritmo {
+
+    private final double fattore;
+
+    public RitmoScalato(double fattore) {
+        if (fattore < 0 || Double.isNaN(fattore) || Double.isInfinite(fattore)) {
+            throw new IllegalArgumentException("Il fattore delle pause deve essere un numero non negativo.");
+        }
+        this.fattore = fattore;
+    }
+
+    public double getFattore() {
+        return fattore;
+    }
+
+    @Override
+    public void pausa(long millisecondi) {
+        long durata = Math.round(millisecondi * fattore);
+        if (durata <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(durata);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,273 @@
+package it.univaq.disim.lpo.risiko.core.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import it.univaq.disim.lpo.risiko.core.model.Giocatore;
+
+/**
+ * Compone una schermata della console in un buffer e la scrive con una sola stampa.
+ *
+ * Le schermate del gioco (menù, elenchi di territori, intestazioni) sono fatte di molte
+ * righe con stili diversi: stamparle una per una significa una scrittura e un flush per
+ * riga sulla console. La Schermata le accoda in un unico buffer, riusato da una schermata
+ * all'altra, e le scrive tutte insieme con mostra(). Va usata dal thread del gioco.
+ *
+ * Una schermata iniziata con ridisegna() viene confrontata con l'ultima mostrata: se
+ * quella è ancora sulla console, vengono riscritte solo le righe cambiate, portando il
+ * cursore sulla riga, invece di pulire lo schermo e ristampare tutto. L'ultima riga
+ * (di solito la richiesta di una scelta, seguita dall'eco dell'input) è sempre riscritta
+ * e tutto ciò che segue viene cancellato.
+ * Il testo accodato con la Schermata sotto l'ultima schermata (un avviso dopo una scelta)
+ * la lascia ridisegnabile finché non fa scorrere la console; quello stampato con
+ * OutputUtils la invalida.
+ *
+ * Le schermate vengono scritte sull'Uscita di OutputUtils: se questa non interpreta i
+ * codici ANSI sono scritte come testo semplice, una dopo l'altra, e se non è attiva
+ * non vengono nemmeno composte.
+ */
+public class Schermata {
+
+    private static final String PULISCI_SCHERMO = "\033[H\033[2J";
+    private static final String CANCELLA_FINE_RIGA = "\033[K";
+    private static final String CANCELLA_FINE_SCHERMO = "\033[J";
+
+    // Righe della console se la variabile LINES non è impostata
+    private static final int RIGHE_PREDEFINITE = 24;
+    // Righe da lasciare libere sotto la schermata per l'eco della scelta e una riga vuota
+    private static final int MARGINE = 3;
+
+    private enum Inizio {
+        ACCODA, PULISCI, RIDISEGNA
+    }
+
+    private static Schermata instance;
+
+    private final StringBuilder buffer = new StringBuilder(4096);
+    private final StringBuilder daScrivere = new StringBuilder(4096);
+    private Inizio inizio = Inizio.ACCODA;
+
+    // Righe dell'ultima schermata mostrata a partire dall'angolo in alto dello schermo
+    private List<String> righeMostrate = new ArrayList<>();
+    private volatile boolean righeMostrateValide;
+    // Righe accodate sotto l'ultima schermata mostrata
+    private int righeAccodate;
+    private int righeTerminale = leggiRigheTerminale();
+
+    private Schermata() {
+    }
+
+    public static Schermata getInstance() {
+        if (instance == null) {
+            synchronized (Schermata.class) {
+                if (instance == null) {
+                    instance = new Schermata();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Fa iniziare la schermata con la pulizia della console.
+     *
+     * @return questa schermata.
+     */
+    public Schermata pulisci() {
+        inizio = Inizio.PULISCI;
+        return this;
+    }
+
+    /**
+     * Fa iniziare una schermata che sostituisce l'ultima mostrata riscrivendo solo le
+     * righe cambiate. Se l'ultima schermata non è più sulla console equivale a pulisci().
+     *
+     * @return questa schermata.
+     */
+    public Schermata ridisegna() {
+        inizio = Inizio.RIDISEGNA;
+        return this;
+    }
+
+    /**
+     * Segnala che la console è stata scritta fuori dalla Schermata: la prossima
+     * schermata ridisegnata verrà stampata per intero.
+     */
+    public void invalida() {
+        righeMostrateValide = false;
+    }
+
+    /**
+     * Imposta il numero di righe della console. Le schermate più alte, che farebbero
+     * scorrere la console, vengono sempre stampate per intero.
+     *
+     * @param righe il numero di righe visibili della console.
+     */
+    public void setRigheTerminale(int righe) {
+        if (righe <= 0) {
+            throw new IllegalArgumentException("Il numero di righe deve essere positivo.");
+        }
+        righeTerminale = righe;
+        righeMostrateValide = false;
+    }
+
+    public int getRigheTerminale() {
+        return righeTerminale;
+    }
+
+    /**
+     * Aggiunge un testo senza andare a capo.
+     *
+     * @param testo il testo da aggiungere.
+     * @param stile lo stile del testo.
+     * @return questa schermata.
+     */
+    public Schermata testo(String testo, Stile stile) {
+        Uscita uscita = OutputUtils.getUscita();
+        if (uscita.isAnsi()) {
+            buffer.append(stile.getPrefisso()).append(testo).append(OutputUtils.ANSI_RESET);
+        } else if (uscita.isAttiva()) {
+            buffer.append(testo);
+        }
+        return this;
+    }
+
+    /**
+     * Aggiunge un testo e va a capo.
+     *
+     * @param testo il testo da aggiungere.
+     * @param stile lo stile del testo.
+     * @return questa schermata.
+     */
+    public Schermata riga(String testo, Stile stile) {
+        Uscita uscita = OutputUtils.getUscita();
+        if (uscita.isAnsi()) {
+            buffer.append(stile.getPrefisso()).append(testo).append('\n').append(OutputUtils.ANSI_RESET);
+        } else if (uscita.isAttiva()) {
+            buffer.append(testo).append('\n');
+        }
+        return this;
+    }
+
+    /**
+     * Aggiunge una riga vuota.
+     *
+     * @return questa schermata.
+     */
+    public Schermata riga() {
+        buffer.append('\n');
+        return this;
+    }
+
+    /**
+     * Aggiunge l'intestazione del turno di un giocatore.
+     *
+     * @param giocatore il giocatore di turno.
+     * @return questa schermata.
+     */
+    public Schermata intestazioneTurno(Giocatore giocatore) {
+        riga("\n══════════════════════", Stile.CORNICE);
+        riga("E' IL TURNO DI " + giocatore.getNome().toUpperCase(), Stile.GRASSETTO);
+        return riga("══════════════════════", Stile.CORNICE);
+    }
+
+    /**
+     * Scrive sulla console tutto ciò che è stato composto e svuota il buffer
+     * per la schermata successiva.
+     */
+    public void mostra() {
+        Uscita uscita = OutputUtils.getUscita();
+        if (inizio == Inizio.ACCODA || !uscita.isAnsi()) {
+            if (buffer.length() > 0 && uscita.isAttiva()) {
+                scrivi(uscita, buffer);
+            }
+            if (inizio == Inizio.ACCODA && uscita.isAnsi() && righeMostrateValide) {
+                // Testo sotto l'ultima schermata: resta ridisegnabile se la console non scorre
+                righeAccodate += contaRighe(buffer);
+                righeMostrateValide = righeMostrate.size() + righeAccodate + MARGINE <= righeTerminale;
+            } else {
+                righeMostrateValide = false;
+            }
+            buffer.setLength(0);
+            inizio = Inizio.ACCODA;
+            return;
+        }
+
+        List<String> righe = dividiRighe();
+        daScrivere.setLength(0);
+        boolean entra = righe.size() + MARGINE <= righeTerminale;
+        if (inizio == Inizio.RIDISEGNA && righeMostrateValide && entra) {
+            componiDifferenze(righe);
+        } else {
+            daScrivere.append(PULISCI_SCHERMO).append(buffer);
+        }
+        scrivi(uscita, daScrivere);
+
+        righeMostrate = righe;
+        righeMostrateValide = entra;
+        righeAccodate = 0;
+        buffer.setLength(0);
+        inizio = Inizio.ACCODA;
+    }
+
+    /*
+     * Riscrive le righe diverse da quelle mostrate e l'ultima, poi cancella il resto dello schermo.
+     */
+    private void componiDifferenze(List<String> righe) {
+        int ultima = righe.size() - 1;
+        for (int i = 0; i <= ultima; i++) {
+            if (i < ultima && i < righeMostrate.size() && righeMostrate.get(i).equals(righe.get(i))) {
+                continue;
+            }
+            daScrivere.append("\033[").append(i + 1).append(";1H")
+                .append(righe.get(i))
+                .append(OutputUtils.ANSI_RESET)
+                .append(CANCELLA_FINE_RIGA);
+        }
+        daScrivere.append(CANCELLA_FINE_SCHERMO);
+    }
+
+    private List<String> dividiRighe() {
+        List<String> righe = new ArrayList<>(righeMostrate.size() + 1);
+        int inizioRiga = 0;
+        for (int i = 0; i < buffer.length(); i++) {
+            if (buffer.charAt(i) == '\n') {
+                righe.add(buffer.substring(inizioRiga, i));
+                inizioRiga = i + 1;
+            }
+        }
+        righe.add(buffer.substring(inizioRiga));
+        return righe;
+    }
+
+    private static int contaRighe(CharSequence testo) {
+        int righe = 0;
+        for (int i = 0; i < testo.length(); i++) {
+            if (testo.charAt(i) == '\n') {
+                righe++;
+            }
+        }
+        return righe;
+    }
+
+    private static void scrivi(Uscita uscita, CharSequence testo) {
+        uscita.scrivi(testo.toString());
+        uscita.flush();
+    }
+
+    private static int leggiRigheTerminale() {
+        String righe = System.getenv("LINES");
+        if (righe != null) {
+            try {
+                int valore = Integer.parseInt(righe.trim());
+                if (valore > 0) {
+                    return valore;
+                }
+            } catch (NumberFormatException e) {
+                // Valore non numerico: si usa il predefinito
+            }
+        }
+        return RIGHE_PREDEFINITE;
+    }
+
+}
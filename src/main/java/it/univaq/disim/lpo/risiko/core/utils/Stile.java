@@ -0,0 +1,48 @@
+package it.univaq.disim.lpo.risiko.core.utils;
+
+/**
+ * Combinazione di codici ANSI con cui stampare un testo.
+ * I codici vengono concatenati una sola volta alla creazione dello stile, così ogni
+ * stampa aggiunge un unico prefisso già pronto invece di ricomporlo.
+ */
+public final class Stile {
+
+    /** Testo senza effetti. */
+    public static final Stile NORMALE = di();
+    /** Testo in grassetto. */
+    public static final Stile GRASSETTO = di(OutputUtils.ANSI_BOLD);
+    /** Righe di separazione delle intestazioni. */
+    public static final Stile CORNICE = di(OutputUtils.ANSI_BRIGHT_PURPLE, OutputUtils.ANSI_BOLD);
+    /** Titoli delle schermate. */
+    public static final Stile TITOLO = di(OutputUtils.ANSI_BRIGHT_GREEN, OutputUtils.ANSI_BOLD);
+    /** Voci dei menù. */
+    public static final Stile VOCE_MENU = di(OutputUtils.ANSI_WHITE, OutputUtils.ANSI_BOLD, OutputUtils.ANSI_BLINK);
+    /** Valori messi in evidenza, come il numero di armate. */
+    public static final Stile EVIDENZA = di(OutputUtils.ANSI_BRIGHT_CYAN, OutputUtils.ANSI_BOLD);
+    /** Richiesta di una scelta. */
+    public static final Stile RICHIESTA = di(OutputUtils.ANSI_CYAN, OutputUtils.ANSI_BOLD);
+
+    private final String prefisso;
+
+    private Stile(String prefisso) {
+        this.prefisso = prefisso;
+    }
+
+    /**
+     * Crea uno stile dai codici ANSI indicati.
+     *
+     * @param codici i codici ANSI, nell'ordine in cui vanno applicati.
+     * @return lo stile.
+     */
+    public static Stile di(String... codici) {
+        return new Stile(String.join("", codici));
+    }
+
+    /**
+     * Restituisce i codici ANSI dello stile, già concatenati.
+     */
+    public String getPrefisso() {
+        return prefisso;
+    }
+
+}
@@ -0,0 +1,76 @@
+package it.univaq.disim.lpo.risiko.core.utils;
+
+import java.io.PrintStream;
+
+/**
+ * Destinazione di tutto l'output del gioco verso chi gioca.
+ * OutputUtils e Schermata scrivono solo attraverso l'Uscita impostata, così la stessa
+ * partita può essere mostrata sulla console con i colori, come testo semplice, raccolta
+ * in memoria o non mostrata affatto, senza cambiare la logica del gioco.
+ */
+public interface Uscita {
+
+    /**
+     * Scrive un testo già composto.
+     *
+     * @param testo il testo da scrivere.
+     */
+    void scrivi(String testo);
+
+    /**
+     * Rende visibile quanto scritto finora.
+     */
+    void flush();
+
+    /**
+     * Indica se l'uscita interpreta i codici ANSI di colori e cursore.
+     * Alle uscite che non li interpretano viene passato solo il testo.
+     */
+    boolean isAnsi();
+
+    /**
+     * Indica se l'output viene mostrato. Per un'uscita non attiva OutputUtils e
+     * Schermata non compongono nemmeno il testo.
+     */
+    default boolean isAttiva() {
+        return true;
+    }
+
+    /**
+     * Console con colori e movimenti del cursore, per chi gioca dal terminale.
+     */
+    static Uscita console() {
+        return new UscitaConsole();
+    }
+
+    /**
+     * Testo semplice, senza codici ANSI, sull'output standard.
+     */
+    static Uscita testo() {
+        return new UscitaTesto(System.out);
+    }
+
+    /**
+     * Testo semplice, senza codici ANSI, su uno stream.
+     *
+     * @param stream lo stream su cui scrivere.
+     */
+    static Uscita testo(PrintStream stream) {
+        return new UscitaTesto(stream);
+    }
+
+    /**
+     * Raccolta in memoria del testo semplice, da leggere con getTesto().
+     */
+    static UscitaMemoria memoria() {
+        return new UscitaMemoria(false);
+    }
+
+    /**
+     * Nessun output: per le partite senza nessuno davanti alla console.
+     */
+    static Uscita nessuna() {
+        return UscitaNulla.ISTANZA;
+    }
+
+}
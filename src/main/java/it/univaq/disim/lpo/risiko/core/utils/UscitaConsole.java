@@ -0,0 +1,26 @@
+package it.univaq.disim.lpo.risiko.core.utils;
+
+import org.fusesource.jansi.AnsiConsole;
+
+/**
+ * Uscita sulla console tramite Jansi, che traduce i codici ANSI dove il terminale
+ * non li supporta direttamente.
+ */
+public class UscitaConsole implements Uscita {
+
+    @Override
+    public void scrivi(String testo) {
+        AnsiConsole.out().print(testo);
+    }
+
+    @Override
+    public void flush() {
+        AnsiConsole.out().flush();
+    }
+
+    @Override
+    public boolean isAnsi() {
+        return true;
+    }
+
+}
@@ -0,0 +1,51 @@
+package it.univaq.disim.lpo.risiko.core.utils;
+
+/**
+ * Uscita che raccoglie in memoria tutto il testo scritto, per verificare
+ * l'output di una partita senza console.
+ */
+public class UscitaMemoria implements Uscita {
+
+    private final boolean ansi;
+    private final StringBuilder testo = new StringBuilder();
+
+    /**
+     * Crea un'uscita in memoria.
+     *
+     * @param ansi true per raccogliere anche i codici ANSI di colori e cursore.
+     */
+    public UscitaMemoria(boolean ansi) {
+        this.ansi = ansi;
+    }
+
+    @Override
+    public synchronized void scrivi(String testo) {
+        this.testo.append(testo);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public boolean isAnsi() {
+        return ansi;
+    }
+
+    /**
+     * Restituisce tutto il testo raccolto.
+     */
+    public synchronized String getTesto() {
+        return testo.toString();
+    }
+
+    /**
+     * Restituisce il testo raccolto e lo scarta.
+     */
+    public synchronized String svuota() {
+        String raccolto = testo.toString();
+        testo.setLength(0);
+        return raccolto;
+    }
+
+}
@@ -0,0 +1,31 @@
+package it.univaq.disim.lpo.risiko.core.utils;
+
+/**
+ * Uscita che scarta tutto. Non essendo attiva, il testo non viene nemmeno composto.
+ */
+public final class UscitaNulla implements Uscita {
+
+    static final UscitaNulla ISTANZA = new UscitaNulla();
+
+    private UscitaNulla() {
+    }
+
+    @Override
+    public void scrivi(String testo) {
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public boolean isAnsi() {
+        return false;
+    }
+
+    @Override
+    public boolean isAttiva() {
+        return false;
+    }
+
+}
@@ -0,0 +1,35 @@
+package it.univaq.disim.lpo.risiko.core.utils;
+
+import java.io.PrintStream;
+
+/**
+ * Uscita di solo testo su uno stream, per i terminali senza colori o l'output
+ * rediretto su file.
+ */
+public class UscitaTesto implements Uscita {
+
+    private final PrintStream stream;
+
+    public UscitaTesto(PrintStream stream) {
+        if (stream == null) {
+            throw new IllegalArgumentException("Lo stream non può essere null.");
+        }
+        this.stream = stream;
+    }
+
+    @Override
+    public void scrivi(String testo) {
+        stream.print(testo);
+    }
+
+    @Override
+    public void flush() {
+        stream.flush();
+    }
+
+    @Override
+    public boolean isAnsi() {
+        return false;
+    }
+
+}
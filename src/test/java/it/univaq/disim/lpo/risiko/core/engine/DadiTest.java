@@ -0,0 +1,111 @@
+package it.univaq.disim.lpo.risiko.core.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+import org.junit.jupiter.api.Test;
+
+class DadiTest {
+
+    /*
+     * Generatore che restituisce in sequenza tutti i valori 0..bound-1: ogni estrazione
+     * possibile di Dadi.lancia esce esattamente una volta.
+     */
+    private static final class Sequenza implements RandomGenerator {
+
+        private int prossimo;
+
+        @Override
+        public int nextInt(int bound) {
+            return prossimo++ % bound;
+        }
+
+        @Override
+        public long nextLong() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @Test
+    void lancioConLaStessaDistribuzioneDiLanciaDadi() {
+        for (int dadi = 1; dadi <= Dadi.MAX_DADI; dadi++) {
+            Map<String, Integer> attesi = new HashMap<>();
+            for (int[] lancio : tuttiILanci(dadi)) {
+                attesi.merge(Arrays.toString(lancio), 1, Integer::sum);
+            }
+
+            Map<String, Integer> ottenuti = new HashMap<>();
+            Sequenza sequenza = new Sequenza();
+            for (int i = 0; i < tuttiILanci(dadi).size(); i++) {
+                ottenuti.merge(Arrays.toString(Dadi.valori(Dadi.lancia(sequenza, dadi), dadi)), 1, Integer::sum);
+            }
+
+            assertEquals(attesi, ottenuti, dadi + " dadi");
+        }
+    }
+
+    @Test
+    void confrontoUgualeAlConfrontoDeiDadiOrdinati() {
+        for (int dadiAttacco = 1; dadiAttacco <= Dadi.MAX_DADI; dadiAttacco++) {
+            for (int dadiDifesa = 1; dadiDifesa <= Dadi.MAX_DADI; dadiDifesa++) {
+                for (int[] attacco : tuttiILanci(dadiAttacco)) {
+                    for (int[] difesa : tuttiILanci(dadiDifesa)) {
+                        int perditeAttaccante = 0;
+                        int perditeDifensore = 0;
+                        for (int i = 0; i < Math.min(dadiAttacco, dadiDifesa); i++) {
+                            if (attacco[i] > difesa[i]) {
+                                perditeDifensore++;
+                            } else {
+                                perditeAttaccante++;
+                            }
+                        }
+
+                        int esito = Dadi.confronta(codifica(attacco), codifica(difesa));
+                        String lanci = Arrays.toString(attacco) + " contro " + Arrays.toString(difesa);
+                        assertEquals(perditeAttaccante, Dadi.perditeAttaccante(esito), lanci);
+                        assertEquals(perditeDifensore, Dadi.perditeDifensore(esito), lanci);
+                    }
+                }
+            }
+        }
+    }
+
+    /*
+     * Tutti i lanci equiprobabili di n dadi ordinati in modo decrescente, come li
+     * produceva lanciaDadi: un valore da 1 a 6 per dado, poi l'ordinamento.
+     */
+    private static List<int[]> tuttiILanci(int dadi) {
+        List<int[]> lanci = new ArrayList<>();
+        int combinazioni = (int) Math.pow(6, dadi);
+        for (int c = 0; c < combinazioni; c++) {
+            int[] lancio = new int[dadi];
+            int resto = c;
+            for (int i = 0; i < dadi; i++, resto /= 6) {
+                lancio[i] = resto % 6 + 1;
+            }
+            Arrays.sort(lancio);
+            for (int i = 0; i < dadi / 2; i++) {
+                int t = lancio[i];
+                lancio[i] = lancio[dadi - 1 - i];
+                lancio[dadi - 1 - i] = t;
+            }
+            lanci.add(lancio);
+        }
+        return lanci;
+    }
+
+    private static int codifica(int[] lancio) {
+        int codificato = 0;
+        for (int i = 0; i < Dadi.MAX_DADI; i++) {
+            codificato = codificato * 7 + (i < lancio.length ? lancio[i] : 0);
+        }
+        return codificato;
+    }
+
+}
@@ -0,0 +1,263 @@
+package it.univaq.disim.lpo.risiko.core.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import it.univaq.disim.lpo.risiko.core.model.CartaObiettivo;
+import it.univaq.disim.lpo.risiko.core.model.GeneratoreCasuale;
+import it.univaq.disim.lpo.risiko.core.model.Giocatore;
+import it.univaq.disim.lpo.risiko.core.model.Gioco;
+import it.univaq.disim.lpo.risiko.core.model.Mappa;
+import it.univaq.disim.lpo.risiko.core.model.MazzoDiCarte;
+import it.univaq.disim.lpo.risiko.core.model.Territorio;
+import it.univaq.disim.lpo.risiko.core.model.TurnoGioco.TurnPhase;
+import it.univaq.disim.lpo.risiko.core.service.impl.MappaServiceImpl;
+
+class MotoreGiocoTest {
+
+    private MotoreGioco motore;
+    private Gioco gioco;
+    private Giocatore primo;
+    private Giocatore secondo;
+
+    @BeforeEach
+    void preparaPartita() {
+        motore = new MotoreGioco();
+        Mappa mappa = new MappaServiceImpl().getMappa();
+        primo = new Giocatore("Primo", 0, new ArrayList<>(), 0);
+        secondo = new Giocatore("Secondo", 0, new ArrayList<>(), 0);
+        List<Giocatore> giocatori = new ArrayList<>(List.of(primo, secondo));
+
+        // Territori alternati tra i due giocatori, tre armate ciascuno
+        List<Territorio> territori = mappa.getTerritori();
+        for (int i = 0; i < territori.size(); i++) {
+            Territorio territorio = territori.get(i);
+            (i % 2 == 0 ? primo : secondo).aggiungiTerritorio(territorio);
+            territorio.setArmate(3);
+        }
+
+        gioco = new Gioco("prova", giocatori, mappa, 6, new ArrayList<>(), new ArrayList<>());
+        gioco.setArmateDistribuite(true);
+        GeneratoreCasuale generatore = new GeneratoreCasuale(42);
+        gioco.setGeneratore(generatore);
+        gioco.setMazzoDiCarte(new MazzoDiCarte(territori, generatore));
+    }
+
+    @Test
+    void ilPrimoComandoAvviaIlTurno() {
+        RisultatoComando risultato = motore.esegui(gioco, new Comando.Attacca(confine().getNome(), bersaglio(confine()).getNome(), 1));
+
+        assertFalse(risultato.isAccettato());
+        assertEquals("Non è il momento di attaccare.", risultato.getErrore());
+        assertEquals(TurnPhase.DISTRIBUTE_ARMIES, gioco.getCurrentTurnState().getCurrentPhase());
+        assertEquals(RegoleGioco.armateTerritori(primo.getTerritori_controllati().size()),
+            gioco.getCurrentTurnState().getArmateDaDistribuire());
+    }
+
+    @Test
+    void posizionamentoNonValidoRifiutatoSenzaModifiche() {
+        motore.avviaTurno(gioco);
+        int armate = gioco.getCurrentTurnState().getArmateDaDistribuire();
+        Territorio mio = primo.getTerritori_controllati().get(0);
+        Territorio altrui = secondo.getTerritori_controllati().get(0);
+
+        assertFalse(motore.esegui(gioco, new Comando.PosizionaArmate(altrui.getNome(), 1)).isAccettato());
+        assertFalse(motore.esegui(gioco, new Comando.PosizionaArmate(mio.getNome(), 0)).isAccettato());
+        assertFalse(motore.esegui(gioco, new Comando.PosizionaArmate(mio.getNome(), armate + 1)).isAccettato());
+        assertFalse(motore.esegui(gioco, new Comando.TerminaTurno()).isAccettato());
+        assertEquals(3, mio.getNumeroArmate());
+        assertEquals(3, altrui.getNumeroArmate());
+        assertEquals(armate, gioco.getCurrentTurnState().getArmateDaDistribuire());
+
+        RisultatoComando risultato = motore.esegui(gioco, new Comando.PosizionaArmate(mio.getNome(), armate));
+        assertTrue(risultato.isAccettato());
+        assertNotNull(risultato.getEvento(EventoGioco.TipoEvento.POSIZIONAMENTO));
+        assertEquals(3 + armate, mio.getNumeroArmate());
+        assertEquals(TurnPhase.MENU, gioco.getCurrentTurnState().getCurrentPhase());
+    }
+
+    @Test
+    void attaccoNonValidoRifiutato() {
+        Territorio origine = confine();
+        rinforza(origine);
+        Territorio nemico = bersaglio(origine);
+
+        assertFalse(motore.esegui(gioco, new Comando.Attacca(nemico.getNome(), origine.getNome(), 1)).isAccettato());
+        assertFalse(motore.esegui(gioco, new Comando.Attacca(origine.getNome(), lontano(origine).getNome(), 1)).isAccettato());
+        assertFalse(motore.esegui(gioco, new Comando.Attacca(origine.getNome(), nemico.getNome(), 0)).isAccettato());
+        assertFalse(motore.esegui(gioco, new Comando.Attacca(origine.getNome(), nemico.getNome(), 4)).isAccettato());
+
+        int armatePrima = origine.getNumeroArmate() + nemico.getNumeroArmate();
+        RisultatoComando risultato = motore.esegui(gioco, new Comando.Attacca(origine.getNome(), nemico.getNome(), 3));
+        assertTrue(risultato.isAccettato());
+        EventoGioco lancio = risultato.getEvento(EventoGioco.TipoEvento.LANCIO_DADI);
+        assertNotNull(lancio);
+        // Con tre armate il difensore lancia tre dadi: si perdono sempre tre armate in tutto
+        assertEquals(armatePrima - 3, origine.getNumeroArmate() + nemico.getNumeroArmate());
+    }
+
+    @Test
+    void attaccoBlitzRisoltoInUnSoloEvento() {
+        Territorio origine = confine();
+        assertFalse(motore.esegui(gioco, new Comando.AttaccoBlitz(origine.getNome(), bersaglio(origine).getNome())).isAccettato());
+        rinforza(origine);
+        Territorio nemico = bersaglio(origine);
+        assertFalse(motore.esegui(gioco, new Comando.AttaccoBlitz(origine.getNome(), nemico.getNome(), 0, 1)).isAccettato());
+        assertFalse(motore.esegui(gioco, new Comando.AttaccoBlitz(origine.getNome(), nemico.getNome(), 5, origine.getNumeroArmate()))
+            .isAccettato());
+
+        int armateOrigine = origine.getNumeroArmate();
+        int armateNemico = nemico.getNumeroArmate();
+        RisultatoComando risultato = motore.esegui(gioco, new Comando.AttaccoBlitz(origine.getNome(), nemico.getNome()));
+
+        assertTrue(risultato.isAccettato());
+        EventoGioco battaglia = risultato.getEvento(EventoGioco.TipoEvento.BATTAGLIA_BLITZ);
+        assertNotNull(battaglia);
+        assertNull(risultato.getEvento(EventoGioco.TipoEvento.LANCIO_DADI));
+        assertEquals(armateOrigine - battaglia.getPerditeAttaccante(), origine.getNumeroArmate());
+        assertEquals(armateNemico - battaglia.getPerditeDifensore(), nemico.getNumeroArmate());
+        if (nemico.getNumeroArmate() == 0) {
+            assertNotNull(risultato.getEvento(EventoGioco.TipoEvento.CONQUISTA));
+            assertEquals(primo, nemico.getGiocatore());
+            assertEquals(TurnPhase.MOVE_AFTER_CONQUEST, gioco.getCurrentTurnState().getCurrentPhase());
+        } else {
+            assertEquals(1, origine.getNumeroArmate());
+            assertEquals(TurnPhase.MENU, gioco.getCurrentTurnState().getCurrentPhase());
+        }
+    }
+
+    @Test
+    void attaccoBlitzNonSuperaLeSoglie() {
+        Territorio origine = confine();
+        rinforza(origine);
+        Territorio nemico = bersaglio(origine);
+        for (int seme = 0; seme < 200; seme++) {
+            gioco.setGeneratore(new GeneratoreCasuale(seme));
+            origine.setArmate(12);
+            nemico.setArmate(20);
+            int perditeMassime = 1 + seme % 4;
+            int armateMinime = 12 - 1 - seme % 7;
+
+            RisultatoComando risultato = motore.esegui(gioco,
+                new Comando.AttaccoBlitz(origine.getNome(), nemico.getNome(), perditeMassime, armateMinime));
+
+            assertTrue(risultato.isAccettato());
+            int perdite = risultato.getEvento(EventoGioco.TipoEvento.BATTAGLIA_BLITZ).getPerditeAttaccante();
+            assertTrue(perdite <= perditeMassime, "Perse " + perdite + " armate con il limite di " + perditeMassime);
+            assertTrue(origine.getNumeroArmate() >= armateMinime, "Rimaste " + origine.getNumeroArmate() + " armate");
+            assertTrue(perdite == perditeMassime || origine.getNumeroArmate() == armateMinime);
+        }
+    }
+
+    @Test
+    void fortificazioneChiudeIlTurnoEPassaAlGiocatoreSuccessivo() {
+        Territorio origine = confine();
+        rinforza(origine);
+        Territorio alleato = alleatoAdiacente(origine);
+        int armate = origine.getNumeroArmate();
+
+        assertFalse(motore.esegui(gioco, new Comando.Fortifica(origine.getNome(), alleato.getNome(), armate)).isAccettato());
+        assertFalse(motore.esegui(gioco, new Comando.Fortifica(origine.getNome(), bersaglio(origine).getNome(), 1)).isAccettato());
+        assertTrue(motore.esegui(gioco, new Comando.Fortifica(origine.getNome(), alleato.getNome(), armate - 1)).isAccettato());
+        assertEquals(1, origine.getNumeroArmate());
+        assertEquals(TurnPhase.END_TURN, gioco.getCurrentTurnState().getCurrentPhase());
+        assertFalse(motore.esegui(gioco, new Comando.Attacca(origine.getNome(), bersaglio(origine).getNome(), 1)).isAccettato());
+
+        assertTrue(motore.esegui(gioco, new Comando.TerminaTurno()).isAccettato());
+        assertEquals(secondo, motore.getGiocatoreCorrente(gioco));
+        assertEquals(TurnPhase.START_TURN, gioco.getCurrentTurnState().getCurrentPhase());
+        assertEquals(1, gioco.getRoundCount());
+    }
+
+    @Test
+    void fortificazioneVincenteTerminaLaPartita() {
+        primo.setObiettivo(CartaObiettivo.obiettiviClassici().stream()
+            .filter(obiettivo -> obiettivo.getDescrizione().equals("Conquistare 18 territori presidiandoli con almeno due armate ciascuno"))
+            .findFirst().orElseThrow());
+        Territorio origine = confine();
+        Territorio alleato = alleatoAdiacente(origine);
+        // Diciassette territori presidiati dopo i rinforzi: il diciottesimo arriva con la fortificazione
+        int presidiati = 0;
+        for (Territorio territorio : primo.getTerritori_controllati()) {
+            boolean presidiato = territorio != alleato && territorio != origine && presidiati < 16;
+            territorio.setArmate(presidiato ? 2 : 1);
+            presidiati += presidiato ? 1 : 0;
+        }
+        rinforza(origine);
+        assertTrue(gioco.isPartitaInCorso());
+
+        RisultatoComando risultato = motore.esegui(gioco, new Comando.Fortifica(origine.getNome(), alleato.getNome(), 1));
+
+        assertTrue(risultato.isAccettato());
+        assertNotNull(risultato.getEvento(EventoGioco.TipoEvento.VITTORIA));
+        assertFalse(gioco.isPartitaInCorso());
+        assertEquals("La partita è terminata.", motore.esegui(gioco, new Comando.TerminaTurno()).getErrore());
+    }
+
+    @Test
+    void partitaTerminataRifiutaOgniComando() {
+        gioco.setPartitaInCorso(false);
+
+        RisultatoComando risultato = motore.esegui(gioco, new Comando.TerminaTurno());
+
+        assertFalse(risultato.isAccettato());
+        assertEquals("La partita è terminata.", risultato.getErrore());
+        assertFalse(motore.avviaTurno(gioco).isAccettato());
+    }
+
+    /*
+     * Porta il turno del primo giocatore al menù con tutti i rinforzi sul territorio indicato.
+     */
+    private void rinforza(Territorio territorio) {
+        motore.avviaTurno(gioco);
+        int armate = gioco.getCurrentTurnState().getArmateDaDistribuire();
+        assertTrue(motore.esegui(gioco, new Comando.PosizionaArmate(territorio.getNome(), armate)).isAccettato());
+    }
+
+    // Territorio del primo giocatore confinante sia con un avversario sia con un proprio territorio
+    private Territorio confine() {
+        for (Territorio territorio : primo.getTerritori_controllati()) {
+            if (bersaglio(territorio) != null && alleatoAdiacente(territorio) != null) {
+                return territorio;
+            }
+        }
+        throw new AssertionError("Nessun territorio di confine.");
+    }
+
+    private Territorio bersaglio(Territorio territorio) {
+        for (Territorio adiacente : territorio.getTerritoriAdiacenti()) {
+            if (adiacente.getGiocatore() == secondo) {
+                return adiacente;
+            }
+        }
+        return null;
+    }
+
+    private Territorio alleatoAdiacente(Territorio territorio) {
+        for (Territorio adiacente : territorio.getTerritoriAdiacenti()) {
+            if (adiacente.getGiocatore() == primo) {
+                return adiacente;
+            }
+        }
+        return null;
+    }
+
+    private Territorio lontano(Territorio territorio) {
+        for (Territorio altro : secondo.getTerritori_controllati()) {
+            if (!territorio.getTerritoriAdiacenti().contains(altro)) {
+                return altro;
+            }
+        }
+        throw new AssertionError("Nessun territorio non adiacente.");
+    }
+
+}
@@ -0,0 +1,117 @@
+package it.univaq.disim.lpo.risiko.core.engine;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import it.univaq.disim.lpo.risiko.core.model.CartaObiettivo;
+import it.univaq.disim.lpo.risiko.core.model.Continente;
+import it.univaq.disim.lpo.risiko.core.model.Giocatore;
+import it.univaq.disim.lpo.risiko.core.model.Gioco;
+import it.univaq.disim.lpo.risiko.core.model.Mappa;
+import it.univaq.disim.lpo.risiko.core.model.Territorio;
+import it.univaq.disim.lpo.risiko.core.service.impl.MappaServiceImpl;
+
+class ObiettiviTest {
+
+    private Mappa mappa;
+    private Gioco gioco;
+    private Giocatore primo;
+    private Giocatore secondo;
+
+    @BeforeEach
+    void preparaPartita() {
+        mappa = new MappaServiceImpl().getMappa();
+        primo = new Giocatore("Primo", 0, new ArrayList<>(), 0);
+        secondo = new Giocatore("Secondo", 0, new ArrayList<>(), 0);
+        for (Territorio territorio : mappa.getTerritori()) {
+            secondo.aggiungiTerritorio(territorio);
+            territorio.setArmate(1);
+        }
+        gioco = new Gioco("prova", new ArrayList<>(List.of(primo, secondo)), mappa, 6, new ArrayList<>(), new ArrayList<>());
+    }
+
+    @Test
+    void asiaESudAmerica() {
+        primo.setObiettivo(classico("Conquistare la totalità dell'Asia e del Sud America"));
+        conquista(continente("Asia"));
+        List<Territorio> sudAmerica = continente("America del Sud");
+        conquista(sudAmerica.subList(1, sudAmerica.size()));
+        assertFalse(RegoleGioco.obiettivoCompletato(primo, gioco));
+
+        conquista(sudAmerica.subList(0, 1));
+        assertTrue(RegoleGioco.obiettivoCompletato(primo, gioco));
+    }
+
+    @Test
+    void continentiConUnTerzoAScelta() {
+        primo.setObiettivo(classico("Conquistare la totalità dell'Europa, del Sud America e di un terzo continente a scelta"));
+        conquista(continente("Europa"));
+        conquista(continente("America del Sud"));
+        assertFalse(RegoleGioco.obiettivoCompletato(primo, gioco));
+
+        conquista(continente("Oceania"));
+        assertTrue(RegoleGioco.obiettivoCompletato(primo, gioco));
+    }
+
+    @Test
+    void numeroDiTerritori() {
+        primo.setObiettivo(classico("Conquistare 24 territori"));
+        conquista(mappa.getTerritori().subList(0, 23));
+        assertFalse(RegoleGioco.obiettivoCompletato(primo, gioco));
+
+        conquista(mappa.getTerritori().subList(23, 24));
+        assertTrue(RegoleGioco.obiettivoCompletato(primo, gioco));
+    }
+
+    @Test
+    void territoriPresidiatiSeguonoLeArmate() {
+        primo.setObiettivo(classico("Conquistare 18 territori presidiandoli con almeno due armate ciascuno"));
+        List<Territorio> territori = mappa.getTerritori().subList(0, 18);
+        conquista(territori);
+        assertFalse(RegoleGioco.obiettivoCompletato(primo, gioco));
+
+        for (Territorio territorio : territori) {
+            territorio.aggiungiArmate(1);
+        }
+        assertTrue(RegoleGioco.obiettivoCompletato(primo, gioco));
+
+        territori.get(0).rimuoviArmate(1);
+        assertFalse(RegoleGioco.obiettivoCompletato(primo, gioco));
+    }
+
+    @Test
+    void continenteSconosciutoSegnalato() {
+        primo.setObiettivo(CartaObiettivo.conquistaContinenti("Conquistare Atlantide", 0, "Atlantide"));
+
+        assertThrows(IllegalStateException.class, () -> RegoleGioco.obiettivoCompletato(primo, gioco));
+    }
+
+    private void conquista(List<Territorio> territori) {
+        for (Territorio territorio : territori) {
+            secondo.rimuoviTerritorio(territorio);
+            primo.aggiungiTerritorio(territorio);
+        }
+    }
+
+    private List<Territorio> continente(String nome) {
+        Continente continente = mappa.getContinente(nome);
+        return continente.getTerritori();
+    }
+
+    private static CartaObiettivo classico(String descrizione) {
+        for (CartaObiettivo obiettivo : CartaObiettivo.obiettiviClassici()) {
+            if (obiettivo.getDescrizione().equals(descrizione)) {
+                return obiettivo;
+            }
+        }
+        throw new AssertionError("Obiettivo classico mancante: " + descrizione);
+    }
+
+}
@@ -0,0 +1,102 @@
+package it.univaq.disim.lpo.risiko.core.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class TabellaBattaglieTest {
+
+    private static final int LIMITE = 6;
+    private static final double TOLLERANZA = 1e-5;
+
+    private final TabellaBattaglie tabella = new TabellaBattaglie(LIMITE);
+
+    @Test
+    void singoloLancioCorrispondeAlleProbabilitaNote() {
+        // Un dado contro uno: l'attaccante vince 15 volte su 36
+        assertEquals(15.0 / 36, tabella.getProbabilitaConquista(2, 1), TOLLERANZA);
+        // Due dadi contro uno: vince 125 volte su 216, altrimenti si ritorna al caso precedente
+        assertEquals(125.0 / 216 + 91.0 / 216 * 15 / 36, tabella.getProbabilitaConquista(3, 1), TOLLERANZA);
+    }
+
+    @Test
+    void tabellaUgualeAllEnumerazioneCompletaDeiLanci() {
+        double[][][] attesi = new double[LIMITE + 1][LIMITE + 1][];
+        for (int a = 1; a <= LIMITE; a++) {
+            for (int d = 0; d <= LIMITE; d++) {
+                double[] atteso = battaglia(a, d, attesi);
+                String battaglia = a + " contro " + d;
+                assertEquals(atteso[0], tabella.getProbabilitaConquista(a, d), TOLLERANZA, battaglia);
+                assertEquals(atteso[1], tabella.getArmateAttaccanteAttese(a, d), TOLLERANZA, battaglia);
+                assertEquals(atteso[2], tabella.getArmateDifensoreAttese(a, d), TOLLERANZA, battaglia);
+            }
+        }
+    }
+
+    @Test
+    void casiLimite() {
+        assertEquals(1.0, tabella.getProbabilitaConquista(1, 0), 0);
+        assertEquals(0.0, tabella.getProbabilitaConquista(1, 5), 0);
+        assertEquals(5.0, tabella.getArmateDifensoreAttese(1, 5), 0);
+        assertTrue(tabella.contiene(LIMITE, LIMITE));
+        assertFalse(tabella.contiene(0, 1));
+        assertFalse(tabella.contiene(LIMITE + 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> tabella.getProbabilitaConquista(LIMITE + 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TabellaBattaglie(0));
+    }
+
+    /*
+     * Esito atteso della battaglia (conquista, armate attaccante, armate difensore)
+     * calcolato lancio per lancio provando tutte le combinazioni dei dadi.
+     */
+    private static double[] battaglia(int a, int d, double[][][] memoria) {
+        if (memoria[a][d] != null) {
+            return memoria[a][d];
+        }
+        double[] esito;
+        if (d == 0) {
+            esito = new double[] { 1, a, 0 };
+        } else if (a == 1) {
+            esito = new double[] { 0, 1, d };
+        } else {
+            int dadiAttacco = Math.min(3, a - 1);
+            int dadiDifesa = Math.min(dadiAttacco, d);
+            int combinazioni = (int) Math.pow(6, dadiAttacco + dadiDifesa);
+            esito = new double[3];
+            for (int c = 0; c < combinazioni; c++) {
+                int[] attacco = new int[dadiAttacco];
+                int[] difesa = new int[dadiDifesa];
+                int resto = c;
+                for (int k = 0; k < dadiAttacco; k++, resto /= 6) {
+                    attacco[k] = resto % 6 + 1;
+                }
+                for (int k = 0; k < dadiDifesa; k++, resto /= 6) {
+                    difesa[k] = resto % 6 + 1;
+                }
+                Arrays.sort(attacco);
+                Arrays.sort(difesa);
+                int perditeAttaccante = 0;
+                int perditeDifensore = 0;
+                for (int k = 1; k <= dadiDifesa; k++) {
+                    if (attacco[dadiAttacco - k] > difesa[dadiDifesa - k]) {
+                        perditeDifensore++;
+                    } else {
+                        perditeAttaccante++;
+                    }
+                }
+                double[] successivo = battaglia(a - perditeAttaccante, d - perditeDifensore, memoria);
+                for (int k = 0; k < 3; k++) {
+                    esito[k] += successivo[k] / combinazioni;
+                }
+            }
+        }
+        memoria[a][d] = esito;
+        return esito;
+    }
+
+}
@@ -0,0 +1,109 @@
+package it.univaq.disim.lpo.risiko.core.input;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SorgenteInputTest {
+
+    @TempDir
+    Path cartella;
+
+    @Test
+    void codaLettaInOrdineFinoAllaTerminazione() {
+        SorgenteCoda coda = SorgenteInput.coda().aggiungi("1", "Alaska");
+        coda.aggiungi("3");
+        assertEquals(3, coda.getRigheInAttesa());
+
+        assertEquals("1", coda.leggiRiga());
+        assertEquals("Alaska", coda.leggiRiga());
+        coda.termina();
+        assertEquals(1, coda.getRigheInAttesa());
+        assertEquals("3", coda.leggiRiga());
+        assertNull(coda.leggiRiga());
+        assertNull(coda.leggiRiga());
+        assertThrows(IllegalStateException.class, () -> coda.aggiungi("4"));
+        assertFalse(coda.isInterattiva());
+    }
+
+    @Test
+    void codaAttendeLeRigheDiUnAltroThread() throws InterruptedException {
+        SorgenteCoda coda = SorgenteInput.coda();
+        Thread giocatore = new Thread(() -> {
+            for (int i = 0; i < 100; i++) {
+                coda.aggiungi(Integer.toString(i));
+            }
+            coda.termina();
+        });
+        giocatore.start();
+
+        List<String> lette = new ArrayList<>();
+        for (String riga = coda.leggiRiga(); riga != null; riga = coda.leggiRiga()) {
+            lette.add(riga);
+        }
+        giocatore.join();
+
+        assertEquals(100, lette.size());
+        for (int i = 0; i < lette.size(); i++) {
+            assertEquals(Integer.toString(i), lette.get(i));
+        }
+    }
+
+    @Test
+    void ogniSessioneLeggeLaPropriaSorgente() throws InterruptedException {
+        SorgenteSessione sessioni = SorgenteInput.perSessione(SorgenteInput.coda().aggiungi("predefinita"));
+        String[] lette = new String[2];
+        List<Thread> partite = new ArrayList<>();
+        for (int i = 0; i < lette.length; i++) {
+            int partita = i;
+            partite.add(new Thread(() -> {
+                sessioni.collega(SorgenteInput.coda().aggiungi("partita " + partita));
+                lette[partita] = sessioni.leggiRiga();
+                sessioni.scollega();
+            }));
+        }
+        partite.forEach(Thread::start);
+        for (Thread partita : partite) {
+            partita.join();
+        }
+
+        assertEquals("partita 0", lette[0]);
+        assertEquals("partita 1", lette[1]);
+        assertEquals("predefinita", sessioni.leggiRiga());
+        assertThrows(IllegalArgumentException.class, () -> sessioni.collega(null));
+    }
+
+    @Test
+    void scriptRegistratoRigiocatoUgualeAllInput() throws IOException {
+        Path file = cartella.resolve("partita.txt");
+        SorgenteCoda coda = SorgenteInput.coda().aggiungi("2", "Anna", "Bruno", "");
+        coda.termina();
+        List<String> giocate = new ArrayList<>();
+        try (SorgenteRegistrata registrata = new SorgenteRegistrata(coda, file)) {
+            for (String riga = registrata.leggiRiga(); riga != null; riga = registrata.leggiRiga()) {
+                giocate.add(riga);
+            }
+        }
+        assertEquals(giocate, Files.readAllLines(file, StandardCharsets.UTF_8));
+
+        List<String> rigiocate = new ArrayList<>();
+        try (SorgenteInput script = SorgenteInput.script(file)) {
+            for (String riga = script.leggiRiga(); riga != null; riga = script.leggiRiga()) {
+                rigiocate.add(riga);
+            }
+        }
+        assertEquals(giocate, rigiocate);
+    }
+
+}
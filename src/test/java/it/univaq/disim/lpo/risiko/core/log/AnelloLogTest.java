@@ -0,0 +1,90 @@
+package it.univaq.disim.lpo.risiko.core.log;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+class AnelloLogTest {
+
+    private static final int PRODUTTORI = 4;
+    private static final int MESSAGGI = 20_000;
+
+    @Test
+    void capacitaNonPotenzaDiDueRifiutata() {
+        assertThrows(IllegalArgumentException.class, () -> new AnelloLog(12));
+    }
+
+    @Test
+    void anelloPienoRifiutaFinoAlloSvuotamento() throws IOException {
+        AnelloLog anello = new AnelloLog(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(anello.offri("messaggio " + i, i));
+        }
+        assertFalse(anello.offri("di troppo", 4));
+        assertEquals(4, anello.getInAttesa());
+
+        List<String> consumati = new ArrayList<>();
+        assertEquals(4, anello.svuota((messaggio, istante) -> consumati.add(messaggio)));
+        assertEquals(List.of("messaggio 0", "messaggio 1", "messaggio 2", "messaggio 3"), consumati);
+        assertEquals(0, anello.getInAttesa());
+        assertTrue(anello.offri("di nuovo", 5));
+    }
+
+    @Test
+    void piuProduttoriSenzaPerditeENellOrdineDiOgniProduttore() throws Exception {
+        AnelloLog anello = new AnelloLog(64);
+        int[] prossimo = new int[PRODUTTORI];
+        List<String> errori = new ArrayList<>();
+        AnelloLog.Consumatore consumatore = (messaggio, istante) -> {
+            int produttore = Integer.parseInt(messaggio.substring(0, messaggio.indexOf(':')));
+            if (istante != prossimo[produttore]) {
+                errori.add("Produttore " + produttore + ": atteso " + prossimo[produttore] + ", ricevuto " + istante);
+            }
+            prossimo[produttore] = (int) istante + 1;
+        };
+
+        List<Thread> produttori = new ArrayList<>();
+        for (int p = 0; p < PRODUTTORI; p++) {
+            int produttore = p;
+            produttori.add(new Thread(() -> {
+                for (int i = 0; i < MESSAGGI; i++) {
+                    while (!anello.offri(produttore + ":" + i, i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }));
+        }
+        AtomicBoolean finito = new AtomicBoolean();
+        Thread scrittore = new Thread(() -> {
+            try {
+                while (!finito.get()) {
+                    anello.svuota(consumatore);
+                }
+                anello.svuota(consumatore);
+            } catch (IOException e) {
+                errori.add(e.getMessage());
+            }
+        });
+        scrittore.start();
+        produttori.forEach(Thread::start);
+        for (Thread produttore : produttori) {
+            produttore.join();
+        }
+        finito.set(true);
+        scrittore.join();
+
+        assertTrue(errori.isEmpty(), errori.isEmpty() ? "" : errori.get(0));
+        for (int p = 0; p < PRODUTTORI; p++) {
+            assertEquals(MESSAGGI, prossimo[p], "Messaggi consumati del produttore " + p);
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+package it.univaq.disim.lpo.risiko.core.log;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CanaleLogTest {
+
+    @TempDir
+    Path cartella;
+
+    @Test
+    void recordIncompletoDellIndiceVieneTroncato() throws IOException {
+        ByteArrayOutputStream byteIndice = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(byteIndice);
+        out.writeInt(IndiceLog.MAGIC);
+        IndiceLog.scriviRecord(out, 1, 0, 0);
+        // Scrittura interrotta a metà del record del round 2
+        out.write(new byte[] { 0, 0, 0, 2, 0, 0, 0 });
+        Files.write(cartella.resolve(IndiceLog.NOME_INDICE), byteIndice.toByteArray());
+
+        scriviRound(3);
+
+        assertRound(IndiceLog.carica(cartella), 1, 3);
+        assertEquals(4 + 2 * IndiceLog.DIMENSIONE_RECORD, Files.size(cartella.resolve(IndiceLog.NOME_INDICE)));
+    }
+
+    @Test
+    void indiceSenzaMagicVieneRiscritto() throws IOException {
+        Files.write(cartella.resolve(IndiceLog.NOME_INDICE), new byte[] { 0x52, 0x53 });
+
+        scriviRound(1);
+
+        assertRound(IndiceLog.carica(cartella), 1);
+        scriviRound(2);
+        assertRound(IndiceLog.carica(cartella), 1, 2);
+    }
+
+    private void scriviRound(int round) throws IOException {
+        CanaleLog canale = CanaleLog.apri(cartella);
+        canale.iniziaRound(round);
+        canale.scrivi("Inizio del round " + round);
+        canale.chiudi();
+    }
+
+    private static void assertRound(IndiceLog indice, int... round) {
+        List<IndiceLog.Posizione> posizioni = indice.getPosizioni();
+        assertEquals(round.length, posizioni.size());
+        for (int i = 0; i < round.length; i++) {
+            assertEquals(round[i], posizioni.get(i).getRound());
+        }
+    }
+
+}
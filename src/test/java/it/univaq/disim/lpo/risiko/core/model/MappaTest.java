@@ -0,0 +1,64 @@
+package it.univaq.disim.lpo.risiko.core.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import it.univaq.disim.lpo.risiko.core.engine.RegoleGioco;
+import it.univaq.disim.lpo.risiko.core.service.impl.MappaServiceImpl;
+
+class MappaTest {
+
+    @Test
+    void salvataggioJavaSenzaIdRicompilatoAllaLettura() throws IOException, ClassNotFoundException {
+        Mappa mappa = new MappaServiceImpl().getMappa();
+        Giocatore primo = new Giocatore("Primo", 0, new ArrayList<>(), 0);
+        Giocatore secondo = new Giocatore("Secondo", 0, new ArrayList<>(), 0);
+        for (Territorio territorio : mappa.getTerritori()) {
+            boolean oceania = territorio.getContinente() == mappa.getContinente("Oceania");
+            (oceania ? primo : secondo).aggiungiTerritorio(territorio);
+            territorio.setArmate(1);
+        }
+        primo.aggiungiTerritorio(mappa.getTerritorio("Alaska"));
+        secondo.rimuoviTerritorio(mappa.getTerritorio("Alaska"));
+        Gioco gioco = new Gioco("prova", new ArrayList<>(List.of(primo, secondo)), mappa, 6, new ArrayList<>(), new ArrayList<>());
+        // Come nei salvataggi precedenti alla topologia, tutti gli id valgono 0
+        for (Continente continente : mappa.getContinenti()) {
+            for (Territorio territorio : continente.getTerritori()) {
+                territorio.setId(0);
+            }
+        }
+
+        Gioco letto = rileggi(gioco);
+
+        Mappa mappaLetta = letto.getMappa();
+        Giocatore primoLetto = letto.getGiocatori().get(0);
+        for (int id = 0; id < mappaLetta.getTerritori().size(); id++) {
+            assertEquals(id, mappaLetta.getTerritori().get(id).getId());
+        }
+        assertSame(mappaLetta.getTerritori().get(mappaLetta.getTerritorio("Alaska").getId()), mappaLetta.getTerritorio("Alaska"));
+        assertEquals(1, RegoleGioco.numeroContinentiControllati(primoLetto, mappaLetta));
+        assertEquals(2, RegoleGioco.armateContinenti(primoLetto, mappaLetta));
+        assertEquals(4, RegoleGioco.numeroContinentiControllati(letto.getGiocatori().get(1), mappaLetta));
+    }
+
+    private static Gioco rileggi(Gioco gioco) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream dati = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(dati)) {
+            out.writeObject(gioco);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(dati.toByteArray()))) {
+            return (Gioco) in.readObject();
+        }
+    }
+
+}
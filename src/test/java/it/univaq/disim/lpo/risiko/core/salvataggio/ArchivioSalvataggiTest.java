@@ -0,0 +1,95 @@
+package it.univaq.disim.lpo.risiko.core.salvataggio;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ArchivioSalvataggiTest {
+
+    // Deve corrispondere alla soglia di compattazione dell'archivio
+    private static final long SOGLIA_COMPATTAZIONE = 1L << 20;
+
+    @TempDir
+    Path cartella;
+
+    @Test
+    void salvataggiLeggibiliDopoLaRiapertura() throws IOException {
+        Path file = cartella.resolve("archivio.rsk");
+        byte[] primo = dati(100, 1);
+        byte[] secondo = dati(300, 2);
+        byte[] primoAggiornato = dati(50, 3);
+
+        try (ArchivioSalvataggi archivio = ArchivioSalvataggi.apri(file)) {
+            archivio.salva("primo", primo);
+            archivio.salva("secondo", secondo);
+            archivio.salva("primo", primoAggiornato);
+            assertArrayEquals(primoAggiornato, bytes(archivio.leggi("primo")));
+        }
+
+        try (ArchivioSalvataggi archivio = ArchivioSalvataggi.apri(file)) {
+            assertEquals(2, archivio.getVoci().size());
+            assertEquals("primo", archivio.getVoci().get(0).getNome());
+            assertEquals("secondo", archivio.getVoci().get(1).getNome());
+            assertTrue(archivio.contiene("primo"));
+            assertFalse(archivio.contiene("terzo"));
+            assertNull(archivio.leggi("terzo"));
+            assertEquals(primoAggiornato.length, archivio.getVoce("primo").getLunghezza());
+            assertArrayEquals(primoAggiornato, bytes(archivio.leggi("primo")));
+            assertArrayEquals(secondo, bytes(archivio.leggi("secondo")));
+        }
+    }
+
+    @Test
+    void salvataggiRipetutiCompattanoLArchivio() throws IOException {
+        Path file = cartella.resolve("archivio.rsk");
+        int dimensione = 64 * 1024;
+        int ripetizioni = 200;
+        byte[] ultimo = null;
+
+        try (ArchivioSalvataggi archivio = ArchivioSalvataggi.apri(file)) {
+            archivio.salva("altro", dati(1000, 0));
+            for (int i = 1; i <= ripetizioni; i++) {
+                ultimo = dati(dimensione, i);
+                archivio.salva("partita", ultimo);
+                assertTrue(Files.size(file) <= 4 * SOGLIA_COMPATTAZIONE,
+                        "Archivio di " + Files.size(file) + " byte dopo " + i + " salvataggi");
+            }
+            assertArrayEquals(ultimo, bytes(archivio.leggi("partita")));
+        }
+
+        // Senza compattazione il file conterrebbe tutti i record
+        assertTrue(Files.size(file) < (long) dimensione * ripetizioni / 2);
+        try (ArchivioSalvataggi archivio = ArchivioSalvataggi.apri(file)) {
+            assertEquals(2, archivio.getVoci().size());
+            assertArrayEquals(ultimo, bytes(archivio.leggi("partita")));
+            assertArrayEquals(dati(1000, 0), bytes(archivio.leggi("altro")));
+        }
+    }
+
+    private static byte[] dati(int lunghezza, int seme) {
+        byte[] dati = new byte[lunghezza];
+        Arrays.fill(dati, (byte) seme);
+        for (int i = 0; i < lunghezza; i += 97) {
+            dati[i] = (byte) (i + seme);
+        }
+        return dati;
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] letti = new byte[buffer.remaining()];
+        buffer.duplicate().get(letti);
+        return letti;
+    }
+
+}
@@ -0,0 +1,93 @@
+package it.univaq.disim.lpo.risiko.core.salvataggio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CatalogoSalvataggiTest {
+
+    @TempDir
+    Path cartella;
+
+    @Test
+    void vinceLUltimoRecordDiOgniSalvataggio() throws IOException {
+        Path file = cartella.resolve("catalogo.idx");
+        try (CatalogoSalvataggi catalogo = CatalogoSalvataggi.apri(file)) {
+            catalogo.aggiorna(scheda("alfa", 1));
+            catalogo.aggiorna(scheda("beta", 1));
+            catalogo.aggiorna(scheda("alfa", 5));
+            catalogo.aggiorna(scheda("gamma", 2));
+            catalogo.rimuovi("gamma");
+        }
+
+        try (CatalogoSalvataggi catalogo = CatalogoSalvataggi.apri(file)) {
+            List<SchedaSalvataggio> schede = catalogo.getSchede();
+            assertEquals(2, schede.size());
+            assertEquals("alfa", schede.get(0).getNome());
+            assertEquals(5, schede.get(0).getRound());
+            assertEquals("Rosso", schede.get(0).getColori().get(0));
+            assertEquals("beta", schede.get(1).getNome());
+            assertFalse(catalogo.contiene("gamma"));
+            assertNull(catalogo.getScheda("gamma"));
+        }
+    }
+
+    @Test
+    void recordSuperatiCompattatiAllaRiapertura() throws IOException {
+        Path file = cartella.resolve("catalogo.idx");
+        try (CatalogoSalvataggi catalogo = CatalogoSalvataggi.apri(file)) {
+            for (int round = 1; round <= 200; round++) {
+                catalogo.aggiorna(scheda("alfa", round));
+            }
+        }
+        long dimensioneNonCompatta = Files.size(file);
+
+        try (CatalogoSalvataggi catalogo = CatalogoSalvataggi.apri(file)) {
+            assertEquals(200, catalogo.getScheda("alfa").getRound());
+        }
+        assertTrue(Files.size(file) < dimensioneNonCompatta / 100,
+            "Catalogo di " + Files.size(file) + " byte dopo la compattazione");
+        try (CatalogoSalvataggi catalogo = CatalogoSalvataggi.apri(file)) {
+            assertEquals(1, catalogo.getSchede().size());
+            assertEquals(200, catalogo.getScheda("alfa").getRound());
+        }
+    }
+
+    @Test
+    void ultimoRecordTroncatoIgnorato() throws IOException {
+        Path file = cartella.resolve("catalogo.idx");
+        try (CatalogoSalvataggi catalogo = CatalogoSalvataggi.apri(file)) {
+            catalogo.aggiorna(scheda("alfa", 1));
+            catalogo.aggiorna(scheda("alfa", 2));
+        }
+        try (FileChannel canale = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            canale.truncate(canale.size() - 5);
+        }
+
+        try (CatalogoSalvataggi catalogo = CatalogoSalvataggi.apri(file)) {
+            assertEquals(1, catalogo.getScheda("alfa").getRound());
+            catalogo.aggiorna(scheda("beta", 3));
+        }
+        try (CatalogoSalvataggi catalogo = CatalogoSalvataggi.apri(file)) {
+            assertEquals(1, catalogo.getScheda("alfa").getRound());
+            assertEquals(3, catalogo.getScheda("beta").getRound());
+        }
+    }
+
+    private static SchedaSalvataggio scheda(String nome, int round) {
+        return new SchedaSalvataggio(nome, 1000L * round, 100 + round, round, "Anna",
+            List.of("Anna", "Bruno"), List.of("Rosso", "Blu"));
+    }
+
+}
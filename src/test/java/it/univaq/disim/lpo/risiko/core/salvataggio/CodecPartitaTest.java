@@ -0,0 +1,129 @@
+package it.univaq.disim.lpo.risiko.core.salvataggio;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import it.univaq.disim.lpo.risiko.core.engine.Comando;
+import it.univaq.disim.lpo.risiko.core.engine.MotoreGioco;
+import it.univaq.disim.lpo.risiko.core.model.Carta;
+import it.univaq.disim.lpo.risiko.core.model.Giocatore;
+import it.univaq.disim.lpo.risiko.core.model.Gioco;
+import it.univaq.disim.lpo.risiko.core.model.Territorio;
+import it.univaq.disim.lpo.risiko.core.model.TurnoGioco;
+import it.univaq.disim.lpo.risiko.core.model.TurnoGioco.TurnPhase;
+
+class CodecPartitaTest {
+
+    @Test
+    void partitaAMetaTurnoDecodificataUgualeAllOriginale() throws IOException {
+        Gioco gioco = partitaInAttesaDelloSpostamento(11);
+        Giocatore primo = gioco.getGiocatori().get(0);
+        primo.aggiungiCarta(gioco.getMazzoDiCarte().pescaCarta());
+        primo.aggiungiCarta(gioco.getMazzoDiCarte().pescaCarta());
+
+        byte[] dati = CodecPartita.codifica(gioco);
+        assertTrue(CodecPartita.isFormatoBinario(dati));
+        Gioco copia = CodecPartita.decodifica(dati);
+
+        assertPartiteUguali(gioco, copia);
+        assertArrayEquals(dati, CodecPartita.codifica(copia));
+    }
+
+    @Test
+    void decodificaDaBufferSenzaCopie() throws IOException {
+        Gioco gioco = partitaInAttesaDelloSpostamento(23);
+        byte[] dati = CodecPartita.codifica(gioco);
+
+        Gioco copia = CodecPartita.decodifica(ByteBuffer.wrap(dati).asReadOnlyBuffer());
+
+        assertPartiteUguali(gioco, copia);
+    }
+
+    @Test
+    void partitaDecodificataProsegueComeLOriginale() throws IOException {
+        Gioco gioco = partitaInAttesaDelloSpostamento(5);
+        Gioco copia = CodecPartita.decodifica(CodecPartita.codifica(gioco));
+
+        MotoreGioco motore = new MotoreGioco();
+        for (int turno = 0; turno < 8 && gioco.isPartitaInCorso(); turno++) {
+            PartiteDiProva.giocaTurno(motore, gioco);
+            PartiteDiProva.giocaTurno(motore, copia);
+        }
+
+        assertPartiteUguali(gioco, copia);
+    }
+
+    /*
+     * Partita a metà di un turno, con una conquista in attesa dello spostamento delle armate.
+     */
+    private static Gioco partitaInAttesaDelloSpostamento(long seme) {
+        Gioco gioco = PartiteDiProva.nuova(seme);
+        MotoreGioco motore = new MotoreGioco();
+        for (int turno = 0; turno < 3; turno++) {
+            PartiteDiProva.giocaTurno(motore, gioco);
+        }
+        for (int turno = 0; turno < 20; turno++) {
+            if (PartiteDiProva.giocaFinoAllaConquista(motore, gioco)) {
+                assertEquals(TurnPhase.MOVE_AFTER_CONQUEST, gioco.getCurrentTurnState().getCurrentPhase());
+                return gioco;
+            }
+            motore.esegui(gioco, new Comando.TerminaTurno());
+        }
+        throw new AssertionError("Nessuna conquista con il seme " + seme + ".");
+    }
+
+    private static void assertPartiteUguali(Gioco atteso, Gioco gioco) {
+        assertEquals(atteso.getRoundCount(), gioco.getRoundCount());
+        assertEquals(atteso.getCurrentPlayerIndex(), gioco.getCurrentPlayerIndex());
+        assertEquals(atteso.isPartitaInCorso(), gioco.isPartitaInCorso());
+
+        for (Territorio territorio : atteso.getMappa().getTerritori()) {
+            Territorio decodificato = gioco.getMappa().getTerritorio(territorio.getNome());
+            assertEquals(territorio.getGiocatore().getNome(), decodificato.getGiocatore().getNome(), territorio.getNome());
+            assertEquals(territorio.getNumeroArmate(), decodificato.getNumeroArmate(), territorio.getNome());
+            assertTrue(decodificato.getGiocatore().possiede(decodificato), territorio.getNome());
+        }
+
+        assertEquals(atteso.getGiocatori().size(), gioco.getGiocatori().size());
+        for (int i = 0; i < atteso.getGiocatori().size(); i++) {
+            Giocatore giocatore = atteso.getGiocatori().get(i);
+            Giocatore decodificato = gioco.getGiocatori().get(i);
+            assertEquals(giocatore.getNome(), decodificato.getNome());
+            assertEquals(giocatore.getNumeroTerritori(), decodificato.getNumeroTerritori());
+            assertCarteUguali(giocatore.getCarte(), decodificato.getCarte());
+        }
+        assertCarteUguali(atteso.getMazzoDiCarte().getCarte(), gioco.getMazzoDiCarte().getCarte());
+
+        TurnoGioco turno = atteso.getCurrentTurnState();
+        TurnoGioco turnoDecodificato = gioco.getCurrentTurnState();
+        assertEquals(turno.getCurrentPhase(), turnoDecodificato.getCurrentPhase());
+        assertEquals(turno.getArmateDaDistribuire(), turnoDecodificato.getArmateDaDistribuire());
+        assertEquals(turno.getArmateTotali(), turnoDecodificato.getArmateTotali());
+        assertEquals(turno.getTerritorioOrigineConquista(), turnoDecodificato.getTerritorioOrigineConquista());
+        assertEquals(turno.getTerritorioConquistato(), turnoDecodificato.getTerritorioConquistato());
+        assertEquals(turno.getArmateMinimeConquista(), turnoDecodificato.getArmateMinimeConquista());
+
+        assertEquals(atteso.getGeneratore().getSeme(), gioco.getGeneratore().getSeme());
+        assertEquals(atteso.getGeneratore().getStato(), gioco.getGeneratore().getStato());
+        assertNotSame(atteso.getGeneratore(), gioco.getGeneratore());
+    }
+
+    private static void assertCarteUguali(List<Carta> attese, List<Carta> carte) {
+        assertEquals(attese.size(), carte.size());
+        for (int i = 0; i < attese.size(); i++) {
+            assertEquals(attese.get(i).getTipo(), carte.get(i).getTipo());
+            Territorio territorio = attese.get(i).getTerritorio();
+            assertEquals(territorio == null ? null : territorio.getNome(),
+                carte.get(i).getTerritorio() == null ? null : carte.get(i).getTerritorio().getNome());
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+package it.univaq.disim.lpo.risiko.core.salvataggio;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import it.univaq.disim.lpo.risiko.core.engine.Comando;
+import it.univaq.disim.lpo.risiko.core.engine.MotoreGioco;
+import it.univaq.disim.lpo.risiko.core.model.Gioco;
+
+class DiarioPartitaTest {
+
+    private static final String NOME = "partita";
+
+    @TempDir
+    Path cartella;
+
+    @Test
+    void recuperaTuttiIComandiRegistrati() throws IOException {
+        Gioco gioco = PartiteDiProva.nuova(3);
+        DiarioPartita diario = DiarioPartita.crea(cartella, NOME, gioco);
+        List<Comando> comandi = gioca(diario, gioco);
+        diario.close();
+
+        DiarioPartita recuperato = DiarioPartita.recupera(cartella, NOME);
+
+        assertEquals(comandi.size(), recuperato.getComandiRecuperati());
+        assertArrayEquals(CodecPartita.codifica(gioco), CodecPartita.codifica(recuperato.getGioco()));
+        recuperato.termina();
+    }
+
+    @Test
+    void recordTroncatoVieneScartatoAlRecupero() throws IOException {
+        Gioco gioco = PartiteDiProva.nuova(8);
+        Gioco iniziale = CodecPartita.decodifica(CodecPartita.codifica(gioco));
+        DiarioPartita diario = DiarioPartita.crea(cartella, NOME, gioco);
+        List<Comando> comandi = gioca(diario, gioco);
+        diario.close();
+
+        // Interruzione durante la scrittura dell'ultimo record: ne manca parte del CRC
+        Path fileDiario = unicoDiario();
+        try (FileChannel canale = FileChannel.open(fileDiario, StandardOpenOption.WRITE)) {
+            canale.truncate(canale.size() - 3);
+        }
+
+        DiarioPartita recuperato = DiarioPartita.recupera(cartella, NOME);
+
+        MotoreGioco motore = new MotoreGioco();
+        for (Comando comando : comandi.subList(0, comandi.size() - 1)) {
+            assertTrue(motore.esegui(iniziale, comando).isAccettato());
+        }
+        assertEquals(comandi.size() - 1, recuperato.getComandiRecuperati());
+        assertArrayEquals(CodecPartita.codifica(iniziale), CodecPartita.codifica(recuperato.getGioco()));
+        assertFalse(Arrays.equals(CodecPartita.codifica(gioco), CodecPartita.codifica(recuperato.getGioco())));
+        recuperato.termina();
+    }
+
+    /*
+     * Gioca due turni con il diario registrato sul motore, senza arrivare
+     * a una nuova generazione.
+     */
+    private static List<Comando> gioca(DiarioPartita diario, Gioco gioco) {
+        MotoreGioco motore = new MotoreGioco();
+        motore.setRegistroComandi(diario);
+        List<Comando> comandi = new ArrayList<>();
+        for (int turno = 0; turno < 2; turno++) {
+            comandi.addAll(PartiteDiProva.giocaTurno(motore, gioco));
+        }
+        assertTrue(comandi.size() > 2);
+        return comandi;
+    }
+
+    private Path unicoDiario() throws IOException {
+        List<Path> diari;
+        try (Stream<Path> file = Files.list(cartella)) {
+            diari = file.filter(f -> f.getFileName().toString().endsWith(".diario")).collect(Collectors.toList());
+        }
+        assertEquals(1, diari.size());
+        return diari.get(0);
+    }
+
+}
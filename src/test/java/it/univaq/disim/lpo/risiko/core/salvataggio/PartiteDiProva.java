@@ -0,0 +1,136 @@
+package it.univaq.disim.lpo.risiko.core.salvataggio;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import it.univaq.disim.lpo.risiko.core.engine.Comando;
+import it.univaq.disim.lpo.risiko.core.engine.EventoGioco;
+import it.univaq.disim.lpo.risiko.core.engine.MotoreGioco;
+import it.univaq.disim.lpo.risiko.core.engine.RisultatoComando;
+import it.univaq.disim.lpo.risiko.core.model.GeneratoreCasuale;
+import it.univaq.disim.lpo.risiko.core.model.Giocatore;
+import it.univaq.disim.lpo.risiko.core.model.Gioco;
+import it.univaq.disim.lpo.risiko.core.model.Mappa;
+import it.univaq.disim.lpo.risiko.core.model.MazzoDiCarte;
+import it.univaq.disim.lpo.risiko.core.model.Territorio;
+import it.univaq.disim.lpo.risiko.core.service.impl.CartaObiettivoServiceImpl;
+import it.univaq.disim.lpo.risiko.core.service.impl.GiocatoreServiceImpl;
+import it.univaq.disim.lpo.risiko.core.service.impl.MappaServiceImpl;
+import it.univaq.disim.lpo.risiko.core.utils.OutputUtils;
+import it.univaq.disim.lpo.risiko.core.utils.Uscita;
+
+/**
+ * Partite deterministiche per i test dei salvataggi: a parità di seme producono
+ * sempre gli stessi territori, armate e comandi.
+ */
+final class PartiteDiProva {
+
+    private PartiteDiProva() {
+    }
+
+    /**
+     * Crea una partita a quattro giocatori con territori e armate già distribuiti.
+     */
+    static Gioco nuova(long seme) {
+        OutputUtils.setUscita(Uscita.nessuna());
+        GeneratoreCasuale generatore = new GeneratoreCasuale(seme);
+        Mappa mappa = new MappaServiceImpl().getMappa();
+        List<Giocatore> giocatori = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            giocatori.add(new Giocatore("Giocatore" + i, 0, new ArrayList<>(), 0));
+        }
+        CartaObiettivoServiceImpl obiettivi = new CartaObiettivoServiceImpl();
+        obiettivi.assegnaObiettiviCasuali(giocatori, obiettivi.generaObiettiviCasuali(giocatori.size(), generatore), generatore);
+        new GiocatoreServiceImpl().distribuzioneTerritori(giocatori, mappa, generatore);
+        for (Giocatore giocatore : giocatori) {
+            for (Territorio territorio : giocatore.getTerritori_controllati()) {
+                territorio.aggiungiArmate(1 + generatore.nextInt(3));
+            }
+        }
+
+        Gioco gioco = new Gioco("prova", giocatori, mappa, 6, new ArrayList<>(), new ArrayList<>());
+        gioco.setGeneratore(generatore);
+        gioco.setArmateDistribuite(true);
+        gioco.setMazzoDiCarte(new MazzoDiCarte(mappa.getTerritori(), generatore));
+        return gioco;
+    }
+
+    /**
+     * Gioca un turno completo del giocatore corrente.
+     *
+     * @return i comandi accettati dal motore, nell'ordine di esecuzione.
+     */
+    static List<Comando> giocaTurno(MotoreGioco motore, Gioco gioco) {
+        List<Comando> eseguiti = new ArrayList<>();
+        rinforzaEAttacca(motore, gioco, eseguiti, false);
+        esegui(motore, gioco, new Comando.TerminaTurno(), eseguiti);
+        return eseguiti;
+    }
+
+    /**
+     * Gioca il turno del giocatore corrente fino alla prima conquista, lasciando la
+     * partita in attesa dello spostamento delle armate nel territorio conquistato.
+     *
+     * @return true se il giocatore ha conquistato un territorio.
+     */
+    static boolean giocaFinoAllaConquista(MotoreGioco motore, Gioco gioco) {
+        return rinforzaEAttacca(motore, gioco, new ArrayList<>(), true);
+    }
+
+    private static boolean rinforzaEAttacca(MotoreGioco motore, Gioco gioco, List<Comando> eseguiti, boolean fermaAllaConquista) {
+        Giocatore giocatore = motore.getGiocatoreCorrente(gioco);
+        motore.avviaTurno(gioco);
+        esegui(motore, gioco, new Comando.PosizionaArmate(fronte(gioco, giocatore).getNome(),
+            gioco.getCurrentTurnState().getArmateDaDistribuire()), eseguiti);
+
+        boolean attaccato = true;
+        while (attaccato && gioco.isPartitaInCorso()) {
+            attaccato = false;
+            for (Territorio origine : new ArrayList<>(giocatore.getTerritori_controllati())) {
+                Territorio destinazione = bersaglio(gioco, giocatore, origine);
+                if (origine.getNumeroArmate() < 3 || destinazione == null) {
+                    continue;
+                }
+                RisultatoComando risultato = esegui(motore, gioco, new Comando.AttaccoBlitz(origine.getNome(), destinazione.getNome()), eseguiti);
+                if (risultato.getEvento(EventoGioco.TipoEvento.CONQUISTA) != null) {
+                    if (fermaAllaConquista) {
+                        return true;
+                    }
+                    esegui(motore, gioco, new Comando.SpostaArmateConquista(origine.getNumeroArmate() - 1), eseguiti);
+                }
+                attaccato = risultato.isAccettato();
+                break;
+            }
+        }
+        return false;
+    }
+
+    private static RisultatoComando esegui(MotoreGioco motore, Gioco gioco, Comando comando, List<Comando> eseguiti) {
+        RisultatoComando risultato = motore.esegui(gioco, comando);
+        if (risultato.isAccettato()) {
+            eseguiti.add(comando);
+        }
+        return risultato;
+    }
+
+    // Primo territorio del giocatore confinante con un avversario
+    private static Territorio fronte(Gioco gioco, Giocatore giocatore) {
+        for (Territorio territorio : giocatore.getTerritori_controllati()) {
+            if (bersaglio(gioco, giocatore, territorio) != null) {
+                return territorio;
+            }
+        }
+        return giocatore.getTerritori_controllati().get(0);
+    }
+
+    private static Territorio bersaglio(Gioco gioco, Giocatore giocatore, Territorio origine) {
+        for (Territorio adiacente : origine.getTerritoriAdiacenti()) {
+            Territorio territorio = gioco.getMappa().getTerritorio(adiacente.getNome());
+            if (!giocatore.possiede(territorio)) {
+                return territorio;
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,167 @@
+package it.univaq.disim.lpo.risiko.core.salvataggio;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import it.univaq.disim.lpo.risiko.core.salvataggio.ScritturaDurevole.Livello;
+
+class ScritturaDurevoleTest {
+
+    private static final int THREAD = 4;
+
+    @TempDir
+    Path cartella;
+
+    private final ScritturaDurevole durevole = ScritturaDurevole.getInstance();
+
+    private static final class Contatore implements ScritturaDurevole.Sincronizzabile {
+
+        private final AtomicInteger sincronizzazioni = new AtomicInteger();
+
+        @Override
+        public void sincronizza() {
+            sincronizzazioni.incrementAndGet();
+        }
+    }
+
+    @AfterEach
+    void ripristinaLivello() {
+        durevole.configura(Livello.FLUSH, ScritturaDurevole.INTERVALLO_GRUPPO_PREDEFINITO);
+    }
+
+    @Test
+    void fsyncAdOgniAggiunta() throws IOException {
+        durevole.configura(Livello.FSYNC, ScritturaDurevole.INTERVALLO_GRUPPO_PREDEFINITO);
+        Contatore risorsa = new Contatore();
+        for (int i = 0; i < 5; i++) {
+            durevole.dopoAggiunta(risorsa);
+        }
+
+        assertEquals(5, risorsa.sincronizzazioni.get());
+    }
+
+    @Test
+    void gruppoRaggruppaLeAggiuntePiuThread() throws Exception {
+        // Intervallo lungo: la fsync di gruppo parte solo alla riconfigurazione
+        durevole.configura(Livello.GRUPPO, 60_000);
+        Contatore risorsa = new Contatore();
+        Contatore altra = new Contatore();
+        eseguiInParallelo(indice -> {
+            for (int i = 0; i < 100; i++) {
+                durevole.dopoAggiunta(indice % 2 == 0 ? risorsa : altra);
+            }
+        });
+        assertEquals(0, risorsa.sincronizzazioni.get());
+
+        durevole.configura(Livello.FLUSH, ScritturaDurevole.INTERVALLO_GRUPPO_PREDEFINITO);
+        assertEquals(1, risorsa.sincronizzazioni.get());
+        assertEquals(1, altra.sincronizzazioni.get());
+    }
+
+    @Test
+    void chiusuraForzaSoloLeRisorseInAttesa() throws IOException {
+        durevole.configura(Livello.GRUPPO, 60_000);
+        Contatore risorsa = new Contatore();
+        durevole.primaDellaChiusura(risorsa);
+        assertEquals(0, risorsa.sincronizzazioni.get());
+
+        durevole.dopoAggiunta(risorsa);
+        durevole.dopoAggiunta(risorsa);
+        durevole.primaDellaChiusura(risorsa);
+        assertEquals(1, risorsa.sincronizzazioni.get());
+
+        durevole.configura(Livello.FLUSH, ScritturaDurevole.INTERVALLO_GRUPPO_PREDEFINITO);
+        assertEquals(1, risorsa.sincronizzazioni.get());
+    }
+
+    @Test
+    void fileDelGruppoScrittiPrimaDiRitornare() throws Exception {
+        durevole.configura(Livello.GRUPPO, 5);
+        eseguiInParallelo(indice -> {
+            for (int i = 0; i < 10; i++) {
+                durevole.scriviFile(cartella.resolve("partita" + indice + ".sav"), contenuto(indice, i));
+                assertArrayEquals(contenuto(indice, i), Files.readAllBytes(cartella.resolve("partita" + indice + ".sav")));
+            }
+        });
+
+        try (Stream<Path> file = Files.list(cartella)) {
+            List<Path> elenco = file.toList();
+            assertEquals(THREAD, elenco.size(), "File nella cartella: " + elenco);
+        }
+        for (int indice = 0; indice < THREAD; indice++) {
+            assertArrayEquals(contenuto(indice, 9), Files.readAllBytes(cartella.resolve("partita" + indice + ".sav")));
+        }
+    }
+
+    @Test
+    void cambioDiLivelloNonBloccaLeScrittureInCorso() throws Exception {
+        Path file = cartella.resolve("partita.sav");
+        for (int i = 0; i < 100; i++) {
+            int versione = i;
+            List<Throwable> errori = new ArrayList<>();
+            durevole.configura(Livello.GRUPPO, 60_000);
+            Thread scrittura = new Thread(() -> {
+                try {
+                    durevole.scriviFile(file, contenuto(0, versione));
+                } catch (Throwable e) {
+                    errori.add(e);
+                }
+            });
+            scrittura.start();
+            // La scrittura può arrivare alla coda dopo che il gruppo è stato disattivato
+            durevole.configura(Livello.FLUSH, ScritturaDurevole.INTERVALLO_GRUPPO_PREDEFINITO);
+            scrittura.join(5_000);
+
+            assertFalse(scrittura.isAlive(), "Scrittura ancora in attesa della fsync di gruppo");
+            assertTrue(errori.isEmpty(), "Errori nella scrittura: " + errori);
+            assertArrayEquals(contenuto(0, versione), Files.readAllBytes(file));
+        }
+    }
+
+    private interface Lavoro {
+
+        void esegui(int indice) throws Exception;
+    }
+
+    private static void eseguiInParallelo(Lavoro lavoro) throws Exception {
+        List<Thread> thread = new ArrayList<>();
+        List<Throwable> errori = new ArrayList<>();
+        for (int t = 0; t < THREAD; t++) {
+            int indice = t;
+            thread.add(new Thread(() -> {
+                try {
+                    lavoro.esegui(indice);
+                } catch (Throwable e) {
+                    synchronized (errori) {
+                        errori.add(e);
+                    }
+                }
+            }));
+        }
+        thread.forEach(Thread::start);
+        for (Thread t : thread) {
+            t.join();
+        }
+        assertTrue(errori.isEmpty(), "Errori nei thread: " + errori);
+    }
+
+    private static byte[] contenuto(int indice, int versione) {
+        return ("partita " + indice + " versione " + versione).getBytes(StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,107 @@
+package it.univaq.disim.lpo.risiko.core.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import it.univaq.disim.lpo.risiko.core.InputManagerSingleton;
+import it.univaq.disim.lpo.risiko.core.input.SorgenteCoda;
+import it.univaq.disim.lpo.risiko.core.input.SorgenteInput;
+import it.univaq.disim.lpo.risiko.core.log.LivelloLog;
+import it.univaq.disim.lpo.risiko.core.model.GeneratoreCasuale;
+import it.univaq.disim.lpo.risiko.core.model.Giocatore;
+import it.univaq.disim.lpo.risiko.core.model.Mappa;
+import it.univaq.disim.lpo.risiko.core.model.Territorio;
+import it.univaq.disim.lpo.risiko.core.utils.OutputUtils;
+import it.univaq.disim.lpo.risiko.core.utils.PausaUtils;
+import it.univaq.disim.lpo.risiko.core.utils.Ritmo;
+import it.univaq.disim.lpo.risiko.core.utils.Schermata;
+import it.univaq.disim.lpo.risiko.core.utils.Uscita;
+
+class GiocatoreServiceImplTest {
+
+    private static final String PULISCI_SCHERMO = "\033[H\033[2J";
+
+    // Ogni schermata scritta sulla console, separatamente
+    private final List<String> scritture = new ArrayList<>();
+    private Uscita uscitaOriginale;
+    private SorgenteInput sorgenteOriginale;
+    private LivelloLog livelloOriginale;
+
+    @BeforeEach
+    void preparaConsole() {
+        uscitaOriginale = OutputUtils.getUscita();
+        sorgenteOriginale = InputManagerSingleton.getInstance().getSorgente();
+        livelloOriginale = FileServiceImpl.getInstance().getLivelloLog();
+        OutputUtils.setUscita(new Uscita() {
+
+            @Override
+            public void scrivi(String testo) {
+                scritture.add(testo);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public boolean isAnsi() {
+                return true;
+            }
+        });
+        PausaUtils.setRitmo(Ritmo.nessuno());
+        FileServiceImpl.getInstance().setLivelloLog(LivelloLog.NESSUNO);
+        Schermata.getInstance().setRigheTerminale(40);
+    }
+
+    @AfterEach
+    void ripristinaConsole() {
+        OutputUtils.setUscita(uscitaOriginale);
+        InputManagerSingleton.getInstance().setSorgente(sorgenteOriginale);
+        FileServiceImpl.getInstance().setLivelloLog(livelloOriginale);
+        PausaUtils.setRitmo(Ritmo.interattivo());
+    }
+
+    @Test
+    void distribuzioneInizialeRidisegnaSoloLeRigheCambiate() {
+        Mappa mappa = new MappaServiceImpl().getMappa();
+        List<Giocatore> giocatori = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            giocatori.add(new Giocatore("Giocatore" + i, 0, new ArrayList<>(), 0));
+        }
+        GiocatoreServiceImpl service = new GiocatoreServiceImpl();
+        service.distribuzioneTerritori(giocatori, mappa, new GeneratoreCasuale(1));
+        Giocatore primo = giocatori.get(0);
+        Territorio scelto = primo.getTerritori_controllati().get(0);
+        int territori = primo.getTerritori_controllati().size();
+
+        SorgenteCoda coda = SorgenteInput.coda();
+        for (int i = 0; i < 4; i++) {
+            coda.aggiungi("1");
+        }
+        InputManagerSingleton.getInstance().setSorgente(coda);
+        service.distribuzioneInizialeArmate(List.of(primo), territori + 4);
+
+        assertEquals(5, scelto.getNumeroArmate());
+        List<String> schermate = new ArrayList<>();
+        for (String scrittura : scritture) {
+            if (scrittura.startsWith("\033[")) {
+                schermate.add(scrittura);
+            }
+        }
+        assertEquals(4, schermate.size());
+        assertTrue(schermate.get(0).startsWith(PULISCI_SCHERMO));
+        for (String schermata : schermate.subList(1, schermate.size())) {
+            // Cambiano solo le armate da distribuire, quelle del territorio scelto e la richiesta
+            assertTrue(schermata.startsWith("\033[6;1H"), schermata);
+            assertEquals(3, schermata.split("\033\\[\\d+;1H", -1).length - 1, schermata);
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+package it.univaq.disim.lpo.risiko.core.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class RitmoTest {
+
+    @AfterEach
+    void ripristinaRitmo() {
+        PausaUtils.setRitmo(Ritmo.interattivo());
+    }
+
+    @Test
+    void pauseDelegateAlRitmoImpostato() {
+        List<Long> pause = new ArrayList<>();
+        PausaUtils.setRitmo(pause::add);
+
+        PausaUtils.pausa(1500);
+        PausaUtils.pausa(200);
+
+        assertEquals(List.of(1500L, 200L), pause);
+        assertThrows(IllegalArgumentException.class, () -> PausaUtils.setRitmo(null));
+    }
+
+    @Test
+    void nessunRitmoNonAttende() {
+        long inizio = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            Ritmo.nessuno().pausa(60_000);
+        }
+        assertTrue(System.nanoTime() - inizio < 1_000_000_000L);
+    }
+
+    @Test
+    void ritmoScalatoMoltiplicaLaDurata() {
+        long inizio = System.nanoTime();
+        Ritmo.scalato(0.01).pausa(3000);
+        long trascorsi = (System.nanoTime() - inizio) / 1_000_000;
+
+        assertTrue(trascorsi >= 25 && trascorsi < 3000, "Pausa di " + trascorsi + " ms");
+        assertEquals(0.1, ((RitmoScalato) Ritmo.veloce()).getFattore(), 0);
+        assertEquals(1.0, ((RitmoScalato) Ritmo.interattivo()).getFattore(), 0);
+    }
+
+    @Test
+    void fattoriNonValidiRifiutati() {
+        assertThrows(IllegalArgumentException.class, () -> Ritmo.scalato(-1));
+        assertThrows(IllegalArgumentException.class, () -> Ritmo.scalato(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> Ritmo.scalato(Double.POSITIVE_INFINITY));
+    }
+
+}
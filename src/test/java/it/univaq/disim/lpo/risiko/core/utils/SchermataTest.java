@@ -0,0 +1,171 @@
+package it.univaq.disim.lpo.risiko.core.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import it.univaq.disim.lpo.risiko.core.model.Giocatore;
+
+class SchermataTest {
+
+    private static final String PULISCI_SCHERMO = "\033[H\033[2J";
+
+    private final Schermata schermata = Schermata.getInstance();
+    private final UscitaMemoria console = new UscitaMemoria(true);
+    private Uscita originale;
+
+    @BeforeEach
+    void catturaConsole() {
+        originale = OutputUtils.getUscita();
+        OutputUtils.setUscita(console);
+        schermata.setRigheTerminale(24);
+    }
+
+    @AfterEach
+    void ripristinaConsole() {
+        OutputUtils.setUscita(originale);
+    }
+
+    @Test
+    void schermataScrittaComeLeStampeRigaPerRiga() {
+        OutputUtils.println("Titolo", OutputUtils.ANSI_BRIGHT_GREEN, OutputUtils.ANSI_BOLD);
+        OutputUtils.print("1. ", OutputUtils.ANSI_WHITE, OutputUtils.ANSI_BOLD, OutputUtils.ANSI_BLINK);
+        OutputUtils.println("Attacca", OutputUtils.ANSI_BRIGHT_CYAN, OutputUtils.ANSI_BOLD);
+        OutputUtils.println();
+        String rigaPerRiga = letto();
+
+        schermata.riga("Titolo", Stile.TITOLO).testo("1. ", Stile.VOCE_MENU).riga("Attacca", Stile.EVIDENZA).riga();
+        assertEquals("", letto());
+        schermata.mostra();
+
+        assertEquals(rigaPerRiga, letto());
+    }
+
+    @Test
+    void bufferSvuotatoDopoOgniSchermata() {
+        schermata.pulisci().riga("prima", Stile.NORMALE).mostra();
+        assertEquals(PULISCI_SCHERMO + "prima\n" + OutputUtils.ANSI_RESET, letto());
+
+        schermata.mostra();
+        assertEquals("", letto());
+
+        schermata.riga("seconda", Stile.GRASSETTO).mostra();
+        assertEquals(OutputUtils.ANSI_BOLD + "seconda\n" + OutputUtils.ANSI_RESET, letto());
+    }
+
+    @Test
+    void intestazioneDelTurno() {
+        OutputUtils.printTurnHeader(new Giocatore("Anna", 0, new ArrayList<>(), 0));
+
+        String attesa = Stile.CORNICE.getPrefisso() + "\n══════════════════════\n" + OutputUtils.ANSI_RESET
+            + OutputUtils.ANSI_BOLD + "E' IL TURNO DI ANNA\n" + OutputUtils.ANSI_RESET
+            + Stile.CORNICE.getPrefisso() + "══════════════════════\n" + OutputUtils.ANSI_RESET;
+        assertEquals(attesa, letto());
+    }
+
+    @Test
+    void ridisegnoRiscriveSoloLeRigheCambiate() {
+        menu("Tre armate").mostra();
+        assertTrue(letto().startsWith(PULISCI_SCHERMO));
+
+        menu("Due armate").mostra();
+        String differenze = letto();
+
+        assertFalse(differenze.contains(PULISCI_SCHERMO));
+        assertFalse(differenze.contains("Territori"));
+        assertFalse(differenze.contains("\033[1;1H"));
+        assertTrue(differenze.contains("\033[2;1H" + OutputUtils.ANSI_RESET + "Due armate"));
+        assertFalse(differenze.contains("\033[3;1H"));
+        // La richiesta finale è sempre riscritta, poi si cancella il resto dello schermo
+        assertTrue(differenze.contains("\033[4;1H"));
+        assertTrue(differenze.endsWith("\033[J"));
+    }
+
+    @Test
+    void stampaFuoriDallaSchermataRichiedeUnaStampaIntera() {
+        menu("Tre armate").mostra();
+        OutputUtils.println("Messaggio", Stile.NORMALE);
+        letto();
+
+        menu("Tre armate").mostra();
+        assertTrue(letto().startsWith(PULISCI_SCHERMO));
+    }
+
+    @Test
+    void schermataPiuAltaDellaConsoleStampataPerIntero() {
+        schermata.setRigheTerminale(5);
+        menu("Tre armate").mostra();
+        letto();
+
+        menu("Due armate").mostra();
+        assertTrue(letto().startsWith(PULISCI_SCHERMO));
+    }
+
+    @Test
+    void avvisoAccodatoLasciaLaSchermataRidisegnabile() {
+        menu("Tre armate").mostra();
+        schermata.riga("\nScelta non consentita.", Stile.NORMALE).mostra();
+        letto();
+
+        menu("Tre armate").mostra();
+        String differenze = letto();
+        assertFalse(differenze.contains(PULISCI_SCHERMO));
+        assertTrue(differenze.startsWith("\033[4;1H"));
+    }
+
+    @Test
+    void avvisoCheFaScorrereLaConsoleRichiedeUnaStampaIntera() {
+        schermata.setRigheTerminale(8);
+        menu("Tre armate").mostra();
+        schermata.riga("\nPrima riga.\nSeconda riga.", Stile.NORMALE).mostra();
+        letto();
+
+        menu("Tre armate").mostra();
+        assertTrue(letto().startsWith(PULISCI_SCHERMO));
+    }
+
+    @Test
+    void uscitaDiTestoSenzaCodiciAnsi() {
+        UscitaMemoria testo = Uscita.memoria();
+        OutputUtils.setUscita(testo);
+
+        OutputUtils.println("Titolo", OutputUtils.ANSI_BRIGHT_GREEN, OutputUtils.ANSI_BOLD);
+        menu("Tre armate").mostra();
+        menu("Due armate").mostra();
+
+        assertEquals("Titolo\nTerritori\nTre armate\nAlaska\nScelta: Territori\nDue armate\nAlaska\nScelta: ",
+            testo.getTesto());
+    }
+
+    @Test
+    void uscitaNonAttivaNonScriveNulla() {
+        OutputUtils.setUscita(Uscita.nessuna());
+
+        OutputUtils.println("Titolo", Stile.TITOLO);
+        menu("Tre armate").mostra();
+        OutputUtils.setUscita(console);
+
+        assertEquals("", letto());
+        menu("Tre armate").mostra();
+        assertTrue(letto().startsWith(PULISCI_SCHERMO));
+    }
+
+    private Schermata menu(String armate) {
+        return schermata.ridisegna()
+            .riga("Territori", Stile.TITOLO)
+            .riga(armate, Stile.NORMALE)
+            .riga("Alaska", Stile.NORMALE)
+            .testo("Scelta: ", Stile.RICHIESTA);
+    }
+
+    private String letto() {
+        return console.svuota();
+    }
+
+}